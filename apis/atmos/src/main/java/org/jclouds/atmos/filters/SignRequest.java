@@ -41,7 +41,6 @@ import org.jclouds.http.HttpRequestFilter;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.internal.SignatureWire;
 import org.jclouds.logging.Logger;
-import org.jclouds.util.Strings2;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
@@ -116,7 +115,7 @@ public class SignRequest implements HttpRequestFilter {
    public String calculateSignature(String toSign) {
       String signature = signString(toSign);
       if (signatureWire.enabled())
-         signatureWire.input(Strings2.toInputStream(signature));
+         signatureWire.input(signature);
       return signature;
    }
 
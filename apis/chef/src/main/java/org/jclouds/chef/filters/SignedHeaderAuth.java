@@ -48,7 +48,6 @@ import org.jclouds.io.payloads.MultipartForm;
 import org.jclouds.io.payloads.Part;
 import org.jclouds.io.payloads.RSAEncryptingPayload;
 import org.jclouds.logging.Logger;
-import org.jclouds.util.Strings2;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
@@ -114,7 +113,7 @@ public class SignedHeaderAuth implements HttpRequestFilter {
    HttpRequest calculateAndReplaceAuthorizationHeaders(HttpRequest request, String toSign) throws HttpException {
       String signature = sign(toSign);
       if (signatureWire.enabled())
-         signatureWire.input(Strings2.toInputStream(signature));
+         signatureWire.input(signature);
       String[] signatureLines = Iterables.toArray(Splitter.fixedLength(60).split(signature), String.class);
 
       Multimap<String, String> headers = ArrayListMultimap.create();
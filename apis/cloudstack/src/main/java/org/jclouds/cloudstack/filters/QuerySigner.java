@@ -102,7 +102,7 @@ public class QuerySigner implements AuthenticationFilter, RequestSigner {
          ByteProcessor<byte[]> hmacSHA1 = asByteProcessor(crypto.hmacSHA1(creds.get().credential.getBytes()));
          signature = base64().encode(readBytes(toInputStream(toSign), hmacSHA1));
          if (signatureWire.enabled())
-            signatureWire.input(toInputStream(signature));
+            signatureWire.input(signature);
          return signature;
       } catch (InvalidKeyException e) {
          throw propagate(e);
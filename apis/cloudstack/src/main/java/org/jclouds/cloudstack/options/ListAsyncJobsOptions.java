@@ -21,7 +21,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.Date;
 
 import org.jclouds.date.DateService;
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.FixedLayoutDateService;
 
 import com.google.common.collect.ImmutableSet;
 
@@ -33,7 +33,7 @@ import com.google.common.collect.ImmutableSet;
  *      />
  */
 public class ListAsyncJobsOptions extends AccountInDomainOptions {
-   private static final DateService dateService = new SimpleDateFormatDateService();
+   private static final DateService dateService = new FixedLayoutDateService();
 
    public static final ListAsyncJobsOptions NONE = new ListAsyncJobsOptions();
 
@@ -24,7 +24,7 @@ import java.util.Date;
 import com.google.common.annotations.Beta;
 import org.jclouds.cloudwatch.domain.HistoryItemType;
 import org.jclouds.date.DateService;
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.FixedLayoutDateService;
 import org.jclouds.http.options.BaseHttpRequestOptions;
 
 /**
@@ -35,7 +35,7 @@ import org.jclouds.http.options.BaseHttpRequestOptions;
 @Beta
 public class ListAlarmHistoryOptions extends BaseHttpRequestOptions {
 
-   private static final DateService dateService = new SimpleDateFormatDateService();
+   private static final DateService dateService = new FixedLayoutDateService();
 
    /**
     * The name of the alarm you want to filter against.
@@ -171,7 +171,11 @@ public class DescribeInstancesResponseHandlerTest extends BaseEC2HandlerTest {
    }
 
    static ParseSax<Set<Reservation<? extends RunningInstance>>> createParser() {
-      Injector injector = Guice.createInjector(new SaxParserModule(), new AbstractModule() {
+      return createParser(createInjector());
+   }
+
+   private static Injector createInjector() {
+      return Guice.createInjector(new SaxParserModule(), new AbstractModule() {
 
          @Override
          protected void configure() {
@@ -180,12 +184,29 @@ public class DescribeInstancesResponseHandlerTest extends BaseEC2HandlerTest {
          }
 
       });
+   }
+
+   private static ParseSax<Set<Reservation<? extends RunningInstance>>> createParser(Injector injector) {
       ParseSax<Set<Reservation<? extends RunningInstance>>> parser = injector
                .getInstance(ParseSax.Factory.class)
                .create(injector.getInstance(DescribeInstancesResponseHandler.class));
       return parser;
    }
 
+   public void testParsersSharingPooledReadersParseIndependently() {
+      // parsers created by one injector borrow their readers from the same pool
+      Injector injector = createInjector();
+      Set<Reservation<? extends RunningInstance>> expected = parseRunningInstances("/describe_instances_running.xml");
+      assertEquals(parse(injector, "/describe_instances_running.xml"), expected);
+      assertEquals(parse(injector, "/describe_instances_ebs.xml"),
+            parseRunningInstances("/describe_instances_ebs.xml"));
+      assertEquals(parse(injector, "/describe_instances_running.xml"), expected);
+   }
+
+   private static Set<Reservation<? extends RunningInstance>> parse(Injector injector, String resource) {
+      return createParser(injector).parse(DescribeInstancesResponseHandlerTest.class.getResourceAsStream(resource));
+   }
+
    public static Set<Reservation<? extends RunningInstance>> parseRunningInstances(String resource) {
       InputStream is = DescribeInstancesResponseHandlerTest.class.getResourceAsStream(resource);
       return createParser().parse(is);
@@ -28,22 +28,14 @@ import static org.jclouds.openstack.swift.v1.options.PutOptions.Builder.metadata
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
-import java.io.RandomAccessFile;
-import java.lang.reflect.Method;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -75,8 +67,11 @@ import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.blobstore.strategy.ClearListStrategy;
 import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
+import org.jclouds.blobstore.strategy.internal.PipelinedMultipartUploader;
+import org.jclouds.blobstore.strategy.internal.RangedBlobDownloader;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
@@ -95,12 +90,12 @@ import org.jclouds.openstack.swift.v1.features.BulkApi;
 import org.jclouds.openstack.swift.v1.features.ObjectApi;
 import org.jclouds.openstack.swift.v1.options.UpdateContainerOptions;
 import org.jclouds.openstack.swift.v1.reference.SwiftHeaders;
-import org.jclouds.util.Closeables2;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -113,8 +108,6 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.io.ByteSource;
-import com.google.common.io.ByteStreams;
-import com.google.common.io.Closeables;
 import com.google.common.net.HttpHeaders;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -160,6 +153,17 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
    protected final PayloadSlicer slicer;
    protected final ListeningExecutorService userExecutor;
 
+   /**
+    * The number of part buffers, and so of parts uploading at once, when a multipart upload reads from a stream.
+    */
+   @com.google.inject.Inject(optional = true)
+   @Named("jclouds.mpu.buffers")
+   int multipartBuffers = 4;
+
+   @com.google.inject.Inject(optional = true)
+   @Named("jclouds.mpu.buffers.direct")
+   boolean multipartDirectBuffers = false;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
@@ -618,6 +622,9 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
    @Named(Constants.PROPERTY_MAX_RETRIES)
    protected int retryCountLimit = 5;
 
+   @com.google.inject.Inject(optional = true)
+   protected BackoffLimitedRetryHandler retryHandler = BackoffLimitedRetryHandler.INSTANCE;
+
    /**
     * Upload using a user-provided executor, or the jclouds userExecutor
     *
@@ -645,6 +652,19 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
             getMinimumMultipartPartSize(), getMaximumMultipartPartSize(), getMaximumNumberOfParts());
       long partSize = algorithm.calculateChunkSize(contentLength);
       MultipartUpload mpu = initiateMultipartUpload(container, blob.getMetadata(), partSize, overrides);
+      if (!blob.getPayload().isRepeatable() && partSize <= PipelinedMultipartUploader.MAX_BUFFERED_PART_SIZE) {
+         try {
+            return completeMultipartUpload(mpu, new PipelinedMultipartUploader(multipartBuffers, multipartDirectBuffers)
+                  .upload(this, mpu, blob.getPayload().openStream(), contentLength, partSize, 0,
+                        executor));
+         } catch (IOException e) {
+            abortMultipartUpload(mpu);
+            throw Throwables.propagate(e);
+         } catch (RuntimeException e) {
+            abortMultipartUpload(mpu);
+            throw e;
+         }
+      }
       int partNumber = 0;
 
       for (Payload payload : slicer.slice(blob.getPayload(), partSize)) {
@@ -682,126 +702,8 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
    @Override
    @Beta
    public void downloadBlob(String container, String name, File destination, ExecutorService executor) {
-
-      ListeningExecutorService listeningExecutor = MoreExecutors.listeningDecorator(executor);
-      RandomAccessFile raf = null;
-      File tempFile = new File(destination + "." + UUID.randomUUID());
-      try {
-         long contentLength = api
-               .getObjectApi(regionId, container)
-               .getWithoutBody(name)
-               .getPayload()
-               .getContentMetadata()
-               .getContentLength();
-
-         // Reserve space for performance reasons
-         raf = new RandomAccessFile(tempFile, "rw");
-         raf.seek(contentLength - 1);
-         raf.write(0);
-
-         // Determine download buffer size, smaller means less memory usage; larger is faster as long as threads are saturated
-         long partSize = getMinimumMultipartPartSize();
-
-         // Loop through ranges within the file
-         long from;
-         long to;
-         List<ListenableFuture<Void>> results = new ArrayList<ListenableFuture<Void>>();
-
-         for (from = 0; from < contentLength; from = from + partSize) {
-            to = (from + partSize >= contentLength) ? contentLength - 1 : from + partSize - 1;
-            BlobDownloader b = new BlobDownloader(regionId, container, name, raf, from, to);
-            results.add(listeningExecutor.submit(b));
-         }
-
-         Futures.getUnchecked(Futures.allAsList(results));
-
-         raf.getChannel().force(true);
-         raf.getChannel().close();
-         raf.close();
-
-         if (destination.exists()) {
-            destination.delete();
-         }
-         if (!tempFile.renameTo(destination)) {
-            throw new RuntimeException("Could not move temporary downloaded file to destination " + destination);
-         }
-         tempFile = null;
-      } catch (IOException e) {
-         throw new RuntimeException(e);
-      } finally {
-         Closeables2.closeQuietly(raf);
-         if (tempFile != null) {
-            tempFile.delete();
-         }
-      }
-   }
-
-   private final class BlobDownloader implements Callable<Void> {
-      String regionId;
-      String containerName;
-      String objectName;
-      private final RandomAccessFile raf;
-      private final long begin;
-      private final long end;
-
-      BlobDownloader(String regionId, String containerName, String objectName, RandomAccessFile raf, long begin, long end) {
-         this.regionId = regionId;
-         this.containerName = containerName;
-         this.objectName = objectName;
-         this.raf = raf;
-         this.begin = begin;
-         this.end = end;
-      }
-
-      @Override
-      public Void call() {
-         IOException lastException = null;
-         for (int retry = 0; retry < retryCountLimit; retry++) {
-            try {
-               SwiftObject object = api.getObjectApi(regionId, containerName)
-                     .get(objectName, org.jclouds.http.options.GetOptions.Builder.range(begin, end));
-               // Download first, this is the part that usually fails
-               byte[] targetArray;
-               InputStream is = object.getPayload().openStream();
-               try {
-                  targetArray = ByteStreams.toByteArray(is);
-               } finally {
-                  Closeables.closeQuietly(is);
-               }
-               // Map file region
-               MappedByteBuffer out = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, begin, end - begin + 1);
-               out.put(targetArray);
-               out.force();
-
-               // JDK-4715154 ; TODO: Java 8 FileChannels
-               if (System.getProperty("os.name").toLowerCase().contains("windows")) {
-                  closeDirectBuffer(out);
-               }
-            } catch (IOException e) {
-               lastException = e;
-               continue;
-            }
-               // Success!
-               return null;
-            }
-         throw new RuntimeException("After " + retryCountLimit + " retries: " + lastException);
-      }
-
-      // JDK-4715154
-      private void closeDirectBuffer(MappedByteBuffer mbb) {
-         if ( mbb == null || !mbb.isDirect() )
-            return;
-
-         try {
-            Method cleaner = mbb.getClass().getMethod("cleaner");
-            cleaner.setAccessible(true);
-            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
-            clean.setAccessible(true);
-            clean.invoke(cleaner.invoke(mbb));
-         } catch (Exception e) {
-            logger.warn(e.toString());
-         }
-      }
+      new RangedBlobDownloader(this, getMinimumMultipartPartSize(), retryCountLimit, retryHandler).download(container,
+            name, destination, MoreExecutors.listeningDecorator(executor));
    }
 
    @Beta
@@ -813,115 +715,8 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
    @Beta
    @Override
    public InputStream streamBlob(final String container, final String name, final ExecutorService executor) {
-
-      final ListeningExecutorService listeningExecutor = MoreExecutors.listeningDecorator(executor);
-      // User will receive the Input end of the piped stream
-      final PipedOutputStream output;
-      final PipedInputStream input;
-      try {
-         output = new PipedOutputStream();
-         input = new PipedInputStream(output,
-               getMinimumMultipartPartSize() * 5 > Integer.MAX_VALUE ?
-                     Integer.MAX_VALUE : (int) getMinimumMultipartPartSize() * 5);
-      } catch (IOException e) {
-         throw new RuntimeException(e);
-      }
-
-      // The total length of the file to download is needed to determine ranges
-      // It has to be obtainable without downloading the whole file
-      final long contentLength = api
-            .getObjectApi(regionId, container)
-            .getWithoutBody(name)
-            .getPayload()
-            .getContentMetadata()
-            .getContentLength();
-
-      // Determine download buffer size, smaller means less memory usage; larger is faster as long as threads are saturated
-      final long partSize = getMinimumMultipartPartSize();
-
-      // Used to communicate between the producer and consumer threads
-      final LinkedBlockingQueue<ListenableFuture<byte[]>> results = new LinkedBlockingQueue<ListenableFuture<byte[]>>();
-
-      listeningExecutor.submit(new Runnable() {
-         @Override
-         public void run() {
-            ListenableFuture<byte[]> result;
-            long from;
-            try {
-               for (from = 0; from < contentLength; from = from + partSize) {
-                  logger.debug(Thread.currentThread() + " writing to output");
-                  result = results.take();
-                  if (result == null) {
-                     output.close();
-                     input.close();
-                     throw new RuntimeException("Error downloading file part to stream");
-                  }
-                  output.write(result.get());
-               }
-            } catch (Exception e) {
-               logger.debug(e.toString());
-               // Close pipe so client is notified of an exception
-               Closeables2.closeQuietly(input);
-               throw new RuntimeException(e);
-            } finally {
-               // Finished writing results to stream
-               Closeables2.closeQuietly(output);
-            }
-         }
-      });
-
-      listeningExecutor.submit(new Runnable() {
-         @Override
-         public void run() {
-            long from;
-            long to;
-            // Loop through ranges within the file
-            for (from = 0; from < contentLength; from = from + partSize) {
-               to = (from + partSize >= contentLength) ? contentLength - 1 : from + partSize - 1;
-               BlobStreamDownloader b = new BlobStreamDownloader(container, name, from, to);
-               results.add(listeningExecutor.submit(b));
-            }
-         }
-      });
-      return input;
-   }
-
-   private final class BlobStreamDownloader implements Callable<byte[]> {
-      String containerName;
-      String objectName;
-      private final long begin;
-      private final long end;
-
-      BlobStreamDownloader(String containerName, String objectName, long begin, long end) {
-         this.containerName = containerName;
-         this.objectName = objectName;
-         this.begin = begin;
-         this.end = end;
-      }
-
-      @Override
-      public byte[] call() {
-         IOException lastException = null;
-         for (int retry = 0; retry < retryCountLimit; retry++) {
-            try {
-               long time = System.nanoTime();
-               SwiftObject object = api.getObjectApi(regionId, containerName)
-                     .get(objectName, org.jclouds.http.options.GetOptions.Builder.range(begin, end));
-               byte[] downloadedBlock;
-               InputStream is = object.getPayload().openStream();
-               try {
-                  downloadedBlock = ByteStreams.toByteArray(is);
-               } finally {
-                  Closeables.closeQuietly(is);
-               }
-               return downloadedBlock;
-            } catch (IOException e) {
-               logger.debug(e.toString());
-               lastException = e;
-               continue;
-            }
-         }
-         throw new RuntimeException("After " + retryCountLimit + " retries: " + lastException);
-      }
+      // read ahead as many ranges as the pipe used to buffer
+      return new RangedBlobDownloader(this, getMinimumMultipartPartSize(), retryCountLimit, retryHandler).stream(
+            container, name, 5, MoreExecutors.listeningDecorator(executor));
    }
 }
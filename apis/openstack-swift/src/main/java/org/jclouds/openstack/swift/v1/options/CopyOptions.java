@@ -19,7 +19,7 @@ package org.jclouds.openstack.swift.v1.options;
 import java.util.Date;
 
 import org.jclouds.date.DateService;
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.FixedLayoutDateService;
 import org.jclouds.http.options.BaseHttpRequestOptions;
 
 import com.google.common.net.HttpHeaders;
@@ -27,7 +27,7 @@ import com.google.common.net.HttpHeaders;
 public final class CopyOptions extends BaseHttpRequestOptions {
    public static final CopyOptions NONE = new CopyOptions();
 
-   private static final DateService dateService = new SimpleDateFormatDateService();
+   private static final DateService dateService = new FixedLayoutDateService();
 
    public CopyOptions ifMatch(String ifMatch) {
       this.headers.put(HttpHeaders.IF_MATCH, ifMatch);
@@ -29,8 +29,10 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.jclouds.aws.AWSResponseException;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.ContainerNotFoundException;
+import org.jclouds.blobstore.KeyNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
 import org.jclouds.blobstore.domain.BlobMetadata;
@@ -53,6 +55,7 @@ import org.jclouds.http.options.GetOptions;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.s3.S3Client;
 import org.jclouds.s3.blobstore.functions.BlobToObject;
 import org.jclouds.s3.blobstore.functions.BlobToObjectMetadata;
@@ -82,6 +85,9 @@ import com.google.common.collect.Iterables;
 
 @Singleton
 public class S3BlobStore extends BaseBlobStore {
+   /** the largest object a single PUT Object - Copy can copy */
+   private static final long MAX_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+
    private final S3Client sync;
    private final Function<Set<BucketMetadata>, PageSet<? extends StorageMetadata>> convertBucketsToStorageMetadata;
    private final ContainerToBucketListOptions container2BucketListOptions;
@@ -269,9 +275,32 @@ public class S3BlobStore extends BaseBlobStore {
       return sync.putObject(container, blob2Object.apply(blob), options);
    }
 
+   /**
+    * Copies with a single PUT Object - Copy, and only when S3 rejects the request as invalid, which it does for
+    * sources larger than that allows, sizes the source with a HEAD and copies it part by part with Upload Part - Copy.
+    */
    @Override
    public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
          CopyOptions options) {
+      try {
+         return sync.copyObject(fromContainer, fromName, toContainer, toName, copyObjectOptions(options)).getETag();
+      } catch (AWSResponseException are) {
+         if (are.getError() == null || !"InvalidRequest".equals(are.getError().getCode())) {
+            throw are;
+         }
+         BlobMetadata from = blobMetadata(fromContainer, fromName);
+         if (from == null) {
+            throw new KeyNotFoundException(fromContainer, fromName, "while copying");
+         }
+         Long contentLength = from.getContentMetadata().getContentLength();
+         if (contentLength == null || contentLength <= MAX_COPY_SIZE) {
+            throw are;
+         }
+         return copyMultipartBlob(fromContainer, from, toContainer, toName, options);
+      }
+   }
+
+   private static CopyObjectOptions copyObjectOptions(CopyOptions options) {
       CopyObjectOptions s3Options = new CopyObjectOptions();
       if (options.ifMatch() != null) {
          s3Options.ifSourceETagMatches(options.ifMatch());
@@ -319,7 +348,7 @@ public class S3BlobStore extends BaseBlobStore {
          s3Options.overrideMetadataWith(userMetadata);
       }
 
-      return sync.copyObject(fromContainer, fromName, toContainer, toName, s3Options).getETag();
+      return s3Options;
    }
 
    /**
@@ -393,6 +422,19 @@ public class S3BlobStore extends BaseBlobStore {
       return MultipartPart.create(partNumber, partSize, eTag, lastModified);
    }
 
+   @Override
+   protected MultipartPart copyMultipartPart(MultipartUpload mpu, int partNumber, String fromContainer,
+         String fromName, @Nullable String fromETag, long offset, long length) {
+      CopyObjectOptions options = new CopyObjectOptions();
+      if (fromETag != null) {
+         options.ifSourceETagMatches(fromETag);
+      }
+      String eTag = sync.uploadPartCopy(mpu.containerName(), mpu.blobName(), partNumber, mpu.id(), fromContainer,
+            fromName, offset, offset + length - 1, options);
+      Date lastModified = null;  // S3 returns Last-Modified of the source, not the part
+      return MultipartPart.create(partNumber, length, eTag, lastModified);
+   }
+
    @Override
    public List<MultipartPart> listMultipartUpload(MultipartUpload mpu) {
       ImmutableList.Builder<MultipartPart> parts = ImmutableList.builder();
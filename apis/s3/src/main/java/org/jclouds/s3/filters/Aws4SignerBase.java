@@ -19,10 +19,9 @@ package org.jclouds.s3.filters;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.io.BaseEncoding.base16;
-import static com.google.common.io.ByteStreams.readBytes;
 import static org.jclouds.crypto.Macs.asByteProcessor;
 import static org.jclouds.http.utils.Queries.queryParser;
-import static org.jclouds.util.Strings2.toInputStream;
+import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_CONTENT_SHA256_HEADER;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -33,15 +32,20 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Maps;
@@ -116,6 +120,14 @@ public abstract class Aws4SignerBase {
    protected final Supplier<Date> timestampProvider;
    protected final Crypto crypto;
 
+   /**
+    * Signing keys only change when the date, region, service or secret does, so the four chained
+    * derivations are done once per scope rather than once per request.
+    */
+   private final Cache<List<String>, byte[]> signatureKeys = CacheBuilder.newBuilder()
+         .maximumSize(256)
+         .expireAfterWrite(2, TimeUnit.DAYS)
+         .build();
 
    protected Aws4SignerBase(SignatureWire signatureWire, String headerTag,
          Supplier<Credentials> creds, Supplier<Date> timestampProvider,
@@ -181,6 +193,9 @@ public abstract class Aws4SignerBase {
          ImmutableMap.Builder<String, String> signedHeadersBuilder) {
       for (Map.Entry<String, String> header : request.getHeaders().entries()) {
          String key = header.getKey();
+         // the signers compute the payload hash and sign it themselves, whatever the request carried
+         if (key.equalsIgnoreCase(AMZ_CONTENT_SHA256_HEADER))
+            continue;
          if (key.startsWith("x-" + headerTag + "-")) {
             signedHeadersBuilder.put(key.toLowerCase(), header.getValue());
          }
@@ -207,14 +222,19 @@ public abstract class Aws4SignerBase {
     * @param datestamp date yyyyMMdd
     * @param region   AWS region
     * @param service   AWS service
-    * @return SigningKey
+    * @return SigningKey, shared between callers with the same scope and therefore not to be modified
     */
    protected byte[] signatureKey(String secretKey, String datestamp, String region, String service) {
-      byte[] kSecret = ("AWS4" + secretKey).getBytes(UTF_8);
-      byte[] kDate = hmacSHA256(datestamp, kSecret);
-      byte[] kRegion = hmacSHA256(region, kDate);
-      byte[] kService = hmacSHA256(service, kRegion);
-      byte[] kSigning = hmacSHA256("aws4_request", kService);
+      List<String> scope = ImmutableList.of(secretKey, datestamp, region, service);
+      byte[] kSigning = signatureKeys.getIfPresent(scope);
+      if (kSigning == null) {
+         byte[] kSecret = ("AWS4" + secretKey).getBytes(UTF_8);
+         byte[] kDate = hmacSHA256(datestamp, kSecret);
+         byte[] kRegion = hmacSHA256(region, kDate);
+         byte[] kService = hmacSHA256(service, kRegion);
+         kSigning = hmacSHA256("aws4_request", kService);
+         signatureKeys.put(scope, kSigning);
+      }
       return kSigning;
    }
 
@@ -226,9 +246,7 @@ public abstract class Aws4SignerBase {
     */
    protected byte[] hmacSHA256(String toSign, byte[] key) {
       try {
-         return readBytes(toInputStream(toSign), hmacSHA256(crypto, key));
-      } catch (IOException e) {
-         throw new HttpException("read sign error", e);
+         return crypto.hmacSHA256(key).doFinal(toSign.getBytes(UTF_8));
       } catch (InvalidKeyException e) {
          throw new HttpException("invalid key", e);
       }
@@ -17,8 +17,11 @@
 package org.jclouds.s3.filters;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.hash.HashCode;
@@ -52,12 +55,38 @@ import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_ALGORITHM_HMAC_
 import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_CONTENT_SHA256_HEADER;
 import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_DATE_HEADER;
 import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_SECURITY_TOKEN_HEADER;
+import static org.jclouds.s3.filters.AwsSignatureV4Constants.UNSIGNED_PAYLOAD;
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_UNSIGNED_PAYLOAD;
 import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_VIRTUAL_HOST_BUCKETS;
 
 /**
  * AWS4 signer sign requests to Amazon S3 using an 'Authorization' header.
  */
 public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
+
+   @Inject(optional = true)
+   @Named(PROPERTY_S3_UNSIGNED_PAYLOAD)
+   private boolean unsignedPayload = false;
+
+   /**
+    * Hashes of repeatable payloads, so that a request which is signed again on retry does not read
+    * its payload one more time. Keys are compared by identity.
+    */
+   private final Cache<Payload, PayloadHash> payloadHashes = CacheBuilder.newBuilder()
+         .weakKeys()
+         .maximumSize(1000)
+         .build();
+
+   private static final class PayloadHash {
+      private final Long contentLength;
+      private final String hash;
+
+      private PayloadHash(Long contentLength, String hash) {
+         this.contentLength = contentLength;
+         this.hash = hash;
+      }
+   }
+
    @Inject
    public Aws4SignerForAuthorizationHeader(SignatureWire signatureWire,
          @Named(PROPERTY_S3_VIRTUAL_HOST_BUCKETS) boolean isVhostStyle,
@@ -129,7 +158,7 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
                request.getFirstHeaderOrNull(HttpHeaders.USER_AGENT));
       }
 
-      // all x-amz-* headers
+      // all x-amz-* headers, but x-amz-content-sha256 which is signed below
       appendAmzHeaders(request, signedHeadersBuilder);
 
       // x-amz-security-token
@@ -172,6 +201,10 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
       if (payload == null || "0".equals(getContentLength(request))) {
          return getEmptyPayloadContentHash();
       }
+      // TLS already protects the payload in transit, so skip the extra pass over it if allowed to
+      if (unsignedPayload && "https".equalsIgnoreCase(request.getEndpoint().getScheme())) {
+         return UNSIGNED_PAYLOAD;
+      }
       return calculatePayloadContentHash(payload);
    }
 
@@ -186,6 +219,11 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
     * in this time, payload ContentMetadata provided content hash md5, but aws required sha256.
     */
    protected String calculatePayloadContentHash(Payload payload) {
+      Long contentLength = payload.getContentMetadata().getContentLength();
+      PayloadHash cached = payloadHashes.getIfPresent(payload);
+      if (cached != null && Objects.equal(cached.contentLength, contentLength)) {
+         return cached.hash;
+      }
       // use payload stream calculate content sha256
       InputStream payloadStream;
       try {
@@ -193,11 +231,16 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
       } catch (IOException e) {
          throw new HttpException("unable to open payload stream to calculate AWS4 signature.", e);
       }
+      String hash;
       try {
-         return base16().lowerCase().encode(hash(payloadStream));
+         hash = base16().lowerCase().encode(hash(payloadStream));
       } finally {
          closeOrResetPayloadStream(payloadStream, payload.isRepeatable());
       }
+      if (payload.isRepeatable()) {
+         payloadHashes.put(payload, new PayloadHash(contentLength, hash));
+      }
+      return hash;
    }
 
    // some times, when use Multipart Payload and a part can not be repeatable, will happen some error...
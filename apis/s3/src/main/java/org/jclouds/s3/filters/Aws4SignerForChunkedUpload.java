@@ -28,17 +28,14 @@ import static org.jclouds.s3.filters.AwsSignatureV4Constants.CONTENT_ENCODING_HE
 import static org.jclouds.s3.filters.AwsSignatureV4Constants.SIGNATURE_LENGTH;
 import static org.jclouds.s3.filters.AwsSignatureV4Constants.STREAMING_BODY_SHA256;
 import static org.jclouds.s3.reference.S3Constants.PROPERTY_JCLOUDS_S3_CHUNKED_SIZE;
-import static org.jclouds.util.Strings2.toInputStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.io.ByteStreams.readBytes;
 import static com.google.common.net.HttpHeaders.AUTHORIZATION;
 import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
 import static com.google.common.net.HttpHeaders.CONTENT_MD5;
 import static com.google.common.net.HttpHeaders.DATE;
 
-import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.util.Date;
 
@@ -165,7 +162,7 @@ public class Aws4SignerForChunkedUpload extends Aws4SignerBase {
                request.getFirstHeaderOrNull(HttpHeaders.USER_AGENT));
       }
 
-      // all x-amz-* headers
+      // all x-amz-* headers, but x-amz-content-sha256 which is signed below
       appendAmzHeaders(request, signedHeadersBuilder);
 
       // x-amz-security-token
@@ -202,12 +199,7 @@ public class Aws4SignerForChunkedUpload extends Aws4SignerBase {
       }
 
       // Calculating the Seed Signature
-      String signature;
-      try {
-         signature = hex(readBytes(toInputStream(stringToSign), hmacSHA256));
-      } catch (IOException e) {
-         throw new ChunkedUploadException("hmac sha256 seed signature error", e);
-      }
+      String signature = hex(hmacSHA256(stringToSign, signatureKey));
 
       StringBuilder authorization = new StringBuilder(AMZ_ALGORITHM_HMAC_SHA256).append(" ");
       authorization.append("Credential=").append(Joiner.on("/").join(credentials.identity, credentialScope))
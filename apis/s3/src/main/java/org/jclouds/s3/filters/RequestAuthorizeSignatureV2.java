@@ -170,7 +170,7 @@ public class RequestAuthorizeSignatureV2 implements RequestAuthorizeSignature, R
    String calculateSignature(String toSign) throws HttpException {
       String signature = sign(toSign);
       if (signatureWire.enabled()) {
-         signatureWire.input(toInputStream(signature));
+         signatureWire.input(signature);
       }
       return signature;
    }
@@ -32,6 +32,11 @@ public final class S3Constants {
    public static final String PROPERTY_S3_SERVICE_PATH = "jclouds.s3.service-path";
    public static final String PROPERTY_S3_VIRTUAL_HOST_BUCKETS = "jclouds.s3.virtual-host-buckets";
    public static final String PROPERTY_JCLOUDS_S3_CHUNKED_SIZE = "jclouds.s3.chunked.size";
+   /**
+    * Whether requests sent over https may use {@code UNSIGNED-PAYLOAD} instead of hashing the payload
+    * before sending it. Defaults to false.
+    */
+   public static final String PROPERTY_S3_UNSIGNED_PAYLOAD = "jclouds.s3.unsigned-payload";
 
    public static final String TEMPORARY_SIGNATURE_PARAM = "Signature";
 
@@ -17,8 +17,10 @@
 package org.jclouds.s3;
 
 import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static com.google.common.net.HttpHeaders.ETAG;
 import static com.google.common.net.HttpHeaders.EXPECT;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
@@ -30,6 +32,9 @@ import java.util.Properties;
 import java.util.Set;
 
 import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.concurrent.config.ExecutorServiceModule;
 import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
 import org.jclouds.s3.domain.S3Object;
@@ -39,6 +44,7 @@ import org.testng.annotations.Test;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
@@ -60,6 +66,17 @@ public class S3ClientMockTest {
                            .buildApi(S3Client.class);
    }
 
+   static BlobStore getBlobStore(URL server) {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_MAX_RETRIES, "1");
+      return ContextBuilder.newBuilder("s3")
+                           .credentials("accessKey", "secretKey")
+                           .endpoint(server.toString())
+                           .modules(modules)
+                           .overrides(overrides)
+                           .buildView(BlobStoreContext.class).getBlobStore();
+   }
+
    public void testZeroLengthPutHasContentLengthHeader() throws IOException, InterruptedException {
       MockWebServer server = new MockWebServer();
       server.enqueue(new MockResponse().addHeader(ETAG, "ABCDEF"));
@@ -111,4 +128,72 @@ public class S3ClientMockTest {
       assertEquals(request.getHeaders("x-amz-copy-source"), ImmutableList.of("/sourceBucket/apples%23%3F%3A%24%26%27%22%3C%3E%C4%8D%E0%A5%90"));
       server.shutdown();
    }
+
+   public void testCopyBlobSendsOnlyTheCopyRequest() throws IOException, InterruptedException {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().setBody("<CopyObjectResult>\n" +
+              "   <LastModified>2009-10-28T22:32:00</LastModified>\n" +
+              "   <ETag>\"9b2cf535f27731c974343645a3985328\"</ETag>\n" +
+              " </CopyObjectResult>"));
+      server.play();
+      BlobStore blobStore = getBlobStore(server.getUrl("/"));
+
+      blobStore.copyBlob("sourceBucket", "source", "destinationBucket", "destination", CopyOptions.NONE);
+
+      assertEquals(server.getRequestCount(), 1);
+      RecordedRequest request = server.takeRequest();
+      assertEquals(request.getRequestLine(), "PUT /destinationBucket/destination HTTP/1.1");
+      assertEquals(request.getHeaders("x-amz-copy-source"), ImmutableList.of("/sourceBucket/source"));
+      server.shutdown();
+   }
+
+   public void testCopyBlobTooLargeForCopyObjectCopiesPartsPinnedToTheSourceETag() throws IOException,
+         InterruptedException {
+      final long size = 6L * 1024 * 1024 * 1024;
+      MockWebServer server = new MockWebServer();
+      server.setDispatcher(new Dispatcher() {
+         @Override
+         public MockResponse dispatch(RecordedRequest request) {
+            String requestLine = request.getRequestLine();
+            if (requestLine.startsWith("PUT /destinationBucket/destination HTTP")) {
+               return new MockResponse().setResponseCode(400).addHeader(CONTENT_TYPE, "application/xml")
+                     .setBody("<Error><Code>InvalidRequest</Code><Message>The specified copy source is larger than "
+                           + "the maximum allowable size for a copy source: 5368709120</Message></Error>");
+            } else if (requestLine.startsWith("HEAD /sourceBucket/source ")) {
+               return new MockResponse().setHeader(CONTENT_LENGTH, size).addHeader(ETAG, "\"source\"")
+                     .addHeader(LAST_MODIFIED, "Wed, 28 Oct 2009 22:32:00 GMT");
+            } else if (requestLine.startsWith("POST /destinationBucket/destination?uploads ")) {
+               return new MockResponse().setBody("<InitiateMultipartUploadResult><Bucket>destinationBucket</Bucket>"
+                     + "<Key>destination</Key><UploadId>upload</UploadId></InitiateMultipartUploadResult>");
+            } else if (requestLine.startsWith("PUT /destinationBucket/destination?partNumber=")) {
+               return new MockResponse().setBody("<CopyPartResult><LastModified>2009-10-28T22:32:00</LastModified>"
+                     + "<ETag>\"part\"</ETag></CopyPartResult>");
+            } else if (requestLine.startsWith("POST /destinationBucket/destination?uploadId=upload ")) {
+               return new MockResponse().setBody("<CompleteMultipartUploadResult><Bucket>destinationBucket</Bucket>"
+                     + "<Key>destination</Key><ETag>\"copy\"</ETag></CompleteMultipartUploadResult>");
+            }
+            return new MockResponse().setResponseCode(500).setBody(requestLine);
+         }
+      });
+      server.play();
+      BlobStore blobStore = getBlobStore(server.getUrl("/"));
+
+      blobStore.copyBlob("sourceBucket", "source", "destinationBucket", "destination", CopyOptions.NONE);
+
+      int parts = 0;
+      long copied = 0;
+      for (int i = server.getRequestCount(); i > 0; i--) {
+         RecordedRequest request = server.takeRequest();
+         if (!request.getRequestLine().startsWith("PUT /destinationBucket/destination?partNumber="))
+            continue;
+         parts++;
+         assertEquals(request.getHeaders("x-amz-copy-source-if-match"), ImmutableList.of("\"source\""));
+         String range = request.getHeader("x-amz-copy-source-range");
+         copied += Long.parseLong(range.substring(range.indexOf('-') + 1))
+               - Long.parseLong(range.substring("bytes=".length(), range.indexOf('-'))) + 1;
+      }
+      assertThat(parts).isGreaterThan(1);
+      assertEquals(copied, size);
+      server.shutdown();
+   }
 }
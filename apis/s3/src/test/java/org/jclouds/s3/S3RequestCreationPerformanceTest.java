@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3;
+
+import static org.jclouds.reflect.Reflection2.method;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.PerformanceTest;
+import org.jclouds.http.options.GetOptions;
+import org.jclouds.logging.config.NullLoggingModule;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.internal.BaseRestApiTest.MockModule;
+import org.jclouds.rest.internal.RestAnnotationProcessor;
+import org.jclouds.s3.options.ListBucketOptions;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.inject.Module;
+
+/**
+ * Measures how long {@link RestAnnotationProcessor} takes to turn {@link S3Client} invocations into requests.
+ */
+// NOTE:without testName, this will not call @Before* and fail w/NPE during surefire
+@Test(groups = "performance", sequential = true, timeOut = 2 * 60 * 1000, testName = "S3RequestCreationPerformanceTest")
+public class S3RequestCreationPerformanceTest extends PerformanceTest {
+   RestAnnotationProcessor processor;
+   List<Invocation> invocations;
+
+   @BeforeTest
+   protected void setUpProcessor() {
+      processor = ContextBuilder.newBuilder(new S3ApiMetadata())
+            .credentials("identity", "credential")
+            .modules(ImmutableSet.<Module> of(new MockModule(), new NullLoggingModule()))
+            .buildInjector()
+            .getInstance(RestAnnotationProcessor.class);
+      invocations = ImmutableList.of(
+            Invocation.create(method(S3Client.class, "getBucketLocation", String.class),
+                  ImmutableList.<Object> of("bucket")),
+            Invocation.create(method(S3Client.class, "listBucket", String.class, ListBucketOptions[].class),
+                  ImmutableList.<Object> of("bucket", ListBucketOptions.Builder.withPrefix("prefix"))),
+            Invocation.create(method(S3Client.class, "getObject", String.class, String.class, GetOptions[].class),
+                  ImmutableList.<Object> of("bucket", "object", GetOptions.Builder.range(0, 1023))),
+            Invocation.create(method(S3Client.class, "headObject", String.class, String.class),
+                  ImmutableList.<Object> of("bucket", "object")));
+   }
+
+   @AfterTest
+   protected void tearDownProcessor() {
+      processor = null;
+      invocations = null;
+   }
+
+   @Test
+   void testCreateRequestSerialResponseTime() {
+      // warm up, so that the first pass does not pay for class loading
+      createRequests();
+      long start = System.nanoTime();
+      for (int i = 0; i < LOOP_COUNT; i++)
+         createRequests();
+      long elapsed = System.nanoTime() - start;
+      System.out.printf("TIMING: Serial request creation took %.3fus per request%n",
+            (double) elapsed / 1000 / (LOOP_COUNT * invocations.size()));
+   }
+
+   @Test
+   void testCreateRequestParallelResponseTime() throws InterruptedException, ExecutionException, Throwable {
+      List<Runnable> tasks = Lists.newArrayList();
+      for (int i = 0; i < THREAD_COUNT; i++) {
+         tasks.add(new Runnable() {
+            public void run() {
+               for (int j = 0; j < LOOP_COUNT / 10; j++)
+                  createRequests();
+            }
+         });
+      }
+      executeMultiThreadedPerformanceTest("S3 request creation", tasks);
+   }
+
+   private void createRequests() {
+      for (Invocation invocation : invocations)
+         processor.apply(invocation);
+   }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.filters;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.Date;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.encryption.internal.JCECrypto;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
+@Test(groups = "unit", testName = "Aws4SignerBaseTest")
+public class Aws4SignerBaseTest {
+   // example from http://docs.aws.amazon.com/general/latest/gr/signature-v4-examples.html
+   private static final String SECRET = "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY";
+   private static final String SIGNING_KEY = "f4780e2d9f65fa895f9c67b32ce1baf0b0d8a43505a000a1a9e090d414db404d";
+
+   private final Aws4SignerBase signer;
+
+   public Aws4SignerBaseTest() throws NoSuchAlgorithmException, CertificateException {
+      Supplier<Credentials> creds = Suppliers.ofInstance(new Credentials("identity", SECRET));
+      signer = new Aws4SignerBase(null, "amz", creds, Suppliers.ofInstance(new Date()), null, new JCECrypto()) {
+      };
+   }
+
+   public void testSignatureKey() {
+      assertEquals(Aws4SignerBase.hex(signer.signatureKey(SECRET, "20120215", "us-east-1", "iam")), SIGNING_KEY);
+   }
+
+   public void testSignatureKeyIsReusedForSameScope() {
+      byte[] first = signer.signatureKey(SECRET, "20120215", "us-east-1", "iam");
+      assertSame(signer.signatureKey(SECRET, "20120215", "us-east-1", "iam"), first);
+   }
+
+   public void testSignatureKeyChangesWithScope() {
+      String key = Aws4SignerBase.hex(signer.signatureKey(SECRET, "20120215", "us-east-1", "iam"));
+      assertNotEquals(Aws4SignerBase.hex(signer.signatureKey(SECRET, "20120216", "us-east-1", "iam")), key);
+      assertNotEquals(Aws4SignerBase.hex(signer.signatureKey(SECRET, "20120215", "us-west-1", "iam")), key);
+      assertNotEquals(Aws4SignerBase.hex(signer.signatureKey(SECRET, "20120215", "us-east-1", "s3")), key);
+      assertNotEquals(Aws4SignerBase.hex(signer.signatureKey(SECRET + "2", "20120215", "us-east-1", "iam")), key);
+   }
+}
@@ -17,9 +17,16 @@
 package org.jclouds.s3.filters;
 
 import static org.jclouds.reflect.Reflection2.method;
+import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_CONTENT_SHA256_HEADER;
+import static org.jclouds.s3.filters.AwsSignatureV4Constants.UNSIGNED_PAYLOAD;
 import static org.testng.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Named;
 
@@ -43,11 +50,14 @@ import org.jclouds.s3.config.S3HttpApiModule;
 import org.jclouds.s3.domain.S3Object;
 import org.jclouds.s3.options.ListBucketOptions;
 import org.jclouds.s3.options.PutObjectOptions;
+import org.jclouds.s3.reference.S3Constants;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
 import com.google.common.net.HttpHeaders;
 import com.google.inject.Injector;
 import com.google.inject.Module;
@@ -109,8 +119,13 @@ public class RequestAuthorizeSignatureV4Test {
    }
 
    public static Injector injector(Credentials creds) {
+      return injector(creds, new Properties());
+   }
+
+   public static Injector injector(Credentials creds, Properties overrides) {
       return ContextBuilder.newBuilder(new S3ApiMetadata())
             .credentialsSupplier(Suppliers.<Credentials>ofInstance(creds))
+            .overrides(overrides)
             .modules(ImmutableList.<Module>of(new BaseRestApiTest.MockModule(), new NullLoggingModule(),
                   new TestS3HttpApiModule()))
             .buildInjector();
@@ -215,4 +230,66 @@ public class RequestAuthorizeSignatureV4Test {
       assertEquals(filtered.getFirstHeaderOrNull("Authorization"), LIST_BUCKET_RESULT);
    }
 
+   @Test
+   void testPutObjectRehashesProvidedPayloadHash() {
+      Payload payload = Payloads.newStringPayload(PUT_OBJECT_CONTENT);
+      payload.getContentMetadata().setContentType("text/plain");
+
+      // a hash left over from another payload must not be signed
+      HttpRequest putObject = putObjectRequest(payload).toBuilder()
+            .addHeader(AMZ_CONTENT_SHA256_HEADER, Aws4SignerBase.hex(Aws4SignerBase.hash("stale content")))
+            .build();
+
+      HttpRequest filtered = filter(temporaryCredentials).filter(putObject);
+      assertEquals(filtered.getFirstHeaderOrNull("Authorization"), PUT_OBJECT_RESULT);
+      assertEquals(filtered.getHeaders().get(AMZ_CONTENT_SHA256_HEADER),
+            ImmutableList.of(Aws4SignerBase.hex(Aws4SignerBase.hash(PUT_OBJECT_CONTENT))));
+   }
+
+   @Test
+   void testPutObjectHashesPayloadOnceAcrossRetries() {
+      final AtomicInteger opened = new AtomicInteger();
+      Payload payload = Payloads.newByteSourcePayload(new ByteSource() {
+         @Override
+         public InputStream openStream() throws IOException {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(PUT_OBJECT_CONTENT.getBytes(Charsets.UTF_8));
+         }
+      });
+      payload.getContentMetadata().setContentType("text/plain");
+      payload.getContentMetadata().setContentLength((long) PUT_OBJECT_CONTENT.length());
+      HttpRequest putObject = putObjectRequest(payload);
+
+      RequestAuthorizeSignatureV4 filter = filter(temporaryCredentials);
+      assertEquals(filter.filter(putObject).getFirstHeaderOrNull("Authorization"), PUT_OBJECT_RESULT);
+      assertEquals(filter.filter(putObject).getFirstHeaderOrNull("Authorization"), PUT_OBJECT_RESULT);
+      assertEquals(opened.get(), 1);
+   }
+
+   @Test
+   void testPutObjectUnsignedPayload() {
+      Properties overrides = new Properties();
+      overrides.setProperty(S3Constants.PROPERTY_S3_UNSIGNED_PAYLOAD, "true");
+      Payload payload = Payloads.newStringPayload(PUT_OBJECT_CONTENT);
+      payload.getContentMetadata().setContentType("text/plain");
+
+      HttpRequest filtered = injector(temporaryCredentials, overrides).getInstance(RequestAuthorizeSignatureV4.class)
+            .filter(putObjectRequest(payload));
+      assertEquals(filtered.getFirstHeaderOrNull(AMZ_CONTENT_SHA256_HEADER), UNSIGNED_PAYLOAD);
+   }
+
+   private static HttpRequest putObjectRequest(Payload payload) {
+      Invocation invocation = Invocation.create(method(S3Client.class, "putObject", String.class, S3Object.class,
+                  PutObjectOptions[].class),
+            ImmutableList.<Object>of(BUCKET_NAME));
+
+      return GeneratedHttpRequest.builder().method("PUT")
+            .invocation(invocation)
+            .endpoint("https://" + BUCKET_NAME + ".s3.cn-north-1.amazonaws.com.cn/" + OBJECT_NAME)
+            .addHeader(HttpHeaders.HOST, BUCKET_NAME + ".s3.cn-north-1.amazonaws.com.cn")
+            .addHeader("x-amz-storage-class", "REDUCED_REDUNDANCY")
+            .payload(payload)
+            .build();
+   }
+
 }
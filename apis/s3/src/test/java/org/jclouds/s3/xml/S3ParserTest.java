@@ -26,6 +26,8 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 
+import javax.xml.parsers.SAXParserFactory;
+
 import org.jclouds.PerformanceTest;
 import org.jclouds.date.internal.SimpleDateFormatDateService;
 import org.jclouds.http.HttpException;
@@ -42,7 +44,10 @@ import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -173,4 +178,52 @@ public class S3ParserTest extends PerformanceTest {
          assert completer.take().get() != null;
    }
 
+   private static final String largeListContainerResult;
+
+   static {
+      StringBuilder xml = new StringBuilder(
+               "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"><Name>adrianjbosstest</Name><Prefix></Prefix><Marker></Marker><MaxKeys>1000</MaxKeys><IsTruncated>false</IsTruncated>");
+      for (int i = 0; i < 1000; i++) {
+         xml.append("<Contents><Key>").append(i).append(
+                  "</Key><LastModified>2009-03-12T02:00:13.000Z</LastModified><ETag>&quot;9d7bb64e8e18ee34eec06dd2cf37b766&quot;</ETag><Size>136</Size><Owner><ID>e1a5f66a480ca99a4fdfe8e318c3020446c9989d7004e7778029fbcc5d990fa0</ID><DisplayName>ferncam</DisplayName></Owner><StorageClass>STANDARD</StorageClass></Contents>");
+      }
+      largeListContainerResult = xml.append("</ListBucketResult>").toString();
+   }
+
+   private ListBucketResponse runParseLargeListContainerResult(ParseSax<ListBucketResponse> parser) {
+      return parser.setContext(HttpRequest.builder().method("GET").endpoint("http://bucket.com").build()).parse(
+               Strings2.toInputStream(largeListContainerResult));
+   }
+
+   @Test
+   void testParseLargeListContainerResultPooledReaderInParallel() throws Throwable {
+      executeMultiThreadedPerformanceTest("testParseLargeListContainerResultPooledReaderInParallel",
+               ImmutableList.<Runnable> of(new Runnable() {
+                  public void run() {
+                     ListBucketResponse response = runParseLargeListContainerResult(factory.create(injector
+                              .getInstance(ListBucketHandler.class)));
+                     assertEquals(response.size(), 1000);
+                  }
+               }));
+   }
+
+   @Test
+   void testParseLargeListContainerResultNewReaderInParallel() throws Throwable {
+      final SAXParserFactory saxParserFactory = injector.getInstance(SAXParserFactory.class);
+      executeMultiThreadedPerformanceTest("testParseLargeListContainerResultNewReaderInParallel",
+               ImmutableList.<Runnable> of(new Runnable() {
+                  public void run() {
+                     XMLReader reader;
+                     try {
+                        reader = saxParserFactory.newSAXParser().getXMLReader();
+                     } catch (Exception e) {
+                        throw Throwables.propagate(e);
+                     }
+                     ListBucketResponse response = runParseLargeListContainerResult(new ParseSax<ListBucketResponse>(
+                              reader, injector.getInstance(ListBucketHandler.class)));
+                     assertEquals(response.size(), 1000);
+                  }
+               }));
+   }
+
 }
@@ -171,7 +171,7 @@ public interface FormSigner extends HttpRequestFilter {
                   crypto.hmacSHA256(creds.get().credential.getBytes(UTF_8)));
             signature = base64().encode(readBytes(toInputStream(toSign), hmacSHA256));
             if (signatureWire.enabled())
-               signatureWire.input(toInputStream(signature));
+               signatureWire.input(signature);
          } catch (Exception e) {
             throw new HttpException("error signing request", e);
          }
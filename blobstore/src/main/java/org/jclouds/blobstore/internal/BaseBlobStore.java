@@ -16,8 +16,10 @@
  */
 package org.jclouds.blobstore.internal;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
 import static org.jclouds.util.Predicates2.retry;
@@ -28,48 +30,73 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Named;
 
+import org.jclouds.Context;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.KeyNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobBuilder;
+import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.domain.MultipartPart;
 import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
 import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.strategy.MultipartUploadJournal;
+import org.jclouds.blobstore.strategy.MultipartUploadPolicy;
 import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
+import org.jclouds.blobstore.strategy.internal.PipelinedMultipartUploader;
+import org.jclouds.blobstore.strategy.internal.RangedBlobDownloader;
 import org.jclouds.blobstore.util.BlobUtils;
+import org.jclouds.blobstore.util.ForwardingBlobStore;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.io.ContentMetadata;
+import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
 import org.jclouds.io.PayloadSlicer;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.ResourceNotFoundException;
 import org.jclouds.util.Closeables2;
 
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ForwardingListeningExecutorService;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public abstract class BaseBlobStore implements BlobStore {
 
@@ -270,27 +297,7 @@ public abstract class BaseBlobStore implements BlobStore {
       if (blob == null) {
          throw new KeyNotFoundException(fromContainer, fromName, "while copying");
       }
-
-      String eTag = blob.getMetadata().getETag();
-      if (eTag != null) {
-         eTag = maybeQuoteETag(eTag);
-         if (options.ifMatch() != null && !maybeQuoteETag(options.ifMatch()).equals(eTag)) {
-            throw returnResponseException(412);
-         }
-         if (options.ifNoneMatch() != null && maybeQuoteETag(options.ifNoneMatch()).equals(eTag)) {
-            throw returnResponseException(412);
-         }
-      }
-
-      Date lastModified = blob.getMetadata().getLastModified();
-      if (lastModified != null) {
-         if (options.ifModifiedSince() != null && lastModified.compareTo(options.ifModifiedSince()) <= 0) {
-            throw returnResponseException(412);
-         }
-         if (options.ifUnmodifiedSince() != null && lastModified.compareTo(options.ifUnmodifiedSince()) >= 0) {
-            throw returnResponseException(412);
-         }
-      }
+      checkCopyPreconditions(blob.getMetadata(), options);
 
       InputStream is = null;
       try {
@@ -328,11 +335,148 @@ public abstract class BaseBlobStore implements BlobStore {
       }
    }
 
+   private static void checkCopyPreconditions(BlobMetadata from, CopyOptions options) {
+      String eTag = from.getETag();
+      if (eTag != null) {
+         eTag = maybeQuoteETag(eTag);
+         if (options.ifMatch() != null && !maybeQuoteETag(options.ifMatch()).equals(eTag)) {
+            throw returnResponseException(412);
+         }
+         if (options.ifNoneMatch() != null && maybeQuoteETag(options.ifNoneMatch()).equals(eTag)) {
+            throw returnResponseException(412);
+         }
+      }
+
+      Date lastModified = from.getLastModified();
+      if (lastModified != null) {
+         if (options.ifModifiedSince() != null && lastModified.compareTo(options.ifModifiedSince()) <= 0) {
+            throw returnResponseException(412);
+         }
+         if (options.ifUnmodifiedSince() != null && lastModified.compareTo(options.ifUnmodifiedSince()) >= 0) {
+            throw returnResponseException(412);
+         }
+      }
+   }
+
+   /**
+    * Copy using the jclouds userExecutor
+    *
+    * @see #copyMultipartBlob(String, BlobMetadata, String, String, CopyOptions, ListeningExecutorService)
+    */
+   @Beta
+   protected String copyMultipartBlob(String fromContainer, BlobMetadata from, String toContainer, String toName,
+         CopyOptions options) {
+      return copyMultipartBlob(fromContainer, from, toContainer, toName, options, userExecutor);
+   }
+
+   /**
+    * Copies a blob on the server by copying its ranges into the parts of a multipart upload in parallel, for
+    * providers whose single copy operation is limited in size. The provider must implement
+    * {@link #copyMultipartPart}.
+    *
+    * @param from
+    *           metadata of the source blob, which must include its content length
+    * @return the eTag of the copy
+    */
+   @Beta
+   protected String copyMultipartBlob(final String fromContainer, BlobMetadata from, String toContainer,
+         String toName, CopyOptions options, ListeningExecutorService executor) {
+      checkCopyPreconditions(from, options);
+      final String fromName = from.getName();
+      final String fromETag = from.getETag();
+      long contentLength = checkNotNull(from.getContentMetadata().getContentLength(), "content length of %s/%s",
+            fromContainer, fromName);
+
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl(from);
+      metadata.setContainer(toContainer);
+      metadata.setName(toName);
+      metadata.setETag(null);
+      metadata.getContentMetadata().setContentMD5((HashCode) null);
+      ContentMetadata contentMetadata = options.contentMetadata();
+      if (contentMetadata != null) {
+         MutableContentMetadata target = metadata.getContentMetadata();
+         if (contentMetadata.getCacheControl() != null)
+            target.setCacheControl(contentMetadata.getCacheControl());
+         if (contentMetadata.getContentDisposition() != null)
+            target.setContentDisposition(contentMetadata.getContentDisposition());
+         if (contentMetadata.getContentEncoding() != null)
+            target.setContentEncoding(contentMetadata.getContentEncoding());
+         if (contentMetadata.getContentLanguage() != null)
+            target.setContentLanguage(contentMetadata.getContentLanguage());
+         if (contentMetadata.getContentType() != null)
+            target.setContentType(contentMetadata.getContentType());
+      }
+      if (options.userMetadata() != null) {
+         metadata.setUserMetadata(options.userMetadata());
+      }
+
+      long partSize = new MultipartUploadSlicingAlgorithm(getMinimumMultipartPartSize(),
+            getMaximumMultipartPartSize(), getMaximumNumberOfParts()).calculateChunkSize(contentLength);
+      final MultipartUpload mpu = initiateMultipartUpload(toContainer, metadata, new PutOptions());
+      try {
+         List<ListenableFuture<MultipartPart>> parts = new ArrayList<ListenableFuture<MultipartPart>>();
+         int partNumber = 1;
+         for (long offset = 0; offset < contentLength; offset += partSize, partNumber++) {
+            final int number = partNumber;
+            final long start = offset;
+            final long length = Math.min(partSize, contentLength - offset);
+            parts.add(executor.submit(new Callable<MultipartPart>() {
+               @Override
+               public MultipartPart call() {
+                  return copyMultipartPart(mpu, number, fromContainer, fromName, fromETag, start, length);
+               }
+            }));
+         }
+         return completeMultipartUpload(mpu, Futures.getUnchecked(Futures.allAsList(parts)));
+      } catch (RuntimeException re) {
+         abortMultipartUpload(mpu);
+         throw re;
+      }
+   }
+
+   /**
+    * Copies {@code length} bytes of a blob, starting at {@code offset}, into a part of a multipart upload without
+    * the bytes passing through the client.
+    *
+    * @param fromETag
+    *           the ETag of the source when the copy started, if known; the part must only be copied from that
+    *           version, so that a source replaced during the copy fails it rather than mixing versions
+    *
+    * @throws UnsupportedOperationException
+    *            if the provider can't copy parts on the server, which is the default
+    */
+   @Beta
+   protected MultipartPart copyMultipartPart(MultipartUpload mpu, int partNumber, String fromContainer,
+         String fromName, @Nullable String fromETag, long offset, long length) {
+      throw new UnsupportedOperationException("server-side part copy is not supported by " + getClass().getName());
+   }
+
    @com.google.inject.Inject
    @Named(PROPERTY_USER_THREADS)
    @VisibleForTesting
    ListeningExecutorService userExecutor;
 
+   @com.google.inject.Inject
+   @VisibleForTesting
+   MultipartUploadPolicy multipartUploadPolicy;
+
+   @com.google.inject.Inject
+   @VisibleForTesting
+   MultipartUploadJournal multipartUploadJournal;
+
+   /**
+    * The number of part buffers, and so of parts uploading at once, when a multipart upload reads from a stream.
+    */
+   @com.google.inject.Inject(optional = true)
+   @Named("jclouds.mpu.buffers")
+   @VisibleForTesting
+   int multipartBuffers = 4;
+
+   @com.google.inject.Inject(optional = true)
+   @Named("jclouds.mpu.buffers.direct")
+   @VisibleForTesting
+   boolean multipartDirectBuffers = false;
+
    /**
     * Upload using a user-provided executor, or the jclouds userExecutor
     *
@@ -353,66 +497,310 @@ public abstract class BaseBlobStore implements BlobStore {
    @Beta
    protected String putMultipartBlob(String container, Blob blob, PutOptions overrides, ListeningExecutorService executor) {
       ArrayList<ListenableFuture<MultipartPart>> parts = new ArrayList<ListenableFuture<MultipartPart>>();
-      MultipartUpload mpu = initiateMultipartUpload(container, blob.getMetadata(), overrides);
-      // Cannot slice InputStream Payload since slice and close mutate the
-      // underlying stream.  Also issue synchronous uploads to avoid buffering
-      // arbitrary amounts of data in-memory.
       Payload payload = blob.getPayload();
       boolean repeatable = blob.getPayload().isRepeatable();
-      if (!repeatable) {
-         payload = Payloads.newInputStreamPayload(new FilterInputStream((InputStream) payload.getRawContent()) {
-            @Override
-            public long skip(long offset) throws IOException {
-               // intentionally not implemented
-               return offset;
+      final boolean resumable = overrides.isResumable();
+      final String journalKey = resumable ? journalKey(container, blob, overrides) : null;
+      long contentLength = blob.getMetadata().getContentMetadata().getContentLength();
+      int maxConcurrentParts = overrides.getMaxConcurrentParts();
+      int buffers = maxConcurrentParts > 0 ? Math.min(multipartBuffers, maxConcurrentParts) : multipartBuffers;
+      MultipartUpload mpu = null;
+      long partSize = 0;
+      SortedMap<Integer, MultipartPart> uploaded = Maps.newTreeMap();
+      if (resumable) {
+         MultipartUploadJournal.Entry entry = multipartUploadJournal.get(journalKey);
+         if (entry != null) {
+            mpu = MultipartUpload.create(container, blob.getMetadata().getName(), entry.getUploadId(),
+                  blob.getMetadata(), overrides);
+            List<MultipartPart> listed = resumableParts(mpu, entry, contentLength, overrides.getPartSize());
+            if (listed != null) {
+               partSize = entry.getPartSize();
+               uploaded.putAll(uploadedParts(entry, listed, contentLength));
+            } else {
+               mpu = null;
             }
+         }
+      }
+      if (mpu == null) {
+         partSize = multipartPartSize(contentLength, overrides.getPartSize(), repeatable ? 0 : buffers);
+         mpu = initiateMultipartUpload(container, blob.getMetadata(), overrides);
+         if (resumable)
+            multipartUploadJournal.begin(journalKey, mpu, contentLength, partSize);
+      }
 
-            @Override
-            public void close() throws IOException {
-               // intentionally not implemented
+      try {
+         if (!repeatable && partSize <= PipelinedMultipartUploader.MAX_BUFFERED_PART_SIZE) {
+            // Cannot slice InputStream Payload since slice and close mutate the
+            // underlying stream.  Read each part into a buffer instead.
+            BlobStore withPolicy = new ForwardingBlobStore(this) {
+               @Override
+               public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+                  return uploadMultipartPartWithPolicy(mpu, partNumber, payload, journalKey);
+               }
+            };
+            // a stream can only skip the parts at its start
+            int firstPartNumber = 1;
+            while (uploaded.containsKey(firstPartNumber))
+               firstPartNumber++;
+            long skipped = Math.min(contentLength, (firstPartNumber - 1) * partSize);
+            InputStream is = payload.openStream();
+            ByteStreams.skipFully(is, skipped);
+            for (MultipartPart part : new PipelinedMultipartUploader(buffers, multipartDirectBuffers).upload(withPolicy,
+                  mpu, is, contentLength - skipped, partSize, firstPartNumber, partExecutor(executor))) {
+               uploaded.put(part.partNumber(), part);
             }
-         });
+            return completeResumableMultipartUpload(mpu, uploaded, journalKey);
+         }
+         if (!repeatable) {
+            // Parts too large to buffer are sliced from the stream and
+            // uploaded synchronously, one at a time.
+            payload = unclosableInputStreamPayload((InputStream) payload.getRawContent());
+         }
+         Semaphore permits = repeatable && maxConcurrentParts > 0 ? new Semaphore(maxConcurrentParts) : null;
+         ListeningExecutorService partExecutor = partExecutor(executor);
+         int partNumber = 1;
+         for (long offset = 0; offset < contentLength; offset += partSize, partNumber++) {
+            if (uploaded.containsKey(partNumber))
+               continue;
+            Payload slice = slicer.slice(payload, offset, Math.min(partSize, contentLength - offset));
+            BlobUploader b = new BlobUploader(mpu, partNumber, slice, permits, journalKey);
+            if (permits != null)
+               permits.acquire();
+            if (repeatable) {
+               parts.add(partExecutor.submit(b));
+            } else {
+               multipartUploadPolicy.beforePart();
+               parts.add(Futures.immediateFuture(b.call()));
+            }
+         }
+         for (MultipartPart part : Futures.getUnchecked(Futures.allAsList(parts))) {
+            uploaded.put(part.partNumber(), part);
+         }
+         return completeResumableMultipartUpload(mpu, uploaded, journalKey);
+      } catch (InterruptedException ie) {
+         if (!resumable)
+            abortMultipartUpload(mpu);
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(ie);
+      } catch (IOException ioe) {
+         if (!resumable)
+            abortMultipartUpload(mpu);
+         throw Throwables.propagate(ioe);
+      } catch (RuntimeException re) {
+         // a resumable upload keeps its parts for the next attempt
+         if (!resumable)
+            abortMultipartUpload(mpu);
+         throw re;
       }
+   }
 
+   private String completeResumableMultipartUpload(MultipartUpload mpu, SortedMap<Integer, MultipartPart> parts,
+         @Nullable String journalKey) {
+      String eTag = completeMultipartUpload(mpu, ImmutableList.copyOf(parts.values()));
+      if (journalKey != null)
+         multipartUploadJournal.remove(journalKey);
+      return eTag;
+   }
+
+   /**
+    * Identifies a resumable upload in the {@link MultipartUploadJournal} by where it goes, the provider, endpoint,
+    * identity and blob, and by what it uploads, the {@link PutOptions#getResumeKey() resume key} or else the content
+    * MD5. Length and part size alone can't tell two versions of a blob apart.
+    */
+   private String journalKey(String container, Blob blob, PutOptions options) {
+      String content = options.getResumeKey();
+      if (content == null) {
+         HashCode md5 = blob.getMetadata().getContentMetadata().getContentMD5AsHashCode();
+         checkArgument(md5 != null, "resumable upload of %s needs a content MD5 or a resume key",
+               blob.getMetadata().getName());
+         content = "md5:" + md5;
+      }
+      Context backend = context.unwrap();
+      return Joiner.on('\n').useForNull("").join(backend.getProviderMetadata().getId(),
+            backend.getProviderMetadata().getEndpoint(), backend.getIdentity(), container,
+            blob.getMetadata().getName(), content);
+   }
+
+   /**
+    * @return the parts of the journaled upload, or null if it can't be resumed
+    */
+   @Nullable
+   private List<MultipartPart> resumableParts(MultipartUpload mpu, MultipartUploadJournal.Entry entry,
+         long contentLength, long partSize) {
+      if (entry.getContentLength() != contentLength || (partSize != 0 && partSize != entry.getPartSize())) {
+         // the journal is about another version of the blob, whose parts are of no use
+         try {
+            abortMultipartUpload(mpu);
+         } catch (RuntimeException re) {
+            // the upload may already be gone
+         }
+         return null;
+      }
       try {
-         long contentLength = blob.getMetadata().getContentMetadata().getContentLength();
-         // TODO: inject MultipartUploadSlicingAlgorithm to override default part size
-         MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(
-               getMinimumMultipartPartSize(), getMaximumMultipartPartSize(), getMaximumNumberOfParts());
-         long partSize = algorithm.calculateChunkSize(contentLength);
-         int partNumber = 1;
-         while (partNumber <= algorithm.getParts()) {
-            Payload slice = slicer.slice(payload, algorithm.getCopied(), partSize);
-            BlobUploader b = new BlobUploader(mpu, partNumber++, slice);
-            parts.add(repeatable ? executor.submit(b) : Futures.immediateFuture(b.call()));
-            algorithm.addCopied(partSize);
+         return listMultipartUpload(mpu);
+      } catch (ResourceNotFoundException rnfe) {
+         return null;
+      } catch (HttpResponseException hre) {
+         if (hre.getResponse() != null && hre.getResponse().getStatusCode() == 404)
+            return null;
+         throw hre;
+      }
+   }
+
+   /**
+    * @return the listed parts which the journal recorded, and which have the size of their range of the blob
+    */
+   private static Map<Integer, MultipartPart> uploadedParts(MultipartUploadJournal.Entry entry,
+         List<MultipartPart> listed, long contentLength) {
+      Map<Integer, String> journaled = Maps.newHashMap();
+      for (MultipartPart part : entry.getParts()) {
+         journaled.put(part.partNumber(), part.partETag());
+      }
+      Map<Integer, MultipartPart> uploaded = Maps.newHashMap();
+      for (MultipartPart part : listed) {
+         long offset = (part.partNumber() - 1) * entry.getPartSize();
+         if (!journaled.containsKey(part.partNumber()) || part.partNumber() < 1 || offset >= contentLength
+               || part.partSize() != Math.min(entry.getPartSize(), contentLength - offset))
+            continue;
+         String eTag = journaled.get(part.partNumber());
+         if (eTag == null || part.partETag() == null || maybeQuoteETag(eTag).equals(maybeQuoteETag(part.partETag())))
+            uploaded.put(part.partNumber(), part);
+      }
+      return uploaded;
+   }
+
+   /**
+    * @param override
+    *           part size requested through {@link PutOptions#partSize(long)}, or 0 to ask the
+    *           {@link MultipartUploadPolicy}
+    */
+   private long multipartPartSize(long contentLength, long override, int bufferedParts) {
+      long minimumPartSize = getMinimumMultipartPartSize();
+      long maximumPartSize = getMaximumMultipartPartSize();
+      int maximumNumberOfParts = getMaximumNumberOfParts();
+      if (override == 0) {
+         return multipartUploadPolicy.partSize(contentLength, minimumPartSize, maximumPartSize, maximumNumberOfParts,
+               bufferedParts);
+      }
+      checkArgument(override >= minimumPartSize && override <= maximumPartSize,
+            "partSize %s must be between %s and %s", override, minimumPartSize, maximumPartSize);
+      checkArgument(contentLength <= override * maximumNumberOfParts,
+            "partSize %s splits %s bytes into more than %s parts", override, contentLength, maximumNumberOfParts);
+      return override;
+   }
+
+   /**
+    * Returns an executor whose {@code submit} waits, on the submitting thread, until the {@link MultipartUploadPolicy}
+    * allows another part, so that no thread of {@code executor} waits for one. Parts which never run are given back.
+    */
+   private ListeningExecutorService partExecutor(final ListeningExecutorService executor) {
+      return new ForwardingListeningExecutorService() {
+         @Override
+         protected ListeningExecutorService delegate() {
+            return executor;
          }
-         if (algorithm.getRemaining() != 0) {
-            Payload slice = slicer.slice(payload, algorithm.getCopied(), algorithm.getRemaining());
-            BlobUploader b = new BlobUploader(mpu, partNumber, slice);
-            parts.add(repeatable ? executor.submit(b) : Futures.immediateFuture(b.call()));
+
+         @Override
+         public <T> ListenableFuture<T> submit(final Callable<T> task) {
+            try {
+               multipartUploadPolicy.beforePart();
+            } catch (InterruptedException ie) {
+               Thread.currentThread().interrupt();
+               throw Throwables.propagate(ie);
+            }
+            final AtomicBoolean started = new AtomicBoolean();
+            ListenableFuture<T> future;
+            try {
+               future = executor.submit(new Callable<T>() {
+                  @Override
+                  public T call() throws Exception {
+                     if (!started.compareAndSet(false, true))
+                        throw new CancellationException();
+                     return task.call();
+                  }
+               });
+            } catch (RuntimeException re) {
+               multipartUploadPolicy.cancelPart();
+               throw re;
+            }
+            future.addListener(new Runnable() {
+               @Override
+               public void run() {
+                  if (started.compareAndSet(false, true))
+                     multipartUploadPolicy.cancelPart();
+               }
+            }, MoreExecutors.directExecutor());
+            return future;
          }
-         return completeMultipartUpload(mpu, Futures.getUnchecked(Futures.allAsList(parts)));
+      };
+   }
+
+   /**
+    * Uploads a part which the {@link MultipartUploadPolicy} allowed, and reports how the upload went.
+    *
+    * @param journalKey
+    *           the key under which to record the part in the {@link MultipartUploadJournal}, or null
+    */
+   private MultipartPart uploadMultipartPartWithPolicy(MultipartUpload mpu, int partNumber, Payload payload,
+         @Nullable String journalKey) {
+      Long length = payload.getContentMetadata().getContentLength();
+      Throwable failure = null;
+      long start = System.nanoTime();
+      try {
+         MultipartPart part = uploadMultipartPart(mpu, partNumber, payload);
+         if (journalKey != null)
+            multipartUploadJournal.addPart(journalKey, part);
+         return part;
       } catch (RuntimeException re) {
-         abortMultipartUpload(mpu);
+         failure = re;
          throw re;
+      } catch (Error e) {
+         failure = e;
+         throw e;
+      } finally {
+         multipartUploadPolicy.afterPart(length == null ? 0 : length, System.nanoTime() - start, failure);
       }
    }
 
+   private static Payload unclosableInputStreamPayload(InputStream in) {
+      return Payloads.newInputStreamPayload(new FilterInputStream(in) {
+         @Override
+         public long skip(long offset) throws IOException {
+            // intentionally not implemented
+            return offset;
+         }
+
+         @Override
+         public void close() throws IOException {
+            // intentionally not implemented
+         }
+      });
+   }
+
    private final class BlobUploader implements Callable<MultipartPart> {
       private final MultipartUpload mpu;
       private final int partNumber;
       private final Payload payload;
+      private final Semaphore permits;
+      private final String journalKey;
 
-      BlobUploader(MultipartUpload mpu, int partNumber, Payload payload) {
+      BlobUploader(MultipartUpload mpu, int partNumber, Payload payload, @Nullable Semaphore permits,
+            @Nullable String journalKey) {
          this.mpu = mpu;
          this.partNumber = partNumber;
          this.payload = payload;
+         this.permits = permits;
+         this.journalKey = journalKey;
       }
 
       @Override
       public MultipartPart call() {
-         return uploadMultipartPart(mpu, partNumber, payload);
+         try {
+            return uploadMultipartPartWithPolicy(mpu, partNumber, payload, journalKey);
+         } finally {
+            if (permits != null)
+               permits.release();
+         }
       }
    }
 
@@ -430,23 +818,54 @@ public abstract class BaseBlobStore implements BlobStore {
       return eTag;
    }
 
+   /**
+    * The number of bytes requested by each ranged get of {@link #downloadBlob} and {@link #streamBlob}.
+    */
+   @com.google.inject.Inject(optional = true)
+   @Named("jclouds.download.range-size")
+   @VisibleForTesting
+   long downloadRangeSize = MultipartUploadSlicingAlgorithm.DEFAULT_PART_SIZE;
+
+   /**
+    * The number of ranges that {@link #streamBlob} reads ahead of the caller, and so holds in memory.
+    */
+   @com.google.inject.Inject(optional = true)
+   @Named("jclouds.download.read-ahead")
+   @VisibleForTesting
+   int downloadReadAhead = 4;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_MAX_RETRIES)
+   @VisibleForTesting
+   int downloadRetries = 5;
+
+   @com.google.inject.Inject(optional = true)
+   @VisibleForTesting
+   BackoffLimitedRetryHandler downloadRetryHandler = BackoffLimitedRetryHandler.INSTANCE;
+
    @Override
+   @Beta
    public void downloadBlob(String container, String name, File destination) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      downloadBlob(container, name, destination, userExecutor);
    }
 
    @Override
+   @Beta
    public void downloadBlob(String container, String name, File destination, ExecutorService executor) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      new RangedBlobDownloader(this, downloadRangeSize, downloadRetries, downloadRetryHandler).download(container,
+            name, destination, MoreExecutors.listeningDecorator(executor));
    }
 
    @Override
+   @Beta
    public InputStream streamBlob(String container, String name) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      return streamBlob(container, name, userExecutor);
    }
 
    @Override
+   @Beta
    public InputStream streamBlob(String container, String name, ExecutorService executor) {
-      throw new UnsupportedOperationException("Operation not supported yet");
+      return new RangedBlobDownloader(this, downloadRangeSize, downloadRetries, downloadRetryHandler).stream(
+            container, name, downloadReadAhead, MoreExecutors.listeningDecorator(executor));
    }
 }
@@ -19,6 +19,7 @@ package org.jclouds.blobstore.options;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import org.jclouds.blobstore.domain.BlobAccess;
+import org.jclouds.javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -41,6 +42,10 @@ public class PutOptions implements Cloneable {
    private BlobAccess blobAccess = BlobAccess.PRIVATE;
    private boolean multipart = false;
    private boolean useCustomExecutor = false;
+   private long partSize = 0;
+   private int maxConcurrentParts = 0;
+   private boolean resumable = false;
+   private String resumeKey;
 
    // TODO: This exposes ListeningExecutorService to the user, instead of a regular ExecutorService
    private ListeningExecutorService customExecutor = MoreExecutors.newDirectExecutorService();
@@ -108,6 +113,46 @@ public class PutOptions implements Cloneable {
          throw new UnsupportedOperationException();
       }
 
+      @Override
+      public long getPartSize() {
+         return delegate.getPartSize();
+      }
+
+      @Override
+      public PutOptions partSize(long partSize) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public int getMaxConcurrentParts() {
+         return delegate.getMaxConcurrentParts();
+      }
+
+      @Override
+      public PutOptions maxConcurrentParts(int maxConcurrentParts) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean isResumable() {
+         return delegate.isResumable();
+      }
+
+      @Override
+      public PutOptions resumable(boolean resumable) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public String getResumeKey() {
+         return delegate.getResumeKey();
+      }
+
+      @Override
+      public PutOptions resumable(String resumeKey) {
+         throw new UnsupportedOperationException();
+      }
+
       @Override
       public PutOptions clone() {
          return delegate.clone();
@@ -179,6 +224,82 @@ public class PutOptions implements Cloneable {
       return this;
    }
 
+   public long getPartSize() {
+      return partSize;
+   }
+
+   /**
+    * size of each part of a multipart upload, instead of the size chosen by the blob store's
+    * {@link org.jclouds.blobstore.strategy.MultipartUploadPolicy}. The size must be within the provider limits.
+    *
+    * @param partSize size in bytes, or 0 to let the blob store choose
+    */
+   public PutOptions partSize(long partSize) {
+      Preconditions.checkArgument(partSize >= 0, "partSize must not be negative: %s", partSize);
+      this.partSize = partSize;
+      return this;
+   }
+
+   public int getMaxConcurrentParts() {
+      return maxConcurrentParts;
+   }
+
+   /**
+    * most parts of this multipart upload to upload at once, in addition to the limit the blob store applies to all
+    * uploads.
+    *
+    * @param maxConcurrentParts number of parts, or 0 for no limit of its own
+    */
+   public PutOptions maxConcurrentParts(int maxConcurrentParts) {
+      Preconditions.checkArgument(maxConcurrentParts >= 0, "maxConcurrentParts must not be negative: %s",
+            maxConcurrentParts);
+      this.maxConcurrentParts = maxConcurrentParts;
+      return this;
+   }
+
+   public boolean isResumable() {
+      return resumable;
+   }
+
+   @Nullable
+   public String getResumeKey() {
+      return resumeKey;
+   }
+
+   /**
+    * upload large blobs in pieces which survive a failed upload, so that putting the same blob again, even from
+    * another process, uploads only the missing pieces.
+    *
+    * Pieces are only reused for the same content, which is recognized by the content MD5 of the blob, so the blob
+    * must have one; otherwise use {@link #resumable(String)}.
+    *
+    * Equivalent to <code>resumable(true)</code>
+    *
+    * @see org.jclouds.blobstore.strategy.MultipartUploadJournal
+    */
+   public PutOptions resumable() {
+      return resumable(true);
+   }
+
+   /**
+    * whether to upload large blobs in pieces which survive a failed upload. Implies {@link #multipart()}.
+    */
+   public PutOptions resumable(boolean resumable) {
+      this.resumable = resumable;
+      if (resumable)
+         this.multipart = true;
+      return this;
+   }
+
+   /**
+    * like {@link #resumable()}, but recognizes the content by {@code resumeKey} rather than by its MD5. The caller
+    * must change the key whenever the content changes.
+    */
+   public PutOptions resumable(String resumeKey) {
+      this.resumeKey = checkNotNull(resumeKey, "resumeKey");
+      return resumable(true);
+   }
+
    public static class Builder {
 
       public static PutOptions fromPutOptions(PutOptions putOptions) {
@@ -201,11 +322,46 @@ public class PutOptions implements Cloneable {
          PutOptions options = new PutOptions();
          return options.multipart(customExecutor);
       }
+
+      /**
+       * @see PutOptions#resumable()
+       */
+      public static PutOptions resumable() {
+         PutOptions options = new PutOptions();
+         return options.resumable();
+      }
+
+      /**
+       * @see PutOptions#resumable(String)
+       */
+      public static PutOptions resumable(String resumeKey) {
+         PutOptions options = new PutOptions();
+         return options.resumable(resumeKey);
+      }
+
+      /**
+       * @see PutOptions#partSize(long)
+       */
+      public static PutOptions partSize(long partSize) {
+         PutOptions options = new PutOptions();
+         return options.partSize(partSize);
+      }
+
+      /**
+       * @see PutOptions#maxConcurrentParts(int)
+       */
+      public static PutOptions maxConcurrentParts(int maxConcurrentParts) {
+         PutOptions options = new PutOptions();
+         return options.maxConcurrentParts(maxConcurrentParts);
+      }
    }
 
    @Override
    public PutOptions clone() {
-      return new PutOptions(multipart, useCustomExecutor, customExecutor);
+      PutOptions clone = new PutOptions(multipart, useCustomExecutor, customExecutor).partSize(partSize)
+            .maxConcurrentParts(maxConcurrentParts).resumable(resumable);
+      clone.resumeKey = resumeKey;
+      return clone;
    }
 
    @Override
@@ -213,6 +369,10 @@ public class PutOptions implements Cloneable {
       return "[multipart=" + multipart +
             ", blobAccess=" + blobAccess +
             ", useCustomExecutor=" + useCustomExecutor +
-            ", customExecutor=" + customExecutor + "]";
+            ", customExecutor=" + customExecutor +
+            ", partSize=" + partSize +
+            ", maxConcurrentParts=" + maxConcurrentParts +
+            ", resumable=" + resumable +
+            ", resumeKey=" + resumeKey + "]";
    }
 }
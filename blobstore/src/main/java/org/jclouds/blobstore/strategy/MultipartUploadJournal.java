@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.strategy.internal.FileMultipartUploadJournal;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.ImplementedBy;
+
+/**
+ * Records resumable multipart uploads, so that a later process can find an upload which did not complete and upload
+ * only its missing parts.
+ * <p>
+ * Uploads are identified by an opaque key, which {@link org.jclouds.blobstore.BlobStore} derives from the provider,
+ * endpoint and identity, the blob, and a fingerprint of its content, so that an upload is only resumed with the
+ * content it was started with.
+ *
+ * @see org.jclouds.blobstore.options.PutOptions#resumable()
+ */
+@Beta
+@ImplementedBy(FileMultipartUploadJournal.class)
+public interface MultipartUploadJournal {
+
+   /**
+    * @return the upload which did not complete, or null if there is none or its record can't be read
+    */
+   @Nullable
+   Entry get(String key);
+
+   /**
+    * Records a new upload of {@code contentLength} bytes in parts of {@code partSize} bytes, replacing any earlier
+    * upload with the same key.
+    */
+   void begin(String key, MultipartUpload mpu, long contentLength, long partSize);
+
+   /**
+    * Records that a part of the upload is uploaded. May be called from several threads at once.
+    */
+   void addPart(String key, MultipartPart part);
+
+   /**
+    * Forgets the upload, once it is complete.
+    */
+   void remove(String key);
+
+   final class Entry {
+      private final String uploadId;
+      private final long contentLength;
+      private final long partSize;
+      private final List<MultipartPart> parts;
+
+      public Entry(String uploadId, long contentLength, long partSize, List<MultipartPart> parts) {
+         this.uploadId = checkNotNull(uploadId, "uploadId");
+         this.contentLength = contentLength;
+         this.partSize = partSize;
+         this.parts = ImmutableList.copyOf(checkNotNull(parts, "parts"));
+      }
+
+      public String getUploadId() {
+         return uploadId;
+      }
+
+      public long getContentLength() {
+         return contentLength;
+      }
+
+      public long getPartSize() {
+         return partSize;
+      }
+
+      /**
+       * @return the parts recorded by {@link MultipartUploadJournal#addPart}, in the order they were recorded
+       */
+      public List<MultipartPart> getParts() {
+         return parts;
+      }
+
+      @Override
+      public String toString() {
+         return MoreObjects.toStringHelper(this).add("uploadId", uploadId).add("contentLength", contentLength)
+               .add("partSize", partSize).add("parts", parts.size()).toString();
+      }
+   }
+}
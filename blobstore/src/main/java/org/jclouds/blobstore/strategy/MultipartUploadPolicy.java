@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy;
+
+import org.jclouds.blobstore.strategy.internal.AdaptiveMultipartUploadPolicy;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.inject.ImplementedBy;
+
+/**
+ * Chooses the part size of multipart uploads and limits how many parts a context uploads at once, learning from the
+ * parts it has already uploaded. Implementations are shared by all uploads of a context and must be thread-safe.
+ */
+@Beta
+@ImplementedBy(AdaptiveMultipartUploadPolicy.class)
+public interface MultipartUploadPolicy {
+
+   /**
+    * @param contentLength
+    *           size of the blob
+    * @param bufferedParts
+    *           how many parts the upload holds in memory at once, or 0 if it slices a repeatable payload
+    * @return a part size within the provider limits which splits {@code contentLength} into at most
+    *         {@code maximumNumberOfParts} parts
+    */
+   long partSize(long contentLength, long minimumPartSize, long maximumPartSize, int maximumNumberOfParts,
+         int bufferedParts);
+
+   /**
+    * Blocks until the context may start another part upload. Callers wait here before they hand a part to an executor,
+    * so that the threads uploading parts never wait.
+    */
+   void beforePart() throws InterruptedException;
+
+   /**
+    * Gives back a part upload allowed by {@link #beforePart()} that never started, for instance because it was
+    * cancelled before an executor ran it.
+    */
+   void cancelPart();
+
+   /**
+    * Records a part upload started by {@link #beforePart()}, which took {@code nanos} to send {@code bytes}.
+    *
+    * @param failure
+    *           why the upload failed, or null if it succeeded
+    */
+   void afterPart(long bytes, long nanos, @Nullable Throwable failure);
+}
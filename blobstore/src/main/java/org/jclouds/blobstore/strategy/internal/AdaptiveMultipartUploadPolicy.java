@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.strategy.MultipartUploadPolicy;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.util.Throwables2;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+
+/**
+ * Sizes parts by {@link MultipartUploadSlicingAlgorithm}, from {@code jclouds.mpu.parts.size}. With
+ * {@code jclouds.mpu.parts.adaptive} set, which it is not by default, parts are instead sized so that each one takes
+ * about {@code jclouds.mpu.parts.duration} milliseconds at the throughput observed for earlier parts, and so that
+ * buffered parts fit into {@code jclouds.mpu.memory} bytes; {@code jclouds.mpu.parts.size} then only sizes the parts
+ * of the first upload.
+ * <p/>
+ * The number of parts uploading at once starts at {@code jclouds.mpu.concurrency}. It grows by one for each window of
+ * successful parts, up to {@code jclouds.mpu.concurrency.max}. It halves when the service throttles a part (503 or 429,
+ * including S3's SlowDown), and drops by one on any other failure. Parts wait for the limit in
+ * {@link #beforePart()} on the thread that submits them.
+ */
+@Singleton
+public class AdaptiveMultipartUploadPolicy implements MultipartUploadPolicy {
+   /** weight of the latest part in the average throughput */
+   private static final double SMOOTHING = 0.2;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.parts.size")
+   @VisibleForTesting
+   long defaultPartSize = MultipartUploadSlicingAlgorithm.DEFAULT_PART_SIZE;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.parts.adaptive")
+   @VisibleForTesting
+   boolean adaptivePartSize = false;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.parts.duration")
+   @VisibleForTesting
+   long partDurationMillis = SECONDS.toMillis(10);
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.memory")
+   @VisibleForTesting
+   long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.concurrency")
+   @VisibleForTesting
+   int initialConcurrency = 8;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.concurrency.max")
+   @VisibleForTesting
+   int maxConcurrency = 64;
+
+   private double concurrency = Double.NaN;
+   private int inFlight;
+   private double bytesPerSecond = Double.NaN;
+
+   @Override
+   public long partSize(long contentLength, long minimumPartSize, long maximumPartSize, int maximumNumberOfParts,
+         int bufferedParts) {
+      MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(minimumPartSize,
+            maximumPartSize, maximumNumberOfParts);
+      algorithm.defaultPartSize = defaultPartSize;
+      if (!adaptivePartSize)
+         return algorithm.calculateChunkSize(contentLength);
+      double throughput;
+      synchronized (this) {
+         throughput = bytesPerSecond;
+      }
+      long partSize;
+      if (Double.isNaN(throughput)) {
+         partSize = algorithm.calculateChunkSize(contentLength);
+      } else {
+         partSize = (long) (throughput * partDurationMillis / MILLISECONDS.convert(1, SECONDS));
+      }
+      if (bufferedParts > 0)
+         partSize = Math.min(partSize, memoryBudget / bufferedParts);
+      // fewer parts than the provider allows comes before the memory budget
+      long fewestBytesPerPart = (contentLength + maximumNumberOfParts - 1) / maximumNumberOfParts;
+      partSize = Math.max(partSize, Math.max(fewestBytesPerPart, minimumPartSize));
+      return Math.min(partSize, maximumPartSize);
+   }
+
+   @Override
+   public synchronized void beforePart() throws InterruptedException {
+      while (inFlight >= concurrencyLimit())
+         wait();
+      inFlight++;
+   }
+
+   @Override
+   public synchronized void cancelPart() {
+      inFlight--;
+      notifyAll();
+   }
+
+   @Override
+   public synchronized void afterPart(long bytes, long nanos, @Nullable Throwable failure) {
+      inFlight--;
+      int limit = concurrencyLimit();
+      if (failure == null) {
+         concurrency = Math.min(maxConcurrency, concurrency + 1.0 / limit);
+         if (bytes > 0 && nanos > 0) {
+            double observed = bytes * 1e9 / nanos;
+            bytesPerSecond = Double.isNaN(bytesPerSecond) ? observed
+                  : SMOOTHING * observed + (1 - SMOOTHING) * bytesPerSecond;
+         }
+      } else if (isThrottled(failure)) {
+         concurrency = Math.max(1, concurrency / 2);
+      } else {
+         concurrency = Math.max(1, concurrency - 1);
+      }
+      notifyAll();
+   }
+
+   /**
+    * @return the number of parts that may upload at once
+    */
+   @VisibleForTesting
+   synchronized int concurrencyLimit() {
+      if (Double.isNaN(concurrency)) {
+         checkArgument(initialConcurrency > 0, "jclouds.mpu.concurrency must be positive: %s", initialConcurrency);
+         concurrency = Math.min(initialConcurrency, maxConcurrency);
+      }
+      return (int) concurrency;
+   }
+
+   private static boolean isThrottled(Throwable failure) {
+      HttpResponseException response = Throwables2.getFirstThrowableOfType(failure, HttpResponseException.class);
+      if (response == null || response.getResponse() == null)
+         return false;
+      int status = response.getResponse().getStatusCode();
+      return status == 503 || status == 429;
+   }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.util.Strings2.urlDecode;
+import static org.jclouds.util.Strings2.urlEncode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.strategy.MultipartUploadJournal;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.io.FileWriteMode;
+import com.google.common.io.Files;
+import com.google.inject.Inject;
+
+/**
+ * Keeps one journal file per upload key in the {@code jclouds.mpu.journal.dir} directory, which defaults to a
+ * directory under the user's home. The first line of a journal describes the upload, and each further line is
+ * appended when a part is uploaded. A line which a crash left unfinished is ignored, along with any which follow it,
+ * and a journal whose first line can't be read is treated as absent.
+ */
+@Singleton
+public class FileMultipartUploadJournal implements MultipartUploadJournal {
+   private static final String UPLOAD = "upload";
+   private static final String PART = "part";
+   private static final String NO_ETAG = "-";
+   private static final Joiner FIELDS = Joiner.on(' ');
+   private static final Splitter SPLIT_FIELDS = Splitter.on(' ');
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.journal.dir")
+   @VisibleForTesting
+   String directory = new File(System.getProperty("user.home"), ".jclouds" + File.separator + "mpu-journal")
+         .getPath();
+
+   @Override
+   @Nullable
+   public synchronized Entry get(String key) {
+      File journal = journal(key);
+      if (!journal.isFile())
+         return null;
+      List<String> lines;
+      try {
+         lines = Files.readLines(journal, UTF_8);
+      } catch (IOException ioe) {
+         throw Throwables.propagate(ioe);
+      }
+      if (lines.isEmpty())
+         return null;
+      List<String> upload = SPLIT_FIELDS.splitToList(lines.get(0));
+      // the file name is a hash, so check that the journal is about this key
+      if (upload.size() != 5 || !UPLOAD.equals(upload.get(0)) || !hash(key).equals(upload.get(1)))
+         return null;
+      String uploadId;
+      long contentLength;
+      long partSize;
+      try {
+         uploadId = urlDecode(upload.get(2));
+         contentLength = Long.parseLong(upload.get(3));
+         partSize = Long.parseLong(upload.get(4));
+      } catch (IllegalArgumentException iae) {
+         // includes NumberFormatException
+         return null;
+      }
+      if (contentLength < 0 || partSize <= 0)
+         return null;
+      List<MultipartPart> parts = Lists.newArrayList();
+      for (String line : lines.subList(1, lines.size())) {
+         MultipartPart part = parsePart(line);
+         if (part == null)
+            break;
+         parts.add(part);
+      }
+      return new Entry(uploadId, contentLength, partSize, parts);
+   }
+
+   @Nullable
+   private static MultipartPart parsePart(String line) {
+      List<String> fields = SPLIT_FIELDS.splitToList(line);
+      if (fields.size() != 4 || !PART.equals(fields.get(0)))
+         return null;
+      try {
+         String eTag = NO_ETAG.equals(fields.get(3)) ? null : urlDecode(fields.get(3));
+         return MultipartPart.create(Integer.parseInt(fields.get(1)), Long.parseLong(fields.get(2)), eTag, null);
+      } catch (IllegalArgumentException iae) {
+         // includes NumberFormatException
+         return null;
+      }
+   }
+
+   @Override
+   public synchronized void begin(String key, MultipartUpload mpu, long contentLength, long partSize) {
+      File journal = journal(key);
+      try {
+         Files.createParentDirs(journal);
+         Files.asCharSink(journal, UTF_8).write(FIELDS.join(UPLOAD, hash(key), urlEncode(mpu.id()), contentLength,
+               partSize) + "\n");
+      } catch (IOException ioe) {
+         throw Throwables.propagate(ioe);
+      }
+   }
+
+   @Override
+   public synchronized void addPart(String key, MultipartPart part) {
+      String eTag = part.partETag() == null ? NO_ETAG : urlEncode(part.partETag());
+      try {
+         Files.asCharSink(journal(key), UTF_8, FileWriteMode.APPEND)
+               .write(FIELDS.join(PART, part.partNumber(), part.partSize(), eTag) + "\n");
+      } catch (IOException ioe) {
+         throw Throwables.propagate(ioe);
+      }
+   }
+
+   @Override
+   public synchronized void remove(String key) {
+      File journal = journal(key);
+      if (!journal.delete() && journal.exists())
+         throw new IllegalStateException("could not delete " + journal);
+   }
+
+   private File journal(String key) {
+      return new File(directory, hash(key) + ".journal");
+   }
+
+   private static String hash(String key) {
+      return Hashing.sha256().hashString(checkNotNull(key, "key"), UTF_8).toString();
+   }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Uploads the parts of a stream that can only be read once. The calling thread reads each part into one of a fixed
+ * ring of part buffers and hands it to the executor, so that several parts upload in parallel while the next one is
+ * read. When every buffer is in flight, reading waits for an upload to finish, which bounds memory use to
+ * {@code buffers * partSize} bytes.
+ */
+@Beta
+public final class PipelinedMultipartUploader {
+   /** the largest part that fits in a {@link ByteBuffer} */
+   public static final long MAX_BUFFERED_PART_SIZE = Integer.MAX_VALUE - 8;
+
+   private final int buffers;
+   private final boolean direct;
+
+   /**
+    * @param buffers
+    *           the number of part buffers, which is also the maximum number of parts uploading at once
+    * @param direct
+    *           whether to allocate the buffers outside of the heap
+    */
+   public PipelinedMultipartUploader(int buffers, boolean direct) {
+      checkArgument(buffers > 0, "buffers must be positive: %s", buffers);
+      this.buffers = buffers;
+      this.direct = direct;
+   }
+
+   /**
+    * Reads {@code contentLength} bytes from {@code in} and uploads them as parts of {@code partSize} bytes, the last
+    * one possibly shorter, numbered from {@code firstPartNumber}. The stream is not closed.
+    *
+    * @return the uploaded parts, in order
+    * @throws EOFException
+    *            if the stream ends before {@code contentLength} bytes
+    */
+   public List<MultipartPart> upload(final BlobStore blobStore, final MultipartUpload mpu, InputStream in,
+         long contentLength, long partSize, int firstPartNumber, ListeningExecutorService executor)
+         throws IOException {
+      checkNotNull(blobStore, "blobStore");
+      checkNotNull(mpu, "mpu");
+      checkNotNull(executor, "executor");
+      checkArgument(partSize > 0 && partSize <= MAX_BUFFERED_PART_SIZE, "partSize out of range: %s", partSize);
+      ReadableByteChannel channel = Channels.newChannel(checkNotNull(in, "in"));
+      int bufferSize = (int) Math.min(partSize, contentLength);
+      final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<ByteBuffer>(buffers);
+      final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+      List<ListenableFuture<MultipartPart>> parts = Lists.newArrayList();
+      int allocated = 0;
+      try {
+         long remaining = contentLength;
+         for (int partNumber = firstPartNumber; remaining > 0; partNumber++) {
+            ByteBuffer buffer = free.poll();
+            if (buffer == null && allocated < buffers) {
+               buffer = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+               allocated++;
+            } else if (buffer == null) {
+               buffer = free.take();
+            }
+            if (failure.get() != null)
+               throw Throwables.propagate(failure.get());
+
+            buffer.clear();
+            buffer.limit((int) Math.min(bufferSize, remaining));
+            while (buffer.hasRemaining()) {
+               if (channel.read(buffer) < 0)
+                  throw new EOFException(String.format("stream ended after %s of %s bytes",
+                        contentLength - remaining + buffer.position(), contentLength));
+            }
+            buffer.flip();
+            remaining -= buffer.remaining();
+
+            final ByteBuffer part = buffer;
+            final int number = partNumber;
+            parts.add(executor.submit(new Callable<MultipartPart>() {
+               @Override
+               public MultipartPart call() {
+                  try {
+                     return blobStore.uploadMultipartPart(mpu, number, payload(part));
+                  } catch (RuntimeException e) {
+                     failure.compareAndSet(null, e);
+                     throw e;
+                  } catch (Error e) {
+                     failure.compareAndSet(null, e);
+                     throw e;
+                  } finally {
+                     free.add(part);
+                  }
+               }
+            }));
+         }
+         return Futures.getUnchecked(Futures.allAsList(parts));
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         cancel(parts);
+         throw Throwables.propagate(e);
+      } catch (IOException e) {
+         cancel(parts);
+         throw e;
+      } catch (RuntimeException e) {
+         cancel(parts);
+         throw e;
+      }
+   }
+
+   private static void cancel(List<ListenableFuture<MultipartPart>> parts) {
+      for (ListenableFuture<MultipartPart> part : parts)
+         part.cancel(true);
+   }
+
+   private static Payload payload(ByteBuffer part) {
+      Payload payload = Payloads.newByteSourcePayload(new ByteBufferByteSource(part));
+      payload.getContentMetadata().setContentLength((long) part.remaining());
+      return payload;
+   }
+
+   /**
+    * Reads a buffer without moving its position, so that a part can be sent again when a request is retried.
+    */
+   private static final class ByteBufferByteSource extends ByteSource {
+      private final ByteBuffer buffer;
+
+      ByteBufferByteSource(ByteBuffer buffer) {
+         this.buffer = buffer;
+      }
+
+      @Override
+      public long size() {
+         return buffer.remaining();
+      }
+
+      @Override
+      public InputStream openStream() {
+         final ByteBuffer in = buffer.duplicate();
+         return new InputStream() {
+            @Override
+            public int read() {
+               return in.hasRemaining() ? in.get() & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+               if (len == 0)
+                  return 0;
+               if (!in.hasRemaining())
+                  return -1;
+               len = Math.min(len, in.remaining());
+               in.get(b, off, len);
+               return len;
+            }
+
+            @Override
+            public long skip(long n) {
+               int skipped = (int) Math.max(0, Math.min(n, in.remaining()));
+               in.position(in.position() + skipped);
+               return skipped;
+            }
+
+            @Override
+            public int available() {
+               return in.remaining();
+            }
+         };
+      }
+   }
+}
@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.blobstore.options.GetOptions.Builder.range;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Downloads a blob as parallel ranged gets through the portable {@link BlobStore} API, so that it works with any
+ * provider that honours {@link GetOptions#range(long, long)}. A range that fails with an {@link IOException} is
+ * retried on its own after the exponential back-off of {@link BackoffLimitedRetryHandler}, resuming after the bytes
+ * it already received.
+ * <p>
+ * Every range is pinned to the ETag read before the download with {@link GetOptions#ifETagMatches(String)}, and
+ * must come back with the requested Content-Range, or at least the requested length, so that a blob replaced during
+ * the download or a server which ignores ranges fails the download with an {@link IllegalStateException} instead of
+ * mixing bytes.
+ */
+@Beta
+public final class RangedBlobDownloader {
+   /** the largest range that {@link #stream} can hold in memory */
+   public static final long MAX_BUFFERED_RANGE_SIZE = Integer.MAX_VALUE - 8;
+
+   private final BlobStore blobStore;
+   private final long rangeSize;
+   private final int retries;
+   private final BackoffLimitedRetryHandler retryHandler;
+
+   /**
+    * @param rangeSize
+    *           the number of bytes requested by each get
+    * @param retries
+    *           how many times a range is retried after an {@link IOException}
+    */
+   public RangedBlobDownloader(BlobStore blobStore, long rangeSize, int retries) {
+      this(blobStore, rangeSize, retries, BackoffLimitedRetryHandler.INSTANCE);
+   }
+
+   /**
+    * @param retryHandler
+    *           imposes the delay before each retry of a range
+    */
+   public RangedBlobDownloader(BlobStore blobStore, long rangeSize, int retries,
+         BackoffLimitedRetryHandler retryHandler) {
+      this.blobStore = checkNotNull(blobStore, "blobStore");
+      checkArgument(rangeSize > 0, "rangeSize must be positive: %s", rangeSize);
+      checkArgument(retries >= 0, "retries must not be negative: %s", retries);
+      this.rangeSize = rangeSize;
+      this.retries = retries;
+      this.retryHandler = checkNotNull(retryHandler, "retryHandler");
+   }
+
+   /**
+    * Downloads all ranges in parallel into a temporary file of the blob's size, using positional writes, and moves
+    * it to {@code destination} once every range is written.
+    */
+   public void download(final String container, final String name, File destination,
+         ListeningExecutorService executor) {
+      BlobMetadata metadata = metadata(container, name);
+      final String eTag = metadata.getETag();
+      final long contentLength = contentLength(metadata);
+      File tempFile = new File(destination + "." + UUID.randomUUID());
+      RandomAccessFile raf = null;
+      List<ListenableFuture<Void>> ranges = Lists.newArrayList();
+      try {
+         raf = new RandomAccessFile(tempFile, "rw");
+         raf.setLength(contentLength);
+         final FileChannel channel = raf.getChannel();
+         for (long from = 0; from < contentLength; from += rangeSize) {
+            final long start = from;
+            final long end = Math.min(from + rangeSize, contentLength) - 1;
+            ranges.add(executor.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws IOException {
+                  fetch(container, name, eTag, contentLength, start, end, new RangeSink() {
+                     @Override
+                     public void write(long offset, byte[] buffer, int length) throws IOException {
+                        ByteBuffer src = ByteBuffer.wrap(buffer, 0, length);
+                        for (long position = offset; src.hasRemaining();)
+                           position += channel.write(src, position);
+                     }
+                  });
+                  return null;
+               }
+            }));
+         }
+         Futures.getUnchecked(Futures.allAsList(ranges));
+         channel.force(true);
+         raf.close();
+         raf = null;
+
+         if (destination.exists() && !destination.delete()) {
+            throw new IOException("Could not delete existing destination " + destination);
+         }
+         if (!tempFile.renameTo(destination)) {
+            throw new IOException("Could not move temporary downloaded file to destination " + destination);
+         }
+         tempFile = null;
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         for (ListenableFuture<Void> range : ranges)
+            range.cancel(true);
+         Closeables2.closeQuietly(raf);
+         if (tempFile != null) {
+            tempFile.delete();
+         }
+      }
+   }
+
+   /**
+    * Opens a stream over the blob which reads up to {@code readAhead} ranges ahead of the caller in parallel, and
+    * returns their bytes in order. At most {@code readAhead} ranges are held in memory. Closing the stream cancels
+    * the ranges still being read.
+    */
+   public InputStream stream(String container, String name, int readAhead, ListeningExecutorService executor) {
+      checkArgument(readAhead > 0, "readAhead must be positive: %s", readAhead);
+      checkArgument(rangeSize <= MAX_BUFFERED_RANGE_SIZE, "rangeSize too large to buffer: %s", rangeSize);
+      BlobMetadata metadata = metadata(container, name);
+      return new ReadAheadInputStream(container, name, metadata.getETag(), contentLength(metadata), readAhead,
+            checkNotNull(executor, "executor"));
+   }
+
+   private BlobMetadata metadata(String container, String name) {
+      BlobMetadata metadata = blobStore.blobMetadata(container, name);
+      if (metadata == null)
+         throw new KeyNotFoundException(container, name, "while downloading blob");
+      return metadata;
+   }
+
+   private static long contentLength(BlobMetadata metadata) {
+      Long contentLength = metadata.getContentMetadata().getContentLength();
+      if (contentLength == null)
+         contentLength = checkNotNull(metadata.getSize(), "size of %s/%s", metadata.getContainer(),
+               metadata.getName());
+      return contentLength;
+   }
+
+   /**
+    * Receives the bytes of a range as they arrive, at their offset from the start of the blob.
+    */
+   private interface RangeSink {
+      void write(long offset, byte[] buffer, int length) throws IOException;
+   }
+
+   /**
+    * Gets bytes {@code start} to {@code end} inclusive of the blob version {@code eTag}, if known. After an
+    * {@link IOException}, backs off and asks again for the bytes not yet received.
+    */
+   private void fetch(String container, String name, @Nullable String eTag, long contentLength, long start, long end,
+         RangeSink sink) throws IOException {
+      byte[] buffer = new byte[(int) Math.min(64 * 1024, end - start + 1)];
+      long offset = start;
+      for (int attempt = 0;; attempt++) {
+         try {
+            GetOptions options = range(offset, end);
+            if (eTag != null)
+               options.ifETagMatches(eTag);
+            Blob blob = blobStore.getBlob(container, name, options);
+            if (blob == null)
+               throw new KeyNotFoundException(container, name, "while downloading range " + offset + "-" + end);
+            InputStream in = blob.getPayload().openStream();
+            try {
+               checkRange(blob, container, name, eTag, contentLength, offset, end);
+               while (offset <= end) {
+                  int read = in.read(buffer, 0, (int) Math.min(buffer.length, end - offset + 1));
+                  if (read < 0)
+                     throw new EOFException("range " + start + "-" + end + " of " + container + "/" + name
+                           + " ended at " + offset);
+                  sink.write(offset, buffer, read);
+                  offset += read;
+               }
+               return;
+            } finally {
+               Closeables2.closeQuietly(in);
+            }
+         } catch (IOException e) {
+            if (attempt >= retries || Thread.currentThread().isInterrupted())
+               throw e;
+            retryHandler.imposeBackoffExponentialDelay(attempt + 1, "range " + offset + "-" + end + " of "
+                  + container + "/" + name + ": " + e);
+         }
+      }
+   }
+
+   /**
+    * Checks that {@code blob} holds bytes {@code start} to {@code end} of version {@code eTag}. A server that ignores
+    * the range answers with the whole blob and no Content-Range, so without that header the length must match.
+    */
+   private static void checkRange(Blob blob, String container, String name, @Nullable String eTag,
+         long contentLength, long start, long end) {
+      String received = blob.getMetadata().getETag();
+      checkState(eTag == null || received == null || eTag.equals(received),
+            "%s/%s changed during the download: expected ETag %s but got %s", container, name, eTag, received);
+      String contentRange = null;
+      for (Map.Entry<String, String> header : blob.getAllHeaders().entries()) {
+         if (header.getKey().equalsIgnoreCase(HttpHeaders.CONTENT_RANGE))
+            contentRange = header.getValue();
+      }
+      if (contentRange != null) {
+         String expected = "bytes " + start + "-" + end + "/";
+         checkState(contentRange.equals(expected + contentLength) || contentRange.equals(expected + "*"),
+               "%s/%s: expected Content-Range %s%s but got %s", container, name, expected, contentLength,
+               contentRange);
+      } else {
+         Long length = blob.getPayload().getContentMetadata().getContentLength();
+         checkState(length != null && length == end - start + 1,
+               "%s/%s: expected %s bytes for range %s-%s but got %s without a Content-Range", container, name,
+               end - start + 1, start, end, length);
+      }
+   }
+
+   private final class ReadAheadInputStream extends InputStream {
+      private final String container;
+      private final String name;
+      private final String eTag;
+      private final long contentLength;
+      private final int readAhead;
+      private final ListeningExecutorService executor;
+      private final Deque<ListenableFuture<byte[]>> ranges = new ArrayDeque<ListenableFuture<byte[]>>();
+      private long nextRange;
+      private byte[] current = new byte[0];
+      private int position;
+      private boolean closed;
+
+      ReadAheadInputStream(String container, String name, @Nullable String eTag, long contentLength, int readAhead,
+            ListeningExecutorService executor) {
+         this.container = container;
+         this.name = name;
+         this.eTag = eTag;
+         this.contentLength = contentLength;
+         this.readAhead = readAhead;
+         this.executor = executor;
+         fill();
+      }
+
+      private void fill() {
+         while (ranges.size() < readAhead && nextRange < contentLength) {
+            final long start = nextRange;
+            final long end = Math.min(start + rangeSize, contentLength) - 1;
+            ranges.add(executor.submit(new Callable<byte[]>() {
+               @Override
+               public byte[] call() throws IOException {
+                  final byte[] bytes = new byte[(int) (end - start + 1)];
+                  fetch(container, name, eTag, contentLength, start, end, new RangeSink() {
+                     @Override
+                     public void write(long offset, byte[] buffer, int length) {
+                        System.arraycopy(buffer, 0, bytes, (int) (offset - start), length);
+                     }
+                  });
+                  return bytes;
+               }
+            }));
+            nextRange = end + 1;
+         }
+      }
+
+      /**
+       * @return false at the end of the blob
+       */
+      private boolean advance() throws IOException {
+         if (closed)
+            throw new IOException("stream closed");
+         while (position == current.length) {
+            // the current range is consumed, so its place goes to the next range to read ahead
+            current = new byte[0];
+            position = 0;
+            fill();
+            ListenableFuture<byte[]> next = ranges.poll();
+            if (next == null)
+               return false;
+            try {
+               current = next.get();
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new InterruptedIOException("interrupted while reading " + container + "/" + name);
+            } catch (ExecutionException e) {
+               Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+               throw Throwables.propagate(e.getCause());
+            }
+            position = 0;
+         }
+         return true;
+      }
+
+      @Override
+      public int read() throws IOException {
+         return advance() ? current[position++] & 0xff : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         checkNotNull(b, "b");
+         if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+         if (len == 0)
+            return 0;
+         if (!advance())
+            return -1;
+         int read = Math.min(len, current.length - position);
+         System.arraycopy(current, position, b, off, read);
+         position += read;
+         return read;
+      }
+
+      @Override
+      public int available() {
+         return current.length - position;
+      }
+
+      @Override
+      public void close() {
+         if (closed)
+            return;
+         closed = true;
+         for (ListenableFuture<byte[]> range : ranges)
+            range.cancel(true);
+         ranges.clear();
+         current = new byte[0];
+      }
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.options.CopyOptions;
+import org.jclouds.utils.TestUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+
+/**
+ * Measures {@link BlobStore#copyBlob} against downloading a blob and uploading it again. The blob size defaults to
+ * 64 MB and can be changed with the {@code test.copy-size} system property. Subclasses run it against other
+ * providers.
+ */
+@Test(groups = "performance", singleThreaded = true, testName = "CopyBlobThroughputTest")
+public class CopyBlobThroughputTest {
+   private static final String CONTAINER = "copy-throughput";
+
+   private final long size = Long.getLong("test.copy-size", 64L * 1024 * 1024);
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+
+   protected String provider() {
+      return "transient";
+   }
+
+   protected Properties overrides() {
+      return new Properties();
+   }
+
+   @BeforeClass
+   public void setUp() {
+      context = ContextBuilder.newBuilder(provider()).overrides(overrides()).build(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, CONTAINER);
+      ByteSource content = TestUtils.randomByteSource().slice(0, size);
+      blobStore.putBlob(CONTAINER, blobStore.blobBuilder("source").payload(content).contentLength(size).build());
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      if (context != null) {
+         blobStore.deleteContainer(CONTAINER);
+         context.close();
+      }
+   }
+
+   public void testCopyBlob() {
+      long start = System.nanoTime();
+      blobStore.copyBlob(CONTAINER, "source", CONTAINER, "copied", CopyOptions.NONE);
+      report("copyBlob", System.nanoTime() - start);
+      assertEquals(blobStore.blobMetadata(CONTAINER, "copied").getSize().longValue(), size);
+   }
+
+   public void testDownloadAndUpload() throws IOException {
+      long start = System.nanoTime();
+      Blob blob = blobStore.getBlob(CONTAINER, "source");
+      InputStream is = blob.getPayload().openStream();
+      try {
+         blobStore.putBlob(CONTAINER, blobStore.blobBuilder("reuploaded").payload(is).contentLength(size).build());
+      } finally {
+         is.close();
+      }
+      report("download and upload", System.nanoTime() - start);
+      assertEquals(blobStore.blobMetadata(CONTAINER, "reuploaded").getSize().longValue(), size);
+   }
+
+   private void report(String name, long nanos) {
+      System.out.printf("TIMING: %s on %s of %d bytes took %.3fs: %.1f MB/s%n", name, provider(), size, nanos / 1e9,
+            size / 1e6 / (nanos / 1e9));
+   }
+}
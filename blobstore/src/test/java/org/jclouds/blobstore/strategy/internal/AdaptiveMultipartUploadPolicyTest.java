@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "AdaptiveMultipartUploadPolicyTest")
+public final class AdaptiveMultipartUploadPolicyTest {
+   private static final long MB = 1024 * 1024;
+   private static final long MIN_PART_SIZE = 5 * MB;
+   private static final long MAX_PART_SIZE = 5 * 1024 * MB;
+   private static final int MAX_NUMBER_OF_PARTS = 10 * 1000;
+
+   private AdaptiveMultipartUploadPolicy policy;
+
+   @BeforeMethod
+   public void setUp() {
+      policy = new AdaptiveMultipartUploadPolicy();
+      policy.adaptivePartSize = true;
+      policy.memoryBudget = 1024 * MB;
+      policy.partDurationMillis = 1000;
+      policy.initialConcurrency = 4;
+      policy.maxConcurrency = 8;
+   }
+
+   public void testSlicesLikeTheAlgorithmBeforeAnyPartIsUploaded() {
+      long length = 100 * 1024 * MB;
+      MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(MIN_PART_SIZE, MAX_PART_SIZE,
+            MAX_NUMBER_OF_PARTS);
+      assertEquals(policy.partSize(length, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS, 0),
+            algorithm.calculateChunkSize(length));
+   }
+
+   public void testKeepsConfiguredPartSizeUnlessAdaptive() {
+      policy.adaptivePartSize = false;
+      policy.defaultPartSize = 16 * MB;
+      policy.afterPart(64 * MB, TimeUnit.SECONDS.toNanos(1), null);
+      assertEquals(policy.partSize(1024 * MB, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS, 0), 16 * MB);
+      assertEquals(policy.partSize(1024 * MB, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS, 16), 16 * MB);
+   }
+
+   public void testSizesPartsFromObservedThroughput() {
+      // 64MB/s, so a one second part holds 64MB
+      policy.afterPart(64 * MB, TimeUnit.SECONDS.toNanos(1), null);
+      assertEquals(policy.partSize(100 * 1024 * MB, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS, 0), 64 * MB);
+      // slower parts shrink the next ones
+      policy.afterPart(64 * MB, TimeUnit.SECONDS.toNanos(2), null);
+      long partSize = policy.partSize(100 * 1024 * MB, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS, 0);
+      assertTrue(partSize > 32 * MB && partSize < 64 * MB, "partSize: " + partSize);
+   }
+
+   public void testBufferedPartsFitInMemoryBudget() {
+      policy.afterPart(1024 * MB, TimeUnit.SECONDS.toNanos(1), null);
+      assertEquals(policy.partSize(100 * 1024 * MB, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS, 16), 64 * MB);
+   }
+
+   public void testPartSizeStaysWithinProviderLimits() {
+      policy.afterPart(1, TimeUnit.SECONDS.toNanos(1), null);
+      assertEquals(policy.partSize(1024 * MB, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS, 0), MIN_PART_SIZE);
+      // enough bytes per part to stay within the number of parts, even beyond the memory budget
+      long length = 5000L * 1024 * MB;
+      assertEquals(policy.partSize(length, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS, 16),
+            (length + MAX_NUMBER_OF_PARTS - 1) / MAX_NUMBER_OF_PARTS);
+
+      policy.afterPart(Long.MAX_VALUE / 2, 1, null);
+      assertEquals(policy.partSize(length, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS, 0), MAX_PART_SIZE);
+   }
+
+   public void testConcurrencyGrowsAdditivelyOnSuccess() throws InterruptedException {
+      assertEquals(policy.concurrencyLimit(), 4);
+      for (int i = 0; i < 4; i++) {
+         policy.beforePart();
+         policy.afterPart(MB, 1, null);
+      }
+      assertEquals(policy.concurrencyLimit(), 5);
+      for (int i = 0; i < 100; i++) {
+         policy.beforePart();
+         policy.afterPart(MB, 1, null);
+      }
+      assertEquals(policy.concurrencyLimit(), 8);
+   }
+
+   public void testConcurrencyHalvesWhenThrottled() throws InterruptedException {
+      policy.initialConcurrency = 8;
+      policy.beforePart();
+      policy.afterPart(0, 1, throttled(503));
+      assertEquals(policy.concurrencyLimit(), 4);
+      policy.beforePart();
+      policy.afterPart(0, 1, new RuntimeException(throttled(429)));
+      assertEquals(policy.concurrencyLimit(), 2);
+      for (int i = 0; i < 4; i++) {
+         policy.beforePart();
+         policy.afterPart(0, 1, throttled(503));
+      }
+      assertEquals(policy.concurrencyLimit(), 1);
+   }
+
+   public void testConcurrencyDecreasesOnOtherFailures() throws InterruptedException {
+      policy.beforePart();
+      policy.afterPart(0, 1, throttled(500));
+      assertEquals(policy.concurrencyLimit(), 3);
+      policy.beforePart();
+      policy.afterPart(0, 1, new IllegalStateException());
+      assertEquals(policy.concurrencyLimit(), 2);
+   }
+
+   public void testBeforePartBlocksAtTheLimit() throws InterruptedException {
+      policy.initialConcurrency = 1;
+      policy.beforePart();
+      final CountDownLatch started = new CountDownLatch(1);
+      Thread waiter = new Thread() {
+         @Override
+         public void run() {
+            try {
+               policy.beforePart();
+               started.countDown();
+            } catch (InterruptedException ie) {
+               // test fails on the latch
+            }
+         }
+      };
+      waiter.start();
+      assertFalse(started.await(100, TimeUnit.MILLISECONDS));
+      policy.afterPart(MB, 1, null);
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      waiter.join();
+   }
+
+   @Test(timeOut = 10000)
+   public void testCancelledPartFreesItsPlace() throws InterruptedException {
+      policy.initialConcurrency = 1;
+      policy.beforePart();
+      policy.cancelPart();
+      policy.beforePart();
+      // a cancelled part tells nothing about the service
+      assertEquals(policy.concurrencyLimit(), 1);
+   }
+
+   private static HttpResponseException throttled(int statusCode) {
+      HttpRequest request = HttpRequest.builder().method("PUT").endpoint("http://localhost/container/blob").build();
+      return new HttpResponseException(new HttpCommand(request), HttpResponse.builder().statusCode(statusCode).build());
+   }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.strategy.MultipartUploadJournal.Entry;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.FileWriteMode;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "FileMultipartUploadJournalTest")
+public final class FileMultipartUploadJournalTest {
+   private static final String KEY = "provider\nhttps://endpoint\nidentity\ncontainer\ndir/blob with spaces\nmd5:00";
+
+   private File directory;
+   private FileMultipartUploadJournal journal;
+   private MultipartUpload mpu;
+
+   @BeforeMethod
+   public void setUp() {
+      directory = Files.createTempDir();
+      journal = new FileMultipartUploadJournal();
+      journal.directory = directory.getPath();
+      mpu = MultipartUpload.create("container", "dir/blob with spaces", "upload id", null, PutOptions.NONE);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      for (File file : directory.listFiles()) {
+         file.delete();
+      }
+      directory.delete();
+   }
+
+   public void testRecordsUploadAndParts() {
+      assertNull(journal.get(KEY));
+      journal.begin(KEY, mpu, 12, 5);
+      journal.addPart(KEY, MultipartPart.create(2, 5, "\"etag 2\"", null));
+      journal.addPart(KEY, MultipartPart.create(1, 5, null, null));
+
+      Entry entry = journal.get(KEY);
+      assertEquals(entry.getUploadId(), "upload id");
+      assertEquals(entry.getContentLength(), 12);
+      assertEquals(entry.getPartSize(), 5);
+      assertEquals(entry.getParts(), ImmutableList.of(MultipartPart.create(2, 5, "\"etag 2\"", null),
+            MultipartPart.create(1, 5, null, null)));
+      assertNull(journal.get(KEY.replace("md5:00", "md5:01")));
+   }
+
+   public void testDefaultDirectoryBelongsToTheUser() {
+      assertTrue(new FileMultipartUploadJournal().directory.startsWith(System.getProperty("user.home")));
+   }
+
+   public void testBeginReplacesEarlierUpload() {
+      journal.begin(KEY, mpu, 12, 5);
+      journal.addPart(KEY, MultipartPart.create(1, 5, "etag", null));
+      journal.begin(KEY, MultipartUpload.create("container", "dir/blob with spaces", "another", null,
+            PutOptions.NONE), 20, 10);
+
+      Entry entry = journal.get(KEY);
+      assertEquals(entry.getUploadId(), "another");
+      assertEquals(entry.getContentLength(), 20);
+      assertEquals(entry.getParts(), ImmutableList.of());
+   }
+
+   public void testIgnoresUnfinishedLine() throws IOException {
+      journal.begin(KEY, mpu, 12, 5);
+      journal.addPart(KEY, MultipartPart.create(1, 5, "etag", null));
+      File file = directory.listFiles()[0];
+      Files.asCharSink(file, UTF_8, FileWriteMode.APPEND).write("part 2 5");
+
+      assertEquals(journal.get(KEY).getParts(), ImmutableList.of(MultipartPart.create(1, 5, "etag", null)));
+   }
+
+   public void testUnparseableJournalIsAbsent() throws IOException {
+      journal.begin(KEY, mpu, 12, 5);
+      File file = directory.listFiles()[0];
+      String upload = Files.readFirstLine(file, UTF_8);
+      Files.asCharSink(file, UTF_8).write(upload.replace(" 12 ", " 1x2 ") + "\n");
+      assertNull(journal.get(KEY));
+
+      Files.asCharSink(file, UTF_8).write(upload.replace("upload%20id", "upload%2") + "\n");
+      assertNull(journal.get(KEY));
+   }
+
+   public void testRemove() {
+      journal.begin(KEY, mpu, 12, 5);
+      journal.remove(KEY);
+      assertNull(journal.get(KEY));
+      assertEquals(directory.listFiles().length, 0);
+      // removing twice is harmless
+      journal.remove(KEY);
+   }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.io.Payload;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.reflect.AbstractInvocationHandler;
+import com.google.common.reflect.Reflection;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "PipelinedMultipartUploaderTest")
+public class PipelinedMultipartUploaderTest {
+   private static final int PART_SIZE = 1000;
+   private static final MultipartUpload MPU = MultipartUpload.create("container", "blob", "id", null, null);
+
+   public void testUploadsPartsInParallelWithinBufferLimit() throws IOException {
+      byte[] content = content(10 * PART_SIZE + 123);
+      RecordingBlobStore store = new RecordingBlobStore(content.length, 1, -1);
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         List<MultipartPart> parts = new PipelinedMultipartUploader(3, false).upload(store.proxy(), MPU,
+               new ByteArrayInputStream(content), content.length, PART_SIZE, 1, executor);
+
+         assertEquals(parts.size(), 11);
+         for (int i = 0; i < parts.size(); i++) {
+            assertEquals(parts.get(i).partNumber(), i + 1);
+            assertEquals(parts.get(i).partSize(), i < 10 ? PART_SIZE : 123);
+         }
+         assertEquals(store.uploaded(), content);
+         assertTrue(store.maxConcurrentUploads.get() <= 3, "uploads in flight: " + store.maxConcurrentUploads);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testDirectBuffers() throws IOException {
+      byte[] content = content(2500);
+      RecordingBlobStore store = new RecordingBlobStore(content.length, 0, -1);
+      List<MultipartPart> parts = new PipelinedMultipartUploader(2, true).upload(store.proxy(), MPU,
+            new ByteArrayInputStream(content), content.length, PART_SIZE, 0, MoreExecutors.newDirectExecutorService());
+
+      assertEquals(parts.size(), 3);
+      assertEquals(parts.get(0).partNumber(), 0);
+      assertEquals(store.uploaded(), content);
+   }
+
+   public void testReadsOnlyContentLength() throws IOException {
+      byte[] content = content(2500);
+      ByteArrayInputStream in = new ByteArrayInputStream(content);
+      RecordingBlobStore store = new RecordingBlobStore(2000, 1, -1);
+      List<MultipartPart> parts = new PipelinedMultipartUploader(2, false).upload(store.proxy(), MPU, in, 2000,
+            PART_SIZE, 1, MoreExecutors.newDirectExecutorService());
+
+      assertEquals(parts.size(), 2);
+      assertEquals(in.available(), 500);
+   }
+
+   public void testEmptyContentUploadsNoParts() throws IOException {
+      RecordingBlobStore store = new RecordingBlobStore(0, 1, -1);
+      List<MultipartPart> parts = new PipelinedMultipartUploader(2, false).upload(store.proxy(), MPU,
+            new ByteArrayInputStream(new byte[0]), 0, PART_SIZE, 1, MoreExecutors.newDirectExecutorService());
+
+      assertTrue(parts.isEmpty());
+   }
+
+   public void testShortStreamFails() throws IOException {
+      RecordingBlobStore store = new RecordingBlobStore(2500, 1, -1);
+      try {
+         new PipelinedMultipartUploader(2, false).upload(store.proxy(), MPU, new ByteArrayInputStream(content(1500)),
+               2500, PART_SIZE, 1, MoreExecutors.newDirectExecutorService());
+         fail("expected EOFException");
+      } catch (EOFException expected) {
+      }
+   }
+
+   public void testFailedPartStopsReading() throws IOException {
+      byte[] content = content(5000);
+      ByteArrayInputStream in = new ByteArrayInputStream(content);
+      RecordingBlobStore store = new RecordingBlobStore(content.length, 1, 2);
+      try {
+         new PipelinedMultipartUploader(1, false).upload(store.proxy(), MPU, in, content.length, PART_SIZE, 1,
+               MoreExecutors.newDirectExecutorService());
+         fail("expected part 2 to fail");
+      } catch (IllegalStateException expected) {
+      }
+      assertEquals(in.available(), 3000);
+   }
+
+   private static byte[] content(int length) {
+      byte[] content = new byte[length];
+      new Random(length).nextBytes(content);
+      return content;
+   }
+
+   /**
+    * Records the parts uploaded to it, at their offsets, and how many uploads were in flight at once.
+    */
+   private static final class RecordingBlobStore extends AbstractInvocationHandler {
+      private final byte[] uploaded;
+      private final int firstPartNumber;
+      private final int failingPart;
+      private final AtomicInteger concurrentUploads = new AtomicInteger();
+      private final AtomicInteger maxConcurrentUploads = new AtomicInteger();
+
+      RecordingBlobStore(int length, int firstPartNumber, int failingPart) {
+         this.uploaded = new byte[length];
+         this.firstPartNumber = firstPartNumber;
+         this.failingPart = failingPart;
+      }
+
+      BlobStore proxy() {
+         return Reflection.newProxy(BlobStore.class, this);
+      }
+
+      synchronized byte[] uploaded() {
+         return uploaded.clone();
+      }
+
+      @Override
+      protected Object handleInvocation(Object proxy, Method method, Object[] args) throws Throwable {
+         if (!method.getName().equals("uploadMultipartPart"))
+            throw new UnsupportedOperationException(method.toString());
+         int partNumber = (Integer) args[1];
+         Payload payload = (Payload) args[2];
+         int inFlight = concurrentUploads.incrementAndGet();
+         try {
+            synchronized (maxConcurrentUploads) {
+               maxConcurrentUploads.set(Math.max(maxConcurrentUploads.get(), inFlight));
+            }
+            if (partNumber == failingPart)
+               throw new IllegalStateException("part " + partNumber + " failed");
+            // read twice, as a retried request would
+            ByteStreams.toByteArray(payload.openStream());
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ByteStreams.copy(payload.openStream(), bytes);
+            Thread.sleep(5);
+            int size = bytes.size();
+            assertEquals(payload.getContentMetadata().getContentLength(), Long.valueOf(size));
+            synchronized (this) {
+               int offset = (partNumber - firstPartNumber) * PART_SIZE;
+               System.arraycopy(bytes.toByteArray(), 0, uploaded, offset, size);
+            }
+            return MultipartPart.create(partNumber, size, "etag" + partNumber, null);
+         } finally {
+            concurrentUploads.decrementAndGet();
+         }
+      }
+   }
+}
@@ -0,0 +1,325 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.internal.BlobImpl;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.common.net.HttpHeaders;
+import com.google.common.reflect.AbstractInvocationHandler;
+import com.google.common.reflect.Reflection;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+@Test(groups = "unit", testName = "RangedBlobDownloaderTest", singleThreaded = true)
+public class RangedBlobDownloaderTest {
+   private static final int RANGE_SIZE = 1000;
+
+   private final byte[] content = new byte[10 * RANGE_SIZE + 500];
+   private File directory;
+   private ListeningExecutorService executor;
+
+   @BeforeMethod
+   public void setUp() {
+      new Random(content.length).nextBytes(content);
+      directory = Files.createTempDir();
+      executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+      for (File file : directory.listFiles())
+         file.delete();
+      directory.delete();
+   }
+
+   public void testDownloadWritesEveryRange() throws IOException {
+      RangeServingBlobStore store = new RangeServingBlobStore(content, -1, 0);
+      File destination = new File(directory, "blob");
+
+      new RangedBlobDownloader(store.proxy(), RANGE_SIZE, 0).download("container", "blob", destination, executor);
+
+      assertEquals(Files.toByteArray(destination), content);
+      assertEquals(store.ranges.size(), 11);
+      assertEquals(directory.list().length, 1);
+   }
+
+   public void testDownloadReplacesExistingFile() throws IOException {
+      File destination = new File(directory, "blob");
+      Files.write(new byte[content.length * 2], destination);
+
+      new RangedBlobDownloader(new RangeServingBlobStore(content, -1, 0).proxy(), RANGE_SIZE, 0).download(
+            "container", "blob", destination, executor);
+
+      assertEquals(Files.toByteArray(destination), content);
+   }
+
+   public void testDownloadRetriesFailedRangeFromWhereItStopped() throws IOException {
+      RangeServingBlobStore store = new RangeServingBlobStore(content, 3000, 1);
+      File destination = new File(directory, "blob");
+
+      new RangedBlobDownloader(store.proxy(), RANGE_SIZE, 1).download("container", "blob", destination, executor);
+
+      assertEquals(Files.toByteArray(destination), content);
+      assertTrue(store.ranges.contains("3100-3999"), store.ranges.toString());
+   }
+
+   public void testDownloadBacksOffBeforeEachRetry() throws IOException {
+      final List<Integer> backoffs = Collections.synchronizedList(Lists.<Integer> newArrayList());
+      BackoffLimitedRetryHandler retryHandler = new BackoffLimitedRetryHandler() {
+         @Override
+         public void imposeBackoffExponentialDelay(int failureCount, String commandDescription) {
+            backoffs.add(failureCount);
+         }
+      };
+
+      new RangedBlobDownloader(new RangeServingBlobStore(content, 3000, 2).proxy(), RANGE_SIZE, 2, retryHandler)
+            .download("container", "blob", new File(directory, "blob"), executor);
+
+      assertEquals(backoffs, ImmutableList.of(1, 2));
+   }
+
+   public void testDownloadFailsAfterRetriesAndRemovesTemporaryFile() {
+      File destination = new File(directory, "blob");
+      try {
+         new RangedBlobDownloader(new RangeServingBlobStore(content, 3000, 3).proxy(), RANGE_SIZE, 2).download(
+               "container", "blob", destination, executor);
+         fail("expected the range at 3000 to fail");
+      } catch (UncheckedExecutionException expected) {
+         assertTrue(expected.getCause() instanceof IOException, expected.toString());
+      }
+      assertFalse(destination.exists());
+      assertEquals(directory.list().length, 0);
+   }
+
+   public void testRangesArePinnedToTheETag() throws IOException {
+      RangeServingBlobStore store = new RangeServingBlobStore(content, 3000, 1);
+      store.eTag = store.currentETag = "v1";
+
+      new RangedBlobDownloader(store.proxy(), RANGE_SIZE, 1).download("container", "blob",
+            new File(directory, "blob"), executor);
+
+      assertEquals(store.ifMatch.size(), 12);
+      for (String eTag : store.ifMatch)
+         assertEquals(eTag, "v1");
+   }
+
+   public void testDownloadFailsWhenBlobChanges() {
+      RangeServingBlobStore store = new RangeServingBlobStore(content, -1, 0);
+      store.eTag = "v1";
+      store.currentETag = "v2";
+      File destination = new File(directory, "blob");
+      try {
+         new RangedBlobDownloader(store.proxy(), RANGE_SIZE, 2).download("container", "blob", destination, executor);
+         fail("expected the changed blob to fail the download");
+      } catch (UncheckedExecutionException expected) {
+         assertTrue(expected.getCause() instanceof HttpResponseException, expected.toString());
+      }
+      assertFalse(destination.exists());
+   }
+
+   public void testDownloadFailsWhenStoreIgnoresIfMatchAndBlobChanges() {
+      RangeServingBlobStore store = new RangeServingBlobStore(content, -1, 0);
+      store.eTag = "v1";
+      store.currentETag = "v2";
+      store.honourIfMatch = false;
+      try {
+         new RangedBlobDownloader(store.proxy(), RANGE_SIZE, 2).download("container", "blob",
+               new File(directory, "blob"), executor);
+         fail("expected the changed blob to fail the download");
+      } catch (UncheckedExecutionException expected) {
+         assertTrue(expected.getCause() instanceof IllegalStateException, expected.toString());
+      }
+   }
+
+   public void testDownloadFailsWhenServerIgnoresRange() {
+      RangeServingBlobStore store = new RangeServingBlobStore(content, -1, 0);
+      store.ignoreRange = true;
+      File destination = new File(directory, "blob");
+      try {
+         new RangedBlobDownloader(store.proxy(), RANGE_SIZE, 2).download("container", "blob", destination, executor);
+         fail("expected the whole blob to fail the download");
+      } catch (UncheckedExecutionException expected) {
+         assertTrue(expected.getCause() instanceof IllegalStateException, expected.toString());
+      }
+      assertFalse(destination.exists());
+      assertEquals(directory.list().length, 0);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testStreamFailsOnWrongContentRange() throws IOException {
+      RangeServingBlobStore store = new RangeServingBlobStore(content, -1, 0);
+      store.contentRangeShift = 1;
+      InputStream in = new RangedBlobDownloader(store.proxy(), RANGE_SIZE, 2).stream("container", "blob", 1,
+            executor);
+      try {
+         ByteStreams.toByteArray(in);
+      } finally {
+         in.close();
+      }
+   }
+
+   public void testStreamReturnsRangesInOrder() throws IOException {
+      InputStream in = new RangedBlobDownloader(new RangeServingBlobStore(content, 5000, 1).proxy(), RANGE_SIZE, 1)
+            .stream("container", "blob", 3, executor);
+      try {
+         assertEquals(ByteStreams.toByteArray(in), content);
+      } finally {
+         in.close();
+      }
+   }
+
+   public void testStreamReadsAheadAtMostReadAheadRanges() throws IOException {
+      RangeServingBlobStore store = new RangeServingBlobStore(content, -1, 0);
+      InputStream in = new RangedBlobDownloader(store.proxy(), RANGE_SIZE, 0).stream("container", "blob", 3,
+            MoreExecutors.newDirectExecutorService());
+      assertEquals(store.ranges.size(), 3);
+
+      assertEquals(in.read(), content[0] & 0xff);
+      assertEquals(store.ranges.size(), 3);
+
+      // the next range is read ahead only once the first one is consumed
+      assertEquals(in.read(new byte[RANGE_SIZE]), RANGE_SIZE - 1);
+      assertEquals(store.ranges.size(), 3);
+      assertEquals(in.read(), content[RANGE_SIZE] & 0xff);
+      assertEquals(store.ranges.size(), 4);
+
+      in.close();
+      try {
+         in.read();
+         fail("expected a closed stream to fail");
+      } catch (IOException expected) {
+      }
+   }
+
+   @Test(expectedExceptions = KeyNotFoundException.class)
+   public void testMissingBlob() {
+      new RangedBlobDownloader(new RangeServingBlobStore(null, -1, 0).proxy(), RANGE_SIZE, 0).stream("container",
+            "blob", 1, executor);
+   }
+
+   /**
+    * Serves ranges of {@code content} with their Content-Range. The first {@code failures} gets within the range
+    * starting at {@code failingRange} break off after 100 bytes.
+    */
+   private static final class RangeServingBlobStore extends AbstractInvocationHandler {
+      private final byte[] content;
+      private final long failingRange;
+      private int failures;
+      private final List<String> ranges = Lists.newArrayList();
+      private final List<String> ifMatch = Lists.newArrayList();
+      /** the ETag returned by blobMetadata */
+      private String eTag;
+      /** the ETag of the blob served by getBlob */
+      private String currentETag;
+      private boolean honourIfMatch = true;
+      private boolean ignoreRange;
+      private int contentRangeShift;
+
+      RangeServingBlobStore(byte[] content, long failingRange, int failures) {
+         this.content = content;
+         this.failingRange = failingRange;
+         this.failures = failures;
+      }
+
+      BlobStore proxy() {
+         return Reflection.newProxy(BlobStore.class, this);
+      }
+
+      @Override
+      protected synchronized Object handleInvocation(Object proxy, Method method, Object[] args) {
+         if (method.getName().equals("blobMetadata")) {
+            if (content == null)
+               return null;
+            MutableBlobMetadata metadata = new MutableBlobMetadataImpl();
+            metadata.getContentMetadata().setContentLength((long) content.length);
+            metadata.setETag(eTag);
+            return metadata;
+         } else if (method.getName().equals("getBlob") && args.length == 3) {
+            GetOptions options = (GetOptions) args[2];
+            ifMatch.add(options.getIfMatch());
+            if (honourIfMatch && options.getIfMatch() != null && !options.getIfMatch().equals(currentETag))
+               throw new HttpResponseException("precondition failed", null,
+                     HttpResponse.builder().statusCode(412).build());
+            String range = options.getRanges().get(0);
+            ranges.add(range);
+            int start = Integer.parseInt(range.substring(0, range.indexOf('-')));
+            int end = Integer.parseInt(range.substring(range.indexOf('-') + 1));
+            if (ignoreRange) {
+               start = 0;
+               end = content.length - 1;
+            }
+            InputStream in = new ByteArrayInputStream(content, start, end - start + 1);
+            if (failures > 0 && start >= failingRange && start < failingRange + RANGE_SIZE) {
+               failures--;
+               in = new FilterInputStream(ByteStreams.limit(in, 100)) {
+                  @Override
+                  public int read(byte[] b, int off, int len) throws IOException {
+                     int read = super.read(b, off, len);
+                     if (read < 0)
+                        throw new IOException("connection reset");
+                     return read;
+                  }
+               };
+            }
+            Blob blob = new BlobImpl(new MutableBlobMetadataImpl());
+            blob.getMetadata().setETag(currentETag);
+            blob.setPayload(Payloads.newInputStreamPayload(in));
+            blob.getPayload().getContentMetadata().setContentLength((long) end - start + 1);
+            if (!ignoreRange)
+               blob.getAllHeaders().put(HttpHeaders.CONTENT_RANGE, "bytes " + (start + contentRangeShift) + "-"
+                     + (end + contentRangeShift) + "/" + content.length);
+            return blob;
+         }
+         throw new UnsupportedOperationException(method.toString());
+      }
+   }
+}
@@ -21,7 +21,9 @@ import static com.google.common.collect.Iterables.tryFind;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
 
+import org.jclouds.collect.PagedIterables;
 import org.jclouds.googlecloud.domain.ListPage;
 import org.jclouds.googlecloud.options.ListOptions;
 import org.jclouds.javax.annotation.Nullable;
@@ -44,6 +46,21 @@ public final class ListPages {
       };
    }
 
+   /**
+    * Like {@link #concat(Iterator)}, except that up to {@code prefetchPages} pages are fetched on {@code executor}
+    * ahead of the one being consumed.
+    *
+    * @see PagedIterables#concat(Iterator, int, Executor)
+    */
+   public static <T> Iterable<T> concat(final Iterator<ListPage<T>> input, final int prefetchPages,
+         final Executor executor) {
+      return new Iterable<T>() {
+         @Override public Iterator<T> iterator() {
+            return PagedIterables.concat(input, prefetchPages, executor);
+         }
+      };
+   }
+
    /** Value of {@code <O>} is a final class in the cloud provider. Rather than playing with reflection, we trust it. */
    @Nullable static <O extends ListOptions> O listOptions(List<Object> args) {
       return (O) tryFind(args, instanceOf(ListOptions.class)).orNull();
@@ -30,6 +30,15 @@ public final class Constants {
     */
    public static final String PROPERTY_USER_THREADS = "jclouds.user-threads";
 
+   /**
+    * Boolean property. default (false)
+    * <p/>
+    * Runs each user request on its own virtual thread instead of a pool of {@link #PROPERTY_USER_THREADS} threads,
+    * and enforces timeouts of blocking calls on the calling thread. Requires Java 21 or later; older runtimes keep
+    * using the thread pool.
+    */
+   public static final String PROPERTY_VIRTUAL_THREADS = "jclouds.virtual-threads";
+
    /**
     * Integer property. default (20)
     * <p/>
@@ -198,6 +207,21 @@ public final class Constants {
     * backoff algorithm. Default value for this property is 50 milliseconds.
     */
    public static final String PROPERTY_RETRY_DELAY_START = "jclouds.retries-delay-start";
+   /**
+    * Boolean property.
+    * <p/>
+    * When true, the exponential back-off delay between retries is replaced by a random delay between zero
+    * and that value ("full jitter"), which spreads out retries from many clients failing at once. Default
+    * value is false.
+    */
+   public static final String PROPERTY_RETRY_FULL_JITTER = "jclouds.retries-full-jitter";
+   /**
+    * Double property.
+    * <p/>
+    * Maximum number of retries per second across all the commands of a context. Retries beyond this budget
+    * are not attempted and the failure is returned to the caller. Zero, the default, means no limit.
+    */
+   public static final String PROPERTY_RETRY_BUDGET = "jclouds.retry-budget";
    /**
     * Integer property.
     * <p/>
@@ -230,6 +254,26 @@ public final class Constants {
     * default value is false
     */
    public static final String PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO = "jclouds.wire.log.sensitive";
+   /**
+    * Long property.
+    * <p/>
+    * maximum count of bytes of each request or response body written to the wire log; bodies are logged while they
+    * are streamed, and the rest of a longer body is not logged. Unlimited by default.
+    */
+   public static final String PROPERTY_LOGGER_WIRE_MAX_BYTES = "jclouds.wire.max-bytes";
+   /**
+    * Double property.
+    * <p/>
+    * fraction of commands, between 0 and 1, whose bodies are written to the wire log. default value is 1
+    */
+   public static final String PROPERTY_LOGGER_WIRE_SAMPLE_RATE = "jclouds.wire.sample-rate";
+   /**
+    * Regular expression property.
+    * <p/>
+    * only commands whose name matches are written to the wire log, ex. {@code ObjectApi\..*}. Commands are named
+    * after their {@code @Named} annotation, or their api class and method. All commands match by default.
+    */
+   public static final String PROPERTY_LOGGER_WIRE_COMMANDS = "jclouds.wire.commands";
    /**
     * Name of the logger that records all http headers from the client and the server.
     */
@@ -376,6 +420,39 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_RATE_LIMIT_WAIT = "jclouds.max-ratelimit-wait";
 
+   /**
+    * Boolean property.
+    * <p/>
+    * When true, identical concurrent GET and HEAD requests of all the methods of the api share a single http call, as
+    * if they were annotated with {@link org.jclouds.rest.annotations.CoalesceRequests}. Only methods listed in
+    * {@link #PROPERTY_IDEMPOTENT_METHODS} are coalesced.
+    * <p>
+    * Default value: false.
+    */
+   public static final String PROPERTY_COALESCE_REQUESTS = "jclouds.coalesce-requests";
+
+   /**
+    * Integer property.
+    * <p/>
+    * Maximum number of parsed GET responses kept by the response cache of the api, evicting those of the least
+    * recently used endpoints first. Zero, the default, disables the cache.
+    */
+   public static final String PROPERTY_RESPONSE_CACHE_SIZE = "jclouds.response-cache-size";
+
+   /**
+    * Long properties.
+    * <p/>
+    * How long, in milliseconds, a cached response stays fresh, overriding the {@code Cache-Control} max-age of the
+    * response. Suffix with the command name, or with {@code default} for all commands:
+    * <p/>
+    * <code>
+    * jclouds.response-cache-ttl.nova:flavor:list=300000
+    * </code>
+    * <p/>
+    * Once stale, responses with an ETag or Last-Modified header are revalidated with a conditional request.
+    */
+   public static final String PROPERTY_RESPONSE_CACHE_TTL_PREFIX = "jclouds.response-cache-ttl.";
+
    private Constants() {
       throw new AssertionError("intentionally unimplemented");
    }
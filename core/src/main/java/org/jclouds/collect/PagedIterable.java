@@ -16,7 +16,11 @@
  */
 package org.jclouds.collect;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
 import com.google.common.annotations.Beta;
 import com.google.common.collect.FluentIterable;
@@ -91,4 +95,32 @@ public abstract class PagedIterable<E> extends FluentIterable<IterableWithMarker
       };
    }
 
+   /**
+    * Like {@link #concat()}, except that up to {@code prefetchPages} pages following the one being consumed are
+    * requested on {@code executor} in the background. ex.
+    * 
+    * <pre>
+    * FluentIterable<StorageMetadata> blobs = blobstore.list(...).concat(2, userExecutor);
+    * </pre>
+    * 
+    * Pages are still requested one after another, as each needs the marker of the previous one. Each call to
+    * {@code iterator()} starts from the first page, and returns an iterator which can be closed to cancel the pages
+    * it is still fetching.
+    * 
+    * @param prefetchPages
+    *           how many pages to fetch ahead of the one being consumed
+    * @param executor
+    *           runs the page requests, typically the {@code PROPERTY_USER_THREADS} executor
+    * @see PagedIterables#concat(Iterator, int, Executor)
+    */
+   public FluentIterable<E> concat(final int prefetchPages, final Executor executor) {
+      checkArgument(prefetchPages > 0, "prefetchPages must be positive");
+      checkNotNull(executor, "executor");
+      return new FluentIterable<E>() {
+         @Override
+         public Iterator<E> iterator() {
+            return PagedIterables.concat(PagedIterable.this.iterator(), prefetchPages, executor);
+         }
+      };
+   }
 }
@@ -16,16 +16,26 @@
  */
 package org.jclouds.collect;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * Utilities for using {@link PagedIterable}s.
@@ -137,4 +147,99 @@ public class PagedIterables {
       }
       return new AdvancingIterator<T>(initial, markerToNext);
    }
+
+   /**
+    * Concatenates the elements of {@code pages}, advancing {@code pages} on {@code executor} up to
+    * {@code prefetchPages} pages ahead of the one being consumed. Pages are requested one after another, in order.
+    * <p/>
+    * The iterator returned implements {@link Closeable}; closing it cancels the pages it is still fetching. An
+    * iterator abandoned without being closed or exhausted fetches at most {@code prefetchPages} pages that are never
+    * read.
+    * 
+    * @param pages
+    *           pages to concatenate, only advanced from {@code executor}
+    * @param prefetchPages
+    *           how many pages to fetch ahead of the one being consumed
+    * @param executor
+    *           advances {@code pages}
+    */
+   public static <E> Iterator<E> concat(Iterator<? extends Iterable<E>> pages, int prefetchPages, Executor executor) {
+      checkArgument(prefetchPages > 0, "prefetchPages must be positive");
+      return new PrefetchingIterator<E>(checkNotNull(pages, "pages"), prefetchPages,
+            checkNotNull(executor, "executor"));
+   }
+
+   private static final class PrefetchingIterator<E> extends AbstractIterator<E> implements Closeable {
+      private final Iterator<? extends Iterable<E>> pages;
+      private final int prefetchPages;
+      private final Executor executor;
+      private final Deque<ListenableFuture<Optional<Iterable<E>>>> fetching =
+            new ArrayDeque<ListenableFuture<Optional<Iterable<E>>>>();
+      private ListenableFuture<Optional<Iterable<E>>> lastFetch = Futures.immediateFuture(null);
+      private Iterator<E> current = ImmutableSet.<E> of().iterator();
+      private volatile boolean closed;
+
+      private final FetchPage fetchPage = new FetchPage();
+
+      private PrefetchingIterator(Iterator<? extends Iterable<E>> pages, int prefetchPages, Executor executor) {
+         this.pages = pages;
+         this.prefetchPages = prefetchPages;
+         this.executor = executor;
+      }
+
+      @Override
+      protected E computeNext() {
+         if (closed)
+            return endOfData();
+         while (!current.hasNext()) {
+            Optional<Iterable<E>> page = nextPage();
+            if (!page.isPresent()) {
+               close();
+               return endOfData();
+            }
+            current = page.get().iterator();
+         }
+         return current.next();
+      }
+
+      private Optional<Iterable<E>> nextPage() {
+         if (closed)
+            return Optional.absent();
+         while (fetching.size() <= prefetchPages) {
+            lastFetch = Futures.transform(lastFetch, fetchPage, executor);
+            fetching.add(lastFetch);
+         }
+         try {
+            return fetching.remove().get();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw Throwables.propagate(e);
+         } catch (ExecutionException e) {
+            close();
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+
+      /**
+       * Advances {@link #pages}; chained so that each fetch starts after the previous one completed.
+       */
+      private final class FetchPage implements Function<Optional<Iterable<E>>, Optional<Iterable<E>>> {
+         @Override
+         public Optional<Iterable<E>> apply(Optional<Iterable<E>> previous) {
+            boolean previousWasLast = previous != null && !previous.isPresent();
+            if (closed || previousWasLast || !pages.hasNext())
+               return Optional.absent();
+            return Optional.<Iterable<E>> of(pages.next());
+         }
+      }
+
+      @Override
+      public void close() {
+         closed = true;
+         for (ListenableFuture<?> fetch : fetching)
+            fetch.cancel(true);
+         fetching.clear();
+      }
+   }
 }
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.lifecycle.Closer;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.TimeLimiter;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
+
+/**
+ * A {@link TimeLimiter} that runs interruptible calls made from virtual threads on the calling thread, and
+ * interrupts it when the time limit elapses.
+ * <p/>
+ * Blocking I/O on a virtual thread is aborted by an interrupt, so there is no need to park the caller while a
+ * second thread does the work, as {@link com.google.common.util.concurrent.SimpleTimeLimiter} does. All other calls,
+ * including every call from a platform thread, are passed to the {@code delegate}.
+ */
+@Beta
+public final class CallerThreadTimeLimiter implements TimeLimiter {
+   private static final Method IS_VIRTUAL;
+   static {
+      Method isVirtual = null;
+      try {
+         isVirtual = Thread.class.getMethod("isVirtual");
+      } catch (NoSuchMethodException e) {
+         // virtual threads arrived in Java 21
+      }
+      IS_VIRTUAL = isVirtual;
+   }
+
+   private final TimeLimiter delegate;
+   private final Closer closer;
+   private ScheduledExecutorService timer;
+
+   public CallerThreadTimeLimiter(TimeLimiter delegate, Closer closer) {
+      this.delegate = checkNotNull(delegate, "delegate");
+      this.closer = checkNotNull(closer, "closer");
+   }
+
+   @Override
+   public <T> T newProxy(T target, Class<T> interfaceType, long timeoutDuration, TimeUnit timeoutUnit) {
+      return delegate.newProxy(target, interfaceType, timeoutDuration, timeoutUnit);
+   }
+
+   @Override
+   public <T> T callWithTimeout(Callable<T> callable, long timeoutDuration, TimeUnit timeoutUnit,
+         boolean amInterruptible) throws Exception {
+      checkNotNull(callable, "callable");
+      checkNotNull(timeoutUnit, "timeoutUnit");
+      checkArgument(timeoutDuration > 0, "timeout must be positive: %s", timeoutDuration);
+      Thread caller = Thread.currentThread();
+      if (!amInterruptible || !isVirtual(caller))
+         return delegate.callWithTimeout(callable, timeoutDuration, timeoutUnit, amInterruptible);
+
+      Deadline deadline = new Deadline(caller);
+      ScheduledFuture<?> alarm = timer().schedule(deadline, timeoutDuration, timeoutUnit);
+      try {
+         return callable.call();
+      } catch (Exception e) {
+         if (deadline.finish())
+            throw new UncheckedTimeoutException(e);
+         throw e;
+      } finally {
+         alarm.cancel(false);
+         deadline.finish();
+      }
+   }
+
+   @VisibleForTesting
+   static boolean isVirtual(Thread thread) {
+      if (IS_VIRTUAL == null)
+         return false;
+      try {
+         return (Boolean) IS_VIRTUAL.invoke(thread);
+      } catch (IllegalAccessException e) {
+         return false;
+      } catch (InvocationTargetException e) {
+         return false;
+      }
+   }
+
+   private synchronized ScheduledExecutorService timer() {
+      if (timer == null) {
+         final ScheduledThreadPoolExecutor deadlines = new ScheduledThreadPoolExecutor(1,
+               new ThreadFactoryBuilder().setNameFormat("time limiter %d").setDaemon(true).build());
+         // most calls finish in time, so don't keep their cancelled deadlines queued until they would have expired
+         deadlines.setRemoveOnCancelPolicy(true);
+         closer.addToClose(new Closeable() {
+            @Override
+            public void close() throws IOException {
+               deadlines.shutdownNow();
+            }
+         });
+         timer = deadlines;
+      }
+      return timer;
+   }
+
+   /**
+    * Interrupts the caller unless the call has already finished. Once the call finishes, an interrupt raised by
+    * the deadline is cleared so that it does not leak into the caller's next blocking operation.
+    */
+   private static final class Deadline implements Runnable {
+      private final Thread caller;
+      private boolean finished;
+      private boolean expired;
+
+      Deadline(Thread caller) {
+         this.caller = caller;
+      }
+
+      @Override
+      public synchronized void run() {
+         if (!finished) {
+            expired = true;
+            caller.interrupt();
+         }
+      }
+
+      synchronized boolean finish() {
+         if (!finished) {
+            finished = true;
+            if (expired)
+               Thread.interrupted();
+         }
+         return expired;
+      }
+   }
+}
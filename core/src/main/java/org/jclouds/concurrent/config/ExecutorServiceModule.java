@@ -18,6 +18,7 @@ package org.jclouds.concurrent.config;
 
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_VIRTUAL_THREADS;
 import static org.jclouds.concurrent.DynamicExecutors.newScalingThreadPool;
 
 import java.lang.reflect.Constructor;
@@ -34,6 +35,8 @@ import javax.annotation.Resource;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.concurrent.CallerThreadTimeLimiter;
+import org.jclouds.config.ValueOfConfigurationKeyOrNull;
 import org.jclouds.lifecycle.Closer;
 import org.jclouds.logging.Logger;
 
@@ -53,6 +56,10 @@ import com.google.inject.Provides;
  * This extends the underlying Future to expose a description (the task's toString) and the submission context (stack
  * trace). The submission stack trace is appended to relevant stack traces on exceptions that are returned, so the user
  * can see the logical chain of execution (in the executor, and where it was passed to the executor).
+ *
+ * <p>
+ * When {@link org.jclouds.Constants#PROPERTY_VIRTUAL_THREADS} is set and the runtime supports it, user tasks each
+ * run on a new virtual thread, and blocking calls from virtual threads are timed out on the calling thread.
  */
 @ConfiguresExecutorService
 public class ExecutorServiceModule extends AbstractModule {
@@ -111,6 +118,49 @@ public class ExecutorServiceModule extends AbstractModule {
       }
    }
 
+   private static final Method OF_VIRTUAL;
+   private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+   static {
+      Method ofVirtual = null;
+      Method newThreadPerTaskExecutor = null;
+      try {
+         ofVirtual = Thread.class.getMethod("ofVirtual");
+         newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      } catch (NoSuchMethodException nsme) {
+         // virtual threads arrived in Java 21
+      }
+      OF_VIRTUAL = ofVirtual;
+      NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+   }
+
+   /**
+    * Reflective creation of an executor that starts a new virtual thread named {@code "<prefix><n>"} for each task,
+    * so that jclouds can still be built for, and run on, runtimes older than Java 21.
+    *
+    * @return the executor, or null if the runtime doesn't support virtual threads
+    */
+   static ExecutorService newVirtualThreadPerTaskExecutor(String prefix) {
+      if (OF_VIRTUAL == null || NEW_THREAD_PER_TASK_EXECUTOR == null)
+         return null;
+      try {
+         // look methods up on the public Thread.Builder.OfVirtual interface, not the JDK-internal implementation
+         Class<?> builderType = OF_VIRTUAL.getReturnType();
+         Object builder = builderType.getMethod("name", String.class, long.class)
+               .invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+         ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+         return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+      } catch (NoSuchMethodException nsme) {
+         return null;
+      } catch (IllegalAccessException iae) {
+         return null;
+      } catch (InvocationTargetException ite) {
+         // virtual threads are a preview feature on Java 19 and 20
+         if (ite.getCause() instanceof UnsupportedOperationException)
+            return null;
+         throw new UnsupportedOperationException("Can't create virtual thread executor", ite.getCause());
+      }
+   }
+
    static final class ShutdownExecutorOnClose implements Closeable {
       @Resource
       private Logger logger = Logger.NULL;
@@ -169,16 +219,26 @@ public class ExecutorServiceModule extends AbstractModule {
 
    @Provides
    @Singleton
-   final TimeLimiter timeLimiter(@Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
-      return createSimpleTimeLimiter(userExecutor);
+   final TimeLimiter timeLimiter(@Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         ValueOfConfigurationKeyOrNull config, Closer closer) {
+      TimeLimiter timeLimiter = createSimpleTimeLimiter(userExecutor);
+      if (Boolean.parseBoolean(config.apply(PROPERTY_VIRTUAL_THREADS)))
+         return new CallerThreadTimeLimiter(timeLimiter, closer);
+      return timeLimiter;
    }
 
    @Provides
    @Singleton
    @Named(PROPERTY_USER_THREADS)
-   final ListeningExecutorService provideListeningUserExecutorService(@Named(PROPERTY_USER_THREADS) int count, Closer closer) { // NO_UCD
+   final ListeningExecutorService provideListeningUserExecutorService(@Named(PROPERTY_USER_THREADS) int count,
+         Closer closer, ValueOfConfigurationKeyOrNull config) { // NO_UCD
       if (userExecutorFromConstructor != null)
          return userExecutorFromConstructor;
+      if (Boolean.parseBoolean(config.apply(PROPERTY_VIRTUAL_THREADS))) {
+         ExecutorService virtual = newVirtualThreadPerTaskExecutor("user thread ");
+         if (virtual != null)
+            return shutdownOnClose(WithSubmissionTrace.wrap(listeningDecorator(virtual)), closer);
+      }
       return shutdownOnClose(WithSubmissionTrace.wrap(newThreadPoolNamed("user thread %d", count)), closer);
    }
 
@@ -18,7 +18,7 @@ package org.jclouds.date;
 
 import java.util.Date;
 
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.FixedLayoutDateService;
 
 import com.google.inject.ImplementedBy;
 
@@ -26,7 +26,7 @@ import com.google.inject.ImplementedBy;
  * Parses and formats the ISO8601, C, and RFC822 date formats found in XML responses and HTTP
  * response headers.
  */
-@ImplementedBy(SimpleDateFormatDateService.class)
+@ImplementedBy(FixedLayoutDateService.class)
 public interface DateService {
 
    String cDateFormat(Date date);
@@ -0,0 +1,442 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.date.internal;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.inject.Singleton;
+
+import org.jclouds.date.DateService;
+
+/**
+ * Thread-safe {@link DateService} which formats and parses the fixed layouts used by jclouds
+ * without {@link java.text.SimpleDateFormat}, and therefore without locking.
+ * <p>
+ * All dates are rendered in GMT using the proleptic Gregorian calendar. Layouts with second
+ * precision keep the last rendered value, so that the many requests signed within the same second
+ * share a single formatted string.
+ * <p>
+ * Note that rfc1123 dates are always rendered with a {@code +0000} offset, whereas
+ * {@link SimpleDateFormatDateService} renders them in the default time zone of the JVM.
+ * <p>
+ * Parsing accepts everything {@link SimpleDateFormatDateService} accepts for the formats jclouds
+ * encounters: optional day names, fractional seconds of any precision, {@code Z}, {@code UTC} or
+ * {@code GMT} designators, and numeric offsets with or without a colon.
+ */
+@Singleton
+public class FixedLayoutDateService implements DateService {
+
+   private static final int ISO8601 = 0;
+   private static final int ISO8601_SECONDS = 1;
+   private static final int RFC822 = 2;
+   private static final int RFC1123 = 3;
+   private static final int C_DATE = 4;
+
+   private static final long MILLIS_PER_SECOND = 1000L;
+   private static final long MILLIS_PER_DAY = 24 * 60 * 60 * MILLIS_PER_SECOND;
+
+   private static final String[] DAYS = { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
+   private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct",
+         "Nov", "Dec" };
+
+   /**
+    * Last value rendered for a layout, keyed by the epoch second it was rendered for.
+    */
+   private static final class Rendered {
+      private final long second;
+      private final String value;
+
+      private Rendered(long second, String value) {
+         this.second = second;
+         this.value = value;
+      }
+   }
+
+   private static final Rendered NONE = new Rendered(Long.MIN_VALUE, null);
+
+   private final AtomicReferenceArray<Rendered> lastRendered = new AtomicReferenceArray<Rendered>(new Rendered[] {
+         NONE, NONE, NONE, NONE, NONE });
+
+   @Override
+   public final String cDateFormat(Date date) {
+      return format(C_DATE, date.getTime());
+   }
+
+   @Override
+   public final String cDateFormat() {
+      return format(C_DATE, System.currentTimeMillis());
+   }
+
+   @Override
+   public final Date cDateParse(String toParse) {
+      Cursor cursor = new Cursor(toParse);
+      cursor.skipDayName();
+      int month = cursor.month();
+      cursor.skipSpaces();
+      int day = cursor.digits(1, 2);
+      cursor.skipSpaces();
+      long millisOfDay = cursor.time();
+      int offset = cursor.zone();
+      cursor.skipSpaces();
+      int year = cursor.digits(4, 5);
+      return toDate(year, month, day, millisOfDay, offset);
+   }
+
+   @Override
+   public final String rfc822DateFormat(Date date) {
+      return format(RFC822, date.getTime());
+   }
+
+   @Override
+   public final String rfc822DateFormat() {
+      return format(RFC822, System.currentTimeMillis());
+   }
+
+   @Override
+   public final Date rfc822DateParse(String toParse) {
+      return parseRfc822Layout(toParse);
+   }
+
+   @Override
+   public final String iso8601SecondsDateFormat(Date date) {
+      return format(ISO8601_SECONDS, date.getTime());
+   }
+
+   @Override
+   public final String iso8601SecondsDateFormat() {
+      return format(ISO8601_SECONDS, System.currentTimeMillis());
+   }
+
+   @Override
+   public final String iso8601DateFormat(Date date) {
+      return format(ISO8601, date.getTime());
+   }
+
+   @Override
+   public final String iso8601DateFormat() {
+      return format(ISO8601, System.currentTimeMillis());
+   }
+
+   @Override
+   public final Date iso8601DateParse(String toParse) {
+      return parseIso8601Layout(toParse);
+   }
+
+   @Override
+   public final Date iso8601SecondsDateParse(String toParse) {
+      return parseIso8601Layout(toParse);
+   }
+
+   @Override
+   public final Date iso8601DateOrSecondsDateParse(String toParse) {
+      // both variants share a parser which treats the fraction as optional
+      return parseIso8601Layout(toParse);
+   }
+
+   @Override
+   public final String rfc1123DateFormat(Date date) {
+      return format(RFC1123, date.getTime());
+   }
+
+   @Override
+   public final String rfc1123DateFormat() {
+      return format(RFC1123, System.currentTimeMillis());
+   }
+
+   @Override
+   public final Date rfc1123DateParse(String toParse) {
+      return parseRfc822Layout(toParse);
+   }
+
+   private String format(int layout, long millis) {
+      if (layout == ISO8601)
+         return render(layout, millis);
+      long second = floorDiv(millis, MILLIS_PER_SECOND);
+      Rendered last = lastRendered.get(layout);
+      if (last.second == second)
+         return last.value;
+      String value = render(layout, millis);
+      lastRendered.set(layout, new Rendered(second, value));
+      return value;
+   }
+
+   private static String render(int layout, long millis) {
+      long epochDay = floorDiv(millis, MILLIS_PER_DAY);
+      int millisOfDay = (int) (millis - epochDay * MILLIS_PER_DAY);
+
+      // civil-from-days, see http://howardhinnant.github.io/date_algorithms.html
+      long z = epochDay + 719468;
+      long era = (z >= 0 ? z : z - 146096) / 146097;
+      int dayOfEra = (int) (z - era * 146097);
+      int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+      int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+      int shiftedMonth = (5 * dayOfYear + 2) / 153;
+      int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+      int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+      long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+      int dayOfWeek = (int) floorMod(epochDay + 4, 7);
+
+      int hour = millisOfDay / 3600000;
+      int minute = millisOfDay / 60000 % 60;
+      int second = millisOfDay / 1000 % 60;
+
+      StringBuilder out = new StringBuilder(32);
+      switch (layout) {
+         case ISO8601:
+         case ISO8601_SECONDS:
+            pad(out, year, 4).append('-');
+            pad(out, month, 2).append('-');
+            pad(out, day, 2).append('T');
+            appendTime(out, hour, minute, second);
+            if (layout == ISO8601)
+               pad(out.append('.'), millisOfDay % 1000, 3);
+            return out.append('Z').toString();
+         case RFC822:
+         case RFC1123:
+            out.append(DAYS[dayOfWeek]).append(", ");
+            pad(out, day, 2).append(' ').append(MONTHS[month - 1]).append(' ');
+            // rfc1123 has always been rendered with the pattern "yyyyy", keep the leading zero
+            pad(out, year, layout == RFC822 ? 4 : 5).append(' ');
+            appendTime(out, hour, minute, second);
+            return out.append(layout == RFC822 ? " GMT" : " +0000").toString();
+         case C_DATE:
+            out.append(DAYS[dayOfWeek]).append(' ').append(MONTHS[month - 1]).append(' ');
+            pad(out, day, 2).append(' ');
+            appendTime(out, hour, minute, second);
+            return pad(out.append(" +0000 "), year, 4).toString();
+         default:
+            throw new AssertionError("unknown layout " + layout);
+      }
+   }
+
+   private static void appendTime(StringBuilder out, int hour, int minute, int second) {
+      pad(out, hour, 2).append(':');
+      pad(out, minute, 2).append(':');
+      pad(out, second, 2);
+   }
+
+   private static StringBuilder pad(StringBuilder out, long value, int width) {
+      if (value < 0) {
+         out.append('-');
+         value = -value;
+      }
+      for (long limit = 10; width > 1; width--, limit *= 10) {
+         if (value < limit)
+            out.append('0');
+      }
+      return out.append(value);
+   }
+
+   /**
+    * Parses {@code [EEE, ]d MMM yyyy HH:mm:ss zone}, which covers both rfc822 and rfc1123.
+    */
+   private static Date parseRfc822Layout(String toParse) {
+      Cursor cursor = new Cursor(toParse);
+      cursor.skipDayName();
+      int day = cursor.digits(1, 2);
+      cursor.skipSpaces();
+      int month = cursor.month();
+      cursor.skipSpaces();
+      int year = cursor.digits(4, 5);
+      cursor.skipSpaces();
+      long millisOfDay = cursor.time();
+      int offset = cursor.zone();
+      return toDate(year, month, day, millisOfDay, offset);
+   }
+
+   /**
+    * Parses {@code yyyy-MM-dd[T ]HH:mm:ss[.fraction][zone]}. A missing zone means GMT.
+    */
+   private static Date parseIso8601Layout(String toParse) {
+      if (toParse.length() < 10)
+         throw new IllegalArgumentException("incorrect date format " + toParse);
+      Cursor cursor = new Cursor(toParse);
+      int year = cursor.digits(4, 4);
+      cursor.expect('-');
+      int month = cursor.digits(2, 2);
+      cursor.expect('-');
+      int day = cursor.digits(2, 2);
+      if (!cursor.accept('T'))
+         cursor.expect(' ');
+      long millisOfDay = cursor.time();
+      if (cursor.accept('.') || cursor.accept(','))
+         millisOfDay += cursor.fractionAsMillis();
+      int offset = cursor.zone();
+      return toDate(year, month, day, millisOfDay, offset);
+   }
+
+   private static Date toDate(long year, int month, int day, long millisOfDay, int offsetMillis) {
+      if (month < 1 || month > 12 || day < 1 || day > 31)
+         throw new IllegalArgumentException("date out of range: " + year + "-" + month + "-" + day);
+      // days-from-civil, the inverse of the conversion in render
+      year -= month <= 2 ? 1 : 0;
+      long era = (year >= 0 ? year : year - 399) / 400;
+      long yearOfEra = year - era * 400;
+      long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+      long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+      long epochDay = era * 146097 + dayOfEra - 719468;
+      return new Date(epochDay * MILLIS_PER_DAY + millisOfDay - offsetMillis);
+   }
+
+   private static long floorDiv(long x, long y) {
+      long quotient = x / y;
+      return (x % y != 0 && (x ^ y) < 0) ? quotient - 1 : quotient;
+   }
+
+   private static long floorMod(long x, long y) {
+      return x - floorDiv(x, y) * y;
+   }
+
+   /**
+    * Position within the text being parsed; each instance is confined to a single parse call.
+    */
+   private static final class Cursor {
+      private final String text;
+      private int pos;
+
+      private Cursor(String text) {
+         this.text = text;
+      }
+
+      private IllegalArgumentException error() {
+         return new IllegalArgumentException("Error parsing data at " + pos + ": " + text);
+      }
+
+      private boolean accept(char c) {
+         if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+         }
+         return false;
+      }
+
+      private void expect(char c) {
+         if (!accept(c))
+            throw error();
+      }
+
+      private boolean acceptIgnoreCase(String token) {
+         if (text.regionMatches(true, pos, token, 0, token.length())) {
+            pos += token.length();
+            return true;
+         }
+         return false;
+      }
+
+      private void skipSpaces() {
+         while (pos < text.length() && text.charAt(pos) == ' ')
+            pos++;
+      }
+
+      /**
+       * Day names are not validated against the date, matching lenient {@code SimpleDateFormat}.
+       */
+      private void skipDayName() {
+         skipSpaces();
+         while (pos < text.length() && Character.isLetter(text.charAt(pos)))
+            pos++;
+         accept(',');
+         skipSpaces();
+      }
+
+      private int digits(int min, int max) {
+         int start = pos;
+         int value = 0;
+         while (pos < text.length() && pos - start < max) {
+            char c = text.charAt(pos);
+            if (c < '0' || c > '9')
+               break;
+            value = value * 10 + (c - '0');
+            pos++;
+         }
+         if (pos - start < min)
+            throw error();
+         return value;
+      }
+
+      private int month() {
+         for (int i = 0; i < MONTHS.length; i++) {
+            if (acceptIgnoreCase(MONTHS[i]))
+               return i + 1;
+         }
+         throw error();
+      }
+
+      /**
+       * @return milliseconds of the day described by {@code HH:mm:ss}
+       */
+      private long time() {
+         int hour = digits(2, 2);
+         expect(':');
+         int minute = digits(2, 2);
+         expect(':');
+         int second = digits(2, 2);
+         if (hour > 23 || minute > 59 || second > 60)
+            throw error();
+         return ((hour * 60L + minute) * 60L + second) * MILLIS_PER_SECOND;
+      }
+
+      /**
+       * Reads the digits after the decimal separator, keeping millisecond precision.
+       */
+      private int fractionAsMillis() {
+         int start = pos;
+         int millis = 0;
+         while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c < '0' || c > '9')
+               break;
+            if (pos - start < 3)
+               millis = millis * 10 + (c - '0');
+            pos++;
+         }
+         int read = pos - start;
+         if (read == 0)
+            throw error();
+         for (; read < 3; read++)
+            millis *= 10;
+         return millis;
+      }
+
+      /**
+       * Reads {@code Z}, {@code UTC} or {@code GMT}, optionally followed by an offset, or a bare
+       * offset of the form {@code +hh}, {@code +hhmm} or {@code +hh:mm}.
+       *
+       * @return offset from GMT in milliseconds
+       */
+      private int zone() {
+         skipSpaces();
+         if (pos == text.length() || accept('Z'))
+            return 0;
+         boolean named = acceptIgnoreCase("UTC") || acceptIgnoreCase("GMT");
+         int sign;
+         if (accept('+'))
+            sign = 1;
+         else if (accept('-'))
+            sign = -1;
+         else if (named)
+            return 0;
+         else
+            throw error();
+         int hours = digits(2, 2);
+         accept(':');
+         int minutes = pos < text.length() && Character.isDigit(text.charAt(pos)) ? digits(2, 2) : 0;
+         return sign * (hours * 60 + minutes) * 60 * 1000;
+      }
+   }
+}
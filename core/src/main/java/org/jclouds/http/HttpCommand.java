@@ -32,6 +32,7 @@ public class HttpCommand {
    private volatile int failureCount;
    private volatile int redirectCount;
    private volatile Exception exception;
+   private volatile boolean acceptsNotModified;
 
    public HttpCommand(HttpRequest request) {
       this.request = checkNotNull(request, "request");
@@ -89,6 +90,21 @@ public class HttpCommand {
       return redirectCount;
    }
 
+   /**
+    * Marks the command as a conditional request of its own, whose 304 (not modified) response is the answer rather
+    * than an error. The retry and error handlers then return that response as they would a 2xx one.
+    */
+   public void acceptNotModified() {
+      this.acceptsNotModified = true;
+   }
+
+   /**
+    * @see #acceptNotModified
+    */
+   public boolean acceptsNotModified() {
+      return acceptsNotModified;
+   }
+
    /**
     * Commands need to be replayed, if redirected or on a retryable error. Typically, this implies
     * the payload carried is not a streaming type.
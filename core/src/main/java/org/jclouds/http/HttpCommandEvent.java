@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Describes one step of an http command, as reported to an {@link HttpCommandListener}.
+ */
+@Beta
+public final class HttpCommandEvent {
+
+   public static HttpCommandEvent create(String commandName, @Nullable String provider, String method,
+         int statusCode, long bytesSent, long bytesReceived, long durationNanos) {
+      return new HttpCommandEvent(commandName, provider, method, statusCode, bytesSent, bytesReceived,
+            durationNanos);
+   }
+
+   private final String commandName;
+   private final String provider;
+   private final String method;
+   private final int statusCode;
+   private final long bytesSent;
+   private final long bytesReceived;
+   private final long durationNanos;
+
+   private HttpCommandEvent(String commandName, String provider, String method, int statusCode, long bytesSent,
+         long bytesReceived, long durationNanos) {
+      this.commandName = checkNotNull(commandName, "commandName");
+      this.provider = provider;
+      this.method = checkNotNull(method, "method");
+      this.statusCode = statusCode;
+      this.bytesSent = bytesSent;
+      this.bytesReceived = bytesReceived;
+      this.durationNanos = durationNanos;
+   }
+
+   /**
+    * The command name of the invocation, as given by {@link org.jclouds.rest.config.InvocationConfig}, or the
+    * request method for requests not created from an api method.
+    */
+   public String getCommandName() {
+      return commandName;
+   }
+
+   /**
+    * The id of the provider or api of the context sending the command.
+    */
+   @Nullable
+   public String getProvider() {
+      return provider;
+   }
+
+   public String getMethod() {
+      return method;
+   }
+
+   /**
+    * The response status code, or {@code -1} if no response has been received.
+    */
+   public int getStatusCode() {
+      return statusCode;
+   }
+
+   /**
+    * The length of the request payload, or {@code -1} if unknown.
+    */
+   public long getBytesSent() {
+      return bytesSent;
+   }
+
+   /**
+    * The number of bytes of the response payload read so far, or {@code -1} if not applicable.
+    */
+   public long getBytesReceived() {
+      return bytesReceived;
+   }
+
+   public long getDurationNanos() {
+      return durationNanos;
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).omitNullValues().add("commandName", commandName)
+            .add("provider", provider).add("method", method).add("statusCode", statusCode)
+            .add("bytesSent", bytesSent).add("bytesReceived", bytesReceived).add("durationNanos", durationNanos)
+            .toString();
+   }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import org.jclouds.http.internal.NullHttpCommandListener;
+
+import com.google.common.annotations.Beta;
+import com.google.inject.ImplementedBy;
+
+/**
+ * Receives timings for the http commands sent by a context, for metrics or tracing.
+ * <p/>
+ * Bind an implementation in a module passed to the context builder to replace the default, which ignores all
+ * events. Callbacks are invoked on the thread executing the command, so implementations must be thread-safe and
+ * return quickly.
+ *
+ * @see org.jclouds.http.internal.InMemoryHttpCommandListener
+ */
+@Beta
+@ImplementedBy(NullHttpCommandListener.class)
+public interface HttpCommandListener {
+
+   /**
+    * Called once the request filters have been applied. The duration is the time spent in the filters.
+    */
+   void filtered(HttpCommandEvent event);
+
+   /**
+    * Called once the driver has prepared the request. Drivers which open the connection and write the request
+    * eagerly do so at this point. The duration is measured from the end of the filters.
+    */
+   void connected(HttpCommandEvent event);
+
+   /**
+    * Called when the status line and headers of the response have been received. The duration is measured from
+    * the start of the attempt.
+    */
+   void firstByte(HttpCommandEvent event);
+
+   /**
+    * Called when the response body has been read to its end or closed. The duration is measured from the start of
+    * the attempt.
+    */
+   void completed(HttpCommandEvent event);
+
+   /**
+    * Called when an attempt is going to be retried. The status code is {@code -1} when the attempt failed with an
+    * {@link java.io.IOException}. The duration is measured from the start of the attempt.
+    */
+   void retried(HttpCommandEvent event);
+
+   /**
+    * Called when the command fails. The duration is measured from the start of the first attempt.
+    */
+   void failed(HttpCommandEvent event, Throwable error);
+}
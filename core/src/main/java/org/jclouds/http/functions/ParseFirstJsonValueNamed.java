@@ -69,18 +69,11 @@ public class ParseFirstJsonValueNamed<T> implements Function<HttpResponse, T> {
          reader = new JsonReader(new InputStreamReader(arg0.getPayload().getInput()));
          // in case keys are not in quotes
          reader.setLenient(true);
-         AtomicReference<String> name = Atomics.newReference();
-         JsonToken token = reader.peek();
-         for (; token != JsonToken.END_DOCUMENT && nnn(reader, token, name); token = skipAndPeek(token, reader)) {
-         }
-         if (name.get() == null) {
+         if (advanceToValueNamed(reader) == null) {
             logger.trace("did not object named %s in json from response %s", nameChoices, arg0);
             return nothing();
-         } else if (nameChoices.contains(name.get())) {
-            return json.delegate().<T> fromJson(reader, type.getType());
-         } else {
-            return nothing();
          }
+         return json.delegate().<T> fromJson(reader, type.getType());
       } catch (IOException e) {
          throw new RuntimeException(String.format(
                "error reading from stream, parsing object named %s from http response %s", nameChoices, arg0), e);
@@ -90,6 +83,19 @@ public class ParseFirstJsonValueNamed<T> implements Function<HttpResponse, T> {
       }
    }
 
+   /**
+    * Advances the reader to the value of the first of the names found.
+    * 
+    * @return the name found, or null if the document has none of them
+    */
+   String advanceToValueNamed(JsonReader reader) throws IOException {
+      AtomicReference<String> name = Atomics.newReference();
+      JsonToken token = reader.peek();
+      for (; token != JsonToken.END_DOCUMENT && nnn(reader, token, name); token = skipAndPeek(token, reader)) {
+      }
+      return name.get();
+   }
+
    @SuppressWarnings("unchecked")
    private T nothing() {
       if (type.getRawType().isAssignableFrom(Set.class))
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.json.internal.GsonWrapper;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Parses the elements of a json array as they are iterated, so that large listings are never held in memory at
+ * once. The array is the root of the document or, when names are given, the value of the first of them found.
+ * 
+ * @see org.jclouds.rest.annotations.StreamJson
+ */
+public class ParseJsonStream<T> implements Function<HttpResponse, FluentIterable<T>> {
+
+   private final GsonWrapper json;
+   private final TypeLiteral<T> elementType;
+   private final ParseFirstJsonValueNamed<?> valueNamed;
+
+   /**
+    * @param nameChoices
+    *           tried in order, first match wins; empty to read the root array
+    */
+   public ParseJsonStream(GsonWrapper json, TypeLiteral<T> elementType, String... nameChoices) {
+      this.json = checkNotNull(json, "json");
+      this.elementType = checkNotNull(elementType, "elementType");
+      this.valueNamed = nameChoices.length > 0 ? new ParseFirstJsonValueNamed<Object>(json,
+            TypeLiteral.get(Object.class), nameChoices) : null;
+   }
+
+   @Override
+   public FluentIterable<T> apply(HttpResponse response) {
+      if (response.getPayload() == null)
+         return FluentIterable.from(Collections.<T> emptyList());
+      JsonReader reader = null;
+      try {
+         reader = new JsonReader(new InputStreamReader(response.getPayload().openStream(), Charsets.UTF_8));
+         // in case keys are not in quotes
+         reader.setLenient(true);
+         if ((valueNamed != null && valueNamed.advanceToValueNamed(reader) == null)
+               || reader.peek() != JsonToken.BEGIN_ARRAY) {
+            close(reader, response);
+            return FluentIterable.from(Collections.<T> emptyList());
+         }
+         reader.beginArray();
+         return new JsonArrayIterable<T>(json, elementType, reader, response);
+      } catch (IOException e) {
+         close(reader, response);
+         throw new RuntimeException(String.format("error reading json array from http response %s", response), e);
+      } catch (RuntimeException e) {
+         close(reader, response);
+         throw e;
+      }
+   }
+
+   private static void close(JsonReader reader, HttpResponse response) {
+      Closeables2.closeQuietly(reader);
+      response.getPayload().release();
+   }
+
+   /**
+    * Elements of a json array read from a response. Can be iterated once; the response is released when iteration
+    * ends, fails, or the iterable is closed.
+    */
+   public static final class JsonArrayIterable<T> extends FluentIterable<T> implements Closeable {
+      private final GsonWrapper json;
+      private final TypeLiteral<T> elementType;
+      private final JsonReader reader;
+      private final HttpResponse response;
+      private final AtomicBoolean iterated = new AtomicBoolean();
+      private final AtomicBoolean closed = new AtomicBoolean();
+
+      private JsonArrayIterable(GsonWrapper json, TypeLiteral<T> elementType, JsonReader reader,
+            HttpResponse response) {
+         this.json = json;
+         this.elementType = elementType;
+         this.reader = reader;
+         this.response = response;
+      }
+
+      @Override
+      public Iterator<T> iterator() {
+         checkState(iterated.compareAndSet(false, true), "json array of %s can only be iterated once", response);
+         return new AbstractIterator<T>() {
+            @Override
+            protected T computeNext() {
+               if (closed.get())
+                  return endOfData();
+               try {
+                  if (reader.hasNext())
+                     return json.delegate().<T> fromJson(reader, elementType.getType());
+               } catch (RuntimeException e) {
+                  close();
+                  throw e;
+               } catch (IOException e) {
+                  close();
+                  throw Throwables.propagate(e);
+               }
+               close();
+               return endOfData();
+            }
+         };
+      }
+
+      @Override
+      public void close() {
+         if (closed.compareAndSet(false, true))
+            ParseJsonStream.close(reader, response);
+      }
+
+      @Override
+      public String toString() {
+         return "JsonArrayIterable(" + elementType + ")";
+      }
+   }
+}
@@ -55,6 +55,7 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
    private Logger logger = Logger.NULL;
 
    private final XMLReader parser;
+   private final XMLReaderPool readers;
    private final HandlerWithResult<T> handler;
    private HttpRequest request;
 
@@ -64,6 +65,17 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
 
    public ParseSax(XMLReader parser, HandlerWithResult<T> handler) {
       this.parser = checkNotNull(parser, "parser");
+      this.readers = null;
+      this.handler = checkNotNull(handler, "handler");
+   }
+
+   /**
+    * Borrows a reader from {@code readers} for each parse, rather than holding one for the lifetime
+    * of this instance.
+    */
+   public ParseSax(XMLReaderPool readers, HandlerWithResult<T> handler) {
+      this.parser = null;
+      this.readers = checkNotNull(readers, "readers");
       this.handler = checkNotNull(handler, "handler");
    }
 
@@ -136,9 +148,13 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
    protected T doParse(InputSource from) throws IOException, SAXException {
       checkNotNull(from, "xml inputsource");
       from.setEncoding(StandardCharsets.UTF_8.name());
-      parser.setContentHandler(getHandler());
+      XMLReader reader = parser != null ? parser : readers.borrow();
+      reader.setContentHandler(getHandler());
       // This method should accept documents with a BOM (Byte-order mark)
-      parser.parse(from);
+      reader.parse(from);
+      // readers which failed are not reused, as their state is unknown
+      if (readers != null)
+         readers.release(reader);
       return getHandler().getResult();
    }
 
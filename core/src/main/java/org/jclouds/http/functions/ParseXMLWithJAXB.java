@@ -28,7 +28,6 @@ import javax.inject.Singleton;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.logging.Logger;
-import org.jclouds.util.Strings2;
 import org.jclouds.xml.XMLParser;
 
 import com.google.common.base.Function;
@@ -82,8 +81,7 @@ public class ParseXMLWithJAXB<T> implements Function<HttpResponse, T> {
 
    public <V> V apply(final InputStream stream, final Class<V> type) throws IOException {
       try {
-         String str = Strings2.toStringAndClose(stream);
-         return xml.fromXML(str, type);
+         return xml.fromXML(stream, type);
       } finally {
          if (stream != null) {
             stream.close();
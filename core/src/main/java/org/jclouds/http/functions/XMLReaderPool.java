@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Keeps idle {@link XMLReader}s so that {@link ParseSax} does not build a new parser per response.
+ * <p>
+ * A reader is used by one thread at a time: {@link #borrow()} it, parse, then {@link #release}
+ * it. At most {@code maxIdle} readers are retained; extra readers are left to the garbage
+ * collector.
+ */
+public class XMLReaderPool {
+
+   /** Idle readers kept when none is specified, roughly one per concurrently parsing thread. */
+   public static final int DEFAULT_MAX_IDLE = 32;
+
+   private static final DefaultHandler NO_OP_HANDLER = new DefaultHandler();
+
+   private final SAXParserFactory factory;
+   private final Queue<XMLReader> idle;
+
+   public XMLReaderPool(SAXParserFactory factory) {
+      this(factory, DEFAULT_MAX_IDLE);
+   }
+
+   public XMLReaderPool(SAXParserFactory factory, int maxIdle) {
+      checkArgument(maxIdle > 0, "maxIdle must be positive");
+      this.factory = checkNotNull(factory, "factory");
+      this.idle = new ArrayBlockingQueue<XMLReader>(maxIdle);
+   }
+
+   /**
+    * @return an idle reader, or a new one if none is available
+    */
+   public XMLReader borrow() {
+      XMLReader reader = idle.poll();
+      return reader != null ? reader : newReader();
+   }
+
+   /**
+    * Returns a reader which completed its last parse. The content handler is detached so the pool does
+    * not retain parse results.
+    */
+   public void release(XMLReader reader) {
+      reader.setContentHandler(NO_OP_HANDLER);
+      idle.offer(reader);
+   }
+
+   /**
+    * @return number of readers currently waiting to be borrowed
+    */
+   public int idleCount() {
+      return idle.size();
+   }
+
+   protected XMLReader newReader() {
+      try {
+         return factory.newSAXParser().getXMLReader();
+      } catch (ParserConfigurationException e) {
+         throw Throwables.propagate(e);
+      } catch (SAXException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+}
@@ -17,6 +17,7 @@
 package org.jclouds.http.handlers;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 
 import java.io.IOException;
 import java.util.Random;
@@ -72,6 +73,9 @@ import com.google.inject.Inject;
  * {@link TransformingHttpCommand#incrementFailureCount()}, because this failure count value is used
  * to determine how many times the command has already been tried. It also closes the response's
  * content input stream to ensure connections are cleaned up.
+ * <p>
+ * Setting {@link Constants#PROPERTY_RETRY_FULL_JITTER} replaces the delay above with a random one between zero and
+ * that value. Retries are also subject to the context's {@link RetryBudget}.
  */
 @Singleton
 public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOExceptionRetryHandler {
@@ -86,6 +90,13 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
    @Named(Constants.PROPERTY_RETRY_DELAY_START)
    private long delayStart = 50L;
 
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_RETRY_FULL_JITTER)
+   private boolean fullJitter = false;
+
+   @Inject(optional = true)
+   private RetryBudget retryBudget = new RetryBudget();
+
    @Resource
    protected Logger logger = Logger.NULL;
 
@@ -107,6 +118,9 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
          logger.error("Cannot retry after server error, command has exceeded retry limit %1$d: %2$s", retryCountLimit,
                   command);
          return false;
+      } else if (!retryBudget.tryAcquire()) {
+         logger.error("Cannot retry after server error, retry budget is exhausted: %1$s", command);
+         return false;
       } else {
          imposeBackoffExponentialDelay(command.getFailureCount(), "server error: " + command.toString());
          return true;
@@ -129,14 +143,21 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
          return;
       }
       long delayMs = (long) (period * Math.pow(failureCount, pow));
-      // Add random delay to avoid thundering herd problem when multiple
-      // simultaneous failed requests retry after sleeping for the same delay.
-      // Throws an exception for a value of 0
-      delayMs += new Random().nextInt((int) (max(delayMs / 10, 1) ));
-      delayMs = delayMs > maxPeriod ? maxPeriod : delayMs;
+      if (fullJitter) {
+         // Pick any delay up to the exponential one, so that clients failing
+         // together spread their retries over the whole window.
+         delayMs = min(delayMs, maxPeriod);
+         delayMs = (long) (new Random().nextDouble() * (delayMs + 1));
+      } else {
+         // Add random delay to avoid thundering herd problem when multiple
+         // simultaneous failed requests retry after sleeping for the same delay.
+         // Throws an exception for a value of 0
+         delayMs += new Random().nextInt((int) (max(delayMs / 10, 1) ));
+         delayMs = delayMs > maxPeriod ? maxPeriod : delayMs;
+      }
       logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, max, delayMs, commandDescription);
       try {
-         Thread.sleep(delayMs);
+         retryBudget.backoff(delayMs);
       } catch (InterruptedException e) {
          Throwables.propagate(e);
       }
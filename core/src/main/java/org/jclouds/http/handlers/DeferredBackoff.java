@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.handlers;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Lets retry handlers hand their back-off delay to the caller instead of sleeping.
+ * <p/>
+ * Asynchronous executors call {@link #begin()} before asking the retry handlers whether to retry, and
+ * {@link #end()} afterwards to learn how long to wait before sending the request again. Synchronous executors run
+ * their commands on the calling thread, which {@link RetryBudget#backoff(long)} puts to sleep instead.
+ */
+public final class DeferredBackoff {
+
+   private static final ThreadLocal<long[]> deferred = new ThreadLocal<long[]>();
+
+   private DeferredBackoff() {
+   }
+
+   /**
+    * Starts recording back-off delays requested on the current thread.
+    */
+   public static void begin() {
+      deferred.set(new long[1]);
+   }
+
+   /**
+    * Stops recording back-off delays on the current thread.
+    *
+    * @return the sum of the delays requested since {@link #begin()}, in milliseconds
+    */
+   public static long end() {
+      long[] delay = deferred.get();
+      deferred.remove();
+      return delay != null ? delay[0] : 0;
+   }
+
+   /**
+    * Returns true if the current thread is between {@link #begin()} and {@link #end()}.
+    */
+   static boolean isDeferring() {
+      return deferred.get() != null;
+   }
+
+   /**
+    * Adds {@code delayMs} milliseconds to the delay recorded since {@link #begin()} on the current thread.
+    */
+   static void defer(long delayMs) {
+      long[] delay = deferred.get();
+      checkState(delay != null, "back-off is not deferred on this thread");
+      delay[0] += delayMs;
+   }
+}
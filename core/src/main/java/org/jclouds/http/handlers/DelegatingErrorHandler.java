@@ -59,7 +59,10 @@ public class DelegatingErrorHandler implements HttpErrorHandler {
 
    public void handleError(HttpCommand command, HttpResponse response) {
       int statusCode = response.getStatusCode();
-      if (statusCode >= 300 && statusCode < 400) {
+      if (statusCode == 304 && command.acceptsNotModified()) {
+         // the answer to a conditional request, not an error
+         return;
+      } else if (statusCode >= 300 && statusCode < 400) {
          getRedirectionHandler().handleError(command, response);
       } else if (statusCode >= 400 && statusCode < 500) {
          getClientErrorHandler().handleError(command, response);
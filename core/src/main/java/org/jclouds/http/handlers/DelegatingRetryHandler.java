@@ -61,7 +61,9 @@ public class DelegatingRetryHandler implements HttpRetryHandler {
    public boolean shouldRetryRequest(HttpCommand command, HttpResponse response) {
       int statusCode = response.getStatusCode();
       boolean retryRequest = false;
-      if (statusCode >= 300 && statusCode < 400) {
+      if (statusCode == 304 && command.acceptsNotModified()) {
+         return false;
+      } else if (statusCode >= 300 && statusCode < 400) {
          retryRequest = redirectionRetryHandler.shouldRetryRequest(command, response);
       } else if (statusCode >= 400 && statusCode < 500) {
          retryRequest = clientErrorRetryHandler.shouldRetryRequest(command, response);
@@ -49,6 +49,9 @@ public abstract class RateLimitRetryHandler implements HttpRetryHandler {
    @Named(PROPERTY_MAX_RATE_LIMIT_WAIT)
    private int maxRateLimitWait = 2 * 60 * 1000;
 
+   @Inject(optional = true)
+   private RetryBudget retryBudget = new RetryBudget();
+
    /**
     * Returns the response status that will be considered a rate limit error.
     * <p>
@@ -82,6 +85,9 @@ public abstract class RateLimitRetryHandler implements HttpRetryHandler {
          logger.error("Cannot retry after rate limit error, command has exceeded retry limit %1$d: %2$s",
                retryCountLimit, command);
          return false;
+      } else if (!retryBudget.tryAcquire()) {
+         logger.error("Cannot retry after rate limit error, retry budget is exhausted: %1$s", command);
+         return false;
       } else {
          return delayRequestUntilAllowed(command, response);
       }
@@ -106,7 +112,7 @@ public abstract class RateLimitRetryHandler implements HttpRetryHandler {
             logger.debug("Waiting %sms before retrying, as defined by the rate limit", waitPeriod);
             // Do not use Uninterrumpibles or similar, to let the jclouds
             // tiemout configuration interrupt this thread
-            Thread.sleep(waitPeriod);
+            retryBudget.backoff(waitPeriod);
          } catch (InterruptedException ex) {
             // If the request is being executed and has a timeout configured,
             // the thread may be interrupted when the timeout is reached.
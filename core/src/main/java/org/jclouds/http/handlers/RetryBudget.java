@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.handlers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.inject.Inject;
+
+/**
+ * Limits how many retries a context may attempt per second, and keeps track of the retries it performs.
+ * <p/>
+ * The budget is a token bucket refilled at {@link Constants#PROPERTY_RETRY_BUDGET} tokens per second, holding at
+ * most one second worth of tokens. Each retry takes a token; when the bucket is empty the retry is dropped and the
+ * failure is returned to the caller. During a provider outage this keeps the retries from multiplying the load on
+ * the provider and from filling the user threads with commands waiting to be retried.
+ */
+@Beta
+@Singleton
+public class RetryBudget {
+
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_RETRY_BUDGET)
+   private double retriesPerSecond = 0;
+
+   private final Ticker ticker;
+   private final AtomicInteger retriesInFlight = new AtomicInteger();
+   private final AtomicLong backoffMillis = new AtomicLong();
+   private final AtomicLong droppedRetries = new AtomicLong();
+
+   private double tokens = -1;
+   private long lastRefillNanos;
+
+   @Inject
+   RetryBudget() {
+      this(Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   RetryBudget(Ticker ticker) {
+      this.ticker = ticker;
+   }
+
+   @VisibleForTesting
+   RetryBudget(double retriesPerSecond, Ticker ticker) {
+      this(ticker);
+      checkArgument(retriesPerSecond >= 0, "retriesPerSecond must be non-negative");
+      this.retriesPerSecond = retriesPerSecond;
+   }
+
+   /**
+    * Takes a token for a retry.
+    *
+    * @return false if the budget is exhausted and the command must not be retried
+    */
+   public boolean tryAcquire() {
+      if (retriesPerSecond <= 0)
+         return true;
+      synchronized (this) {
+         long now = ticker.read();
+         if (tokens < 0) {
+            tokens = retriesPerSecond;
+         } else {
+            tokens = Math.min(retriesPerSecond, tokens + retriesPerSecond * (now - lastRefillNanos)
+                  / SECONDS.toNanos(1));
+         }
+         lastRefillNanos = now;
+         if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+         }
+      }
+      droppedRetries.incrementAndGet();
+      return false;
+   }
+
+   /**
+    * Waits before a retry. Only asynchronous executors avoid blocking: they record the delay through
+    * {@link DeferredBackoff}, schedule the retry, and call {@link #retryScheduled()} and {@link #retryStarted()}
+    * around the wait. A synchronous command holds its calling thread until it completes, so that thread sleeps here.
+    */
+   public void backoff(long delayMs) throws InterruptedException {
+      backoffMillis.addAndGet(delayMs);
+      if (DeferredBackoff.isDeferring()) {
+         DeferredBackoff.defer(delayMs);
+         return;
+      }
+      retriesInFlight.incrementAndGet();
+      try {
+         Thread.sleep(delayMs);
+      } finally {
+         retriesInFlight.decrementAndGet();
+      }
+   }
+
+   /**
+    * Records a retry waiting on a scheduler to be sent.
+    */
+   public void retryScheduled() {
+      retriesInFlight.incrementAndGet();
+   }
+
+   /**
+    * Records that a retry previously passed to {@link #retryScheduled()} is being sent.
+    */
+   public void retryStarted() {
+      retriesInFlight.decrementAndGet();
+   }
+
+   /**
+    * Returns the number of retries currently backing off.
+    */
+   public int getRetriesInFlight() {
+      return retriesInFlight.get();
+   }
+
+   /**
+    * Returns the total time, in milliseconds, spent backing off before retries.
+    */
+   public long getBackoffMillis() {
+      return backoffMillis.get();
+   }
+
+   /**
+    * Returns the number of retries that were not attempted because the budget was exhausted.
+    */
+   public long getDroppedRetries() {
+      return droppedRetries.get();
+   }
+}
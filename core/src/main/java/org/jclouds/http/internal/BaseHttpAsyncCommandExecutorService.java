@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.http.HttpUtils.checkRequestHasContentLengthOrChunkedEncoding;
+import static org.jclouds.http.HttpUtils.wirePayloadIfEnabled;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.io.IOException;
+
+import org.jclouds.http.HttpAsyncCommandExecutorService;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DeferredBackoff;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.handlers.RetryBudget;
+import org.jclouds.io.ContentMetadataCodec;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Sends commands with the same filters, retry and error handling as {@link BaseHttpCommandExecutorService#invoke},
+ * but without holding a thread while the request is in flight or backing off.
+ * <p/>
+ * Each attempt is sent with {@link #invokeAsync}. When the retry handlers decide to retry, the delay they ask for
+ * is collected through {@link DeferredBackoff} and the next attempt is scheduled with {@link HttpCommandScheduler}.
+ */
+public abstract class BaseHttpAsyncCommandExecutorService<Q> extends BaseHttpCommandExecutorService<Q> implements
+      HttpAsyncCommandExecutorService {
+
+   private final HttpCommandScheduler scheduler;
+   private final RetryBudget retryBudget;
+
+   protected BaseHttpAsyncCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
+         DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
+         DelegatingErrorHandler errorHandler, HttpWire wire, String idempotentMethods,
+         HttpCommandScheduler scheduler, RetryBudget retryBudget) {
+      super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods);
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.retryBudget = checkNotNull(retryBudget, "retryBudget");
+   }
+
+   @Override
+   public ListenableFuture<HttpResponse> submit(HttpCommand command) {
+      SettableFuture<HttpResponse> result = SettableFuture.create();
+      send(command, trace(command), result);
+      return result;
+   }
+
+   private void send(final HttpCommand command, final HttpCommandTrace trace,
+         final SettableFuture<HttpResponse> result) {
+      if (result.isDone())
+         return;
+      HttpRequest request = command.getCurrentRequest();
+      Q nativeRequest = null;
+      final ListenableFuture<HttpResponse> response;
+      try {
+         trace.attempt();
+         for (HttpRequestFilter filter : request.getFilters()) {
+            request = filter.filter(request);
+         }
+         trace.filtered(request);
+         checkRequestHasContentLengthOrChunkedEncoding(request,
+               "After filtering, the request has neither chunked encoding nor content length: " + request);
+         logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
+         if (trace.wired())
+            wirePayloadIfEnabled(wire, request);
+         utils.logRequest(headerLog, request, ">>");
+         nativeRequest = convert(request);
+         trace.connected();
+         response = invokeAsync(nativeRequest);
+      } catch (Exception e) {
+         cleanup(nativeRequest);
+         failed(command, trace, e, result);
+         return;
+      }
+
+      final int requestId = request.hashCode();
+      final Q sent = nativeRequest;
+      Futures.addCallback(response, new FutureCallback<HttpResponse>() {
+         @Override
+         public void onSuccess(HttpResponse response) {
+            try {
+               received(command, trace, requestId, response, result);
+            } catch (Exception e) {
+               failed(command, trace, e, result);
+            }
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            cleanup(sent);
+            failed(command, trace, t, result);
+         }
+      });
+      result.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (result.isCancelled())
+               response.cancel(true);
+         }
+      }, directExecutor());
+   }
+
+   private void received(HttpCommand command, HttpCommandTrace trace, int requestId, HttpResponse response,
+         SettableFuture<HttpResponse> result) {
+      logger.debug("Receiving response %s: %s", requestId, response.getStatusLine());
+      utils.logResponse(headerLog, response, "<<");
+      if (response.getPayload() != null && trace.wired())
+         response = wire.input(response);
+      response = trace.received(response);
+      if (response.getStatusCode() >= 300) {
+         boolean retry;
+         long delayMs;
+         DeferredBackoff.begin();
+         try {
+            retry = shouldContinue(command, response);
+         } finally {
+            delayMs = DeferredBackoff.end();
+         }
+         if (retry) {
+            trace.retried(response.getStatusCode());
+            retryLater(command, trace, delayMs, result);
+            return;
+         }
+      }
+      if (command.getException() != null) {
+         trace.failed(command.getException());
+         result.setException(command.getException());
+      } else {
+         result.set(response);
+      }
+   }
+
+   private void failed(HttpCommand command, HttpCommandTrace trace, Throwable t,
+         SettableFuture<HttpResponse> result) {
+      IOException ioe = getFirstThrowableOfType(t, IOException.class);
+      if (ioe != null) {
+         boolean retry;
+         long delayMs;
+         DeferredBackoff.begin();
+         try {
+            retry = shouldContinue(command, ioe);
+         } finally {
+            delayMs = DeferredBackoff.end();
+         }
+         if (retry) {
+            trace.retried(-1);
+            retryLater(command, trace, delayMs, result);
+            return;
+         }
+      }
+      command.setException(new HttpResponseException(t.getMessage() + " connecting to "
+            + command.getCurrentRequest().getRequestLine(), command, null, t));
+      trace.failed(command.getException());
+      result.setException(command.getException());
+   }
+
+   private void retryLater(final HttpCommand command, final HttpCommandTrace trace, long delayMs,
+         final SettableFuture<HttpResponse> result) {
+      retryBudget.retryScheduled();
+      scheduler.schedule(new Runnable() {
+         @Override
+         public void run() {
+            retryBudget.retryStarted();
+            send(command, trace, result);
+         }
+      }, delayMs, MILLISECONDS);
+   }
+
+   /**
+    * Sends the request without waiting for the response.
+    */
+   protected abstract ListenableFuture<HttpResponse> invokeAsync(Q nativeRequest);
+}
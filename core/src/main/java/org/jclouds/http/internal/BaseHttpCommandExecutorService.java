@@ -34,6 +34,7 @@ import javax.inject.Named;
 import org.jclouds.Constants;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpCommandListener;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
 import org.jclouds.http.HttpResponse;
@@ -43,10 +44,14 @@ import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
 import org.jclouds.io.ContentMetadataCodec;
+import org.jclouds.location.Provider;
 import org.jclouds.logging.Logger;
+import org.jclouds.rest.config.InvocationConfig;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
 
 public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandExecutorService {
    protected final HttpUtils utils;
@@ -66,6 +71,16 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    private final Set<String> idempotentMethods;
 
+   @Inject(optional = true)
+   private HttpCommandListener listener = new NullHttpCommandListener();
+
+   @Inject(optional = true)
+   @Provider
+   private String provider;
+
+   @Inject(optional = true)
+   private InvocationConfig config;
+
    protected BaseHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
          DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
          DelegatingErrorHandler errorHandler, HttpWire wire,
@@ -82,38 +97,47 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
    @Override
    public HttpResponse invoke(HttpCommand command) {
       HttpResponse response = null;
+      HttpCommandTrace trace = trace(command);
       for (;;) {
          HttpRequest request = command.getCurrentRequest();
          Q nativeRequest = null;
          try {
+            trace.attempt();
             for (HttpRequestFilter filter : request.getFilters()) {
                request = filter.filter(request);
             }
+            trace.filtered(request);
             checkRequestHasContentLengthOrChunkedEncoding(request,
                   "After filtering, the request has neither chunked encoding nor content length: " + request);
             logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
-            wirePayloadIfEnabled(wire, request);
+            if (trace.wired())
+               wirePayloadIfEnabled(wire, request);
             utils.logRequest(headerLog, request, ">>");
             nativeRequest = convert(request);
+            trace.connected();
             response = invoke(nativeRequest);
 
             logger.debug("Receiving response %s: %s", request.hashCode(), response.getStatusLine());
             utils.logResponse(headerLog, response, "<<");
-            if (response.getPayload() != null && wire.enabled())
-               wire.input(response);
+            if (response.getPayload() != null && trace.wired())
+               response = wire.input(response);
+            response = trace.received(response);
             nativeRequest = null; // response took ownership of streams
             int statusCode = response.getStatusCode();
             if (statusCode >= 300) {
-               if (shouldContinue(command, response))
+               if (shouldContinue(command, response)) {
+                  trace.retried(statusCode);
                   continue;
-               else
+               } else {
                   break;
+               }
             } else {
                break;
             }
          } catch (Exception e) {
             IOException ioe = getFirstThrowableOfType(e, IOException.class);
             if (ioe != null && shouldContinue(command, ioe)) {
+               trace.retried(-1);
                continue;
             }
             command.setException(new HttpResponseException(e.getMessage() + " connecting to "
@@ -124,11 +148,24 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
             cleanup(nativeRequest);
          }
       }
-      if (command.getException() != null)
+      if (command.getException() != null) {
+         trace.failed(command.getException());
          throw propagate(command.getException());
+      }
       return response;
    }
 
+   /**
+    * Starts measuring the command for the {@link HttpCommandListener}, and decides whether its bodies are wired.
+    */
+   HttpCommandTrace trace(HttpCommand command) {
+      HttpRequest request = command.getCurrentRequest();
+      String commandName = request.getMethod();
+      if (config != null && request instanceof GeneratedHttpRequest)
+         commandName = config.getCommandName(((GeneratedHttpRequest) request).getInvocation());
+      return new HttpCommandTrace(listener, provider, commandName, request.getMethod(), wire.enabled(commandName));
+   }
+
    @VisibleForTesting
    boolean shouldContinue(HttpCommand command, HttpResponse response) {
       boolean shouldContinue = false;
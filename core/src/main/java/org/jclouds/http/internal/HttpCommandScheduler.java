@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.lifecycle.Closer;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
+/**
+ * Runs delayed work for asynchronous http commands, such as retries after a back-off or timeouts.
+ * <p/>
+ * Uses the scheduler from {@link org.jclouds.concurrent.config.ScheduledExecutorServiceModule} when it is
+ * installed, and otherwise a single daemon timer thread that is stopped when the context is closed. The timer
+ * only hands tasks over to the user thread pool, so it never runs request filters or response parsers itself.
+ */
+@Singleton
+public class HttpCommandScheduler {
+   private final ListeningExecutorService userExecutor;
+   private final Closer closer;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_SCHEDULER_THREADS)
+   private ScheduledExecutorService scheduler;
+
+   @Inject
+   public HttpCommandScheduler(@Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, Closer closer) {
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.closer = checkNotNull(closer, "closer");
+   }
+
+   /**
+    * Runs {@code task} on the user thread pool after {@code delay}.
+    */
+   public void schedule(final Runnable task, long delay, TimeUnit unit) {
+      if (delay <= 0) {
+         userExecutor.execute(task);
+         return;
+      }
+      scheduler().schedule(new Runnable() {
+         @Override
+         public void run() {
+            userExecutor.execute(task);
+         }
+      }, delay, unit);
+   }
+
+   private synchronized ScheduledExecutorService scheduler() {
+      if (scheduler == null) {
+         final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+               .setNameFormat("http command timer %d").setDaemon(true).build());
+         closer.addToClose(new Closeable() {
+            @Override
+            public void close() throws IOException {
+               timer.shutdownNow();
+            }
+         });
+         scheduler = timer;
+      }
+      return scheduler;
+   }
+}
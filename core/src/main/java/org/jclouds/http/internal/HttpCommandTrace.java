@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+
+import org.jclouds.http.HttpCommandEvent;
+import org.jclouds.http.HttpCommandListener;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+/**
+ * Measures the attempts of one command and reports them to the {@link HttpCommandListener}. Does nothing when the
+ * listener is a {@link NullHttpCommandListener}.
+ */
+final class HttpCommandTrace {
+
+   private final HttpCommandListener listener;
+   private final boolean enabled;
+   private final String provider;
+   private final String commandName;
+   private final boolean wired;
+   private final long commandStart;
+   private String method;
+   private long bytesSent = -1;
+   private long attemptStart;
+   private long mark;
+
+   HttpCommandTrace(HttpCommandListener listener, String provider, String commandName, String method,
+         boolean wired) {
+      this.listener = listener;
+      this.enabled = !(listener instanceof NullHttpCommandListener);
+      this.provider = provider;
+      this.commandName = commandName;
+      this.wired = wired;
+      this.method = method;
+      this.commandStart = enabled ? System.nanoTime() : 0;
+   }
+
+   /**
+    * Whether the bodies of this command are written to the wire log.
+    */
+   boolean wired() {
+      return wired;
+   }
+
+   void attempt() {
+      if (enabled)
+         attemptStart = mark = System.nanoTime();
+   }
+
+   void filtered(HttpRequest request) {
+      if (!enabled)
+         return;
+      method = request.getMethod();
+      Long length = request.getPayload() != null ? request.getPayload().getContentMetadata().getContentLength()
+            : Long.valueOf(0);
+      bytesSent = length != null ? length : -1;
+      long now = System.nanoTime();
+      listener.filtered(event(-1, -1, now - mark));
+      mark = now;
+   }
+
+   void connected() {
+      if (enabled)
+         listener.connected(event(-1, -1, System.nanoTime() - mark));
+   }
+
+   /**
+    * Reports the first byte, and returns a response whose payload reports its completion when it is read or closed.
+    * The response is rebuilt, as {@link HttpResponse#setPayload} would release the stream being wrapped.
+    */
+   HttpResponse received(HttpResponse response) {
+      if (!enabled)
+         return response;
+      final int statusCode = response.getStatusCode();
+      long now = System.nanoTime();
+      listener.firstByte(event(statusCode, -1, now - attemptStart));
+      final Payload payload = response.getPayload();
+      if (payload == null) {
+         listener.completed(event(statusCode, 0, now - attemptStart));
+         return response;
+      }
+      final long start = attemptStart;
+      Payload traced = Payloads.newInputStreamPayload(new FilterInputStream(payload.getInput()) {
+         private long bytesReceived;
+         private boolean done;
+
+         @Override
+         public int read() throws IOException {
+            int b = super.read();
+            if (b == -1)
+               complete();
+            else
+               bytesReceived++;
+            return b;
+         }
+
+         @Override
+         public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1)
+               complete();
+            else
+               bytesReceived += n;
+            return n;
+         }
+
+         @Override
+         public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            bytesReceived += skipped;
+            return skipped;
+         }
+
+         @Override
+         public void close() throws IOException {
+            try {
+               super.close();
+            } finally {
+               complete();
+            }
+         }
+
+         private void complete() {
+            if (done)
+               return;
+            done = true;
+            listener.completed(event(statusCode, bytesReceived, System.nanoTime() - start));
+         }
+      });
+      traced.setContentMetadata(payload.getContentMetadata());
+      traced.setSensitive(payload.isSensitive());
+      return response.toBuilder().payload(traced).build();
+   }
+
+   void retried(int statusCode) {
+      if (enabled)
+         listener.retried(event(statusCode, -1, System.nanoTime() - attemptStart));
+   }
+
+   void failed(Exception error) {
+      if (!enabled)
+         return;
+      int statusCode = -1;
+      if (error instanceof HttpResponseException && ((HttpResponseException) error).getResponse() != null)
+         statusCode = ((HttpResponseException) error).getResponse().getStatusCode();
+      listener.failed(event(statusCode, -1, System.nanoTime() - commandStart), error);
+   }
+
+   private HttpCommandEvent event(int statusCode, long bytesReceived, long durationNanos) {
+      return HttpCommandEvent.create(commandName, provider, method, statusCode, bytesSent, bytesReceived,
+            durationNanos);
+   }
+}
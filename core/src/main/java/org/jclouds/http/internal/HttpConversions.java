@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.net.HttpHeaders.ACCEPT;
+import static com.google.common.net.HttpHeaders.USER_AGENT;
+import static org.jclouds.http.HttpUtils.filterOutContentHeaders;
+import static org.jclouds.io.Payloads.newInputStreamPayload;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.ByteStreams2;
+import org.jclouds.io.ContentMetadataCodec;
+import org.jclouds.io.FileRegion;
+import org.jclouds.io.Payload;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimap;
+
+/**
+ * Converts jclouds requests and responses to and from those of HTTP client libraries. Drivers built on a client
+ * library share these, so that they send and receive the same headers and payloads.
+ */
+@Beta
+public final class HttpConversions {
+
+   /**
+    * Returns the headers to send with the request: its own, those of its payload, and a flexible {@code Accept} and
+    * the {@code User-Agent} unless the request sets them. Client libraries such as OkHttp do not add an
+    * {@code Accept} header.
+    */
+   public static Multimap<String, String> requestHeaders(HttpRequest request, String userAgent,
+         ContentMetadataCodec contentMetadataCodec) {
+      ImmutableListMultimap.Builder<String, String> headers = ImmutableListMultimap.builder();
+      if (request.getFirstHeaderOrNull(ACCEPT) == null) {
+         headers.put(ACCEPT, "*/*");
+      }
+      if (request.getFirstHeaderOrNull(USER_AGENT) == null) {
+         headers.put(USER_AGENT, userAgent);
+      }
+      headers.putAll(request.getHeaders());
+      if (request.getPayload() != null) {
+         headers.putAll(contentMetadataCodec.toHeaders(request.getPayload().getContentMetadata()));
+      }
+      return headers.build();
+   }
+
+   /**
+    * Returns the payload to send as the request body, or null if the request has none or an empty one.
+    */
+   @Nullable
+   public static Payload requestBody(HttpRequest request) {
+      Payload payload = request.getPayload();
+      if (payload == null)
+         return null;
+      Long length = checkNotNull(payload.getContentMetadata().getContentLength(), "payload.getContentLength");
+      return length > 0 ? payload : null;
+   }
+
+   /**
+    * Writes the payload to the stream a buffer of {@code bufferSize} bytes at a time. File-backed payloads and their
+    * slices are read with positional reads of the file, rather than through a stream that skips to their offset.
+    */
+   public static void writePayload(Payload payload, OutputStream out, int bufferSize) throws IOException {
+      FileRegion region = FileRegion.fromPayload(payload);
+      if (region != null) {
+         region.copyTo(out, bufferSize);
+         return;
+      }
+      InputStream in = payload.openStream();
+      try {
+         ByteStreams2.copy(in, out, bufferSize);
+      } finally {
+         closeQuietly(in);
+      }
+   }
+
+   /**
+    * Returns the response with the given status and headers. The body, if not null, becomes the payload, with the
+    * content metadata of the headers.
+    */
+   public static HttpResponse response(int statusCode, String message, Multimap<String, String> headers,
+         @Nullable InputStream body, ContentMetadataCodec contentMetadataCodec) {
+      HttpResponse.Builder<?> builder = HttpResponse.builder();
+      builder.statusCode(statusCode);
+      builder.message(message);
+      if (body != null) {
+         Payload payload = newInputStreamPayload(body);
+         contentMetadataCodec.fromHeaders(payload.getContentMetadata(), headers);
+         builder.payload(payload);
+      }
+      builder.headers(filterOutContentHeaders(headers));
+      return builder.build();
+   }
+
+   private HttpConversions() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
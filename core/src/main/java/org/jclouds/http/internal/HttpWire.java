@@ -19,12 +19,17 @@ package org.jclouds.http.internal;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import org.jclouds.Constants;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
 import org.jclouds.logging.Logger;
 import org.jclouds.logging.internal.Wire;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
 public class HttpWire extends Wire {
 
    @Resource
@@ -36,6 +41,33 @@ public class HttpWire extends Wire {
    @Named(Constants.PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO)
    boolean logSensitiveInformation = false;
 
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_MAX_BYTES)
+   long maxBytes = Long.MAX_VALUE;
+
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_SAMPLE_RATE)
+   double sampleRate = 1;
+
+   private Pattern commands;
+
+   @Inject(optional = true)
+   void setCommands(@Named(Constants.PROPERTY_LOGGER_WIRE_COMMANDS) String commands) {
+      this.commands = Pattern.compile(commands);
+   }
+
+   /**
+    * Logs the body of {@code response}, returning a response whose payload is logged as it is read. The response is
+    * rebuilt rather than given the new payload, since {@link HttpResponse#setPayload} would close the stream.
+    */
+   public HttpResponse input(HttpResponse response) {
+      Payload payload = response.getPayload();
+      Payload wiredPayload = input(payload);
+      return wiredPayload == payload ? response : response.toBuilder().payload(wiredPayload).build();
+   }
+
    public Logger getWireLog() {
       return wireLog;
    }
@@ -44,4 +76,22 @@ public class HttpWire extends Wire {
    protected boolean isLogSensitiveInformation() {
       return logSensitiveInformation;
    }
+
+   @Override
+   protected long getMaxBytes() {
+      return maxBytes;
+   }
+
+   /**
+    * Decides whether the bodies of a command are logged, according to {@link Constants#PROPERTY_LOGGER_WIRE_COMMANDS}
+    * and {@link Constants#PROPERTY_LOGGER_WIRE_SAMPLE_RATE}. Called once per command, so that its request and
+    * response are logged together.
+    */
+   public boolean enabled(String commandName) {
+      if (!enabled())
+         return false;
+      if (commands != null && !commands.matcher(commandName).matches())
+         return false;
+      return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+   }
 }
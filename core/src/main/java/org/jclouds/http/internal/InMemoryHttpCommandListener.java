@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpCommandEvent;
+import org.jclouds.http.HttpCommandListener;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Keeps latency histograms, in microseconds, and counters for each command name.
+ * <p/>
+ * To use it, bind it in a module passed to the context builder, and look it up from the context's injector:
+ *
+ * <pre>
+ * bind(HttpCommandListener.class).to(InMemoryHttpCommandListener.class);
+ * </pre>
+ */
+@Beta
+@Singleton
+public class InMemoryHttpCommandListener implements HttpCommandListener {
+
+   /**
+    * Statistics for one command name.
+    */
+   public static final class CommandStats {
+      private final LatencyHistogram filter = new LatencyHistogram();
+      private final LatencyHistogram connect = new LatencyHistogram();
+      private final LatencyHistogram firstByte = new LatencyHistogram();
+      private final LatencyHistogram completed = new LatencyHistogram();
+      private final AtomicLong retries = new AtomicLong();
+      private final AtomicLong errors = new AtomicLong();
+      private final AtomicLong bytesSent = new AtomicLong();
+      private final AtomicLong bytesReceived = new AtomicLong();
+
+      public LatencyHistogram getFilter() {
+         return filter;
+      }
+
+      public LatencyHistogram getConnect() {
+         return connect;
+      }
+
+      public LatencyHistogram getFirstByte() {
+         return firstByte;
+      }
+
+      public LatencyHistogram getCompleted() {
+         return completed;
+      }
+
+      public long getRetries() {
+         return retries.get();
+      }
+
+      public long getErrors() {
+         return errors.get();
+      }
+
+      public long getBytesSent() {
+         return bytesSent.get();
+      }
+
+      public long getBytesReceived() {
+         return bytesReceived.get();
+      }
+
+      @Override
+      public String toString() {
+         return MoreObjects.toStringHelper(this).add("firstByte", firstByte).add("completed", completed)
+               .add("retries", getRetries()).add("errors", getErrors()).toString();
+      }
+   }
+
+   private final ConcurrentMap<String, CommandStats> stats = new ConcurrentHashMap<String, CommandStats>();
+
+   /**
+    * Returns the statistics of each command name seen so far.
+    */
+   public Map<String, CommandStats> getStats() {
+      return Collections.unmodifiableMap(stats);
+   }
+
+   @Nullable
+   public CommandStats getStats(String commandName) {
+      return stats.get(commandName);
+   }
+
+   @Override
+   public void filtered(HttpCommandEvent event) {
+      statsFor(event).filter.record(micros(event));
+   }
+
+   @Override
+   public void connected(HttpCommandEvent event) {
+      CommandStats stats = statsFor(event);
+      stats.connect.record(micros(event));
+      if (event.getBytesSent() > 0)
+         stats.bytesSent.addAndGet(event.getBytesSent());
+   }
+
+   @Override
+   public void firstByte(HttpCommandEvent event) {
+      statsFor(event).firstByte.record(micros(event));
+   }
+
+   @Override
+   public void completed(HttpCommandEvent event) {
+      CommandStats stats = statsFor(event);
+      stats.completed.record(micros(event));
+      if (event.getBytesReceived() > 0)
+         stats.bytesReceived.addAndGet(event.getBytesReceived());
+   }
+
+   @Override
+   public void retried(HttpCommandEvent event) {
+      statsFor(event).retries.incrementAndGet();
+   }
+
+   @Override
+   public void failed(HttpCommandEvent event, Throwable error) {
+      statsFor(event).errors.incrementAndGet();
+   }
+
+   private CommandStats statsFor(HttpCommandEvent event) {
+      CommandStats existing = stats.get(event.getCommandName());
+      if (existing != null)
+         return existing;
+      CommandStats created = new CommandStats();
+      existing = stats.putIfAbsent(event.getCommandName(), created);
+      return existing != null ? existing : created;
+   }
+
+   private static long micros(HttpCommandEvent event) {
+      return NANOSECONDS.toMicros(event.getDurationNanos());
+   }
+}
@@ -52,6 +52,7 @@ import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
 import org.jclouds.io.ByteStreams2;
+import org.jclouds.io.FileRegion;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -297,9 +298,16 @@ public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorSe
    void writePayloadToConnection(Payload payload, Object lengthDesc, HttpURLConnection connection) throws IOException {
       connection.setDoOutput(true);
       CountingOutputStream out = new CountingOutputStream(connection.getOutputStream());
-      InputStream is = payload.openStream();
+      FileRegion region = FileRegion.fromPayload(payload);
+      InputStream is = null;
       try {
-         ByteStreams2.copy(is, out, outputSocketBufferSize);
+         if (region != null) {
+            // read file-backed payloads and their slices straight from the file channel
+            region.copyTo(out, outputSocketBufferSize);
+         } else {
+            is = payload.openStream();
+            ByteStreams2.copy(is, out, outputSocketBufferSize);
+         }
       } catch (IOException e) {
          logger.error(e, "error after writing %d/%s bytes to %s", out.getCount(), lengthDesc, connection.getURL());
          throw e;
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+
+/**
+ * A lock-free histogram of non-negative values, with buckets in the style of HdrHistogram.
+ * <p/>
+ * Values below 32 are counted exactly. Larger values fall into one of 16 buckets per power of two, so any
+ * percentile is reported within about 6% of the recorded value, whatever its magnitude.
+ */
+@Beta
+public final class LatencyHistogram {
+
+   private static final int SUB_BUCKET_BITS = 4;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   private static final int EXACT = SUB_BUCKETS * 2;
+   private static final int FIRST_EXPONENT = 5;
+   private static final int BUCKETS = EXACT + (63 - FIRST_EXPONENT) * SUB_BUCKETS;
+
+   private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+   private final AtomicLong count = new AtomicLong();
+   private final AtomicLong total = new AtomicLong();
+   private final AtomicLong max = new AtomicLong();
+
+   public void record(long value) {
+      if (value < 0)
+         value = 0;
+      counts.incrementAndGet(indexOf(value));
+      count.incrementAndGet();
+      total.addAndGet(value);
+      long currentMax;
+      while (value > (currentMax = max.get())) {
+         if (max.compareAndSet(currentMax, value))
+            break;
+      }
+   }
+
+   public long getCount() {
+      return count.get();
+   }
+
+   public long getMax() {
+      return max.get();
+   }
+
+   public double getMean() {
+      long n = count.get();
+      return n == 0 ? 0 : (double) total.get() / n;
+   }
+
+   /**
+    * Returns the highest value of the bucket holding the given percentile, or zero if nothing was recorded.
+    *
+    * @param percentile between 0 and 100
+    */
+   public long getValueAtPercentile(double percentile) {
+      checkArgument(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100");
+      long n = count.get();
+      if (n == 0)
+         return 0;
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         seen += counts.get(i);
+         if (seen >= rank)
+            return Math.min(highestValueOf(i), max.get());
+      }
+      return max.get();
+   }
+
+   static int indexOf(long value) {
+      if (value < EXACT)
+         return (int) value;
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+      int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+      return EXACT + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+   }
+
+   static long highestValueOf(int index) {
+      if (index < EXACT)
+         return index;
+      int exponent = (index - EXACT) / SUB_BUCKETS + FIRST_EXPONENT;
+      long subBucket = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+      return ((subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("count", getCount()).add("p50", getValueAtPercentile(50))
+            .add("p99", getValueAtPercentile(99)).add("max", getMax()).toString();
+   }
+}
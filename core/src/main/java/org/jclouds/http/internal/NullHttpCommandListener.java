@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpCommandEvent;
+import org.jclouds.http.HttpCommandListener;
+
+/**
+ * Ignores all events. Executors skip measuring commands when this listener is bound.
+ */
+@Singleton
+public class NullHttpCommandListener implements HttpCommandListener {
+
+   @Override
+   public void filtered(HttpCommandEvent event) {
+   }
+
+   @Override
+   public void connected(HttpCommandEvent event) {
+   }
+
+   @Override
+   public void firstByte(HttpCommandEvent event) {
+   }
+
+   @Override
+   public void completed(HttpCommandEvent event) {
+   }
+
+   @Override
+   public void retried(HttpCommandEvent event) {
+   }
+
+   @Override
+   public void failed(HttpCommandEvent event, Throwable error) {
+   }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.jclouds.io.payloads.FilePayload;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+
+/**
+ * A {@link ByteSource} over a region of a file.
+ * <p/>
+ * Unlike {@code Files.asByteSource(file).slice(offset, length)}, slices of a region remain regions, so the file and
+ * position survive payload slicing. Drivers use {@link #fromPayload(Payload)} to recognize file-backed payloads and
+ * copy them with positional {@link FileChannel} reads.
+ */
+@Beta
+public final class FileRegion extends ByteSource {
+
+   /**
+    * Returns the region backing the payload, or null if the payload is not backed by a file.
+    */
+   @Nullable
+   public static FileRegion fromPayload(Payload payload) {
+      if (payload instanceof FilePayload) {
+         File file = ((FilePayload) payload).getRawContent();
+         return new FileRegion(file, 0, file.length());
+      }
+      Object rawContent = payload.getRawContent();
+      return rawContent instanceof FileRegion ? (FileRegion) rawContent : null;
+   }
+
+   private final File file;
+   private final long offset;
+   private final long length;
+
+   public FileRegion(File file, long offset, long length) {
+      this.file = checkNotNull(file, "file");
+      checkArgument(offset >= 0, "offset is negative");
+      checkArgument(length >= 0, "length is negative");
+      this.offset = offset;
+      this.length = length;
+   }
+
+   public File getFile() {
+      return file;
+   }
+
+   public long getOffset() {
+      return offset;
+   }
+
+   /**
+    * Returns the number of bytes in the region, which is less than the requested length if the file ends first.
+    */
+   @Override
+   public long size() {
+      return Math.min(length, Math.max(0, file.length() - offset));
+   }
+
+   @Override
+   public InputStream openStream() throws IOException {
+      FileInputStream in = new FileInputStream(file);
+      try {
+         in.getChannel().position(offset);
+      } catch (IOException e) {
+         closeQuietly(in);
+         throw e;
+      }
+      return ByteStreams.limit(in, length);
+   }
+
+   @Override
+   public FileRegion slice(long offset, long length) {
+      checkArgument(offset >= 0, "offset (%s) may not be negative", offset);
+      checkArgument(length >= 0, "length (%s) may not be negative", length);
+      long maxLength = Math.max(0, this.length - offset);
+      return new FileRegion(file, this.offset + Math.min(offset, this.length), Math.min(length, maxLength));
+   }
+
+   /**
+    * Copies the region to the stream with positional reads into a buffer of the given size.
+    *
+    * @return the number of bytes copied
+    */
+   public long copyTo(OutputStream out, int bufferSize) throws IOException {
+      checkNotNull(out, "out");
+      checkArgument(bufferSize >= 1, "bufferSize must be >= 1");
+      RandomAccessFile raf = new RandomAccessFile(file, "r");
+      try {
+         FileChannel channel = raf.getChannel();
+         ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(bufferSize, length)));
+         long position = offset;
+         long end = offset + length;
+         while (position < end) {
+            buffer.clear();
+            if (end - position < buffer.capacity())
+               buffer.limit((int) (end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0)
+               break;
+            out.write(buffer.array(), 0, read);
+            position += read;
+         }
+         return position - offset;
+      } finally {
+         closeQuietly(raf);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "FileRegion(" + file + ", " + offset + ", " + length + ")";
+   }
+}
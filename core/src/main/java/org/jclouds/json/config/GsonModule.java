@@ -42,6 +42,7 @@ import org.jclouds.json.gson.internal.Excluder;
 import org.jclouds.json.gson.internal.JsonReaderInternalAccess;
 import org.jclouds.json.internal.DeserializationConstructorAndReflectiveTypeAdapterFactory;
 import org.jclouds.json.internal.EnumTypeAdapterThatReturnsFromValue;
+import org.jclouds.json.internal.GeneratedJsonAdapterFactory;
 import org.jclouds.json.internal.GsonWrapper;
 import org.jclouds.json.internal.NamingStrategies.AnnotationConstructorNamingStrategy;
 import org.jclouds.json.internal.NamingStrategies.AnnotationOrNameFieldNamingStrategy;
@@ -129,6 +130,8 @@ public class GsonModule extends AbstractModule {
       builder.registerTypeAdapterFactory(new DeserializationConstructorAndReflectiveTypeAdapterFactory(
             new ConstructorConstructor(ImmutableMap.<Type, InstanceCreator<?>>of()), serializationPolicy,
             Excluder.DEFAULT, deserializationPolicy));
+      // registered later, so that adapters generated at compile time take precedence over reflection
+      builder.registerTypeAdapterFactory(new GeneratedJsonAdapterFactory());
 
       // complicated (serializers/deserializers as they need context to operate)
       builder.registerTypeHierarchyAdapter(Enum.class, new EnumTypeAdapterThatReturnsFromValue());
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.internal;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Uses the type adapters generated at build time by {@code org.jclouds.json.processor.SerializedNamesProcessor}, from
+ * the jclouds-json-processor artifact, for types whose {@link org.jclouds.json.SerializedNames} factory method they
+ * call directly.
+ * <p/>
+ * Must be registered after {@link DeserializationConstructorAndReflectiveTypeAdapterFactory}, so that it takes
+ * precedence and serialization can be delegated to the reflective adapter.
+ */
+public final class GeneratedJsonAdapterFactory implements TypeAdapterFactory {
+
+   /**
+    * Returns the name of the adapter generated for the class with the given package and binary name. This must match
+    * the name the processor gives the adapter.
+    */
+   public static String adapterClassName(String packageName, String binaryName) {
+      String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+      String adapterName = "JsonAdapter_" + simpleBinaryName.replace('$', '_');
+      return packageName.isEmpty() ? adapterName : packageName + "." + adapterName;
+   }
+
+   // an adapter constructor references its type through the adapter, so it is held softly to let the type unload
+   private final LoadingCache<Class<?>, Optional<Constructor<?>>> adapterConstructors = CacheBuilder.newBuilder()
+         .weakKeys().softValues().build(new CacheLoader<Class<?>, Optional<Constructor<?>>>() {
+            @Override
+            public Optional<Constructor<?>> load(Class<?> type) {
+               if (type.getClassLoader() == null)
+                  return Optional.absent();
+               String packageName = type.getPackage() != null ? type.getPackage().getName() : "";
+               try {
+                  Class<?> adapter = type.getClassLoader().loadClass(adapterClassName(packageName, type.getName()));
+                  return Optional.<Constructor<?>> of(adapter.getConstructor(Gson.class, TypeAdapter.class));
+               } catch (ClassNotFoundException e) {
+                  return Optional.absent();
+               } catch (NoSuchMethodException e) {
+                  return Optional.absent();
+               }
+            }
+         });
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      if (type.getType() instanceof ParameterizedType || type.getRawType().isPrimitive()
+            || type.getRawType().isArray())
+         return null;
+      Optional<Constructor<?>> constructor = adapterConstructors.getUnchecked(type.getRawType());
+      if (!constructor.isPresent())
+         return null;
+      try {
+         return (TypeAdapter<T>) constructor.get().newInstance(gson, gson.getDelegateAdapter(this, type));
+      } catch (InvocationTargetException e) {
+         throw Throwables.propagate(e.getCause());
+      } catch (InstantiationException e) {
+         throw new AssertionError(e);
+      } catch (IllegalAccessException e) {
+         throw new AssertionError(e);
+      }
+   }
+}
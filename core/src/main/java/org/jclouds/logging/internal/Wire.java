@@ -16,8 +16,6 @@
  */
 package org.jclouds.logging.internal;
 
-import com.google.common.io.ByteStreams;
-import com.google.common.io.FileBackedOutputStream;
 import org.jclouds.Constants;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -51,35 +49,24 @@ public abstract class Wire {
       return false;
    }
 
+   /**
+    * Maximum count of bytes logged for each body; the rest is read but not logged.
+    */
+   protected long getMaxBytes() {
+      return Long.MAX_VALUE;
+   }
+
    private void wire(String header, InputStream instream) {
-      StringBuilder buffer = new StringBuilder();
-      int ch;
+      Tap tap = new Tap(header);
+      byte[] buffer = new byte[8192];
       try {
-         while ((ch = instream.read()) != -1) {
-            if (ch == 13) {
-               buffer.append("[\\r]");
-            } else if (ch == 10) {
-               buffer.append("[\\n]\"");
-               buffer.insert(0, "\"");
-               buffer.insert(0, header);
-               getWireLog().debug(buffer.toString());
-               buffer.setLength(0);
-            } else if ((ch < 32) || (ch > 127)) {
-               buffer.append("[0x");
-               buffer.append(Integer.toHexString(ch));
-               buffer.append("]");
-            } else {
-               buffer.append((char) ch);
-            }
-         }
-         if (buffer.length() > 0) {
-            buffer.append('\"');
-            buffer.insert(0, '\"');
-            buffer.insert(0, header);
-            getWireLog().debug(buffer.toString());
-         }
+         int read;
+         while (!tap.isTruncated() && (read = instream.read(buffer)) != -1)
+            tap.tap(buffer, 0, read);
       } catch (IOException e) {
          logger.error(e, "Error tapping line");
+      } finally {
+         tap.finish();
       }
    }
 
@@ -87,32 +74,107 @@ public abstract class Wire {
       return getWireLog().isDebugEnabled();
    }
 
+   /**
+    * Returns a stream which logs the data of {@code instream} as it is read, without buffering it. The last line is
+    * logged when the stream is exhausted or closed.
+    */
    public InputStream copy(final String header, InputStream instream) {
-      int limit = 256 * 1024;
-      final FileBackedOutputStream out = new FileBackedOutputStream(limit);
-      try {
-         long bytesRead = ByteStreams.copy(instream, out);
-         if (bytesRead >= limit)
-            logger.debug("over limit %d/%d: wrote temp file", bytesRead, limit);
-         InputStream is = out.asByteSource().openStream();
-         try {
-            wire(header, is);
-         } finally {
-            is.close();
+      final Tap tap = new Tap(header);
+      return new FilterInputStream(instream) {
+         @Override
+         public int read() throws IOException {
+            int ch = super.read();
+            if (ch == -1)
+               tap.finish();
+            else
+               tap.tap(ch);
+            return ch;
          }
-         // we must call FileBackedOutputStream.reset to remove temporary file
-         return new FilterInputStream(out.asByteSource().openStream()) {
-            @Override
-            public void close() throws IOException {
+
+         @Override
+         public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1)
+               tap.finish();
+            else
+               tap.tap(b, off, read);
+            return read;
+         }
+
+         @Override
+         public boolean markSupported() {
+            return false;
+         }
+
+         @Override
+         public void close() throws IOException {
+            try {
+               tap.finish();
+            } finally {
                super.close();
-               out.reset();
             }
-         };
-      } catch (IOException e) {
-         throw new RuntimeException("Error tapping line", e);
-      } finally {
-         closeQuietly(out);
-         closeQuietly(instream);
+         }
+      };
+   }
+
+   /**
+    * Formats bytes into lines of the wire log, up to {@link #getMaxBytes()}.
+    */
+   private final class Tap {
+      private final String header;
+      private final long maxBytes = getMaxBytes();
+      private final StringBuilder buffer = new StringBuilder();
+      private long count;
+      private boolean truncated;
+      private boolean finished;
+
+      private Tap(String header) {
+         this.header = header;
+      }
+
+      boolean isTruncated() {
+         return truncated;
+      }
+
+      void tap(byte[] b, int off, int len) {
+         for (int i = off; i < off + len && !truncated; i++)
+            tap(b[i] & 0xff);
+      }
+
+      void tap(int ch) {
+         if (count++ >= maxBytes) {
+            truncated = true;
+            return;
+         }
+         if (ch == 13) {
+            buffer.append("[\\r]");
+         } else if (ch == 10) {
+            buffer.append("[\\n]\"");
+            buffer.insert(0, "\"");
+            buffer.insert(0, header);
+            getWireLog().debug(buffer.toString());
+            buffer.setLength(0);
+         } else if ((ch < 32) || (ch > 127)) {
+            buffer.append("[0x");
+            buffer.append(Integer.toHexString(ch));
+            buffer.append("]");
+         } else {
+            buffer.append((char) ch);
+         }
+      }
+
+      void finish() {
+         if (finished)
+            return;
+         finished = true;
+         if (buffer.length() > 0) {
+            buffer.append('\"');
+            buffer.insert(0, '\"');
+            buffer.insert(0, header);
+            getWireLog().debug(buffer.toString());
+         }
+         if (truncated)
+            getWireLog().debug(header + "[truncated after " + maxBytes + " bytes]");
       }
    }
 
@@ -120,17 +182,48 @@ public abstract class Wire {
       return copy("<< ", checkNotNull(instream, "input"));
    }
 
-   public void input(PayloadEnclosing request) {
-      Payload oldContent = request.getPayload();
-      Payload wiredPayload;
-      if (!oldContent.isSensitive() || isLogSensitiveInformation()) {
-         wiredPayload = newPayload(input(oldContent.getInput()));
-      } else {
-         wiredPayload = newPayload(oldContent.getInput());
+   /**
+    * Logs {@code s} now, unlike {@link #input(InputStream)} which only logs what is read from the returned stream.
+    */
+   public void input(String s) {
+      wire("<< ", new ByteArrayInputStream(checkNotNull(s, "input").getBytes()));
+   }
+
+   /**
+    * Logs a response body. A repeatable payload is logged now and returned as is, as is a sensitive payload when
+    * {@link #isLogSensitiveInformation()} is false; any other payload is returned wrapped, so that it is logged as it
+    * is read. The caller must replace the original payload without releasing it, as releasing closes its stream.
+    */
+   public Payload input(Payload oldContent) {
+      if (oldContent.isSensitive() && !isLogSensitiveInformation())
+         return oldContent;
+      if (oldContent.isRepeatable()) {
+         // the payload can be read again, so log it now and leave it untouched
+         InputStream in = null;
+         try {
+            in = oldContent.openStream();
+            wire("<< ", in);
+         } catch (IOException e) {
+            logger.error(e, "Error tapping line");
+         } finally {
+            closeQuietly(in);
+         }
+         return oldContent;
       }
+      Payload wiredPayload = newPayload(input(oldContent.getInput()));
       wiredPayload.setSensitive(oldContent.isSensitive());
       copyPayloadMetadata(oldContent, wiredPayload);
-      request.setPayload(wiredPayload);
+      return wiredPayload;
+   }
+
+   /**
+    * Logs the body of {@code request}. Only suitable for repeatable payloads: {@link PayloadEnclosing#setPayload}
+    * releases the payload it replaces, which would close a stream before it is read.
+    */
+   public void input(PayloadEnclosing request) {
+      Payload wiredPayload = input(request.getPayload());
+      if (wiredPayload != request.getPayload())
+         request.setPayload(wiredPayload);
    }
 
    public void output(PayloadEnclosing request) {
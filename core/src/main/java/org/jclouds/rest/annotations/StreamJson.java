@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Parses the elements of a json array lazily, as the caller iterates, instead of reading the whole response into a
+ * list first. The array is the root of the document, or the value selected with {@link SelectJson}.
+ * <p/>
+ * Only applies to methods returning {@link Iterable} or {@link com.google.common.collect.FluentIterable}. The result
+ * can be iterated once, and holds the connection until iteration ends; callers stopping early should close it.
+ * 
+ * @see org.jclouds.http.functions.ParseJsonStream
+ */
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface StreamJson {
+}
@@ -18,20 +18,14 @@ package org.jclouds.rest.internal;
 
 import java.util.Set;
 
-import javax.ws.rs.Consumes;
-
 import org.jclouds.reflect.Invocation;
 
 import com.google.common.base.Function;
-import com.google.common.base.Optional;
-import com.google.common.collect.ImmutableSet;
 
 class GetAcceptHeaders implements Function<Invocation, Set<String>> {
 
    @Override
    public Set<String> apply(Invocation invocation) {
-      Optional<Consumes> accept = Optional.fromNullable(invocation.getInvokable().getAnnotation(Consumes.class)).or(
-            Optional.fromNullable(invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Consumes.class)));
-      return (accept.isPresent()) ? ImmutableSet.copyOf(accept.get().value()) : ImmutableSet.<String> of();
+      return RequestPlan.of(invocation.getInvokable()).accept;
    }
 }
@@ -19,17 +19,25 @@ package org.jclouds.rest.internal;
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.http.HttpUtils.releasePayload;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.jclouds.http.HttpAsyncCommandExecutorService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.internal.HttpCommandScheduler;
 import org.jclouds.logging.Logger;
 import org.jclouds.reflect.Invocation;
 import org.jclouds.rest.InvocationContext;
@@ -40,7 +48,14 @@ import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.FutureFallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.TimeLimiter;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
 
 public class InvokeHttpMethod implements Function<Invocation, Object> {
 
@@ -49,24 +64,39 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
    private final Function<Invocation, HttpRequest> annotationProcessor;
    private final HttpCommandExecutorService http;
+   private final HttpAsyncCommandExecutorService asyncHttp;
    private final TimeLimiter timeLimiter;
    private final Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest;
    private final InvocationConfig config;
+   private final ListeningExecutorService userExecutor;
+   private final HttpCommandScheduler scheduler;
+   private final RequestCoalescer coalescer;
+   private final ResponseCache responseCache;
 
    @Inject
    @VisibleForTesting
    InvokeHttpMethod(Function<Invocation, HttpRequest> annotationProcessor,
-         HttpCommandExecutorService http, Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest,
-         TimeLimiter timeLimiter, InvocationConfig config) {
+         HttpCommandExecutorService http, HttpAsyncCommandExecutorService asyncHttp,
+         Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest, TimeLimiter timeLimiter,
+         InvocationConfig config, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         HttpCommandScheduler scheduler, RequestCoalescer coalescer, ResponseCache responseCache) {
       this.annotationProcessor = annotationProcessor;
       this.http = http;
+      this.asyncHttp = asyncHttp;
       this.timeLimiter = timeLimiter;
       this.transformerForRequest = transformerForRequest;
       this.config = config;
+      this.userExecutor = userExecutor;
+      this.scheduler = scheduler;
+      this.coalescer = coalescer;
+      this.responseCache = responseCache;
    }
 
    @Override
    public Object apply(Invocation in) {
+      if (in.getInvokable().getReturnType().getRawType().equals(ListenableFuture.class)) {
+         return submit(in);
+      }
       Optional<Long> timeoutNanos = config.getTimeoutNanos(in);
       if (timeoutNanos.isPresent()) {
          return invokeWithTimeout(in, timeoutNanos.get());
@@ -78,17 +108,19 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
     * invokes the {@linkplain HttpCommand} associated with {@code invocation},
     * {@link #getTransformer(String, HttpCommand) parses its response}, and
     * applies a {@link #getFallback(String, Invocation, HttpCommand) fallback}
-    * if a {@code Throwable} is encountered.
+    * if a {@code Throwable} is encountered. Identical requests in flight are
+    * shared through the {@link RequestCoalescer} and parsed results reused
+    * from the {@link ResponseCache}, when enabled.
     */
    public Object invoke(Invocation invocation) {
       String commandName = config.getCommandName(invocation);
       HttpCommand command = toCommand(commandName, invocation);
-      Function<HttpResponse, ?> transformer = getTransformer(commandName, command);
+      InvokeAndTransform invokeAndTransform = new InvokeAndTransform(commandName, command);
       org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
 
       logger.debug(">> invoking %s", commandName);
       try {
-         return transformer.apply(http.invoke(command));
+         return invokeAndTransform.call();
       } catch (Throwable t) {
          try {
             return fallback.createOrPropagate(t);
@@ -135,6 +167,74 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       }
    }
 
+   /**
+    * submits the {@linkplain HttpCommand} associated with {@code invocation}
+    * without blocking. Its response is parsed on the user thread pool, and the
+    * fallback is applied if the command fails. When the invocation has a
+    * timeout, the future fails with an {@link UncheckedTimeoutException} once
+    * it elapses, instead of holding a thread in the {@link TimeLimiter}.
+    */
+   public ListenableFuture<Object> submit(Invocation invocation) {
+      String commandName = config.getCommandName(invocation);
+      HttpCommand command = toCommand(commandName, invocation);
+      Function<HttpResponse, ?> transformer = getTransformer(commandName, command);
+      final org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
+
+      logger.debug(">> submitting %s", commandName);
+      ListenableFuture<HttpResponse> response = asyncHttp.submit(command);
+      Optional<Long> timeoutNanos = config.getTimeoutNanos(invocation);
+      if (timeoutNanos.isPresent()) {
+         response = withTimeout(commandName, response, timeoutNanos.get());
+      }
+      ListenableFuture<Object> result = Futures.<HttpResponse, Object> transform(response, transformer, userExecutor);
+      return Futures.withFallback(result, new FutureFallback<Object>() {
+         @Override
+         public ListenableFuture<Object> create(Throwable t) throws Exception {
+            return Futures.<Object> immediateFuture(fallback.createOrPropagate(t));
+         }
+      }, userExecutor);
+   }
+
+   private ListenableFuture<HttpResponse> withTimeout(final String commandName,
+         final ListenableFuture<HttpResponse> response, final long limitNanos) {
+      final SettableFuture<HttpResponse> timed = SettableFuture.create();
+      final AtomicBoolean timedOut = new AtomicBoolean();
+      Futures.addCallback(response, new FutureCallback<HttpResponse>() {
+         @Override
+         public void onSuccess(HttpResponse result) {
+            if (!timed.set(result))
+               releasePayload(result);
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            // the cancellation of a timed out request is reported as the timeout
+            if (!timedOut.get())
+               timed.setException(t);
+         }
+      });
+      timed.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (timed.isCancelled())
+               response.cancel(true);
+         }
+      }, directExecutor());
+      scheduler.schedule(new Runnable() {
+         @Override
+         public void run() {
+            if (timed.isDone())
+               return;
+            // cancel the request before the caller learns of the timeout
+            timedOut.set(true);
+            response.cancel(true);
+            timed.setException(new UncheckedTimeoutException(format("%s did not complete within %sms", commandName,
+                  NANOSECONDS.toMillis(limitNanos))));
+         }
+      }, limitNanos, NANOSECONDS);
+      return timed;
+   }
+
    private org.jclouds.Fallback<?> getFallback(String commandName, Invocation invocation, HttpCommand command) {
       HttpRequest request = command.getCurrentRequest();
       org.jclouds.Fallback<?> fallback = config.getFallback(invocation);
@@ -158,7 +258,12 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
       @Override
       public Object call() throws Exception {
-         return transformer.apply(http.invoke(command));
+         return coalescer.call(command.getCurrentRequest(), new Callable<Object>() {
+            @Override
+            public Object call() {
+               return responseCache.invoke(commandName, command, transformer, http);
+            }
+         });
       }
 
       @Override
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.base.Throwables.propagateIfPossible;
+import static org.jclouds.Constants.PROPERTY_COALESCE_REQUESTS;
+import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Inject;
+
+/**
+ * Lets identical concurrent requests share a single http call.
+ * <p/>
+ * Requests are coalesced when their method is annotated with {@link org.jclouds.rest.annotations.CoalesceRequests}
+ * (directly or on its api), or when {@link org.jclouds.Constants#PROPERTY_COALESCE_REQUESTS} is set. Only GET and HEAD
+ * requests without payload whose method is also listed in {@link org.jclouds.Constants#PROPERTY_IDEMPOTENT_METHODS}
+ * qualify. Two requests are identical when they come from the same java method and have the same http method,
+ * endpoint and headers, before request filters are applied. Methods annotated with
+ * {@link org.jclouds.rest.annotations.StreamJson}, and methods returning a stream, payload, response or other
+ * {@link java.io.Closeable}, are never coalesced, since only one caller could consume their result.
+ * <p/>
+ * The first caller sends the request and parses the response; callers arriving while it is in flight wait for it
+ * and receive the same parsed result, or the same exception.
+ */
+@Beta
+@Singleton
+public class RequestCoalescer {
+
+   private static final Set<String> SAFE_METHODS = ImmutableSet.of("GET", "HEAD");
+
+   @Inject(optional = true)
+   @Named(PROPERTY_COALESCE_REQUESTS)
+   private boolean coalesceAll = false;
+
+   private final Set<String> idempotentMethods;
+   private final ConcurrentMap<RequestKey, SettableFuture<Object>> inFlight =
+         new ConcurrentHashMap<RequestKey, SettableFuture<Object>>();
+   private final AtomicLong callsSent = new AtomicLong();
+   private final AtomicLong callsSaved = new AtomicLong();
+
+   @Inject
+   RequestCoalescer(@Named(PROPERTY_IDEMPOTENT_METHODS) String idempotentMethods) {
+      this.idempotentMethods = ImmutableSet.copyOf(checkNotNull(idempotentMethods, "idempotentMethods").split(","));
+   }
+
+   @VisibleForTesting
+   RequestCoalescer(String idempotentMethods, boolean coalesceAll) {
+      this(idempotentMethods);
+      this.coalesceAll = coalesceAll;
+   }
+
+   /**
+    * Returns the number of coalesced requests which were actually sent.
+    */
+   public long getCallsSent() {
+      return callsSent.get();
+   }
+
+   /**
+    * Returns the number of requests which were answered by another in-flight call instead of being sent.
+    */
+   public long getCallsSaved() {
+      return callsSaved.get();
+   }
+
+   boolean shouldCoalesce(HttpRequest request) {
+      if (!(request instanceof GeneratedHttpRequest) || request.getPayload() != null)
+         return false;
+      String method = request.getMethod();
+      if (!SAFE_METHODS.contains(method) || !idempotentMethods.contains(method))
+         return false;
+      RequestPlan plan = RequestPlan.of(((GeneratedHttpRequest) request).getInvocation().getInvokable());
+      // streams, payloads and streamed results can only be consumed once
+      return (coalesceAll || plan.coalesce) && !plan.streamJson && !plan.returnsLiveResource;
+   }
+
+   /**
+    * Runs {@code call} for the request, unless an identical request is already in flight, in which case its result
+    * is returned instead.
+    */
+   Object call(HttpRequest request, Callable<Object> call) throws Exception {
+      if (!shouldCoalesce(request))
+         return call.call();
+
+      RequestKey key = new RequestKey((GeneratedHttpRequest) request);
+      SettableFuture<Object> flight = SettableFuture.create();
+      SettableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+      if (existing != null) {
+         callsSaved.incrementAndGet();
+         return await(existing);
+      }
+
+      callsSent.incrementAndGet();
+      Object result;
+      try {
+         result = call.call();
+      } catch (Throwable t) {
+         inFlight.remove(key, flight);
+         flight.setException(t);
+         propagateIfPossible(t, Exception.class);
+         throw propagate(t);
+      }
+      inFlight.remove(key, flight);
+      flight.set(result);
+      return result;
+   }
+
+   private static Object await(SettableFuture<Object> flight) throws Exception {
+      try {
+         return flight.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw e;
+      } catch (ExecutionException e) {
+         propagateIfPossible(e.getCause(), Exception.class);
+         throw propagate(e.getCause());
+      }
+   }
+}
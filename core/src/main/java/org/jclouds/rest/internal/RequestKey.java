@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import java.net.URI;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Multimap;
+import com.google.common.reflect.Invokable;
+
+/**
+ * Identifies requests which would get the same parsed result: same java method, http method, endpoint and headers,
+ * before request filters are applied.
+ */
+final class RequestKey {
+   private final Invokable<?, ?> invokable;
+   private final String method;
+   private final URI endpoint;
+   private final Multimap<String, String> headers;
+
+   RequestKey(GeneratedHttpRequest request) {
+      this.invokable = request.getInvocation().getInvokable();
+      this.method = request.getMethod();
+      this.endpoint = request.getEndpoint();
+      this.headers = request.getHeaders();
+   }
+
+   URI getEndpoint() {
+      return endpoint;
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(invokable, method, endpoint, headers);
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (this == obj)
+         return true;
+      if (!(obj instanceof RequestKey))
+         return false;
+      RequestKey that = (RequestKey) obj;
+      return invokable.equals(that.invokable) && method.equals(that.method) && endpoint.equals(that.endpoint)
+            && headers.equals(that.headers);
+   }
+}
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static com.google.common.collect.Iterables.concat;
+import static org.jclouds.http.HttpUtils.tryFindHttpMethod;
+import static org.jclouds.reflect.Reflection2.getInvokableParameters;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Encoded;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.options.HttpRequestOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.annotations.CoalesceRequests;
+import org.jclouds.rest.annotations.Endpoint;
+import org.jclouds.rest.annotations.EndpointParam;
+import org.jclouds.rest.annotations.FormParams;
+import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.MapBinder;
+import org.jclouds.rest.annotations.OverrideRequestFilters;
+import org.jclouds.rest.annotations.PartParam;
+import org.jclouds.rest.annotations.PayloadParam;
+import org.jclouds.rest.annotations.PayloadParams;
+import org.jclouds.rest.annotations.QueryParams;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.SkipEncoding;
+import org.jclouds.rest.annotations.StreamJson;
+import org.jclouds.rest.annotations.VirtualHost;
+import org.jclouds.rest.annotations.WrapWith;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Chars;
+import com.google.common.reflect.Invokable;
+import com.google.common.reflect.Parameter;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Key;
+
+/**
+ * Everything {@link RestAnnotationProcessor} needs to know about an {@link Invokable} that does not depend on
+ * the arguments of a particular invocation. Plans are built once per invokable and shared, so that creating a
+ * request only has to bind argument values. Plans are looked up by the identity of the invokable, as handed out by
+ * {@link org.jclouds.reflect.Reflection2#method}, and are dropped once it is no longer referenced.
+ */
+final class RequestPlan {
+
+   /**
+    * Results which hold an open stream or connection, and so can be consumed by only one caller.
+    */
+   private static final ImmutableSet<Class<?>> LIVE_RESOURCE_TYPES = ImmutableSet.<Class<?>> of(HttpResponse.class,
+         InputStream.class, Payload.class, PayloadEnclosing.class, Closeable.class);
+
+   private static final LoadingCache<Invokable<?, ?>, RequestPlan> plans = CacheBuilder.newBuilder().weakKeys().build(
+         new CacheLoader<Invokable<?, ?>, RequestPlan>() {
+            @Override
+            public RequestPlan load(Invokable<?, ?> invokable) {
+               return new RequestPlan(invokable);
+            }
+         });
+
+   static RequestPlan of(Invokable<?, ?> invokable) {
+      try {
+         return plans.getUnchecked(invokable);
+      } catch (UncheckedExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   final Optional<String> httpMethod;
+   final ImmutableList<Parameter> parameters;
+
+   final ImmutableList<String> paths;
+   @Nullable final ImmutableList<Character> skipEncoding;
+   final boolean encodedUsed;
+   final boolean virtualHost;
+   final boolean coalesce;
+   final boolean streamJson;
+   final boolean returnsLiveResource;
+
+   @Nullable final Endpoint endpoint;
+   final ImmutableList<Class<? extends HttpRequestFilter>> filters;
+
+   final ImmutableList<FormParams> formParams;
+   final ImmutableList<QueryParams> queryParams;
+   final ImmutableList<Headers> headers;
+   @Nullable final ImmutableList<String> contentType;
+   final ImmutableSet<String> accept;
+   @Nullable final PayloadParams payloadParams;
+
+   @Nullable final Class<? extends org.jclouds.rest.MapBinder> mapBinder;
+   final boolean payloadAnnotation;
+   @Nullable final String wrapWith;
+
+   final ImmutableList<Parameter> pathParams;
+   final ImmutableList<Parameter> formParamParams;
+   final ImmutableList<Parameter> queryParamParams;
+   final ImmutableList<Parameter> headerParams;
+   final ImmutableList<Parameter> payloadParamParams;
+   final ImmutableList<Parameter> partParams;
+   final ImmutableList<Parameter> endpointParams;
+   final ImmutableSet<Parameter> binderOrWrapWithParams;
+   final ImmutableSet<Integer> indexesOfOptions;
+
+   /**
+    * Response parser chosen by {@link TransformerForRequest}, or {@code null} when none could be chosen, in which
+    * case the error is reported when the response is to be parsed.
+    */
+   @Nullable final Key<? extends Function<HttpResponse, ?>> parser;
+
+   private RequestPlan(Invokable<?, ?> invokable) {
+      Class<?> owner = invokable.getOwnerType().getRawType();
+      this.httpMethod = tryFindHttpMethod(invokable);
+      this.parameters = ImmutableList.copyOf(getInvokableParameters(invokable));
+
+      ImmutableList.Builder<String> paths = ImmutableList.builder();
+      if (owner.isAnnotationPresent(Path.class))
+         paths.add(owner.getAnnotation(Path.class).value());
+      if (invokable.isAnnotationPresent(Path.class))
+         paths.add(invokable.getAnnotation(Path.class).value());
+      this.paths = paths.build();
+
+      SkipEncoding skipEncoding = invokable.isAnnotationPresent(SkipEncoding.class) ? invokable
+            .getAnnotation(SkipEncoding.class) : owner.getAnnotation(SkipEncoding.class);
+      this.skipEncoding = skipEncoding != null ? ImmutableList.copyOf(Chars.asList(skipEncoding.value())) : null;
+
+      this.virtualHost = owner.isAnnotationPresent(VirtualHost.class)
+            || invokable.isAnnotationPresent(VirtualHost.class);
+      this.coalesce = owner.isAnnotationPresent(CoalesceRequests.class)
+            || invokable.isAnnotationPresent(CoalesceRequests.class);
+      this.streamJson = invokable.isAnnotationPresent(StreamJson.class);
+      this.returnsLiveResource = isLiveResource(invokable.getReturnType().getRawType());
+
+      if (invokable.isAnnotationPresent(Endpoint.class))
+         this.endpoint = invokable.getAnnotation(Endpoint.class);
+      else
+         this.endpoint = owner.getAnnotation(Endpoint.class);
+
+      ImmutableList.Builder<Class<? extends HttpRequestFilter>> filters = ImmutableList.builder();
+      if (owner.isAnnotationPresent(RequestFilters.class)
+            && !(invokable.isAnnotationPresent(RequestFilters.class)
+                  && invokable.isAnnotationPresent(OverrideRequestFilters.class)))
+         filters.add(owner.getAnnotation(RequestFilters.class).value());
+      if (invokable.isAnnotationPresent(RequestFilters.class))
+         filters.add(invokable.getAnnotation(RequestFilters.class).value());
+      this.filters = filters.build();
+
+      this.formParams = ownerThenMethod(owner, invokable, FormParams.class);
+      this.queryParams = ownerThenMethod(owner, invokable, QueryParams.class);
+      this.headers = ownerThenMethod(owner, invokable, Headers.class);
+
+      Produces produces = invokable.isAnnotationPresent(Produces.class) ? invokable.getAnnotation(Produces.class)
+            : owner.getAnnotation(Produces.class);
+      this.contentType = produces != null ? ImmutableList.copyOf(produces.value()) : null;
+
+      Consumes consumes = invokable.isAnnotationPresent(Consumes.class) ? invokable.getAnnotation(Consumes.class)
+            : owner.getAnnotation(Consumes.class);
+      this.accept = consumes != null ? ImmutableSet.copyOf(consumes.value()) : ImmutableSet.<String> of();
+
+      this.payloadParams = invokable.getAnnotation(PayloadParams.class);
+      this.mapBinder = invokable.isAnnotationPresent(MapBinder.class) ? invokable.getAnnotation(MapBinder.class)
+            .value() : null;
+      this.payloadAnnotation = invokable.isAnnotationPresent(org.jclouds.rest.annotations.Payload.class);
+      this.wrapWith = invokable.isAnnotationPresent(WrapWith.class) ? invokable.getAnnotation(WrapWith.class)
+            .value() : null;
+
+      this.pathParams = withAnnotation(parameters, PathParam.class);
+      this.formParamParams = withAnnotation(parameters, FormParam.class);
+      this.queryParamParams = withAnnotation(parameters, QueryParam.class);
+      this.headerParams = withAnnotation(parameters, HeaderParam.class);
+      this.payloadParamParams = withAnnotation(parameters, PayloadParam.class);
+      this.partParams = withAnnotation(parameters, PartParam.class);
+      this.endpointParams = withAnnotation(parameters, EndpointParam.class);
+      this.binderOrWrapWithParams = ImmutableSet.copyOf(concat(withAnnotation(parameters, BinderParam.class),
+            withAnnotation(parameters, WrapWith.class)));
+      this.encodedUsed = !withAnnotation(parameters, Encoded.class).isEmpty();
+
+      ImmutableSet.Builder<Integer> indexesOfOptions = ImmutableSet.builder();
+      for (Parameter param : parameters) {
+         Class<?> type = param.getType().getRawType();
+         if (HttpRequestOptions.class.isAssignableFrom(type) || HttpRequestOptions[].class.isAssignableFrom(type))
+            indexesOfOptions.add(param.hashCode());
+      }
+      this.indexesOfOptions = indexesOfOptions.build();
+      this.parser = parserOrNull(invokable, accept);
+   }
+
+   boolean isNullable(int argIndex) {
+      return parameters.get(argIndex).isAnnotationPresent(Nullable.class);
+   }
+
+   @Nullable
+   private static Key<? extends Function<HttpResponse, ?>> parserOrNull(Invokable<?, ?> invokable,
+         ImmutableSet<String> accept) {
+      try {
+         return TransformerForRequest.getParserOrThrowException(invokable, accept);
+      } catch (RuntimeException e) {
+         return null;
+      }
+   }
+
+   private static boolean isLiveResource(Class<?> type) {
+      for (Class<?> live : LIVE_RESOURCE_TYPES) {
+         if (live.isAssignableFrom(type))
+            return true;
+      }
+      return false;
+   }
+
+   private static <A extends Annotation> ImmutableList<A> ownerThenMethod(Class<?> owner, Invokable<?, ?> invokable,
+         Class<A> annotationType) {
+      ImmutableList.Builder<A> annotations = ImmutableList.builder();
+      if (owner.isAnnotationPresent(annotationType))
+         annotations.add(owner.getAnnotation(annotationType));
+      if (invokable.isAnnotationPresent(annotationType))
+         annotations.add(invokable.getAnnotation(annotationType));
+      return annotations.build();
+   }
+
+   private static ImmutableList<Parameter> withAnnotation(List<Parameter> parameters,
+         Class<? extends Annotation> annotationType) {
+      ImmutableList.Builder<Parameter> matching = ImmutableList.builder();
+      for (Parameter param : parameters) {
+         if (param.isAnnotationPresent(annotationType))
+            matching.add(param);
+      }
+      return matching.build();
+   }
+}
@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.net.HttpHeaders.CACHE_CONTROL;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.jclouds.Constants.PROPERTY_RESPONSE_CACHE_SIZE;
+import static org.jclouds.Constants.PROPERTY_RESPONSE_CACHE_TTL_PREFIX;
+import static org.jclouds.util.Predicates2.startsWith;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.base.Splitter;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps the parsed results of GET requests, so that polling rarely changing resources neither transfers nor parses
+ * their content again.
+ * <p/>
+ * The cache is enabled with {@link org.jclouds.Constants#PROPERTY_RESPONSE_CACHE_SIZE}. A result is fresh for the
+ * time configured with {@link org.jclouds.Constants#PROPERTY_RESPONSE_CACHE_TTL_PREFIX}, or else for the
+ * {@code Cache-Control} max-age of its response. Stale results whose response had an ETag or Last-Modified header are
+ * revalidated with {@code If-None-Match} or {@code If-Modified-Since}; on 304 the cached result is returned. Requests
+ * with other methods to the same endpoint evict its cached results. GET requests which already carry one of those
+ * headers are the caller's own conditional requests, and bypass the cache.
+ * <p/>
+ * Cached results are shared between callers, which must not modify them. Results holding a payload or a stream,
+ * such as those of {@link org.jclouds.rest.annotations.StreamJson} methods, are not cached.
+ */
+@Beta
+@Singleton
+public class ResponseCache {
+
+   private static final String DEFAULT_TTL = "default";
+
+   private static final class Entry {
+      private final Object value;
+      private final long expiresAtNanos;
+      private final String eTag;
+      private final String lastModified;
+
+      Entry(Object value, long expiresAtNanos, @Nullable String eTag, @Nullable String lastModified) {
+         this.value = value;
+         this.expiresAtNanos = expiresAtNanos;
+         this.eTag = eTag;
+         this.lastModified = lastModified;
+      }
+   }
+
+   private final Map<String, Long> ttls;
+   private final Ticker ticker;
+   /** the results cached for each endpoint, which a write to the endpoint evicts at once */
+   private final Cache<URI, Map<RequestKey, Entry>> entries;
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong revalidations = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+
+   @Inject
+   ResponseCache(Function<Predicate<String>, Map<String, String>> filterStringsBoundByName) {
+      this(maxSize(filterStringsBoundByName), ttls(filterStringsBoundByName), Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   ResponseCache(long maxSize, Map<String, Long> ttls, Ticker ticker) {
+      checkArgument(maxSize >= 0, "maxSize must be non-negative");
+      this.ttls = ImmutableMap.copyOf(ttls);
+      this.ticker = ticker;
+      this.entries = maxSize > 0 ? CacheBuilder.newBuilder().maximumWeight(maxSize)
+            .weigher(new Weigher<URI, Map<RequestKey, Entry>>() {
+               @Override
+               public int weigh(URI endpoint, Map<RequestKey, Entry> results) {
+                  return results.size();
+               }
+            }).<URI, Map<RequestKey, Entry>> build() : null;
+   }
+
+   /**
+    * Returns the number of results returned from the cache while fresh.
+    */
+   public long getHits() {
+      return hits.get();
+   }
+
+   /**
+    * Returns the number of stale results returned after the server answered 304 (not modified).
+    */
+   public long getRevalidations() {
+      return revalidations.get();
+   }
+
+   /**
+    * Returns the number of cacheable requests whose response had to be transferred and parsed.
+    */
+   public long getMisses() {
+      return misses.get();
+   }
+
+   /**
+    * Invokes the command and parses its response, unless a cached result can be used.
+    */
+   Object invoke(String commandName, HttpCommand command, Function<HttpResponse, ?> transformer,
+         HttpCommandExecutorService http) {
+      HttpRequest request = command.getCurrentRequest();
+      if (entries == null || !(request instanceof GeneratedHttpRequest) || RequestPlan
+            .of(((GeneratedHttpRequest) request).getInvocation().getInvokable()).returnsLiveResource)
+         return transformer.apply(http.invoke(command));
+      if (!"GET".equals(request.getMethod()) || request.getPayload() != null) {
+         if (!"HEAD".equals(request.getMethod()))
+            entries.invalidate(request.getEndpoint());
+         return transformer.apply(http.invoke(command));
+      }
+      if (request.getFirstHeaderOrNull(IF_NONE_MATCH) != null
+            || request.getFirstHeaderOrNull(IF_MODIFIED_SINCE) != null)
+         return transformer.apply(http.invoke(command));
+
+      RequestKey key = new RequestKey((GeneratedHttpRequest) request);
+      Map<RequestKey, Entry> cached = entries.getIfPresent(key.getEndpoint());
+      Entry entry = cached != null ? cached.get(key) : null;
+      if (entry != null && ticker.read() - entry.expiresAtNanos < 0) {
+         hits.incrementAndGet();
+         return entry.value;
+      }
+
+      HttpResponse response;
+      if (entry != null && (entry.eTag != null || entry.lastModified != null)) {
+         HttpRequest.Builder<?> conditional = request.toBuilder();
+         if (entry.eTag != null)
+            conditional.addHeader(IF_NONE_MATCH, entry.eTag);
+         if (entry.lastModified != null)
+            conditional.addHeader(IF_MODIFIED_SINCE, entry.lastModified);
+         command.setCurrentRequest(conditional.build());
+         command.acceptNotModified();
+         response = http.invoke(command);
+         if (response.getStatusCode() == 304) {
+            revalidations.incrementAndGet();
+            put(key, new Entry(entry.value, ticker.read() + freshnessNanos(commandName, response), entry.eTag,
+                  entry.lastModified));
+            return entry.value;
+         }
+      } else {
+         response = http.invoke(command);
+      }
+
+      misses.incrementAndGet();
+      String cacheControl = cacheControl(response);
+      Object value = transformer.apply(response);
+      store(key, commandName, response, cacheControl, value);
+      return value;
+   }
+
+   private void store(RequestKey key, String commandName, HttpResponse response, @Nullable String cacheControl,
+         Object value) {
+      if (value == null || value instanceof PayloadEnclosing || value instanceof Payload
+            || value instanceof Closeable || hasDirective(cacheControl, "no-store")) {
+         remove(key);
+         return;
+      }
+      long freshness = hasDirective(cacheControl, "no-cache") ? 0 : freshnessNanos(commandName, response);
+      String eTag = response.getFirstHeaderOrNull(ETAG);
+      if (eTag == null)
+         eTag = response.getFirstHeaderOrNull("Etag");
+      String lastModified = response.getFirstHeaderOrNull(LAST_MODIFIED);
+      if (freshness <= 0 && eTag == null && lastModified == null) {
+         remove(key);
+         return;
+      }
+      put(key, new Entry(value, ticker.read() + freshness, eTag, lastModified));
+   }
+
+   /**
+    * Replaces the results of the endpoint with a copy holding the new one, so that the weigher sees the new size.
+    */
+   private void put(RequestKey key, Entry entry) {
+      ConcurrentMap<URI, Map<RequestKey, Entry>> byEndpoint = entries.asMap();
+      for (;;) {
+         Map<RequestKey, Entry> results = byEndpoint.get(key.getEndpoint());
+         Map<RequestKey, Entry> updated = Maps.newHashMap();
+         if (results != null)
+            updated.putAll(results);
+         updated.put(key, entry);
+         updated = Collections.unmodifiableMap(updated);
+         if (results == null ? byEndpoint.putIfAbsent(key.getEndpoint(), updated) == null
+               : byEndpoint.replace(key.getEndpoint(), results, updated))
+            return;
+      }
+   }
+
+   private void remove(RequestKey key) {
+      ConcurrentMap<URI, Map<RequestKey, Entry>> byEndpoint = entries.asMap();
+      for (;;) {
+         Map<RequestKey, Entry> results = byEndpoint.get(key.getEndpoint());
+         if (results == null || !results.containsKey(key))
+            return;
+         Map<RequestKey, Entry> updated = Maps.newHashMap(results);
+         updated.remove(key);
+         if (updated.isEmpty() ? byEndpoint.remove(key.getEndpoint(), results)
+               : byEndpoint.replace(key.getEndpoint(), results, Collections.unmodifiableMap(updated)))
+            return;
+      }
+   }
+
+   private long freshnessNanos(String commandName, HttpResponse response) {
+      Long ttl = ttls.containsKey(commandName) ? ttls.get(commandName) : ttls.get(DEFAULT_TTL);
+      if (ttl != null)
+         return MILLISECONDS.toNanos(ttl);
+      String cacheControl = cacheControl(response);
+      if (cacheControl != null) {
+         for (String directive : Splitter.on(',').trimResults().split(cacheControl)) {
+            if (directive.startsWith("max-age=")) {
+               try {
+                  return SECONDS.toNanos(Long.parseLong(directive.substring("max-age=".length()).trim()));
+               } catch (NumberFormatException e) {
+                  return 0;
+               }
+            }
+         }
+      }
+      return 0;
+   }
+
+   /**
+    * jclouds moves Cache-Control to the payload metadata of responses with content.
+    */
+   @Nullable
+   private static String cacheControl(HttpResponse response) {
+      String cacheControl = response.getFirstHeaderOrNull(CACHE_CONTROL);
+      if (cacheControl == null && response.getPayload() != null)
+         cacheControl = response.getPayload().getContentMetadata().getCacheControl();
+      return cacheControl;
+   }
+
+   private static boolean hasDirective(@Nullable String cacheControl, String directive) {
+      if (cacheControl == null)
+         return false;
+      for (String candidate : Splitter.on(',').trimResults().split(cacheControl)) {
+         if (candidate.equalsIgnoreCase(directive))
+            return true;
+      }
+      return false;
+   }
+
+   private static long maxSize(Function<Predicate<String>, Map<String, String>> filterStringsBoundByName) {
+      String maxSize = filterStringsBoundByName.apply(startsWith(PROPERTY_RESPONSE_CACHE_SIZE))
+            .get(PROPERTY_RESPONSE_CACHE_SIZE);
+      return maxSize != null ? Long.parseLong(maxSize.trim()) : 0;
+   }
+
+   private static Map<String, Long> ttls(Function<Predicate<String>, Map<String, String>> filterStringsBoundByName) {
+      ImmutableMap.Builder<String, Long> ttls = ImmutableMap.builder();
+      for (Map.Entry<String, String> entry : filterStringsBoundByName.apply(
+            startsWith(PROPERTY_RESPONSE_CACHE_TTL_PREFIX)).entrySet()) {
+         ttls.put(entry.getKey().substring(PROPERTY_RESPONSE_CACHE_TTL_PREFIX.length()),
+               Long.valueOf(entry.getValue().trim()));
+      }
+      return ttls.build();
+   }
+}
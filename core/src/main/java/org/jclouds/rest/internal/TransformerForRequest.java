@@ -16,6 +16,7 @@
  */
 package org.jclouds.rest.internal;
 
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.inject.util.Types.newParameterizedType;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
@@ -35,6 +36,8 @@ import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.functions.ParseFirstJsonValueNamed;
 import org.jclouds.http.functions.ParseJson;
+import org.jclouds.http.functions.ParseJsonStream;
+import org.jclouds.http.functions.ParseJsonStream.JsonArrayIterable;
 import org.jclouds.http.functions.ParseSax;
 import org.jclouds.http.functions.ParseSax.Factory;
 import org.jclouds.http.functions.ParseSax.HandlerWithResult;
@@ -52,6 +55,7 @@ import org.jclouds.rest.annotations.JAXBResponseParser;
 import org.jclouds.rest.annotations.OnlyElement;
 import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.annotations.SelectJson;
+import org.jclouds.rest.annotations.StreamJson;
 import org.jclouds.rest.annotations.Transform;
 import org.jclouds.rest.annotations.Unwrap;
 import org.jclouds.rest.annotations.XMLResponseParser;
@@ -62,6 +66,7 @@ import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.reflect.Invokable;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.TypeLiteral;
@@ -104,13 +109,20 @@ public class TransformerForRequest implements Function<HttpRequest, Function<Htt
       return transformer;
    }
 
-   @SuppressWarnings("unchecked")
    @VisibleForTesting
    Key<? extends Function<HttpResponse, ?>> getParserOrThrowException(Invocation invocation) {
-      Invokable<?, ?> invoked = invocation.getInvokable();
-      Set<String> acceptHeaders = getAcceptHeaders.apply(invocation);
+      Key<? extends Function<HttpResponse, ?>> parser = RequestPlan.of(invocation.getInvokable()).parser;
+      if (parser != null)
+         return parser;
+      // the plan holds no parser when none could be chosen; choosing it again reports why
+      return getParserOrThrowException(invocation.getInvokable(), getAcceptHeaders.apply(invocation));
+   }
+
+   @SuppressWarnings("unchecked")
+   static Key<? extends Function<HttpResponse, ?>> getParserOrThrowException(Invokable<?, ?> invoked,
+         Set<String> acceptHeaders) {
       ResponseParser annotation = invoked.getAnnotation(ResponseParser.class);
-      Class<?> rawReturnType = invoked.getReturnType().getRawType();
+      Class<?> rawReturnType = getResponseType(invoked).getRawType();
       if (annotation == null) {
          if (rawReturnType.equals(void.class)) {
             return Key.get(ReleasePayloadAndReturn.class);
@@ -144,7 +156,7 @@ public class TransformerForRequest implements Function<HttpRequest, Function<Htt
                ? Optional.<Type>absent()
                : Optional.<Type>of(configuredClass);
       }
-      Type returnVal = configuredReturnVal.or(getReturnTypeFor(invoked.getReturnType()));
+      Type returnVal = configuredReturnVal.or(getReturnTypeFor(getResponseType(invoked)));
       Type parserType = newParameterizedType(ParseXMLWithJAXB.class, returnVal);
       return (Key<? extends Function<HttpResponse, ?>>) Key.get(parserType);
    }
@@ -153,18 +165,29 @@ public class TransformerForRequest implements Function<HttpRequest, Function<Htt
    private static Key<? extends Function<HttpResponse, ?>> getJsonParserKeyForMethod(Invokable<?, ?> invoked) {
       ParameterizedType parserType;
       if (invoked.isAnnotationPresent(Unwrap.class)) {
-         parserType = newParameterizedType(UnwrapOnlyJsonValue.class, getReturnTypeFor(invoked.getReturnType()));
+         parserType = newParameterizedType(UnwrapOnlyJsonValue.class, getReturnTypeFor(getResponseType(invoked)));
       } else if (invoked.isAnnotationPresent(Transform.class)) {
          // At this point, there's no user-configured response parser. Make a default one from Transform's input.
          TypeToken<? extends Function> fn = TypeToken.of(invoked.getAnnotation(Transform.class).value());
          Type fnInput = ((ParameterizedType) fn.getSupertype(Function.class).getType()).getActualTypeArguments()[0];
          parserType = newParameterizedType(ParseJson.class, fnInput);
       } else {
-         parserType = newParameterizedType(ParseJson.class, getReturnTypeFor(invoked.getReturnType()));
+         parserType = newParameterizedType(ParseJson.class, getReturnTypeFor(getResponseType(invoked)));
       }
       return (Key<? extends Function<HttpResponse, ?>>) Key.get(parserType);
    }
 
+   /**
+    * Returns the type a response is parsed into: the return type of {@code invoked}, or the type of the value held
+    * by the {@link ListenableFuture} it returns.
+    */
+   static TypeToken<?> getResponseType(Invokable<?, ?> invoked) {
+      TypeToken<?> returnType = invoked.getReturnType();
+      if (returnType.getRawType().equals(ListenableFuture.class))
+         return returnType.resolveType(ListenableFuture.class.getTypeParameters()[0]);
+      return returnType;
+   }
+
    static Type getReturnTypeFor(TypeToken<?> typeToken) {
       Type returnVal = typeToken.getType();
       if (typeToken.getRawType().getTypeParameters().length == 0) {
@@ -179,8 +202,17 @@ public class TransformerForRequest implements Function<HttpRequest, Function<Htt
    public Function<HttpResponse, ?> getTransformerForMethod(Invocation invocation, Injector injector) {
       Invokable<?, ?> invoked = invocation.getInvokable();
       Function<HttpResponse, ?> transformer;
-      if (invoked.isAnnotationPresent(SelectJson.class)) {
-         Type returnVal = getReturnTypeFor(invoked.getReturnType());
+      if (invoked.isAnnotationPresent(StreamJson.class)) {
+         TypeToken<?> responseType = getResponseType(invoked);
+         checkState(responseType.getRawType().isAssignableFrom(JsonArrayIterable.class),
+               "@StreamJson requires an Iterable or FluentIterable return type on %s", invoked);
+         Type elementType = responseType.resolveType(Iterable.class.getTypeParameters()[0]).getType();
+         String[] names = invoked.isAnnotationPresent(SelectJson.class) ? invoked.getAnnotation(SelectJson.class)
+               .value() : new String[0];
+         transformer = new ParseJsonStream(injector.getInstance(GsonWrapper.class), TypeLiteral.get(elementType),
+               names);
+      } else if (invoked.isAnnotationPresent(SelectJson.class)) {
+         Type returnVal = getReturnTypeFor(getResponseType(invoked));
          if (invoked.isAnnotationPresent(OnlyElement.class))
             returnVal = newParameterizedType(Set.class, returnVal);
          transformer = new ParseFirstJsonValueNamed(injector.getInstance(GsonWrapper.class),
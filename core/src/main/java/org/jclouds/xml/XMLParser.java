@@ -17,6 +17,7 @@
 package org.jclouds.xml;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.jclouds.xml.internal.JAXBParser;
 
@@ -45,4 +46,10 @@ public interface XMLParser {
     */
    <T> T fromXML(String xml, Class<T> type) throws IOException;
 
+   /**
+    * Deserialize the object from an xml stream, without reading it into memory first. The stream
+    * is not closed.
+    */
+   <T> T fromXML(InputStream xml, Class<T> type) throws IOException;
+
 }
@@ -16,9 +16,14 @@
  */
 package org.jclouds.xml.internal;
 
+import static com.google.common.base.Throwables.propagate;
+
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -26,23 +31,45 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
 
 import org.jclouds.Constants;
 import org.jclouds.xml.XMLParser;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.name.Named;
 
 /**
  * Parses XML documents using JAXB.
+ * <p>
+ * Building a {@link JAXBContext} reflects over the whole model, so contexts are created once per
+ * type. A context strongly references its type, so contexts are softly reachable: the cache never
+ * holds a class loader beyond the next memory pressure. Marshallers and unmarshallers are not
+ * thread-safe; idle ones are kept in a bounded pool per type and reused by subsequent calls.
  * 
  * @see ParseXMLWithJAXB
  */
 @Singleton
 public class JAXBParser implements XMLParser {
 
+   /** Maximum number of idle marshallers and unmarshallers kept per type. */
+   static final int MAX_IDLE_PER_TYPE = 16;
+
    /** Boolean indicating if the output must be pretty printed. */
    private Boolean prettyPrint;
 
+   private final LoadingCache<Class<?>, PooledContext> contexts = CacheBuilder.newBuilder().weakKeys().softValues()
+         .build(new CacheLoader<Class<?>, PooledContext>() {
+            @Override
+            public PooledContext load(Class<?> type) throws JAXBException {
+               return new PooledContext(JAXBContext.newInstance(type));
+            }
+         });
+
    @Inject
    public JAXBParser(@Named(Constants.PROPERTY_PRETTY_PRINT_PAYLOADS) String prettyPrint) {
       super();
@@ -57,18 +84,17 @@ public class JAXBParser implements XMLParser {
    @Override
    public <T> String toXML(final Object src, final Class<T> type) throws IOException {
       try {
-         JAXBContext context = JAXBContext.newInstance(type);
-         Marshaller marshaller = context.createMarshaller();
-         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, prettyPrint);
+         PooledContext context = context(type);
+         Marshaller marshaller = context.borrowMarshaller();
          StringWriter writer = new StringWriter();
          marshaller.marshal(src, writer);
+         context.marshallers.offer(marshaller);
          return writer.toString();
       } catch (JAXBException ex) {
          throw new IOException("Could not marshall object", ex);
       }
    }
 
-   @SuppressWarnings("unchecked")
    @Override
    public <T> T fromXML(String xml, final Class<T> type) throws IOException {
       // ignore byte order mark
@@ -76,12 +102,62 @@ public class JAXBParser implements XMLParser {
          xml = xml.substring(1);
       }
       try {
-         StringReader reader = new StringReader(xml);
-         JAXBContext context = JAXBContext.newInstance(type);
-         Unmarshaller unmarshaller = context.createUnmarshaller();
-         return (T) unmarshaller.unmarshal(reader);
+         return unmarshal(new StreamSource(new StringReader(xml)), type);
       } catch (Exception ex) {
          throw new IOException("Could not unmarshal document into type: " + type.getSimpleName() + "\n" + xml, ex);
       }
    }
+
+   @Override
+   public <T> T fromXML(InputStream xml, final Class<T> type) throws IOException {
+      try {
+         return unmarshal(new StreamSource(xml), type);
+      } catch (Exception ex) {
+         throw new IOException("Could not unmarshal document into type: " + type.getSimpleName(), ex);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private <T> T unmarshal(Source source, Class<T> type) throws JAXBException {
+      PooledContext context = context(type);
+      Unmarshaller unmarshaller = context.borrowUnmarshaller();
+      T result = (T) unmarshaller.unmarshal(source);
+      // only instances which completed successfully go back to the pool
+      context.unmarshallers.offer(unmarshaller);
+      return result;
+   }
+
+   private PooledContext context(Class<?> type) throws JAXBException {
+      try {
+         return contexts.getUnchecked(type);
+      } catch (UncheckedExecutionException e) {
+         if (e.getCause() instanceof JAXBException)
+            throw (JAXBException) e.getCause();
+         throw propagate(e.getCause());
+      }
+   }
+
+   private final class PooledContext {
+      private final JAXBContext context;
+      private final Queue<Marshaller> marshallers = new ArrayBlockingQueue<Marshaller>(MAX_IDLE_PER_TYPE);
+      private final Queue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<Unmarshaller>(MAX_IDLE_PER_TYPE);
+
+      private PooledContext(JAXBContext context) {
+         this.context = context;
+      }
+
+      private Marshaller borrowMarshaller() throws JAXBException {
+         Marshaller marshaller = marshallers.poll();
+         if (marshaller == null) {
+            marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, prettyPrint);
+         }
+         return marshaller;
+      }
+
+      private Unmarshaller borrowUnmarshaller() throws JAXBException {
+         Unmarshaller unmarshaller = unmarshallers.poll();
+         return unmarshaller != null ? unmarshaller : context.createUnmarshaller();
+      }
+   }
 }
@@ -16,15 +16,26 @@
  */
 package org.jclouds.collect;
 
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.easymock.EasyMock;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 /**
  * Tests behavior of {@code IterableWithMarkers}.
@@ -70,4 +81,86 @@ public class PagedIterablesTest {
       EasyMock.verify(markerToNext);
 
    }
+
+   @SuppressWarnings("unchecked")
+   @Test
+   public void testConcatWithPrefetchReturnsPagesInOrder() {
+
+      IterableWithMarker<String> initial = IterableWithMarkers.from(ImmutableSet.of("foo", "bar"), "MARKER1");
+      Function<Object, IterableWithMarker<String>> markerToNext = createMock(Function.class);
+
+      expect(markerToNext.apply("MARKER1")).andReturn(
+               IterableWithMarkers.from(ImmutableSet.of("boo", "baz"), "MARKER2"));
+
+      expect(markerToNext.apply("MARKER2")).andReturn(IterableWithMarkers.from(ImmutableSet.of("ham", "cheeze"), null));
+
+      EasyMock.replay(markerToNext);
+
+      PagedIterable<String> iterable = PagedIterables.advance(initial, markerToNext);
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Assert.assertEquals(iterable.concat(2, executor).toList(),
+                  ImmutableList.of("foo", "bar", "boo", "baz", "ham", "cheeze"));
+      } finally {
+         executor.shutdownNow();
+      }
+
+      EasyMock.verify(markerToNext);
+   }
+
+   @SuppressWarnings("unchecked")
+   @Test
+   public void testConcatWithPrefetchOnlyFetchesPrefetchPagesAhead() {
+
+      IterableWithMarker<String> initial = IterableWithMarkers.from(ImmutableSet.of("foo", "bar"), "MARKER1");
+      Function<Object, IterableWithMarker<String>> markerToNext = createMock(Function.class);
+
+      expect(markerToNext.apply("MARKER1")).andReturn(
+               IterableWithMarkers.from(ImmutableSet.of("boo", "baz"), "MARKER2"));
+
+      EasyMock.replay(markerToNext);
+
+      PagedIterable<String> iterable = PagedIterables.advance(initial, markerToNext);
+
+      Assert.assertEquals(iterable.concat(1, directExecutor()).first().get(), "foo");
+
+      EasyMock.verify(markerToNext);
+   }
+
+   @SuppressWarnings("unchecked")
+   @Test
+   public void testClosingPrefetchingIteratorCancelsPendingPages() throws IOException {
+
+      IterableWithMarker<String> initial = IterableWithMarkers.from(ImmutableSet.of("foo", "bar"), "MARKER1");
+      Function<Object, IterableWithMarker<String>> markerToNext = createMock(Function.class);
+
+      expect(markerToNext.apply("MARKER1")).andReturn(
+               IterableWithMarkers.from(ImmutableSet.of("boo", "baz"), "MARKER2"));
+
+      EasyMock.replay(markerToNext);
+
+      // runs the fetches of the first two pages and holds back the rest
+      final List<Runnable> held = Lists.newArrayList();
+      Executor executor = new Executor() {
+         int executed;
+
+         @Override
+         public void execute(Runnable command) {
+            if (executed++ < 2)
+               command.run();
+            else
+               held.add(command);
+         }
+      };
+
+      Iterator<String> iterator = PagedIterables.advance(initial, markerToNext).concat(2, executor).iterator();
+      Assert.assertEquals(iterator.next(), "foo");
+      ((Closeable) iterator).close();
+      for (Runnable command : held)
+         command.run();
+      Assert.assertFalse(iterator.hasNext());
+
+      EasyMock.verify(markerToNext);
+   }
 }
@@ -19,26 +19,41 @@ package org.jclouds.concurrent.config;
 import static com.google.common.base.Throwables.getStackTraceAsString;
 import static com.google.inject.name.Names.named;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_VIRTUAL_THREADS;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
+import org.jclouds.concurrent.CallerThreadTimeLimiter;
 import org.jclouds.lifecycle.Closer;
+import org.testng.SkipException;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.TimeLimiter;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
@@ -104,6 +119,83 @@ public class ExecutorServiceModuleTest {
       }
    }
 
+   @Test
+   public void testPlatformThreadsByDefault() throws IOException {
+      Injector i = Guice.createInjector(new ExecutorServiceModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(named(PROPERTY_USER_THREADS)).to(1);
+            bindConstant().annotatedWith(named(PROPERTY_VIRTUAL_THREADS)).to("false");
+            super.configure();
+         }
+      });
+      try {
+         assertFalse(i.getInstance(TimeLimiter.class) instanceof CallerThreadTimeLimiter);
+      } finally {
+         i.getInstance(Closer.class).close();
+      }
+   }
+
+   @Test(timeOut = 10000)
+   public void testVirtualThreadsTimeOutOnCallingThread() throws Exception {
+      ExecutorService probe = ExecutorServiceModule.newVirtualThreadPerTaskExecutor("probe ");
+      if (probe == null)
+         throw new SkipException("virtual threads are not supported by this runtime");
+      probe.shutdown();
+      Injector i = Guice.createInjector(new ExecutorServiceModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(named(PROPERTY_USER_THREADS)).to(1);
+            bindConstant().annotatedWith(named(PROPERTY_VIRTUAL_THREADS)).to("true");
+            super.configure();
+         }
+      });
+      try {
+         final TimeLimiter timeLimiter = i.getInstance(TimeLimiter.class);
+         assertTrue(timeLimiter instanceof CallerThreadTimeLimiter, timeLimiter.toString());
+         ListeningExecutorService user = i.getInstance(Key.get(ListeningExecutorService.class,
+               named(PROPERTY_USER_THREADS)));
+
+         // many more concurrent tasks than the configured single user thread
+         List<ListenableFuture<?>> tasks = Lists.newArrayList();
+         for (int task = 0; task < 10; task++) {
+            tasks.add(user.submit(new Runnable() {
+               @Override
+               public void run() {
+                  final Thread caller = Thread.currentThread();
+                  assertTrue(caller.getName().startsWith("user thread "), caller.getName());
+                  try {
+                     timeLimiter.callWithTimeout(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                           assertEquals(Thread.currentThread(), caller);
+                           Thread.sleep(SECONDS.toMillis(30));
+                           return null;
+                        }
+                     }, 100, MILLISECONDS, true);
+                     fail("should have timed out");
+                  } catch (UncheckedTimeoutException expected) {
+                     assertTrue(expected.getCause() instanceof InterruptedException, expected.toString());
+                     assertFalse(Thread.currentThread().isInterrupted());
+                  } catch (Exception e) {
+                     throw new AssertionError(e);
+                  }
+               }
+            }));
+         }
+         Futures.allAsList(tasks).get();
+
+         assertEquals(timeLimiter.callWithTimeout(new Callable<String>() {
+            @Override
+            public String call() {
+               return "done";
+            }
+         }, 1, SECONDS, true), "done");
+      } finally {
+         i.getInstance(Closer.class).close();
+      }
+   }
+
    static void assertTraceHasSubmission(String trace, String expected) {
       assertEquals(trace.indexOf(WithSubmissionTrace.class.getName()), -1, trace);
       assertNotEquals(trace.indexOf(expected), -1, trace + " " + expected);
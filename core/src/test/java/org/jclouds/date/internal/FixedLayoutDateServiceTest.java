@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.date.internal;
+
+import static org.testng.Assert.assertEquals;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+
+import org.jclouds.date.DateService;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "FixedLayoutDateServiceTest")
+public class FixedLayoutDateServiceTest {
+   private final DateService dateService = new FixedLayoutDateService();
+   private final DateService reference = new SimpleDateFormatDateService();
+
+   public void testFormatsMatchSimpleDateFormat() {
+      // SimpleDateFormatDateService renders rfc1123 in the default time zone, so compare against a GMT formatter
+      SimpleDateFormat rfc1123 = new SimpleDateFormat("EEE, dd MMM yyyyy HH:mm:ss Z", Locale.US);
+      rfc1123.setTimeZone(new SimpleTimeZone(0, "GMT"));
+      Random random = new Random(0);
+      for (int i = 0; i < 10000; i++) {
+         // 1970 through 2099
+         Date date = new Date((long) (random.nextDouble() * 4102444800000L));
+         assertEquals(dateService.iso8601DateFormat(date), reference.iso8601DateFormat(date));
+         assertEquals(dateService.iso8601SecondsDateFormat(date), reference.iso8601SecondsDateFormat(date));
+         assertEquals(dateService.rfc822DateFormat(date), reference.rfc822DateFormat(date));
+         assertEquals(dateService.rfc1123DateFormat(date), rfc1123.format(date));
+         assertEquals(dateService.cDateFormat(date), reference.cDateFormat(date));
+      }
+   }
+
+   public void testParsesWhatItFormats() {
+      Random random = new Random(0);
+      for (int i = 0; i < 10000; i++) {
+         Date date = new Date((long) (random.nextDouble() * 4102444800000L));
+         Date seconds = new Date(date.getTime() / 1000 * 1000);
+         assertEquals(dateService.iso8601DateParse(dateService.iso8601DateFormat(date)), date);
+         assertEquals(dateService.iso8601SecondsDateParse(dateService.iso8601SecondsDateFormat(date)), seconds);
+         assertEquals(dateService.rfc822DateParse(dateService.rfc822DateFormat(date)), seconds);
+         assertEquals(dateService.rfc1123DateParse(dateService.rfc1123DateFormat(date)), seconds);
+         assertEquals(dateService.cDateParse(dateService.cDateFormat(date)), seconds);
+      }
+   }
+
+   public void testFormatsBeforeEpoch() {
+      Date date = new Date(-1L);
+      assertEquals(dateService.iso8601DateFormat(date), "1969-12-31T23:59:59.999Z");
+      assertEquals(dateService.rfc822DateFormat(date), "Wed, 31 Dec 1969 23:59:59 GMT");
+   }
+
+   public void testFormatForSameSecondIsReused() {
+      Date first = new Date(1236823207000L);
+      Date second = new Date(1236823207999L);
+      assertEquals(dateService.rfc822DateFormat(second), dateService.rfc822DateFormat(first));
+      assertEquals(dateService.rfc822DateFormat(new Date(1236823208000L)), "Thu, 12 Mar 2009 02:00:08 GMT");
+   }
+
+   public void testIso8601Variants() {
+      assertEquals(dateService.iso8601DateParse("2009-03-12T02:00:07.000Z").getTime(), 1236823207000L);
+      assertEquals(dateService.iso8601DateParse("2009-03-12T02:00:07Z").getTime(), 1236823207000L);
+      assertEquals(dateService.iso8601DateParse("2009-03-12T02:00:07").getTime(), 1236823207000L);
+      assertEquals(dateService.iso8601DateParse("2009-03-12T06:00:07+04").getTime(), 1236823207000L);
+      assertEquals(dateService.iso8601DateParse("2009-03-12T06:00:07+04:00").getTime(), 1236823207000L);
+      assertEquals(dateService.iso8601DateParse("2011-11-07T11:19:13.38225Z").getTime(), 1320664753382L);
+      assertEquals(dateService.iso8601DateParse("2009-02-03T05:26:32.612278").getTime(), 1233638792612L);
+      assertEquals(dateService.iso8601SecondsDateParse("2012-11-14T21:51:28UTC").getTime(), 1352929888000L);
+      assertEquals(dateService.iso8601SecondsDateParse("2014-07-23T20:53:17+0000").getTime(), 1406148797000L);
+   }
+
+   public void testFractionIsDecimal() {
+      assertEquals(dateService.iso8601DateParse("2009-03-12T02:00:07.1Z").getTime(), 1236823207100L);
+      assertEquals(dateService.iso8601DateParse("2009-03-12T02:00:07.12Z").getTime(), 1236823207120L);
+   }
+
+   public void testRfc822WithoutDayName() {
+      assertEquals(dateService.rfc822DateParse("12 Mar 2009 02:00:07 GMT").getTime(), 1236823207000L);
+      assertEquals(dateService.rfc1123DateParse("Thu, 12 Mar 2009 04:00:07 +0200").getTime(), 1236823207000L);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testIso8601MonthOutOfRange() {
+      dateService.iso8601DateParse("2009-13-12T02:00:07.000Z");
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testIso8601MissingSeconds() {
+      dateService.iso8601DateParse("2009-03-12T02:00Z");
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testRfc822UnknownMonth() {
+      dateService.rfc822DateParse("Thu, 12 Foo 2009 02:00:07 GMT");
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testCDateUnknownZone() {
+      dateService.cDateParse("Thu Mar 12 02:00:07 XYZ 2009");
+   }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A local HTTP/1.1 server for throughput and stress tests. It discards request bodies and answers every request
+ * with an empty 200 response. Unlike {@code MockWebServer} it records nothing, so uploads of any size and any number
+ * of requests take constant memory.
+ */
+public final class DiscardingHttpServer implements Closeable {
+
+   private final ServerSocket socket;
+   private final ExecutorService handlers;
+
+   /**
+    * Starts the server, serving up to {@code connections} connections at a time.
+    */
+   public DiscardingHttpServer(int connections) throws IOException {
+      socket = new ServerSocket(0, Math.max(50, connections));
+      handlers = Executors.newFixedThreadPool(connections,
+            new ThreadFactoryBuilder().setNameFormat("discarding http server %d").setDaemon(true).build());
+      Thread acceptor = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            while (!socket.isClosed()) {
+               try {
+                  final Socket connection = socket.accept();
+                  handlers.execute(new Runnable() {
+                     @Override
+                     public void run() {
+                        discardRequests(connection);
+                     }
+                  });
+               } catch (IOException e) {
+                  return;
+               }
+            }
+         }
+      }, "discarding http server acceptor");
+      acceptor.setDaemon(true);
+      acceptor.start();
+   }
+
+   /**
+    * Returns the URL of the server, such as {@code http://localhost:8080}.
+    */
+   public String getUrl() {
+      return "http://localhost:" + socket.getLocalPort();
+   }
+
+   @Override
+   public void close() {
+      closeQuietly(socket);
+      handlers.shutdownNow();
+   }
+
+   /**
+    * Reads requests until the client closes the connection, skipping bodies of the given content length.
+    */
+   private static void discardRequests(Socket connection) {
+      try {
+         InputStream in = new BufferedInputStream(connection.getInputStream());
+         OutputStream out = connection.getOutputStream();
+         while (true) {
+            long contentLength = 0;
+            String line = readLine(in);
+            if (line == null)
+               return;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+               if (line.toLowerCase().startsWith("content-length:"))
+                  contentLength = Long.parseLong(line.substring("content-length:".length()).trim());
+            }
+            ByteStreams.skipFully(in, contentLength);
+            out.write("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes(Charsets.US_ASCII));
+            out.flush();
+         }
+      } catch (IOException e) {
+         // connection closed by the client
+      } finally {
+         closeQuietly(connection);
+      }
+   }
+
+   private static String readLine(InputStream in) throws IOException {
+      StringBuilder line = new StringBuilder();
+      int c;
+      while ((c = in.read()) != '\n') {
+         if (c == -1)
+            return line.length() == 0 ? null : line.toString();
+         if (c != '\r')
+            line.append((char) c);
+      }
+      return line.toString();
+   }
+}
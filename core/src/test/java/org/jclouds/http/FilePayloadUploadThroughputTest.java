@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Properties;
+
+import org.jclouds.http.config.JavaUrlHttpCommandExecutorServiceModule;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.io.internal.BasePayloadSlicer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.inject.Module;
+
+/**
+ * Measures the throughput of uploading a large file, and slices of it, to a local server which discards the
+ * request body. The size defaults to 8 MB so that the default build stays fast; set the {@code test.upload-size}
+ * system property, e.g. to 10 GB, for a meaningful measurement. The file is sparse, so the test measures the driver
+ * rather than the disk.
+ */
+@Test(groups = "performance", singleThreaded = true, testName = "FilePayloadUploadThroughputTest")
+public class FilePayloadUploadThroughputTest extends BaseMockWebServerTest {
+
+   private final long size = Long.getLong("test.upload-size", 8L * 1024 * 1024);
+   private File file;
+   private DiscardingHttpServer sink;
+   private IntegrationTestClient client;
+
+   @Override
+   protected void addOverrideProperties(Properties props) {
+   }
+
+   @Override
+   protected Module createConnectionModule() {
+      return new JavaUrlHttpCommandExecutorServiceModule();
+   }
+
+   @BeforeClass
+   public void setUp() throws IOException {
+      file = File.createTempFile("upload", ".bin");
+      RandomAccessFile raf = new RandomAccessFile(file, "rw");
+      try {
+         raf.setLength(size);
+      } finally {
+         raf.close();
+      }
+      sink = new DiscardingHttpServer(4);
+      client = api(IntegrationTestClient.class, sink.getUrl());
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      closeQuietly(client);
+      closeQuietly(sink);
+      if (file != null)
+         file.delete();
+   }
+
+   public void testFilePayload() {
+      long start = System.nanoTime();
+      client.postPayloadAndReturnHeaders("file", payload(Payloads.newFilePayload(file)));
+      report("file payload", size, System.nanoTime() - start);
+   }
+
+   public void testSlicedFilePayload() {
+      long partSize = Math.max(1, size / 8);
+      long start = System.nanoTime();
+      for (Payload part : new BasePayloadSlicer().slice(Payloads.newFilePayload(file), partSize)) {
+         client.postPayloadAndReturnHeaders("part", payload(part));
+      }
+      report("sliced file payload", size, System.nanoTime() - start);
+   }
+
+   private static Payload payload(Payload payload) {
+      payload.getContentMetadata().setContentType("application/octet-stream");
+      return payload;
+   }
+
+   private void report(String name, long bytes, long nanos) {
+      System.out.printf("TIMING: %s upload with %s of %d bytes took %.3fs: %.1f MB/s%n", name,
+            createConnectionModule().getClass().getSimpleName(), bytes, nanos / 1e9, bytes / 1e6 / (nanos / 1e9));
+   }
+}
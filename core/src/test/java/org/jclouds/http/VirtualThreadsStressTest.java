@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import static org.jclouds.Constants.PROPERTY_TIMEOUTS_PREFIX;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_VIRTUAL_THREADS;
+import static org.jclouds.util.Closeables2.closeQuietly;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.http.config.JavaUrlHttpCommandExecutorServiceModule;
+import org.jclouds.providers.AnonymousProviderMetadata;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.name.Names;
+
+/**
+ * Issues many concurrent blocking {@code HEAD} requests, with a default timeout, against a local server, once from a
+ * pool of platform threads and once from virtual threads, and reports the elapsed time and the peak number of
+ * platform threads. The defaults of 1000 calls and 50 platform threads keep the default build fast; raise them, e.g.
+ * to 50000 and 200, with the {@code test.stress-calls} and {@code test.stress-platform-threads} system properties.
+ */
+@Test(groups = "performance", singleThreaded = true, testName = "VirtualThreadsStressTest")
+public class VirtualThreadsStressTest {
+
+   private final int calls = Integer.getInteger("test.stress-calls", 1000);
+   private final int platformThreads = Integer.getInteger("test.stress-platform-threads", 50);
+   private final int stubThreads = 256;
+   private DiscardingHttpServer stub;
+
+   @BeforeClass
+   public void setUp() throws IOException {
+      stub = new DiscardingHttpServer(stubThreads);
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      closeQuietly(stub);
+   }
+
+   public void testPlatformThreads() throws Exception {
+      Injector injector = injector(false);
+      ExecutorService callers = Executors.newFixedThreadPool(platformThreads, daemon("caller %d"));
+      try {
+         stress("platform threads", injector, MoreExecutors.listeningDecorator(callers));
+      } finally {
+         callers.shutdownNow();
+         closeQuietly(injector.getInstance(IntegrationTestClient.class));
+      }
+   }
+
+   public void testVirtualThreads() throws Exception {
+      try {
+         Thread.class.getMethod("ofVirtual");
+      } catch (NoSuchMethodException e) {
+         throw new SkipException("virtual threads are not supported by this runtime");
+      }
+      Injector injector = injector(true);
+      try {
+         // the user executor starts a virtual thread for each call
+         stress("virtual threads", injector, injector.getInstance(Key.get(ListeningExecutorService.class,
+               Names.named(PROPERTY_USER_THREADS))));
+      } finally {
+         closeQuietly(injector.getInstance(IntegrationTestClient.class));
+      }
+   }
+
+   private Injector injector(boolean virtualThreads) {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_VIRTUAL_THREADS, Boolean.toString(virtualThreads));
+      overrides.setProperty(PROPERTY_TIMEOUTS_PREFIX + "default", "120000");
+      return ContextBuilder.newBuilder(AnonymousProviderMetadata.forApiOnEndpoint(IntegrationTestClient.class,
+            stub.getUrl()))
+            .modules(ImmutableSet.<Module> of(new JavaUrlHttpCommandExecutorServiceModule()))
+            .overrides(overrides).buildInjector();
+   }
+
+   private void stress(String name, Injector injector, ListeningExecutorService callers) throws Exception {
+      final IntegrationTestClient client = injector.getInstance(IntegrationTestClient.class);
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      threads.resetPeakThreadCount();
+      long start = System.nanoTime();
+      List<ListenableFuture<Boolean>> results = Lists.newArrayListWithCapacity(calls);
+      for (int i = 0; i < calls; i++) {
+         final String id = "blob" + i;
+         results.add(callers.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+               return client.exists(id);
+            }
+         }));
+      }
+      int found = 0;
+      for (Boolean exists : Futures.allAsList(results).get())
+         found += exists ? 1 : 0;
+      long nanos = System.nanoTime() - start;
+      System.out.printf("TIMING: %d blocking exists calls from %s took %.3fs: %.0f calls/s, "
+            + "peak platform threads %d (up to %d of them serve the stub)%n", calls, name, nanos / 1e9,
+            calls / (nanos / 1e9), threads.getPeakThreadCount(), stubThreads);
+      assertEquals(found, calls);
+   }
+
+   private static ThreadFactory daemon(String nameFormat) {
+      return new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build();
+   }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseJsonStream.JsonArrayIterable;
+import org.jclouds.io.Payloads;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.json.internal.GsonWrapper;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.FluentIterable;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+
+@Test(groups = "unit", testName = "ParseJsonStreamTest")
+public class ParseJsonStreamTest {
+
+   GsonWrapper json = Guice.createInjector(new GsonModule()).getInstance(GsonWrapper.class);
+
+   static class Event {
+      private String name;
+
+      @Override
+      public String toString() {
+         return name;
+      }
+   }
+
+   private static final class TrackingInputStream extends FilterInputStream {
+      private final AtomicBoolean closed = new AtomicBoolean();
+
+      TrackingInputStream(String content) {
+         super(new ByteArrayInputStream(content.getBytes(Charsets.UTF_8)));
+      }
+
+      @Override
+      public void close() throws IOException {
+         closed.set(true);
+         super.close();
+      }
+   }
+
+   private static HttpResponse response(TrackingInputStream content) {
+      return HttpResponse.builder().statusCode(200).message("ok").payload(Payloads.newInputStreamPayload(content))
+            .build();
+   }
+
+   public void testParseRootArrayLazily() {
+      TrackingInputStream content = new TrackingInputStream("[{name:'a'},{name:'b'}]");
+      FluentIterable<Event> events = new ParseJsonStream<Event>(json, TypeLiteral.get(Event.class))
+            .apply(response(content));
+
+      Iterator<Event> iterator = events.iterator();
+      assertEquals(iterator.next().toString(), "a");
+      assertFalse(content.closed.get());
+      assertEquals(iterator.next().toString(), "b");
+      assertFalse(iterator.hasNext());
+      assertTrue(content.closed.get());
+   }
+
+   public void testParseSelectedArray() {
+      TrackingInputStream content = new TrackingInputStream(
+            "{ \"count\":2, \"meta\": {\"a\": [1]}, \"events\" : [{name:'a'},{name:'b'}] }");
+      FluentIterable<Event> events = new ParseJsonStream<Event>(json, TypeLiteral.get(Event.class), "events")
+            .apply(response(content));
+
+      assertEquals(events.toList().toString(), "[a, b]");
+      assertTrue(content.closed.get());
+   }
+
+   public void testMissingNameIsEmpty() {
+      TrackingInputStream content = new TrackingInputStream("{ \"evants\" : [{name:'a'}] }");
+      FluentIterable<Event> events = new ParseJsonStream<Event>(json, TypeLiteral.get(Event.class), "events")
+            .apply(response(content));
+
+      assertTrue(events.isEmpty());
+      assertTrue(content.closed.get());
+   }
+
+   public void testCloseReleasesResponseBeforeIterationEnds() {
+      TrackingInputStream content = new TrackingInputStream("[{name:'a'},{name:'b'}]");
+      FluentIterable<Event> events = new ParseJsonStream<Event>(json, TypeLiteral.get(Event.class))
+            .apply(response(content));
+
+      Iterator<Event> iterator = events.iterator();
+      assertEquals(iterator.next().toString(), "a");
+      ((JsonArrayIterable<Event>) events).close();
+      assertTrue(content.closed.get());
+      assertFalse(iterator.hasNext());
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testCanOnlyBeIteratedOnce() {
+      FluentIterable<Event> events = new ParseJsonStream<Event>(json, TypeLiteral.get(Event.class))
+            .apply(response(new TrackingInputStream("[{name:'a'}]")));
+      events.toList();
+      events.iterator();
+   }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.XMLReader;
+
+@Test(groups = "unit", testName = "XMLReaderPoolTest")
+public class XMLReaderPoolTest {
+
+   static class CountElements extends ParseSax.HandlerWithResult<Integer> {
+      private int count;
+
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attributes) {
+         count++;
+      }
+
+      @Override
+      public Integer getResult() {
+         return count;
+      }
+   }
+
+   public void testReleasedReaderIsReused() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance(), 1);
+      XMLReader reader = pool.borrow();
+      pool.release(reader);
+      assertEquals(pool.idleCount(), 1);
+      assertSame(pool.borrow(), reader);
+      assertEquals(pool.idleCount(), 0);
+   }
+
+   public void testIdleReadersAreBounded() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance(), 1);
+      XMLReader first = pool.borrow();
+      XMLReader second = pool.borrow();
+      assertNotSame(first, second);
+      pool.release(first);
+      pool.release(second);
+      assertEquals(pool.idleCount(), 1);
+   }
+
+   public void testParseReturnsReaderToPool() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance());
+      assertEquals(new ParseSax<Integer>(pool, new CountElements()).parse(Strings2.toInputStream("<a><b/><b/></a>")),
+            Integer.valueOf(3));
+      assertEquals(pool.idleCount(), 1);
+      assertEquals(new ParseSax<Integer>(pool, new CountElements()).parse(Strings2.toInputStream("<a/>")),
+            Integer.valueOf(1));
+      assertEquals(pool.idleCount(), 1);
+   }
+
+   public void testFailedParseDiscardsReader() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance());
+      try {
+         new ParseSax<Integer>(pool, new CountElements()).parse(Strings2.toInputStream("<a><b></a>"));
+      } catch (RuntimeException expected) {
+      }
+      assertEquals(pool.idleCount(), 0);
+   }
+}
@@ -24,6 +24,7 @@ import static org.testng.Assert.fail;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.jclouds.Constants;
 import org.jclouds.ContextBuilder;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
@@ -38,6 +39,9 @@ import org.testng.annotations.Test;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
 import com.google.common.reflect.Invokable;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
 
 @Test(groups = "unit", testName = "BackoffLimitedRetryHandlerTest")
 public class BackoffLimitedRetryHandlerTest {
@@ -191,4 +195,37 @@ public class BackoffLimitedRetryHandlerTest {
       assertEquals(handler.shouldRetryRequest(command, response), false); // Failure 6
    }
 
+   @Test
+   void testDropsRetriesBeyondRetryBudget() throws SecurityException, NoSuchMethodException {
+      BackoffLimitedRetryHandler limited = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(Names.named(Constants.PROPERTY_RETRY_BUDGET)).to(1.0);
+            bindConstant().annotatedWith(Names.named(Constants.PROPERTY_RETRY_DELAY_START)).to(0L);
+         }
+      }).getInstance(BackoffLimitedRetryHandler.class);
+      HttpResponse response = HttpResponse.builder().statusCode(500).build();
+
+      assertEquals(limited.shouldRetryRequest(createCommand(), response), true);
+      assertEquals(limited.shouldRetryRequest(createCommand(), response), false);
+   }
+
+   @Test
+   void testFullJitterStaysWithinExponentialDelay() {
+      BackoffLimitedRetryHandler jittered = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(Names.named(Constants.PROPERTY_RETRY_FULL_JITTER)).to(true);
+         }
+      }).getInstance(BackoffLimitedRetryHandler.class);
+      DeferredBackoff.begin();
+      try {
+         for (int failureCount = 1; failureCount <= 5; failureCount++) {
+            jittered.imposeBackoffExponentialDelay(failureCount, "TEST FAILURE");
+         }
+      } finally {
+         // at most 50 + 200 + 450 + 500 + 500, each delay being capped at ten times the start delay
+         assertThat(DeferredBackoff.end()).isBetween(0L, 1705L);
+      }
+   }
 }
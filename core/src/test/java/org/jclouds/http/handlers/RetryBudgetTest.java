@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.handlers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+
+@Test(groups = "unit", testName = "RetryBudgetTest")
+public class RetryBudgetTest {
+
+   private static class FakeTicker extends Ticker {
+      long nanos;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+   }
+
+   public void testUnlimitedByDefault() {
+      RetryBudget budget = new RetryBudget(new FakeTicker());
+      for (int i = 0; i < 1000; i++) {
+         assertTrue(budget.tryAcquire());
+      }
+      assertEquals(budget.getDroppedRetries(), 0);
+   }
+
+   public void testDropsRetriesBeyondBudget() {
+      FakeTicker ticker = new FakeTicker();
+      RetryBudget budget = new RetryBudget(2, ticker);
+
+      assertTrue(budget.tryAcquire());
+      assertTrue(budget.tryAcquire());
+      assertFalse(budget.tryAcquire());
+      assertEquals(budget.getDroppedRetries(), 1);
+
+      ticker.nanos += TimeUnit.MILLISECONDS.toNanos(500);
+      assertTrue(budget.tryAcquire());
+      assertFalse(budget.tryAcquire());
+      assertEquals(budget.getDroppedRetries(), 2);
+   }
+
+   public void testBudgetDoesNotAccumulateBeyondOneSecond() {
+      FakeTicker ticker = new FakeTicker();
+      RetryBudget budget = new RetryBudget(2, ticker);
+      assertTrue(budget.tryAcquire());
+
+      ticker.nanos += TimeUnit.MINUTES.toNanos(1);
+      assertTrue(budget.tryAcquire());
+      assertTrue(budget.tryAcquire());
+      assertFalse(budget.tryAcquire());
+   }
+
+   public void testDeferredBackoffIsRecordedWithoutSleeping() throws InterruptedException {
+      RetryBudget budget = new RetryBudget(new FakeTicker());
+      long start = System.nanoTime();
+      DeferredBackoff.begin();
+      try {
+         budget.backoff(10000);
+      } finally {
+         assertEquals(DeferredBackoff.end(), 10000);
+      }
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+      assertEquals(budget.getBackoffMillis(), 10000);
+      assertEquals(budget.getRetriesInFlight(), 0);
+   }
+
+   public void testScheduledRetriesAreInFlight() {
+      RetryBudget budget = new RetryBudget(new FakeTicker());
+      budget.retryScheduled();
+      budget.retryScheduled();
+      assertEquals(budget.getRetriesInFlight(), 2);
+      budget.retryStarted();
+      assertEquals(budget.getRetriesInFlight(), 1);
+   }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.Constants.PROPERTY_RETRY_DELAY_START;
+import static org.jclouds.util.Closeables2.closeQuietly;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Properties;
+
+import org.jclouds.http.BaseMockWebServerTest;
+import org.jclouds.http.HttpCommandListener;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.IntegrationTestClient;
+import org.jclouds.http.config.JavaUrlHttpCommandExecutorServiceModule;
+import org.jclouds.http.internal.InMemoryHttpCommandListener.CommandStats;
+import org.testng.annotations.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+@Test(groups = "unit", testName = "InMemoryHttpCommandListenerTest")
+public class InMemoryHttpCommandListenerTest extends BaseMockWebServerTest {
+
+   @Override
+   protected void addOverrideProperties(Properties props) {
+      props.setProperty(PROPERTY_MAX_RETRIES, "1");
+      props.setProperty(PROPERTY_RETRY_DELAY_START, "0");
+   }
+
+   @Override
+   protected Module createConnectionModule() {
+      return new JavaUrlHttpCommandExecutorServiceModule();
+   }
+
+   private IntegrationTestClient client(String url, final InMemoryHttpCommandListener listener) {
+      return api(IntegrationTestClient.class, url, createConnectionModule(), new AbstractModule() {
+         @Override
+         protected void configure() {
+            bind(HttpCommandListener.class).toInstance(listener);
+         }
+      });
+   }
+
+   public void testRecordsLatencyAndBytesPerCommandName() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("hello"));
+      InMemoryHttpCommandListener listener = new InMemoryHttpCommandListener();
+      IntegrationTestClient client = client(server.getUrl("/").toString(), listener);
+      try {
+         assertEquals(client.download("1"), "hello");
+
+         CommandStats stats = listener.getStats("IntegrationTestClient.download");
+         assertNotNull(stats, listener.getStats().toString());
+         assertEquals(stats.getFilter().getCount(), 1);
+         assertEquals(stats.getConnect().getCount(), 1);
+         assertEquals(stats.getFirstByte().getCount(), 1);
+         assertEquals(stats.getCompleted().getCount(), 1);
+         assertTrue(stats.getCompleted().getMax() >= stats.getFirstByte().getMax());
+         assertEquals(stats.getBytesReceived(), 5);
+         assertEquals(stats.getRetries(), 0);
+         assertEquals(stats.getErrors(), 0);
+      } finally {
+         closeQuietly(client);
+         server.shutdown();
+      }
+   }
+
+   public void testRecordsRetriesAndErrors() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(500),
+            new MockResponse().setResponseCode(500));
+      InMemoryHttpCommandListener listener = new InMemoryHttpCommandListener();
+      IntegrationTestClient client = client(server.getUrl("/").toString(), listener);
+      try {
+         client.download("1");
+         fail("Request should not succeed");
+      } catch (HttpResponseException expected) {
+         CommandStats stats = listener.getStats("IntegrationTestClient.download");
+         assertEquals(stats.getFirstByte().getCount(), 2);
+         assertEquals(stats.getRetries(), 1);
+         assertEquals(stats.getErrors(), 1);
+      } finally {
+         closeQuietly(client);
+         server.shutdown();
+      }
+   }
+}
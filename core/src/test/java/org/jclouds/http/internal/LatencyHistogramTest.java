@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "LatencyHistogramTest")
+public class LatencyHistogramTest {
+
+   public void testEmptyHistogram() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      assertEquals(histogram.getCount(), 0);
+      assertEquals(histogram.getValueAtPercentile(99), 0);
+      assertEquals(histogram.getMean(), 0.0);
+   }
+
+   public void testSmallValuesAreExact() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (int i = 1; i <= 10; i++) {
+         histogram.record(i);
+      }
+      assertEquals(histogram.getCount(), 10);
+      assertEquals(histogram.getValueAtPercentile(50), 5);
+      assertEquals(histogram.getValueAtPercentile(100), 10);
+      assertEquals(histogram.getMax(), 10);
+      assertEquals(histogram.getMean(), 5.5);
+   }
+
+   public void testLargeValuesAreWithinRelativePrecision() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (int i = 0; i < 99; i++) {
+         histogram.record(1000);
+      }
+      histogram.record(5000000);
+      long p50 = histogram.getValueAtPercentile(50);
+      assertTrue(p50 >= 1000 && p50 < 1000 * 17 / 16, "p50 " + p50);
+      assertEquals(histogram.getValueAtPercentile(100), 5000000);
+   }
+
+   public void testBucketsCoverTheirValues() {
+      for (long value : new long[] { 0, 31, 32, 33, 1023, 1024, 123456789, Long.MAX_VALUE }) {
+         int index = LatencyHistogram.indexOf(value);
+         assertTrue(LatencyHistogram.highestValueOf(index) >= value, "value " + value);
+         if (index > 0)
+            assertTrue(LatencyHistogram.highestValueOf(index - 1) < value, "value " + value);
+      }
+   }
+}
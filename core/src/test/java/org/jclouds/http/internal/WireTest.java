@@ -17,7 +17,9 @@
 package org.jclouds.http.internal;
 
 import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
 import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.io.payloads.InputStreamPayload;
 import org.jclouds.io.payloads.StringPayload;
 import org.jclouds.logging.Logger;
 import org.jclouds.util.Strings2;
@@ -27,7 +29,9 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(groups = "unit", sequential = true)
 public class WireTest {
@@ -178,4 +182,73 @@ public class WireTest {
       wire.output(request);
       assertEquals(wireLog.buff.toString(), ">> \"foo\"", "Expected payload to be printed in logs");
    }
+
+   public void testInputInputStreamIsNotBuffered() throws Exception {
+      HttpWire wire = setUp();
+      ByteArrayInputStream source = new ByteArrayInputStream("foo\nbar".getBytes());
+      InputStream in = wire.input(source);
+      assertEquals(source.available(), 7);
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "");
+      assertEquals(in.read(new byte[4]), 4);
+      assertEquals(source.available(), 3);
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "<< \"foo[\\n]\"");
+      in.close();
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "<< \"foo[\\n]\"");
+   }
+
+   public void testInputString() throws Exception {
+      HttpWire wire = setUp();
+      wire.input("foo");
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "<< \"foo\"");
+   }
+
+   public void testInputResponseKeepsStreamOpen() throws Exception {
+      HttpWire wire = setUp();
+      HttpResponse response = HttpResponse.builder().statusCode(200)
+            .payload(new InputStreamPayload(new ByteArrayInputStream("foo".getBytes()))).build();
+      response.getPayload().getContentMetadata().setContentLength(3L);
+      HttpResponse wired = wire.input(response);
+      assertEquals(wired.getStatusCode(), 200);
+      assertEquals(wired.getPayload().getContentMetadata().getContentLength(), Long.valueOf(3));
+      assertEquals(Strings2.toStringAndClose(wired.getPayload().openStream()), "foo");
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "<< \"foo\"");
+   }
+
+   public void testMaxBytesTruncatesInputStream() throws Exception {
+      HttpWire wire = setUp();
+      wire.maxBytes = 2;
+      InputStream in = wire.input(new ByteArrayInputStream("foo".getBytes()));
+      assertEquals(Strings2.toStringAndClose(in), "foo");
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "<< \"fo\"<< [truncated after 2 bytes]");
+   }
+
+   public void testMaxBytesEqualToLengthDoesNotTruncate() throws Exception {
+      HttpWire wire = setUp();
+      wire.maxBytes = 3;
+      wire.output("foo");
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), ">> \"foo\"");
+   }
+
+   public void testMaxBytesTruncatesOutputBytes() throws Exception {
+      HttpWire wire = setUp();
+      wire.maxBytes = 1;
+      wire.output("foo".getBytes());
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), ">> \"f\">> [truncated after 1 bytes]");
+   }
+
+   public void testEnabledForCommands() throws Exception {
+      HttpWire wire = setUp();
+      assertTrue(wire.enabled("BucketApi.list"));
+      wire.setCommands("ObjectApi\\..*");
+      assertTrue(wire.enabled("ObjectApi.get"));
+      assertFalse(wire.enabled("BucketApi.list"));
+   }
+
+   public void testEnabledForSampleRate() throws Exception {
+      HttpWire wire = setUp();
+      wire.sampleRate = 0;
+      assertFalse(wire.enabled("ObjectApi.get"));
+      wire.sampleRate = 1;
+      assertTrue(wire.enabled("ObjectApi.get"));
+   }
 }
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.jclouds.io.internal.BasePayloadSlicer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "FileRegionTest")
+public class FileRegionTest {
+
+   private File file;
+
+   @BeforeClass
+   public void createFile() throws IOException {
+      file = File.createTempFile("FileRegionTest", ".txt");
+      Files.write("0123456789", file, Charsets.US_ASCII);
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void deleteFile() {
+      file.delete();
+   }
+
+   public void testOpenStreamReadsOnlyTheRegion() throws IOException {
+      assertEquals(new FileRegion(file, 2, 5).asCharSource(Charsets.US_ASCII).read(), "23456");
+   }
+
+   public void testSizeStopsAtEndOfFile() throws IOException {
+      FileRegion region = new FileRegion(file, 8, 5);
+      assertEquals(region.size(), 2);
+      assertEquals(region.asCharSource(Charsets.US_ASCII).read(), "89");
+   }
+
+   public void testSliceOfRegionIsRegion() throws IOException {
+      FileRegion slice = new FileRegion(file, 2, 6).slice(1, 10);
+      assertEquals(slice.getOffset(), 3);
+      assertEquals(slice.asCharSource(Charsets.US_ASCII).read(), "34567");
+   }
+
+   public void testCopyToWithSmallBuffer() throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertEquals(new FileRegion(file, 1, 7).copyTo(out, 3), 7);
+      assertEquals(new String(out.toByteArray(), Charsets.US_ASCII), "1234567");
+   }
+
+   public void testFromPayload() {
+      FileRegion region = FileRegion.fromPayload(Payloads.newFilePayload(file));
+      assertEquals(region.getFile(), file);
+      assertEquals(region.getOffset(), 0);
+
+      FileRegion slice = new FileRegion(file, 3, 2);
+      assertSame(FileRegion.fromPayload(Payloads.newByteSourcePayload(slice)), slice);
+      assertNull(FileRegion.fromPayload(Payloads.newStringPayload("0123456789")));
+   }
+
+   public void testSlicedFilePayloadsRemainFileRegions() throws IOException {
+      BasePayloadSlicer slicer = new BasePayloadSlicer();
+      Payload slice = slicer.slice(Payloads.newFilePayload(file), 5, 3);
+      assertEquals(FileRegion.fromPayload(slice).getOffset(), 5);
+      assertEquals(new String(ByteStreams2.toByteArrayAndClose(slice.openStream()), Charsets.US_ASCII), "567");
+
+      long offset = 0;
+      for (Payload part : slicer.slice(Payloads.newFilePayload(file), 4)) {
+         assertEquals(FileRegion.fromPayload(part).getOffset(), offset);
+         offset += part.getContentMetadata().getContentLength();
+      }
+      assertEquals(offset, 10);
+   }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.internal;
+
+import static org.jclouds.json.internal.DeserializationConstructorAndReflectiveTypeAdapterFactoryTest.parameterizedCtorFactory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.Json;
+import org.jclouds.json.SerializedNames;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.Test;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "GeneratedJsonAdapterFactoryTest")
+public final class GeneratedJsonAdapterFactoryTest {
+
+   @AutoValue
+   abstract static class Server {
+      abstract String id();
+
+      abstract int port();
+
+      abstract boolean enabled();
+
+      abstract long size();
+
+      abstract double load();
+
+      @Nullable abstract List<String> tags();
+
+      @Nullable abstract Map<String, String> metadata();
+
+      abstract Optional<String> description();
+
+      @SerializedNames({ "id", "port", "enabled", "size", "load", "tags", "metadata", "description" })
+      static Server create(String id, int port, boolean enabled, long size, double load, List<String> tags,
+            Map<String, String> metadata, Optional<String> description) {
+         return new AutoValue_GeneratedJsonAdapterFactoryTest_Server(id, port, enabled, size, load, tags, metadata,
+               description);
+      }
+   }
+
+   static final String SERVER_JSON = "{\"id\":\"1234\",\"port\":8080,\"enabled\":true,\"size\":5000000000,"
+         + "\"load\":0.75,\"tags\":[\"a\",\"b\"],\"metadata\":{\"foo\":\"bar\"},\"ignored\":{\"nested\":[1,2]},"
+         + "\"description\":\"web\"}";
+
+   static final Server SERVER = Server.create("1234", 8080, true, 5000000000L, 0.75, ImmutableList.of("a", "b"),
+         ImmutableMap.of("foo", "bar"), Optional.of("web"));
+
+   private final Gson generated = new GsonBuilder().registerTypeAdapterFactory(new OptionalTypeAdapterFactory())
+         .registerTypeAdapterFactory(parameterizedCtorFactory())
+         .registerTypeAdapterFactory(new GeneratedJsonAdapterFactory()).create();
+
+   private final Gson reflective = new GsonBuilder().registerTypeAdapterFactory(new OptionalTypeAdapterFactory())
+         .registerTypeAdapterFactory(parameterizedCtorFactory()).create();
+
+   public void testAdapterClassName() {
+      assertEquals(GeneratedJsonAdapterFactory.adapterClassName("org.jclouds.json", "org.jclouds.json.Foo$Bar"),
+            "org.jclouds.json.JsonAdapter_Foo_Bar");
+      assertEquals(GeneratedJsonAdapterFactory.adapterClassName("", "Foo"), "JsonAdapter_Foo");
+   }
+
+   public void testGeneratedAdapterIsPreferred() {
+      assertEquals(generated.getAdapter(Server.class).getClass().getName(),
+            GeneratedJsonAdapterFactory.adapterClassName(getClass().getPackage().getName(), Server.class.getName()));
+   }
+
+   public void testGsonModuleUsesGeneratedAdapter() {
+      Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+      assertEquals(json.fromJson(SERVER_JSON, Server.class), SERVER);
+   }
+
+   public void testNoAdapterForTypesWithoutSerializedNames() {
+      assertNull(new GeneratedJsonAdapterFactory().create(generated, TypeToken.get(String.class)));
+   }
+
+   public void testReadMatchesReflection() {
+      assertEquals(generated.fromJson(SERVER_JSON, Server.class), SERVER);
+      assertEquals(generated.fromJson(SERVER_JSON, Server.class), reflective.fromJson(SERVER_JSON, Server.class));
+   }
+
+   public void testMissingAndNullValuesMatchReflection() {
+      String json = "{\"id\":\"1234\",\"tags\":null,\"description\":null}";
+      Server expected = Server.create("1234", 0, false, 0, 0, null, null, Optional.<String> absent());
+      assertEquals(generated.fromJson(json, Server.class), expected);
+      assertEquals(reflective.fromJson(json, Server.class), expected);
+   }
+
+   public void testBooleanAsString() {
+      assertTrue(generated.fromJson("{\"id\":\"1234\",\"enabled\":\"true\"}", Server.class).enabled());
+   }
+
+   public void testEmptyObjectIsNullWhenFactoryThrowsNullPointerException() {
+      assertNull(generated.fromJson("{}", Server.class));
+      assertNull(generated.fromJson("null", Server.class));
+   }
+
+   @Test(expectedExceptions = NullPointerException.class)
+   public void testNullPointerExceptionPropagatesWhenObjectIsNotEmpty() {
+      generated.fromJson("{\"port\":8080}", Server.class);
+   }
+
+   @Test(expectedExceptions = JsonSyntaxException.class)
+   public void testMalformedNumber() {
+      generated.fromJson("{\"id\":\"1234\",\"port\":\"eighty\"}", Server.class);
+   }
+
+   public void testWriteDelegatesToReflection() {
+      assertEquals(generated.toJson(SERVER), reflective.toJson(SERVER));
+   }
+}
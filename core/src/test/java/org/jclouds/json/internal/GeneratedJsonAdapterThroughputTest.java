@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.internal;
+
+import static org.jclouds.json.internal.DeserializationConstructorAndReflectiveTypeAdapterFactoryTest.parameterizedCtorFactory;
+import static org.jclouds.json.internal.GeneratedJsonAdapterFactoryTest.SERVER;
+import static org.jclouds.json.internal.GeneratedJsonAdapterFactoryTest.SERVER_JSON;
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.json.internal.GeneratedJsonAdapterFactoryTest.Server;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Compares the decode throughput of generated and reflective adapters for a {@code @SerializedNames} type.
+ */
+@Test(groups = "performance", singleThreaded = true, testName = "GeneratedJsonAdapterThroughputTest")
+public class GeneratedJsonAdapterThroughputTest {
+   private static final int WARMUP_COUNT = 20000;
+   private static final int LOOP_COUNT = 200000;
+
+   public void testDecodeThroughput() {
+      Gson reflective = new GsonBuilder().registerTypeAdapterFactory(new OptionalTypeAdapterFactory())
+            .registerTypeAdapterFactory(parameterizedCtorFactory()).create();
+      Gson generated = new GsonBuilder().registerTypeAdapterFactory(new OptionalTypeAdapterFactory())
+            .registerTypeAdapterFactory(parameterizedCtorFactory())
+            .registerTypeAdapterFactory(new GeneratedJsonAdapterFactory()).create();
+
+      decode(reflective, WARMUP_COUNT);
+      decode(generated, WARMUP_COUNT);
+
+      long reflectiveNanos = decode(reflective, LOOP_COUNT);
+      long generatedNanos = decode(generated, LOOP_COUNT);
+      System.out.printf("decode of %d values: reflective %d ops/s, generated %d ops/s%n", LOOP_COUNT,
+            opsPerSecond(reflectiveNanos), opsPerSecond(generatedNanos));
+   }
+
+   private static long decode(Gson gson, int count) {
+      Stopwatch watch = Stopwatch.createStarted();
+      for (int i = 0; i < count; i++)
+         assertEquals(gson.fromJson(SERVER_JSON, Server.class), SERVER);
+      return watch.elapsed(TimeUnit.NANOSECONDS);
+   }
+
+   private static long opsPerSecond(long nanos) {
+      return LOOP_COUNT * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+   }
+}
@@ -18,19 +18,26 @@ package org.jclouds.rest.internal;
 
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
 
+import org.jclouds.http.HttpAsyncCommandExecutorService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.internal.HttpCommandScheduler;
+import org.jclouds.lifecycle.Closer;
 import org.jclouds.reflect.Invocation;
 import org.jclouds.rest.config.InvocationConfig;
 import org.jclouds.rest.internal.InvokeHttpMethod.InvokeAndTransform;
@@ -42,9 +49,15 @@ import org.testng.annotations.Test;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.TimeLimiter;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
 
 @Test(groups = "unit", singleThreaded = true)
 public class InvokeHttpMethodTest {
@@ -52,9 +65,13 @@ public class InvokeHttpMethodTest {
    public interface ThingApi {
       @Named("ns:get")
       HttpResponse get();
+
+      @Named("ns:getAsync")
+      ListenableFuture<HttpResponse> getAsync();
    }
 
    private Invocation get;
+   private Invocation getAsync;
    private HttpRequest getRequest = HttpRequest.builder().method("GET").endpoint("http://get").build();
    private HttpCommand getCommand = new HttpCommand(getRequest);
    private Function<Invocation, HttpRequest> toRequest;
@@ -62,7 +79,8 @@ public class InvokeHttpMethodTest {
    @BeforeClass
    void setupInvocations() throws SecurityException, NoSuchMethodException {
       get = Invocation.create(method(ThingApi.class, "get"), ImmutableList.of());
-      toRequest = Functions.forMap(ImmutableMap.of(get, getRequest));
+      getAsync = Invocation.create(method(ThingApi.class, "getAsync"), ImmutableList.of());
+      toRequest = Functions.forMap(ImmutableMap.of(get, getRequest, getAsync, getRequest));
    }
 
    @SuppressWarnings("unchecked")
@@ -71,6 +89,7 @@ public class InvokeHttpMethodTest {
 
    private HttpResponse response = HttpResponse.builder().statusCode(200).payload("foo").build();
    private HttpCommandExecutorService http;
+   private HttpAsyncCommandExecutorService asyncHttp;
    private TimeLimiter timeLimiter;
    @SuppressWarnings("rawtypes")
    private org.jclouds.Fallback fallback;
@@ -82,31 +101,36 @@ public class InvokeHttpMethodTest {
    @BeforeMethod
    void createMocks() {
       http = createMock(HttpCommandExecutorService.class);
+      asyncHttp = createMock(HttpAsyncCommandExecutorService.class);
       timeLimiter = createMock(TimeLimiter.class);
       fallback = createMock(org.jclouds.Fallback.class);
       config = createMock(InvocationConfig.class);
-      invokeHttpMethod = new InvokeHttpMethod(toRequest, http, transformerForRequest, timeLimiter, config);
+      ListeningExecutorService userExecutor = newDirectExecutorService();
+      invokeHttpMethod = new InvokeHttpMethod(toRequest, http, asyncHttp, transformerForRequest, timeLimiter, config,
+            userExecutor, new HttpCommandScheduler(userExecutor, new Closer()),
+            new RequestCoalescer("DELETE,GET,HEAD,OPTIONS,PUT"),
+            new ResponseCache(0, ImmutableMap.<String, Long> of(), Ticker.systemTicker()));
       expect(config.getCommandName(get)).andReturn("ns:get");
       expect(config.getFallback(get)).andReturn(fallback);
    }
 
    @AfterMethod
    void verifyMocks() {
-      verify(http, timeLimiter, fallback, config);
+      verify(http, asyncHttp, timeLimiter, fallback, config);
    }
 
    public void testMethodWithTimeoutRunsTimeLimiter() throws Exception {
       expect(config.getTimeoutNanos(get)).andReturn(Optional.of(250000000L));
       InvokeAndTransform invoke = invokeHttpMethod.new InvokeAndTransform("ns:get", getCommand);
       expect(timeLimiter.callWithTimeout(invoke, 250000000, TimeUnit.NANOSECONDS, true)).andReturn(response);
-      replay(http, timeLimiter, fallback, config);
+      replay(http, asyncHttp, timeLimiter, fallback, config);
       invokeHttpMethod.apply(get);
    }
 
    public void testMethodWithNoTimeoutCallGetDirectly() throws Exception {
       expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
       expect(http.invoke(new HttpCommand(getRequest))).andReturn(response);
-      replay(http, timeLimiter, fallback, config);
+      replay(http, asyncHttp, timeLimiter, fallback, config);
       invokeHttpMethod.apply(get);
    }
 
@@ -117,7 +141,7 @@ public class InvokeHttpMethodTest {
       expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
       expect(http.invoke(new HttpCommand(getRequest))).andThrow(exception);
       expect(fallback.createOrPropagate(exception)).andReturn(fallbackResponse);
-      replay(http, timeLimiter, fallback, config);
+      replay(http, asyncHttp, timeLimiter, fallback, config);
       assertEquals(invokeHttpMethod.apply(get), fallbackResponse);
    }
 
@@ -127,7 +151,41 @@ public class InvokeHttpMethodTest {
       InvokeAndTransform invoke = invokeHttpMethod.new InvokeAndTransform("ns:get", getCommand);
       expect(timeLimiter.callWithTimeout(invoke, 250000000, TimeUnit.NANOSECONDS, true)).andThrow(exception);
       expect(fallback.createOrPropagate(exception)).andReturn(fallbackResponse);
-      replay(http, timeLimiter, fallback, config);
+      replay(http, asyncHttp, timeLimiter, fallback, config);
       assertEquals(invokeHttpMethod.apply(get), fallbackResponse);
    }
+
+   public void testFutureReturningMethodSubmitsCommand() throws Exception {
+      expectAsyncInvocation(Optional.<Long> absent());
+      expect(asyncHttp.submit(new HttpCommand(getRequest))).andReturn(Futures.immediateFuture(response));
+      replay(http, asyncHttp, timeLimiter, fallback, config);
+      assertEquals(ListenableFuture.class.cast(invokeHttpMethod.apply(getAsync)).get(), response);
+   }
+
+   public void testFutureReturningMethodRunsFallbackCreateOrPropagate() throws Exception {
+      IllegalStateException exception = new IllegalStateException();
+      expectAsyncInvocation(Optional.<Long> absent());
+      expect(asyncHttp.submit(new HttpCommand(getRequest))).andReturn(
+            Futures.<HttpResponse> immediateFailedFuture(exception));
+      expect(fallback.createOrPropagate(exception)).andReturn(fallbackResponse);
+      replay(http, asyncHttp, timeLimiter, fallback, config);
+      assertEquals(ListenableFuture.class.cast(invokeHttpMethod.apply(getAsync)).get(), fallbackResponse);
+   }
+
+   public void testFutureReturningMethodTimesOutWithoutTimeLimiter() throws Exception {
+      expectAsyncInvocation(Optional.of(TimeUnit.MILLISECONDS.toNanos(50)));
+      SettableFuture<HttpResponse> neverCompletes = SettableFuture.create();
+      expect(asyncHttp.submit(new HttpCommand(getRequest))).andReturn(neverCompletes);
+      expect(fallback.createOrPropagate(isA(UncheckedTimeoutException.class))).andReturn(fallbackResponse);
+      replay(http, asyncHttp, timeLimiter, fallback, config);
+      assertEquals(ListenableFuture.class.cast(invokeHttpMethod.apply(getAsync)).get(), fallbackResponse);
+      assertTrue(neverCompletes.isCancelled());
+   }
+
+   private void expectAsyncInvocation(Optional<Long> timeoutNanos) {
+      reset(config);
+      expect(config.getCommandName(getAsync)).andReturn("ns:getAsync");
+      expect(config.getFallback(getAsync)).andReturn(fallback);
+      expect(config.getTimeoutNanos(getAsync)).andReturn(timeoutNanos);
+   }
 }
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static org.jclouds.reflect.Reflection2.method;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.io.Payload;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.annotations.CoalesceRequests;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+@Test(groups = "unit", testName = "RequestCoalescerTest")
+public class RequestCoalescerTest {
+
+   public interface CoalescedApi {
+      @CoalesceRequests
+      String get();
+
+      String notCoalesced();
+
+      @CoalesceRequests
+      InputStream openStream();
+
+      @CoalesceRequests
+      Payload getPayload();
+   }
+
+   private static final String IDEMPOTENT_METHODS = "DELETE,GET,HEAD,OPTIONS,PUT";
+
+   private static GeneratedHttpRequest request(String javaMethod, String httpMethod, String endpoint) {
+      return GeneratedHttpRequest.builder().method(httpMethod).endpoint(endpoint)
+            .invocation(Invocation.create(method(CoalescedApi.class, javaMethod), ImmutableList.of())).build();
+   }
+
+   public void testOnlyAnnotatedSafeMethodsWithoutPayloadAreCoalesced() {
+      RequestCoalescer coalescer = new RequestCoalescer(IDEMPOTENT_METHODS);
+      assertTrue(coalescer.shouldCoalesce(request("get", "GET", "http://localhost/a")));
+      assertTrue(coalescer.shouldCoalesce(request("get", "HEAD", "http://localhost/a")));
+      assertFalse(coalescer.shouldCoalesce(request("get", "PUT", "http://localhost/a")));
+      assertFalse(coalescer.shouldCoalesce(request("notCoalesced", "GET", "http://localhost/a")));
+      assertFalse(coalescer.shouldCoalesce(request("get", "GET", "http://localhost/a").toBuilder().payload("foo")
+            .build()));
+      assertFalse(new RequestCoalescer("DELETE,PUT").shouldCoalesce(request("get", "GET", "http://localhost/a")));
+   }
+
+   public void testPropertyCoalescesAllMethods() {
+      RequestCoalescer coalescer = new RequestCoalescer(IDEMPOTENT_METHODS, true);
+      assertTrue(coalescer.shouldCoalesce(request("notCoalesced", "GET", "http://localhost/a")));
+   }
+
+   public void testConcurrentIdenticalRequestsShareOneCall() throws Exception {
+      final RequestCoalescer coalescer = new RequestCoalescer(IDEMPOTENT_METHODS);
+      final GeneratedHttpRequest request = request("get", "GET", "http://localhost/a");
+      final CountDownLatch leaderStarted = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      final AtomicInteger calls = new AtomicInteger();
+      final Object result = new Object();
+      final Callable<Object> call = new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            calls.incrementAndGet();
+            leaderStarted.countDown();
+            release.await();
+            return result;
+         }
+      };
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Future<Object> leader = executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+               return coalescer.call(request, call);
+            }
+         });
+         leaderStarted.await();
+         Future<Object> follower = executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+               return coalescer.call(request("get", "GET", "http://localhost/a"), call);
+            }
+         });
+         while (coalescer.getCallsSaved() == 0) {
+            Thread.sleep(1);
+         }
+         release.countDown();
+
+         assertSame(leader.get(5, TimeUnit.SECONDS), result);
+         assertSame(follower.get(5, TimeUnit.SECONDS), result);
+         assertEquals(calls.get(), 1);
+         assertEquals(coalescer.getCallsSent(), 1);
+         assertEquals(coalescer.getCallsSaved(), 1);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testFailureIsSharedAndNextRequestIsSentAgain() throws Exception {
+      final RequestCoalescer coalescer = new RequestCoalescer(IDEMPOTENT_METHODS);
+      final GeneratedHttpRequest request = request("get", "GET", "http://localhost/a");
+      try {
+         coalescer.call(request, new Callable<Object>() {
+            @Override
+            public Object call() {
+               throw new IllegalStateException("boom");
+            }
+         });
+         fail("expected the failure to propagate");
+      } catch (IllegalStateException expected) {
+      }
+      assertEquals(coalescer.call(request, new Callable<Object>() {
+         @Override
+         public Object call() {
+            return "ok";
+         }
+      }), "ok");
+      assertEquals(coalescer.getCallsSent(), 2);
+      assertEquals(coalescer.getCallsSaved(), 0);
+   }
+
+   public void testDifferentEndpointsAreNotCoalesced() throws Exception {
+      RequestCoalescer coalescer = new RequestCoalescer(IDEMPOTENT_METHODS);
+      Callable<Object> call = new Callable<Object>() {
+         @Override
+         public Object call() {
+            return "ok";
+         }
+      };
+      coalescer.call(request("get", "GET", "http://localhost/a"), call);
+      coalescer.call(request("get", "GET", "http://localhost/b"), call);
+      assertEquals(coalescer.getCallsSent(), 2);
+   }
+
+   public void testMethodsReturningLiveResourcesAreNotCoalesced() {
+      RequestCoalescer coalescer = new RequestCoalescer(IDEMPOTENT_METHODS, true);
+      assertFalse(coalescer.shouldCoalesce(request("openStream", "GET", "http://localhost/a")));
+      assertFalse(coalescer.shouldCoalesce(request("getPayload", "GET", "http://localhost/a")));
+   }
+
+   public void testConcurrentStreamRequestsEachGetTheirOwnStream() throws Exception {
+      final RequestCoalescer coalescer = new RequestCoalescer(IDEMPOTENT_METHODS, true);
+      final CountDownLatch bothStarted = new CountDownLatch(2);
+      final AtomicInteger calls = new AtomicInteger();
+      final Callable<Object> call = new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            calls.incrementAndGet();
+            bothStarted.countDown();
+            // neither call can complete unless both are in flight at once
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return new ByteArrayInputStream(new byte[] { 1 });
+         }
+      };
+      Callable<Object> caller = new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            return coalescer.call(request("openStream", "GET", "http://localhost/a"), call);
+         }
+      };
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Future<Object> first = executor.submit(caller);
+         Future<Object> second = executor.submit(caller);
+         InputStream firstStream = (InputStream) first.get(5, TimeUnit.SECONDS);
+         InputStream secondStream = (InputStream) second.get(5, TimeUnit.SECONDS);
+         assertNotSame(firstStream, secondStream);
+         assertEquals(calls.get(), 2);
+         assertEquals(coalescer.getCallsSaved(), 0);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+}
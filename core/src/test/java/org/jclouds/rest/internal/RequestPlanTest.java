@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static org.jclouds.reflect.Reflection2.method;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import org.jclouds.http.HttpException;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.functions.ReleasePayloadAndReturn;
+import org.jclouds.http.options.HttpRequestOptions;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.annotations.OverrideRequestFilters;
+import org.jclouds.rest.annotations.QueryParams;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.SkipEncoding;
+import org.jclouds.rest.annotations.VirtualHost;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Key;
+
+@Test(groups = "unit", testName = "RequestPlanTest")
+public class RequestPlanTest {
+
+   static class Filter1 implements HttpRequestFilter {
+      public HttpRequest filter(HttpRequest request) throws HttpException {
+         return request;
+      }
+   }
+
+   static class Filter2 implements HttpRequestFilter {
+      public HttpRequest filter(HttpRequest request) throws HttpException {
+         return request;
+      }
+   }
+
+   @Path("/owner")
+   @SkipEncoding('/')
+   @Produces("application/xml")
+   @Consumes("application/xml")
+   @QueryParams(keys = "version", values = "1")
+   @RequestFilters(Filter1.class)
+   interface Annotated {
+      @GET
+      @Path("/{id}")
+      void get(@PathParam("id") String id, @HeaderParam("x-tag") @Nullable String tag,
+            HttpRequestOptions... options);
+
+      @PUT
+      @VirtualHost
+      @SkipEncoding({ '/', ':' })
+      @Produces("text/plain")
+      @Consumes("application/json")
+      @QueryParams(keys = "acl")
+      @OverrideRequestFilters
+      @RequestFilters(Filter2.class)
+      void put(@QueryParam("marker") String marker);
+
+      @GET
+      @RequestFilters(Filter2.class)
+      void list();
+
+      @GET
+      @Consumes("text/plain")
+      Object unparseable();
+   }
+
+   public void testCombinesTypeAndMethodAnnotations() {
+      RequestPlan plan = RequestPlan.of(method(Annotated.class, "get", String.class, String.class,
+            HttpRequestOptions[].class));
+
+      assertEquals(plan.httpMethod.get(), "GET");
+      assertEquals(plan.paths, ImmutableList.of("/owner", "/{id}"));
+      assertEquals(plan.skipEncoding, ImmutableList.of('/'));
+      assertEquals(plan.contentType, ImmutableList.of("application/xml"));
+      assertEquals(plan.accept, ImmutableSet.of("application/xml"));
+      assertEquals(plan.queryParams.size(), 1);
+      assertEquals(plan.filters, ImmutableList.of(Filter1.class));
+      assertFalse(plan.virtualHost);
+      assertEquals(plan.pathParams.size(), 1);
+      assertEquals(plan.headerParams.size(), 1);
+      assertTrue(plan.isNullable(1));
+      assertFalse(plan.isNullable(0));
+      assertEquals(plan.indexesOfOptions, ImmutableSet.of(2));
+      assertNull(plan.endpoint);
+      assertNull(plan.mapBinder);
+   }
+
+   public void testMethodAnnotationsOverrideType() {
+      RequestPlan plan = RequestPlan.of(method(Annotated.class, "put", String.class));
+
+      assertEquals(plan.httpMethod.get(), "PUT");
+      assertEquals(plan.skipEncoding, ImmutableList.of('/', ':'));
+      assertEquals(plan.contentType, ImmutableList.of("text/plain"));
+      assertEquals(plan.accept, ImmutableSet.of("application/json"));
+      assertEquals(plan.queryParams.size(), 2);
+      assertEquals(plan.filters, ImmutableList.of(Filter2.class));
+      assertTrue(plan.virtualHost);
+      assertEquals(plan.queryParamParams.size(), 1);
+   }
+
+   public void testMethodFiltersAppendToTypeFilters() {
+      RequestPlan plan = RequestPlan.of(method(Annotated.class, "list"));
+
+      assertEquals(plan.filters, ImmutableList.of(Filter1.class, Filter2.class));
+   }
+
+   public void testChoosesParserWhenBuilt() {
+      assertEquals(RequestPlan.of(method(Annotated.class, "list")).parser, Key.get(ReleasePayloadAndReturn.class));
+   }
+
+   public void testHoldsNoParserWhenNoneCanBeChosen() {
+      assertNull(RequestPlan.of(method(Annotated.class, "unparseable")).parser);
+   }
+
+   public void testPlanIsSharedBetweenEqualInvokables() {
+      assertSame(RequestPlan.of(method(Annotated.class, "list")), RequestPlan.of(method(Annotated.class, "list")));
+   }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static org.jclouds.Constants.PROPERTY_RELAX_HOSTNAME;
+import static org.jclouds.Constants.PROPERTY_RESPONSE_CACHE_SIZE;
+import static org.jclouds.Constants.PROPERTY_TRUST_ALL_CERTS;
+import static org.jclouds.util.Closeables2.closeQuietly;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.http.BaseMockWebServerTest;
+import org.jclouds.http.HttpCommandListener;
+import org.jclouds.http.IntegrationTestClient;
+import org.jclouds.http.config.JavaUrlHttpCommandExecutorServiceModule;
+import org.jclouds.http.internal.InMemoryHttpCommandListener;
+import org.jclouds.http.internal.InMemoryHttpCommandListener.CommandStats;
+import org.jclouds.providers.AnonymousProviderMetadata;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Revalidates cached results through the real executor, retry and error handlers.
+ */
+@Test(groups = "unit", testName = "ResponseCacheMockTest")
+public class ResponseCacheMockTest extends BaseMockWebServerTest {
+
+   @Override
+   protected void addOverrideProperties(Properties props) {
+      props.setProperty(PROPERTY_RESPONSE_CACHE_SIZE, "10");
+   }
+
+   @Override
+   protected Module createConnectionModule() {
+      return new JavaUrlHttpCommandExecutorServiceModule();
+   }
+
+   private Injector injector(String url, final InMemoryHttpCommandListener listener) {
+      Properties properties = new Properties();
+      properties.setProperty(PROPERTY_TRUST_ALL_CERTS, "true");
+      properties.setProperty(PROPERTY_RELAX_HOSTNAME, "true");
+      addOverrideProperties(properties);
+      return ContextBuilder.newBuilder(AnonymousProviderMetadata.forApiOnEndpoint(IntegrationTestClient.class, url))
+            .modules(ImmutableSet.of(createConnectionModule(), new AbstractModule() {
+               @Override
+               protected void configure() {
+                  bind(HttpCommandListener.class).toInstance(listener);
+               }
+            })).overrides(properties).buildInjector();
+   }
+
+   public void testNotModifiedReturnsCachedResultWithoutError() throws Exception {
+      MockWebServer server = mockWebServer(
+            new MockResponse().setBody("hello").addHeader("ETag", "\"v1\"").addHeader("Cache-Control", "no-cache"),
+            new MockResponse().setResponseCode(304));
+      InMemoryHttpCommandListener listener = new InMemoryHttpCommandListener();
+      Injector injector = injector(server.getUrl("/").toString(), listener);
+      IntegrationTestClient client = injector.getInstance(IntegrationTestClient.class);
+      try {
+         assertEquals(client.download("1"), "hello");
+         assertEquals(client.download("1"), "hello");
+
+         assertNull(server.takeRequest().getHeader("If-None-Match"));
+         assertEquals(server.takeRequest().getHeader("If-None-Match"), "\"v1\"");
+         ResponseCache cache = injector.getInstance(ResponseCache.class);
+         assertEquals(cache.getMisses(), 1);
+         assertEquals(cache.getRevalidations(), 1);
+         CommandStats stats = listener.getStats("IntegrationTestClient.download");
+         assertEquals(stats.getCompleted().getCount(), 2);
+         assertEquals(stats.getRetries(), 0);
+         assertEquals(stats.getErrors(), 0);
+      } finally {
+         closeQuietly(client);
+         server.shutdown();
+      }
+   }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static org.jclouds.reflect.Reflection2.method;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.reflect.Invocation;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "ResponseCacheTest")
+public class ResponseCacheTest {
+
+   public interface CachedApi {
+      String get();
+   }
+
+   private static final class FakeTicker extends Ticker {
+      private long nanos;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+
+      void advance(long duration, TimeUnit unit) {
+         nanos += unit.toNanos(duration);
+      }
+   }
+
+   private static final class FakeHttp implements HttpCommandExecutorService {
+      private final Deque<HttpResponse> responses = Lists.newLinkedList();
+      private final List<HttpRequest> requests = Lists.newArrayList();
+
+      @Override
+      public HttpResponse invoke(HttpCommand command) {
+         requests.add(command.getCurrentRequest());
+         HttpResponse response = responses.removeFirst();
+         if (response.getStatusCode() == 304 && !command.acceptsNotModified())
+            throw new HttpResponseException(command, response);
+         return response;
+      }
+   }
+
+   private static final Function<HttpResponse, Object> PARSE = new Function<HttpResponse, Object>() {
+      @Override
+      public Object apply(HttpResponse input) {
+         return new StringBuilder(input.getMessage());
+      }
+   };
+
+   private FakeTicker ticker;
+   private FakeHttp http;
+
+   @BeforeMethod
+   void setUp() {
+      ticker = new FakeTicker();
+      http = new FakeHttp();
+   }
+
+   private static HttpCommand command(String httpMethod, String endpoint) {
+      return new HttpCommand(GeneratedHttpRequest.builder().method(httpMethod).endpoint(endpoint)
+            .invocation(Invocation.create(method(CachedApi.class, "get"), ImmutableList.of())).build());
+   }
+
+   private static HttpResponse response(int status, String message, String... headers) {
+      HttpResponse.Builder<?> builder = HttpResponse.builder().statusCode(status).message(message);
+      for (int i = 0; i < headers.length; i += 2)
+         builder.addHeader(headers[i], headers[i + 1]);
+      return builder.build();
+   }
+
+   private ResponseCache cache(Map<String, Long> ttls) {
+      return new ResponseCache(10, ttls, ticker);
+   }
+
+   public void testFreshResultIsReturnedWithoutRequest() {
+      ResponseCache cache = cache(ImmutableMap.<String, Long> of());
+      http.responses.add(response(200, "one", "Cache-Control", "max-age=60"));
+
+      Object first = cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+      ticker.advance(59, TimeUnit.SECONDS);
+      Object second = cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+
+      assertSame(second, first);
+      assertEquals(http.requests.size(), 1);
+      assertEquals(cache.getHits(), 1);
+      assertEquals(cache.getMisses(), 1);
+   }
+
+   public void testStaleResultIsRevalidatedWithETag() {
+      ResponseCache cache = cache(ImmutableMap.<String, Long> of());
+      http.responses.add(response(200, "one", "ETag", "\"v1\""));
+      http.responses.add(response(304, "not modified"));
+
+      Object first = cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+      Object second = cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+
+      assertSame(second, first);
+      assertNull(http.requests.get(0).getFirstHeaderOrNull("If-None-Match"));
+      assertEquals(http.requests.get(1).getFirstHeaderOrNull("If-None-Match"), "\"v1\"");
+      assertEquals(cache.getRevalidations(), 1);
+   }
+
+   public void testConditionalRequestOfCallerBypassesCache() {
+      ResponseCache cache = cache(ImmutableMap.<String, Long> of());
+      http.responses.add(response(200, "one", "ETag", "\"v1\""));
+      http.responses.add(response(304, "not modified"));
+
+      cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+      HttpCommand conditional = new HttpCommand(command("GET", "http://localhost/a").getCurrentRequest().toBuilder()
+            .addHeader("If-None-Match", "\"v0\"").build());
+      try {
+         cache.invoke("api:get", conditional, PARSE, http);
+         fail("the caller asked for the 304");
+      } catch (HttpResponseException expected) {
+         assertEquals(expected.getResponse().getStatusCode(), 304);
+      }
+
+      assertEquals(http.requests.get(1).getHeaders().get("If-None-Match"), ImmutableList.of("\"v0\""));
+      assertEquals(cache.getRevalidations(), 0);
+   }
+
+   public void testModifiedResultIsReplaced() {
+      ResponseCache cache = cache(ImmutableMap.<String, Long> of());
+      http.responses.add(response(200, "one", "Last-Modified", "Mon, 01 Jun 2015 00:00:00 GMT"));
+      http.responses.add(response(200, "two", "Last-Modified", "Tue, 02 Jun 2015 00:00:00 GMT"));
+
+      cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+      Object second = cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+
+      assertEquals(second.toString(), "two");
+      assertEquals(http.requests.get(1).getFirstHeaderOrNull("If-Modified-Since"), "Mon, 01 Jun 2015 00:00:00 GMT");
+      assertEquals(cache.getMisses(), 2);
+   }
+
+   public void testConfiguredTtlOverridesCacheControl() {
+      ResponseCache cache = cache(ImmutableMap.of("api:get", 1000L, "default", 0L));
+      http.responses.add(response(200, "one", "Cache-Control", "max-age=60"));
+      http.responses.add(response(200, "two"));
+
+      cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+      ticker.advance(2, TimeUnit.SECONDS);
+      Object second = cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+
+      assertEquals(second.toString(), "two");
+      assertEquals(http.requests.size(), 2);
+   }
+
+   public void testNoStoreIsNotCached() {
+      ResponseCache cache = cache(ImmutableMap.<String, Long> of());
+      http.responses.add(response(200, "one", "Cache-Control", "no-store, max-age=60", "ETag", "\"v1\""));
+      http.responses.add(response(200, "two"));
+
+      cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+      cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+
+      assertEquals(http.requests.size(), 2);
+      assertNull(http.requests.get(1).getFirstHeaderOrNull("If-None-Match"));
+   }
+
+   public void testWriteToEndpointEvictsCachedResult() {
+      ResponseCache cache = cache(ImmutableMap.of("default", 60000L));
+      http.responses.add(response(200, "one"));
+      http.responses.add(response(204, "deleted"));
+      http.responses.add(response(200, "two"));
+
+      cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+      cache.invoke("api:delete", command("DELETE", "http://localhost/a"), PARSE, http);
+      Object third = cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+
+      assertEquals(third.toString(), "two");
+      assertEquals(http.requests.size(), 3);
+   }
+
+   public void testDisabledCacheAlwaysInvokes() {
+      ResponseCache cache = new ResponseCache(0, ImmutableMap.of("default", 60000L), ticker);
+      http.responses.add(response(200, "one"));
+      http.responses.add(response(200, "two"));
+
+      cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+      cache.invoke("api:get", command("GET", "http://localhost/a"), PARSE, http);
+
+      assertEquals(http.requests.size(), 2);
+      assertEquals(cache.getMisses(), 0);
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.xml.internal;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.jclouds.rest.binders.BindToXMLPayloadTest.TestJAXBDomain;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "JAXBParserTest")
+public class JAXBParserTest {
+   private final JAXBParser xml = new JAXBParser("false");
+
+   public void testFromStream() throws IOException {
+      TestJAXBDomain obj = xml.fromXML(new ByteArrayInputStream("<test><elem>foo</elem></test>".getBytes(UTF_8)),
+            TestJAXBDomain.class);
+      assertThat(obj.getElem()).isEqualTo("foo");
+   }
+
+   public void testFromStreamWithBOM() throws IOException {
+      TestJAXBDomain obj = xml.fromXML(
+            new ByteArrayInputStream("\uFEFF<test><elem>foo</elem></test>".getBytes(UTF_8)), TestJAXBDomain.class);
+      assertThat(obj.getElem()).isEqualTo("foo");
+   }
+
+   public void testRoundTripReusesContext() throws IOException {
+      for (int i = 0; i < JAXBParser.MAX_IDLE_PER_TYPE * 2; i++) {
+         TestJAXBDomain obj = new TestJAXBDomain();
+         obj.setElem("value" + i);
+         assertThat(xml.fromXML(xml.toXML(obj), TestJAXBDomain.class).getElem()).isEqualTo("value" + i);
+      }
+   }
+
+   public void testDifferentTypesDoNotShareUnmarshallers() throws IOException {
+      assertThat(xml.fromXML("<test><elem>foo</elem></test>", TestJAXBDomain.class).getElem()).isEqualTo("foo");
+      assertThat(xml.fromXML("<other><elem>bar</elem></other>", OtherJAXBDomain.class).elem).isEqualTo("bar");
+   }
+
+   @Test(expectedExceptions = IOException.class)
+   public void testMalformedStream() throws IOException {
+      xml.fromXML(new ByteArrayInputStream("<test><elem>".getBytes(UTF_8)), TestJAXBDomain.class);
+   }
+
+   public void testParseInParallel() throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try {
+         List<Future<String>> results = Lists.newArrayList();
+         for (int i = 0; i < 200; i++) {
+            final String value = "value" + i;
+            results.add(executor.submit(new Callable<String>() {
+               public String call() throws IOException {
+                  return xml.fromXML("<test><elem>" + value + "</elem></test>", TestJAXBDomain.class).getElem();
+               }
+            }));
+         }
+         for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).get()).isEqualTo("value" + i);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @XmlRootElement(name = "other")
+   public static class OtherJAXBDomain {
+      public String elem;
+   }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.apachehc;
+
+/**
+ * Configuration properties of the pooling Apache HttpClient driver.
+ *
+ * @see org.jclouds.http.apachehc.config.ApacheHCPoolingHttpCommandExecutorServiceModule
+ */
+public final class ApacheHCConstants {
+
+   /**
+    * Integer property.
+    * <p/>
+    * Milliseconds a pooled connection may be idle before it is validated on lease, so that connections closed by the
+    * server are not used. Defaults to 2 seconds; a negative value disables validation.
+    */
+   public static final String PROPERTY_APACHEHC_VALIDATE_AFTER_INACTIVITY = "jclouds.apachehc.validate-after-inactivity";
+
+   /**
+    * Long property.
+    * <p/>
+    * Maximum lifetime, in milliseconds, of a pooled connection, so that load balancer changes are picked up.
+    * Defaults to -1, no limit.
+    */
+   public static final String PROPERTY_APACHEHC_CONNECTION_TTL = "jclouds.apachehc.connection-ttl";
+
+   /**
+    * Long property.
+    * <p/>
+    * Milliseconds an idle connection is kept in the pool before it is evicted. Defaults to 1 minute.
+    */
+   public static final String PROPERTY_APACHEHC_MAX_IDLE = "jclouds.apachehc.max-idle";
+
+   private ApacheHCConstants() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
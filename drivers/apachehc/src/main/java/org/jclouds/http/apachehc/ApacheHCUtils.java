@@ -143,6 +143,10 @@ public class ApacheHCUtils {
          ByteArrayEntity Entity = new ByteArrayEntity((byte[]) payload.getRawContent());
          Entity.setContentType(payload.getContentMetadata().getContentType());
          apacheRequest.setEntity(Entity);
+      } else if (payload.isRepeatable()) {
+         if (payload.getContentMetadata().getContentLength() == null)
+            throw new IllegalArgumentException("you must specify size when content is an InputStream");
+         apacheRequest.setEntity(new PayloadEntity(payload));
       } else {
          InputStream inputStream = payload.getInput();
          if (payload.getContentMetadata().getContentLength() == null)
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.apachehc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.jclouds.io.FileRegion;
+import org.jclouds.io.Payload;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
+/**
+ * An entity reading a repeatable {@link Payload}, so that the client can send it again on retry or redirect
+ * without buffering it. File backed payloads and their slices are written with positional reads.
+ */
+class PayloadEntity extends AbstractHttpEntity {
+   private static final int BUFFER_SIZE = 64 * 1024;
+
+   private final Payload payload;
+
+   PayloadEntity(Payload payload) {
+      this.payload = checkNotNull(payload, "payload");
+      setContentType(payload.getContentMetadata().getContentType());
+   }
+
+   @Override
+   public boolean isRepeatable() {
+      return payload.isRepeatable();
+   }
+
+   @Override
+   public long getContentLength() {
+      Long length = payload.getContentMetadata().getContentLength();
+      return length != null ? length : -1;
+   }
+
+   @Override
+   public InputStream getContent() throws IOException {
+      return payload.openStream();
+   }
+
+   @Override
+   public void writeTo(OutputStream out) throws IOException {
+      checkNotNull(out, "out");
+      FileRegion region = FileRegion.fromPayload(payload);
+      if (region != null) {
+         region.copyTo(out, BUFFER_SIZE);
+         return;
+      }
+      InputStream in = payload.openStream();
+      try {
+         ByteStreams.copy(in, out);
+      } finally {
+         Closeables.closeQuietly(in);
+      }
+   }
+
+   @Override
+   public boolean isStreaming() {
+      return !payload.isRepeatable();
+   }
+}
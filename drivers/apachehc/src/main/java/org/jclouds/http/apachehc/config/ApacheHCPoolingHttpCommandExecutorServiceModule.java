@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.apachehc.config;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.http.apachehc.ApacheHCConstants.PROPERTY_APACHEHC_CONNECTION_TTL;
+import static org.jclouds.http.apachehc.ApacheHCConstants.PROPERTY_APACHEHC_MAX_IDLE;
+import static org.jclouds.http.apachehc.ApacheHCConstants.PROPERTY_APACHEHC_VALIDATE_AFTER_INACTIVITY;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.jclouds.config.ValueOfConfigurationKeyOrNull;
+import org.jclouds.domain.Credentials;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.apachehc.ApacheHCHttpCommandExecutorService;
+import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
+import org.jclouds.http.config.SSLModule;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.proxy.ProxyConfig;
+
+import com.google.common.base.Supplier;
+import com.google.common.net.HostAndPort;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Scopes;
+
+/**
+ * Configures {@link ApacheHCHttpCommandExecutorService} with an Apache HttpClient 4.5 connection pool, replacing the
+ * deprecated {@code ThreadSafeClientConnManager} of {@link ApacheHCHttpCommandExecutorServiceModule}.
+ * <p/>
+ * The pool holds {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_CONTEXT} connections, and
+ * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_HOST} per route. Connections are validated after
+ * {@link org.jclouds.http.apachehc.ApacheHCConstants#PROPERTY_APACHEHC_VALIDATE_AFTER_INACTIVITY}, live at most
+ * {@link org.jclouds.http.apachehc.ApacheHCConstants#PROPERTY_APACHEHC_CONNECTION_TTL} and are evicted when idle
+ * for {@link org.jclouds.http.apachehc.ApacheHCConstants#PROPERTY_APACHEHC_MAX_IDLE}. Redirects and retries are
+ * left to jclouds.
+ * <p/>
+ * Subclasses can override {@link #customizeClient(HttpClientBuilder)}, for example to configure NTLM proxy
+ * authentication.
+ */
+@ConfiguresHttpCommandExecutorService
+public class ApacheHCPoolingHttpCommandExecutorServiceModule extends AbstractModule {
+
+   @Override
+   protected void configure() {
+      install(new SSLModule());
+      bind(HttpCommandExecutorService.class).to(ApacheHCHttpCommandExecutorService.class).in(Scopes.SINGLETON);
+   }
+
+   @Singleton
+   @Provides
+   final SSLConnectionSocketFactory newSSLConnectionSocketFactory(HttpUtils utils,
+         @Named("untrusted") Supplier<SSLContext> untrustedSSLContextProvider) throws NoSuchAlgorithmException,
+         KeyManagementException {
+      SSLContext context;
+      if (utils.trustAllCerts()) {
+         context = untrustedSSLContextProvider.get();
+      } else {
+         context = SSLContext.getInstance("TLS");
+         context.init(null, null, null);
+      }
+      HostnameVerifier verifier = utils.relaxHostname() ? NoopHostnameVerifier.INSTANCE : SSLConnectionSocketFactory
+            .getDefaultHostnameVerifier();
+      return new SSLConnectionSocketFactory(context, verifier);
+   }
+
+   @Singleton
+   @Provides
+   final HttpClientConnectionManager newConnectionManager(HttpUtils utils, SSLConnectionSocketFactory sslSocketFactory,
+         ValueOfConfigurationKeyOrNull config) {
+      int validateAfterInactivity = Integer.parseInt(valueOrDefault(config,
+            PROPERTY_APACHEHC_VALIDATE_AFTER_INACTIVITY, "2000"));
+      long connectionTtl = Long.parseLong(valueOrDefault(config, PROPERTY_APACHEHC_CONNECTION_TTL, "-1"));
+      PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager(RegistryBuilder
+            .<ConnectionSocketFactory> create().register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", sslSocketFactory).build(), null, null, null, connectionTtl, MILLISECONDS);
+      int maxConnections = Math.max(utils.getMaxConnections(), 1);
+      cm.setMaxTotal(maxConnections);
+      cm.setDefaultMaxPerRoute(utils.getMaxConnectionsPerHost() > 0 ? utils.getMaxConnectionsPerHost()
+            : maxConnections);
+      cm.setValidateAfterInactivity(validateAfterInactivity);
+      SocketConfig.Builder socketConfig = SocketConfig.custom().setTcpNoDelay(true);
+      if (utils.getSocketOpenTimeout() > 0)
+         socketConfig.setSoTimeout(utils.getSocketOpenTimeout());
+      cm.setDefaultSocketConfig(socketConfig.build());
+      return cm;
+   }
+
+   @Singleton
+   @Provides
+   final HttpClient newHttpClient(HttpUtils utils, ProxyConfig proxyConfig, HttpClientConnectionManager cm,
+         ValueOfConfigurationKeyOrNull config, Closer closer) {
+      long maxIdle = Long.parseLong(valueOrDefault(config, PROPERTY_APACHEHC_MAX_IDLE, "60000"));
+      RequestConfig.Builder requestConfig = RequestConfig.custom();
+      if (utils.getConnectionTimeout() > 0)
+         requestConfig.setConnectTimeout(utils.getConnectionTimeout());
+      if (utils.getSocketOpenTimeout() > 0)
+         requestConfig.setSocketTimeout(utils.getSocketOpenTimeout());
+
+      HttpClientBuilder builder = HttpClientBuilder.create().setConnectionManager(cm)
+            .setDefaultRequestConfig(requestConfig.build()).disableRedirectHandling().disableAutomaticRetries()
+            .evictExpiredConnections().evictIdleConnections(maxIdle, MILLISECONDS);
+      configureProxy(builder, proxyConfig);
+      customizeClient(builder);
+
+      final CloseableHttpClient client = builder.build();
+      closer.addToClose(new Closeable() {
+         @Override
+         public void close() throws IOException {
+            client.close();
+         }
+      });
+      return client;
+   }
+
+   /**
+    * Override to further configure the client.
+    */
+   protected void customizeClient(HttpClientBuilder builder) {
+   }
+
+   private static String valueOrDefault(ValueOfConfigurationKeyOrNull config, String key, String defaultValue) {
+      String value = config.apply(key);
+      return value != null ? value.trim() : defaultValue;
+   }
+
+   @SuppressWarnings("deprecation")
+   private static void configureProxy(HttpClientBuilder builder, ProxyConfig proxyConfig) {
+      if (proxyConfig.getProxy().isPresent() && proxyConfig.getType() == Proxy.Type.HTTP) {
+         HostAndPort proxy = proxyConfig.getProxy().get();
+         builder.setProxy(new HttpHost(proxy.getHostText(), proxy.getPort()));
+         if (proxyConfig.getCredentials().isPresent()) {
+            Credentials credentials = proxyConfig.getCredentials().get();
+            BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            credentialsProvider.setCredentials(new AuthScope(proxy.getHostText(), proxy.getPort()),
+                  new UsernamePasswordCredentials(credentials.identity, credentials.credential));
+            builder.setDefaultCredentialsProvider(credentialsProvider);
+         }
+      } else if (proxyConfig.isJvmProxyEnabled() || proxyConfig.useSystem()) {
+         builder.setRoutePlanner(new SystemDefaultRoutePlanner(ProxySelector.getDefault()));
+      }
+   }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.apachehc;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.jclouds.date.internal.DateServiceDateCodecFactory;
+import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.io.ContentMetadataCodec.DefaultContentMetadataCodec;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+
+@Test(groups = "unit", testName = "ApacheHCUtilsTest")
+public class ApacheHCUtilsTest {
+
+   private final ApacheHCUtils utils = new ApacheHCUtils(new DefaultContentMetadataCodec(
+         new DateServiceDateCodecFactory(new SimpleDateFormatDateService())));
+
+   private HttpEntity entityOf(Payload payload) {
+      payload.getContentMetadata().setContentType("application/octet-stream");
+      payload.getContentMetadata().setContentLength(3L);
+      HttpRequest request = HttpRequest.builder().method("PUT").endpoint("http://localhost/foo").payload(payload)
+            .build();
+      return HttpEntityEnclosingRequest.class.cast(utils.convertToApacheRequest(request)).getEntity();
+   }
+
+   public void testRepeatablePayloadIsSentAsRepeatableEntity() throws Exception {
+      HttpEntity entity = entityOf(Payloads.newByteSourcePayload(ByteSource.wrap(new byte[] { 1, 2, 3 })));
+      assertTrue(entity.isRepeatable());
+      assertEquals(entity.getContentLength(), 3);
+      for (int i = 0; i < 2; i++) {
+         ByteArrayOutputStream out = new ByteArrayOutputStream();
+         entity.writeTo(out);
+         assertEquals(out.toByteArray(), new byte[] { 1, 2, 3 });
+      }
+   }
+
+   public void testInputStreamPayloadIsNotRepeatable() {
+      HttpEntity entity = entityOf(Payloads.newInputStreamPayload(new ByteArrayInputStream(new byte[] { 1, 2, 3 })));
+      assertFalse(entity.isRepeatable());
+   }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.http2;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Connection;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Sets;
+
+/**
+ * Caps the asynchronous calls in flight to each host that has not negotiated a multiplexed protocol, counting a call
+ * as one connection until its response body is closed or consumed, or until its response arrives if it has no body.
+ * Calls beyond the cap wait in a queue of the host and are enqueued as earlier ones complete, so no thread waits for
+ * a connection. Once a host is seen to speak HTTP/2 its calls are no longer limited, as they share one connection.
+ */
+final class HostConnectionLimiter {
+
+   private final int maxConnectionsPerHost;
+   private final Set<String> multiplexedHosts = Sets.newConcurrentHashSet();
+   private final LoadingCache<String, Host> hosts = CacheBuilder.newBuilder().build(new CacheLoader<String, Host>() {
+      @Override
+      public Host load(String host) {
+         return new Host(host);
+      }
+   });
+
+   HostConnectionLimiter(int maxConnectionsPerHost) {
+      checkArgument(maxConnectionsPerHost >= 0, "maxConnectionsPerHost must be non-negative");
+      this.maxConnectionsPerHost = maxConnectionsPerHost;
+   }
+
+   /**
+    * Enqueues {@code call} once the host it goes to has a connection to spare.
+    */
+   void enqueue(Call call, Callback callback) {
+      String host = hostOf(call.request().url());
+      if (maxConnectionsPerHost == 0 || multiplexedHosts.contains(host)) {
+         call.enqueue(callback);
+      } else {
+         hosts.getUnchecked(host).enqueue(call, callback);
+      }
+   }
+
+   /**
+    * Returns the network interceptor that records which hosts negotiated a multiplexed protocol.
+    */
+   Interceptor protocolRecorder() {
+      return new Interceptor() {
+         @Override
+         public Response intercept(Chain chain) throws IOException {
+            Connection connection = chain.connection();
+            if (connection != null) {
+               Protocol protocol = connection.protocol();
+               if (protocol == Protocol.HTTP_2 || protocol == Protocol.H2_PRIOR_KNOWLEDGE)
+                  multiplexedHosts.add(hostOf(chain.request().url()));
+               else
+                  multiplexedHosts.remove(hostOf(chain.request().url()));
+            }
+            return chain.proceed(chain.request());
+         }
+      };
+   }
+
+   private static boolean hasBody(Response response) {
+      int code = response.code();
+      return !"HEAD".equals(response.request().method()) && code != 204 && code != 304
+            && response.body().contentLength() != 0;
+   }
+
+   static String hostOf(HttpUrl url) {
+      return url.host() + ":" + url.port();
+   }
+
+   private final class Host {
+      private final String name;
+      private final Queue<Runnable> waiting = new ArrayDeque<Runnable>();
+      private int inFlight;
+
+      Host(String name) {
+         this.name = name;
+      }
+
+      void enqueue(final Call call, final Callback callback) {
+         Runnable start = new Runnable() {
+            @Override
+            public void run() {
+               call.enqueue(new Callback() {
+                  @Override
+                  public void onResponse(Call call, Response response) throws IOException {
+                     callback.onResponse(call, onClose(response));
+                  }
+
+                  @Override
+                  public void onFailure(Call call, IOException e) {
+                     release();
+                     callback.onFailure(call, e);
+                  }
+               });
+            }
+         };
+         synchronized (this) {
+            if (inFlight >= maxConnectionsPerHost) {
+               waiting.add(start);
+               return;
+            }
+            inFlight++;
+         }
+         start.run();
+      }
+
+      private void release() {
+         Runnable next;
+         synchronized (this) {
+            next = waiting.poll();
+            if (next == null)
+               inFlight--;
+         }
+         // the next call takes over the connection of this one
+         if (next != null)
+            next.run();
+         // the host may have turned out to multiplex, then all waiting calls can go
+         while (multiplexedHosts.contains(name)) {
+            synchronized (this) {
+               next = waiting.poll();
+               if (next == null)
+                  return;
+               inFlight++;
+            }
+            next.run();
+         }
+      }
+
+      private Response onClose(Response response) {
+         final ResponseBody body = response.body();
+         // callers rarely read or close a body they know to be empty, so it must not hold the connection
+         if (body == null || !hasBody(response)) {
+            release();
+            return response;
+         }
+         final AtomicBoolean released = new AtomicBoolean();
+         final BufferedSource source = Okio.buffer(new ForwardingSource(body.source()) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+               long read;
+               try {
+                  read = super.read(sink, byteCount);
+               } catch (IOException e) {
+                  releaseOnce();
+                  throw e;
+               }
+               if (read == -1)
+                  releaseOnce();
+               return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+               try {
+                  super.close();
+               } finally {
+                  releaseOnce();
+               }
+            }
+
+            private void releaseOnce() {
+               if (released.compareAndSet(false, true))
+                  release();
+            }
+         });
+         return response.newBuilder().body(new ResponseBody() {
+            @Override
+            public MediaType contentType() {
+               return body.contentType();
+            }
+
+            @Override
+            public long contentLength() {
+               return body.contentLength();
+            }
+
+            @Override
+            public BufferedSource source() {
+               return source;
+            }
+         }).build();
+      }
+   }
+}
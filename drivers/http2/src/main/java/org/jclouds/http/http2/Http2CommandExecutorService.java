@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.http2;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
+import static org.jclouds.Constants.PROPERTY_OUTPUT_SOCKET_BUFFER_SIZE;
+import static org.jclouds.Constants.PROPERTY_USER_AGENT;
+import static org.jclouds.http.internal.HttpConversions.requestBody;
+import static org.jclouds.http.internal.HttpConversions.requestHeaders;
+import static org.jclouds.http.internal.HttpConversions.writePayload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Proxy;
+import java.net.URI;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.handlers.RetryBudget;
+import org.jclouds.http.internal.BaseHttpAsyncCommandExecutorService;
+import org.jclouds.http.internal.HttpCommandScheduler;
+import org.jclouds.http.internal.HttpConversions;
+import org.jclouds.http.internal.HttpWire;
+import org.jclouds.io.ContentMetadataCodec;
+import org.jclouds.io.Payload;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableMultimap.Builder;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Inject;
+
+/**
+ * Executes commands with OkHttp 3, multiplexing the requests to hosts that speak HTTP/2 over a single connection.
+ * <p/>
+ * Only asynchronous requests to other hosts are limited by
+ * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_HOST}, without blocking a thread, see
+ * {@link HostConnectionLimiter}. Synchronous requests are not capped: each runs on its calling thread, so the number
+ * of callers bounds their connections.
+ */
+public final class Http2CommandExecutorService extends BaseHttpAsyncCommandExecutorService<Request> {
+   private static final byte[] EMPTY_BODY = new byte[0];
+
+   private final Function<URI, Proxy> proxyForURI;
+   private final HostConnectionLimiter limiter;
+   private final OkHttpClient globalClient;
+   private final String userAgent;
+   private final int outputSocketBufferSize;
+
+   @Inject
+   Http2CommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
+         DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
+         DelegatingErrorHandler errorHandler, HttpWire wire, Function<URI, Proxy> proxyForURI, OkHttpClient okHttpClient,
+         @Named(PROPERTY_IDEMPOTENT_METHODS) String idempotentMethods,
+         @Named(PROPERTY_USER_AGENT) String userAgent,
+         @Named(PROPERTY_OUTPUT_SOCKET_BUFFER_SIZE) int outputSocketBufferSize, HttpCommandScheduler scheduler,
+         RetryBudget retryBudget) {
+      super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods,
+            scheduler, retryBudget);
+      this.proxyForURI = proxyForURI;
+      this.limiter = new HostConnectionLimiter(utils.getMaxConnectionsPerHost());
+      this.globalClient = okHttpClient.newBuilder().addNetworkInterceptor(limiter.protocolRecorder()).build();
+      this.userAgent = userAgent;
+      this.outputSocketBufferSize = outputSocketBufferSize;
+   }
+
+   @Override
+   protected Request convert(HttpRequest request) throws IOException, InterruptedException {
+      Request.Builder builder = new Request.Builder();
+
+      builder.url(request.getEndpoint().toString());
+      for (Map.Entry<String, String> entry : requestHeaders(request, userAgent, contentMetadataCodec).entries()) {
+         builder.addHeader(entry.getKey(), entry.getValue());
+      }
+
+      Payload payload = requestBody(request);
+      RequestBody body = payload != null ? generateRequestBody(request, payload) : null;
+      // unlike OkHttp 2, OkHttp 3 rejects these methods without a body
+      if (body == null && requiresRequestBody(request.getMethod())) {
+         body = RequestBody.create(null, EMPTY_BODY);
+      }
+      builder.method(request.getMethod(), body);
+
+      return builder.build();
+   }
+
+   private static boolean requiresRequestBody(String method) {
+      return "POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method);
+   }
+
+   protected RequestBody generateRequestBody(final HttpRequest request, final Payload payload) {
+      checkNotNull(payload.getContentMetadata().getContentType(), "payload.getContentType");
+      return new RequestBody() {
+         @Override
+         public void writeTo(BufferedSink sink) throws IOException {
+            try {
+               writePayload(payload, sink.outputStream(), outputSocketBufferSize);
+            } catch (IOException ex) {
+               logger.error(ex, "error writing bytes to %s", request.getEndpoint());
+               throw ex;
+            }
+         }
+
+         @Override
+         public long contentLength() throws IOException {
+            return payload.getContentMetadata().getContentLength();
+         }
+
+         @Override
+         public MediaType contentType() {
+            return MediaType.parse(payload.getContentMetadata().getContentType());
+         }
+      };
+   }
+
+   @Override
+   protected HttpResponse invoke(Request nativeRequest) throws IOException, InterruptedException {
+      return toHttpResponse(newCall(nativeRequest).execute());
+   }
+
+   @Override
+   protected ListenableFuture<HttpResponse> invokeAsync(Request nativeRequest) {
+      final Call call = newCall(nativeRequest);
+      final SettableFuture<HttpResponse> future = SettableFuture.create();
+      limiter.enqueue(call, new Callback() {
+         @Override
+         public void onResponse(Call call, Response response) {
+            try {
+               future.set(toHttpResponse(response));
+            } catch (IOException e) {
+               future.setException(e);
+            }
+         }
+
+         @Override
+         public void onFailure(Call call, IOException e) {
+            future.setException(e);
+         }
+      });
+      future.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (future.isCancelled())
+               call.cancel();
+         }
+      }, directExecutor());
+      return future;
+   }
+
+   private Call newCall(Request nativeRequest) {
+      OkHttpClient client = globalClient;
+      Proxy proxy = proxyForURI.apply(nativeRequest.url().uri());
+      if (!proxy.equals(client.proxy())) {
+         client = client.newBuilder().proxy(proxy).build();
+      }
+      return client.newCall(nativeRequest);
+   }
+
+   private HttpResponse toHttpResponse(Response response) throws IOException {
+      Builder<String, String> headers = ImmutableMultimap.builder();
+      Headers responseHeaders = response.headers();
+      for (String header : responseHeaders.names()) {
+         headers.putAll(header, responseHeaders.values(header));
+      }
+
+      InputStream body = null;
+      ResponseBody responseBody = response.body();
+      if (responseBody != null) {
+         if (response.code() == 204)
+            responseBody.close();
+         else
+            body = responseBody.byteStream();
+      }
+      return HttpConversions.response(response.code(), response.message(), headers.build(), body,
+            contentMetadataCodec);
+   }
+
+   @Override
+   protected void cleanup(Request nativeResponse) {
+
+   }
+
+}
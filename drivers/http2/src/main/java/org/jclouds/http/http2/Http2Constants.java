@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.http2;
+
+/**
+ * Configuration properties of the HTTP/2 driver.
+ */
+public final class Http2Constants {
+
+   /**
+    * Integer property.
+    * <p/>
+    * Maximum number of asynchronous requests in flight across all hosts. Multiplexed connections carry many requests
+    * each, so this is far higher than the number of connections. Defaults to 1024.
+    */
+   public static final String PROPERTY_HTTP2_MAX_CONCURRENT_REQUESTS = "jclouds.http2.max-concurrent-requests";
+
+   /**
+    * Long property.
+    * <p/>
+    * Milliseconds an idle connection is kept in the pool. Defaults to 5 minutes.
+    */
+   public static final String PROPERTY_HTTP2_KEEP_ALIVE = "jclouds.http2.keep-alive";
+
+   private Http2Constants() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
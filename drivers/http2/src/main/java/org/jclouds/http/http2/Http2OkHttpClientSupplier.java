@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.http2;
+
+import static org.jclouds.http.http2.Http2Constants.PROPERTY_HTTP2_KEEP_ALIVE;
+import static org.jclouds.http.http2.Http2Constants.PROPERTY_HTTP2_MAX_CONCURRENT_REQUESTS;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.http2.Http2OkHttpClientSupplier.NewHttp2OkHttpClient;
+import org.jclouds.lifecycle.Closer;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.ImplementedBy;
+import com.google.inject.Inject;
+
+/**
+ * Provides the OkHttp client used for all requests of the HTTP/2 driver. This could be used to designate a custom SSL
+ * context or limit TLS ciphers.
+ * <p>
+ * Note that it should configured it in the Guice module designated as <code>@ConfiguresHttpApi</code>.
+ */
+@Beta
+@ImplementedBy(NewHttp2OkHttpClient.class)
+public interface Http2OkHttpClientSupplier extends Supplier<OkHttpClient> {
+
+   /**
+    * Creates a client that negotiates HTTP/2 with ALPN, falling back to HTTP/1.1 when the server or the runtime does
+    * not support it. All requests to a host that speaks HTTP/2 are multiplexed over a single connection.
+    * <p/>
+    * The client has a connection pool of its own, keeping up to
+    * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_CONTEXT} idle connections for
+    * {@link Http2Constants#PROPERTY_HTTP2_KEEP_ALIVE}, which is emptied when the context is closed. Its dispatcher runs
+    * up to {@link Http2Constants#PROPERTY_HTTP2_MAX_CONCURRENT_REQUESTS} asynchronous requests, to any one host as
+    * well. The executor limits only asynchronous requests to HTTP/1.1 hosts, by
+    * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_HOST}, before they reach the dispatcher; synchronous
+    * requests are not capped per host.
+    */
+   @Singleton
+   class NewHttp2OkHttpClient implements Http2OkHttpClientSupplier {
+
+      @Inject(optional = true)
+      @Named(PROPERTY_HTTP2_MAX_CONCURRENT_REQUESTS)
+      private int maxConcurrentRequests = 1024;
+
+      @Inject(optional = true)
+      @Named(PROPERTY_HTTP2_KEEP_ALIVE)
+      private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+
+      protected final HttpUtils utils;
+      private final Closer closer;
+
+      @Inject
+      protected NewHttp2OkHttpClient(HttpUtils utils, Closer closer) {
+         this.utils = utils;
+         this.closer = closer;
+      }
+
+      @Override
+      public OkHttpClient get() {
+         final ConnectionPool pool = new ConnectionPool(Math.max(utils.getMaxConnections(), 1), keepAliveMillis,
+               TimeUnit.MILLISECONDS);
+         final Dispatcher dispatcher = new Dispatcher();
+         dispatcher.setMaxRequests(maxConcurrentRequests);
+         dispatcher.setMaxRequestsPerHost(maxConcurrentRequests);
+         closer.addToClose(new Closeable() {
+            @Override
+            public void close() {
+               pool.evictAll();
+               dispatcher.executorService().shutdown();
+            }
+         });
+         return new OkHttpClient.Builder()
+               .protocols(ImmutableList.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+               .connectionPool(pool)
+               .dispatcher(dispatcher)
+               .build();
+      }
+   }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.http2.config;
+
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.X509TrustManager;
+
+import okhttp3.OkHttpClient;
+
+import org.jclouds.http.HttpAsyncCommandExecutorService;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
+import org.jclouds.http.config.SSLModule;
+import org.jclouds.http.config.SSLModule.TrustAllCerts;
+import org.jclouds.http.http2.Http2CommandExecutorService;
+import org.jclouds.http.http2.Http2OkHttpClientSupplier;
+
+import com.google.common.base.Supplier;
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+
+/**
+ * Configures the {@link Http2CommandExecutorService}, which multiplexes requests over HTTP/2 connections when the
+ * server supports it, and also serves asynchronous commands.
+ */
+@ConfiguresHttpCommandExecutorService
+public class Http2CommandExecutorServiceModule extends AbstractModule {
+
+   @Override
+   protected void configure() {
+      install(new SSLModule());
+      bind(Http2CommandExecutorService.class).in(Scopes.SINGLETON);
+      bind(HttpCommandExecutorService.class).to(Http2CommandExecutorService.class);
+      bind(HttpAsyncCommandExecutorService.class).to(Http2CommandExecutorService.class);
+      bind(OkHttpClient.class).toProvider(Http2OkHttpClientProvider.class).in(Scopes.SINGLETON);
+   }
+
+   private static final class Http2OkHttpClientProvider implements Provider<OkHttpClient> {
+      private final HostnameVerifier verifier;
+      private final Supplier<SSLContext> untrustedSSLContextProvider;
+      private final TrustAllCerts trustAllCerts;
+      private final HttpUtils utils;
+      private final Http2OkHttpClientSupplier clientSupplier;
+
+      @Inject
+      Http2OkHttpClientProvider(HttpUtils utils, @Named("untrusted") HostnameVerifier verifier,
+            @Named("untrusted") Supplier<SSLContext> untrustedSSLContextProvider, TrustAllCerts trustAllCerts,
+            Http2OkHttpClientSupplier clientSupplier) {
+         this.utils = utils;
+         this.verifier = verifier;
+         this.untrustedSSLContextProvider = untrustedSSLContextProvider;
+         this.trustAllCerts = trustAllCerts;
+         this.clientSupplier = clientSupplier;
+      }
+
+      @Override
+      public OkHttpClient get() {
+         OkHttpClient.Builder builder = clientSupplier.get().newBuilder();
+         builder.connectTimeout(utils.getConnectionTimeout(), TimeUnit.MILLISECONDS);
+         builder.readTimeout(utils.getSocketOpenTimeout(), TimeUnit.MILLISECONDS);
+         builder.writeTimeout(utils.getSocketOpenTimeout(), TimeUnit.MILLISECONDS);
+         // do not follow redirects since https redirects don't work properly
+         // ex. Caused by: java.io.IOException: HTTPS hostname wrong: should be
+         // <adriancole.s3int0.s3-external-3.amazonaws.com>
+         builder.followRedirects(false);
+         builder.followSslRedirects(false);
+
+         if (utils.relaxHostname()) {
+            builder.hostnameVerifier(verifier);
+         }
+         if (utils.trustAllCerts()) {
+            builder.sslSocketFactory(untrustedSSLContextProvider.get().getSocketFactory(),
+                  withAcceptedIssuers(trustAllCerts));
+         }
+         return builder.build();
+      }
+
+      /**
+       * OkHttp indexes the accepted issuers of the trust manager, which {@link TrustAllCerts} leaves null.
+       */
+      private static X509TrustManager withAcceptedIssuers(final X509TrustManager trustManager) {
+         return new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+               trustManager.checkClientTrusted(chain, authType);
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+               trustManager.checkServerTrusted(chain, authType);
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+               return new X509Certificate[0];
+            }
+         };
+      }
+   }
+
+}
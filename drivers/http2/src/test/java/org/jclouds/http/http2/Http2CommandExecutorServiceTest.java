@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.http2;
+
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
+import static org.jclouds.Constants.PROPERTY_RELAX_HOSTNAME;
+import static org.jclouds.Constants.PROPERTY_TRUST_ALL_CERTS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.http.HttpAsyncCommandExecutorService;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.http2.config.Http2CommandExecutorServiceModule;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.providers.AnonymousProviderMetadata;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.binders.BindToStringPayload;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.Injector;
+
+@Test(groups = "unit", testName = "Http2CommandExecutorServiceTest")
+public class Http2CommandExecutorServiceTest {
+
+   private interface AsyncApi extends Closeable {
+      @GET
+      @Path("/objects/{id}")
+      ListenableFuture<String> get(@PathParam("id") String id);
+
+      @GET
+      @Path("/objects/{id}")
+      String getSync(@PathParam("id") String id, @HeaderParam("test") String header);
+
+      @PUT
+      @Path("/objects/{id}")
+      String put(@PathParam("id") String id, @BinderParam(BindToStringPayload.class) String payload);
+
+      @PUT
+      @Path("/objects/{id}")
+      String putEmpty(@PathParam("id") String id);
+   }
+
+   public void testConvertsRequestAndResponse() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().setBody("foo"));
+      server.start();
+      Injector injector = injector(server.url("/").toString());
+      try {
+         assertEquals(injector.getInstance(AsyncApi.class).getSync("0", "bar"), "foo");
+         RecordedRequest request = server.takeRequest();
+         assertEquals(request.getRequestLine(), "GET /objects/0 HTTP/1.1");
+         assertEquals(request.getHeader("test"), "bar");
+         assertEquals(request.getHeader("Accept"), "*/*");
+      } finally {
+         injector.getInstance(Closer.class).close();
+         server.shutdown();
+      }
+   }
+
+   public void testSendsPayload() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().setBody("foo"));
+      server.enqueue(new MockResponse().setBody("foo"));
+      server.start();
+      Injector injector = injector(server.url("/").toString());
+      try {
+         AsyncApi api = injector.getInstance(AsyncApi.class);
+         assertEquals(api.put("0", "bar"), "foo");
+         RecordedRequest request = server.takeRequest();
+         assertEquals(request.getBody().readUtf8(), "bar");
+         assertEquals(request.getHeader("Content-Length"), "3");
+         // OkHttp 3 refuses a PUT without a body, so the executor sends an empty one
+         assertEquals(api.putEmpty("0"), "foo");
+         request = server.takeRequest();
+         assertEquals(request.getBodySize(), 0);
+         assertEquals(request.getHeader("Content-Length"), "0");
+      } finally {
+         injector.getInstance(Closer.class).close();
+         server.shutdown();
+      }
+   }
+
+   public void testNegotiatesHttp2() throws Exception {
+      MockWebServer server = http2Server();
+      server.enqueue(new MockResponse().setBody("foo"));
+      server.start();
+      Injector injector = injector(server.url("/").toString());
+      try {
+         OkHttpClient client = injector.getInstance(OkHttpClient.class);
+         Response response = client.newCall(new Request.Builder().url(server.url("/objects/0")).build()).execute();
+         try {
+            assertEquals(response.protocol(), Protocol.HTTP_2);
+            assertEquals(response.body().string(), "foo");
+         } finally {
+            response.close();
+         }
+      } finally {
+         injector.getInstance(Closer.class).close();
+         server.shutdown();
+      }
+   }
+
+   public void testMultiplexesConcurrentRequestsToHttp2HostOverOneConnection() throws Exception {
+      int requests = 20;
+      MockWebServer server = http2Server();
+      for (int i = 0; i <= requests; i++)
+         server.enqueue(new MockResponse().setBody("foo").setHeadersDelay(100, TimeUnit.MILLISECONDS));
+      server.start();
+      Injector injector = injector(server.url("/").toString());
+      try {
+         AsyncApi api = injector.getInstance(AsyncApi.class);
+         // the first exchange tells the executor that the host multiplexes
+         assertEquals(api.get("first").get(), "foo");
+         assertEquals(getAll(api, requests), Collections.nCopies(requests, "foo"));
+         assertEquals(server.getRequestCount(), requests + 1);
+         assertEquals(connections(server), 1);
+         assertEquals(injector.getInstance(OkHttpClient.class).connectionPool().connectionCount(), 1);
+      } finally {
+         injector.getInstance(Closer.class).close();
+         server.shutdown();
+      }
+   }
+
+   public void testLimitsConnectionsToHttp11Host() throws Exception {
+      int requests = 20;
+      MockWebServer server = new MockWebServer();
+      for (int i = 0; i < requests; i++)
+         server.enqueue(new MockResponse().setBody("foo").setHeadersDelay(50, TimeUnit.MILLISECONDS));
+      server.start();
+      Injector injector = injector(server.url("/").toString());
+      try {
+         AsyncApi api = injector.getInstance(AsyncApi.class);
+         assertEquals(getAll(api, requests), Collections.nCopies(requests, "foo"));
+         assertEquals(server.getRequestCount(), requests);
+         // each request in flight needs a connection of its own, but never more than the two allowed per host
+         assertEquals(connections(server), 2);
+         assertEquals(injector.getInstance(OkHttpClient.class).connectionPool().connectionCount(), 2);
+      } finally {
+         injector.getInstance(Closer.class).close();
+         server.shutdown();
+      }
+   }
+
+   public void testReleasesConnectionsOfResponsesWithoutBody() throws Exception {
+      int requests = 10;
+      MockWebServer server = new MockWebServer();
+      for (int i = 0; i < requests; i++)
+         server.enqueue(new MockResponse().setHeader("Content-Length", 3));
+      server.start();
+      Injector injector = injector(server.url("/").toString());
+      try {
+         HttpAsyncCommandExecutorService executor = injector.getInstance(HttpAsyncCommandExecutorService.class);
+         List<ListenableFuture<HttpResponse>> futures = Lists.newArrayList();
+         for (int i = 0; i < requests; i++) {
+            HttpRequest head = HttpRequest.builder().method("HEAD").endpoint(server.url("/objects/" + i).uri()).build();
+            futures.add(executor.submit(new HttpCommand(head)));
+         }
+         // more calls than the two allowed per host, none of which closes its response
+         for (HttpResponse response : Futures.allAsList(futures).get(10, TimeUnit.SECONDS))
+            assertEquals(response.getStatusCode(), 200);
+         assertEquals(server.getRequestCount(), requests);
+         assertTrue(connections(server) <= 2);
+      } finally {
+         injector.getInstance(Closer.class).close();
+         server.shutdown();
+      }
+   }
+
+   private static List<String> getAll(AsyncApi api, int requests) throws Exception {
+      List<ListenableFuture<String>> futures = Lists.newArrayList();
+      for (int i = 0; i < requests; i++)
+         futures.add(api.get(Integer.toString(i)));
+      return Futures.allAsList(futures).get();
+   }
+
+   /**
+    * Returns the number of connections the server accepted, as the requests numbered first on their connection.
+    */
+   private static int connections(MockWebServer server) throws InterruptedException {
+      int connections = 0;
+      for (int i = server.getRequestCount(); i > 0; i--) {
+         if (server.takeRequest().getSequenceNumber() == 0)
+            connections++;
+      }
+      return connections;
+   }
+
+   private static MockWebServer http2Server() {
+      HeldCertificate localhost = new HeldCertificate.Builder().addSubjectAlternativeName("localhost").build();
+      HandshakeCertificates certificates = new HandshakeCertificates.Builder().heldCertificate(localhost).build();
+      MockWebServer server = new MockWebServer();
+      server.useHttps(certificates.sslSocketFactory(), false);
+      server.setProtocols(ImmutableList.of(Protocol.HTTP_2, Protocol.HTTP_1_1));
+      return server;
+   }
+
+   private static Injector injector(String url) throws IOException {
+      Properties properties = new Properties();
+      properties.setProperty(PROPERTY_TRUST_ALL_CERTS, "true");
+      properties.setProperty(PROPERTY_RELAX_HOSTNAME, "true");
+      properties.setProperty(PROPERTY_MAX_CONNECTIONS_PER_CONTEXT, 50 + "");
+      properties.setProperty(PROPERTY_MAX_CONNECTIONS_PER_HOST, 2 + "");
+      properties.setProperty(PROPERTY_USER_THREADS, 5 + "");
+      return ContextBuilder.newBuilder(AnonymousProviderMetadata.forApiOnEndpoint(AsyncApi.class, url))
+            .modules(ImmutableSet.of(new Http2CommandExecutorServiceModule())).overrides(properties).buildInjector();
+   }
+}
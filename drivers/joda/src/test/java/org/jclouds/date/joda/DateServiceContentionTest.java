@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.date.joda;
+
+import java.util.Date;
+
+import org.jclouds.PerformanceTest;
+import org.jclouds.date.DateService;
+import org.jclouds.date.internal.FixedLayoutDateService;
+import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Formats and parses the dates found on every signed request from {@link #THREAD_COUNT} threads
+ * at once, comparing the lock-free default against the synchronized and Joda implementations.
+ */
+// NOTE:without testName, this will not call @Before* and fail w/NPE during surefire
+@Test(groups = "performance", singleThreaded = true, timeOut = 2 * 60 * 1000, testName = "DateServiceContentionTest")
+public class DateServiceContentionTest extends PerformanceTest {
+
+   @DataProvider
+   public Object[][] dateServices() {
+      return new Object[][] {
+            { new SimpleDateFormatDateService() },
+            { new JodaDateService() },
+            { new FixedLayoutDateService() } };
+   }
+
+   @Test(dataProvider = "dateServices")
+   public void testSigningDatesUnderContention(final DateService dateService) throws Throwable {
+      Runnable task = new Runnable() {
+         public void run() {
+            for (int i = 0; i < LOOP_COUNT; i++) {
+               dateService.rfc822DateFormat();
+               dateService.iso8601SecondsDateFormat();
+            }
+         }
+      };
+      executeMultiThreadedPerformanceTest(name(dateService, "format"), ImmutableList.of(task));
+   }
+
+   @Test(dataProvider = "dateServices")
+   public void testListingDatesUnderContention(final DateService dateService) throws Throwable {
+      final long start = 1236823207000L;
+      Runnable task = new Runnable() {
+         public void run() {
+            for (int i = 0; i < LOOP_COUNT; i++) {
+               String formatted = dateService.iso8601DateFormat(new Date(start + i * 1001L));
+               dateService.iso8601DateParse(formatted);
+            }
+         }
+      };
+      executeMultiThreadedPerformanceTest(name(dateService, "parse"), ImmutableList.of(task));
+   }
+
+   private static String name(DateService dateService, String operation) {
+      return dateService.getClass().getSimpleName() + " " + operation;
+   }
+}
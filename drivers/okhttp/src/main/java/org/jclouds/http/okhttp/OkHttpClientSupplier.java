@@ -16,11 +16,24 @@
  */
 package org.jclouds.http.okhttp;
 
+import static org.jclouds.http.okhttp.OkHttpConstants.PROPERTY_OKHTTP_KEEP_ALIVE;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpUtils;
 import org.jclouds.http.okhttp.OkHttpClientSupplier.NewOkHttpClient;
+import org.jclouds.lifecycle.Closer;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Supplier;
 import com.google.inject.ImplementedBy;
+import com.google.inject.Inject;
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Dispatcher;
 import com.squareup.okhttp.OkHttpClient;
 
 /**
@@ -34,10 +47,50 @@ import com.squareup.okhttp.OkHttpClient;
 @ImplementedBy(NewOkHttpClient.class)
 public interface OkHttpClientSupplier extends Supplier<OkHttpClient> {
 
-   static final class NewOkHttpClient implements OkHttpClientSupplier {
+   /**
+    * Creates a client with a connection pool of its own, rather than the one OkHttp shares across the process. The
+    * pool keeps up to {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_CONTEXT} idle connections for
+    * {@link OkHttpConstants#PROPERTY_OKHTTP_KEEP_ALIVE}, and is emptied when the context is closed. Asynchronous
+    * requests are limited by the same property, and per host by
+    * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_HOST}.
+    */
+   @Singleton
+   class NewOkHttpClient implements OkHttpClientSupplier {
+
+      @Inject(optional = true)
+      @Named(PROPERTY_OKHTTP_KEEP_ALIVE)
+      private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+
+      protected final HttpUtils utils;
+      private final OkHttpConnectionStats stats;
+      private final Closer closer;
+
+      @Inject
+      protected NewOkHttpClient(HttpUtils utils, OkHttpConnectionStats stats, Closer closer) {
+         this.utils = utils;
+         this.stats = stats;
+         this.closer = closer;
+      }
+
       @Override
       public OkHttpClient get() {
-         return new OkHttpClient();
+         OkHttpClient client = new OkHttpClient();
+         final ConnectionPool pool = new ConnectionPool(Math.max(utils.getMaxConnections(), 1), keepAliveMillis);
+         client.setConnectionPool(pool);
+         closer.addToClose(new Closeable() {
+            @Override
+            public void close() {
+               pool.evictAll();
+            }
+         });
+         stats.monitor(pool);
+         client.networkInterceptors().add(stats.interceptor());
+
+         Dispatcher dispatcher = client.getDispatcher();
+         dispatcher.setMaxRequests(Math.max(utils.getMaxConnections(), 1));
+         dispatcher.setMaxRequestsPerHost(utils.getMaxConnectionsPerHost() > 0 ? utils.getMaxConnectionsPerHost()
+               : dispatcher.getMaxRequests());
+         return client;
       }
    }
 }
@@ -17,14 +17,17 @@
 package org.jclouds.http.okhttp;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.net.HttpHeaders.ACCEPT;
-import static com.google.common.net.HttpHeaders.USER_AGENT;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
+import static org.jclouds.Constants.PROPERTY_OUTPUT_SOCKET_BUFFER_SIZE;
 import static org.jclouds.Constants.PROPERTY_USER_AGENT;
-import static org.jclouds.http.HttpUtils.filterOutContentHeaders;
-import static org.jclouds.io.Payloads.newInputStreamPayload;
+import static org.jclouds.http.internal.HttpConversions.requestBody;
+import static org.jclouds.http.internal.HttpConversions.requestHeaders;
+import static org.jclouds.http.internal.HttpConversions.writePayload;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Proxy;
 import java.net.URI;
 import java.util.Map;
@@ -32,8 +35,6 @@ import java.util.Map;
 import javax.inject.Named;
 
 import okio.BufferedSink;
-import okio.Okio;
-import okio.Source;
 
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
@@ -41,16 +42,22 @@ import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
-import org.jclouds.http.internal.BaseHttpCommandExecutorService;
+import org.jclouds.http.handlers.RetryBudget;
+import org.jclouds.http.internal.BaseHttpAsyncCommandExecutorService;
+import org.jclouds.http.internal.HttpCommandScheduler;
+import org.jclouds.http.internal.HttpConversions;
 import org.jclouds.http.internal.HttpWire;
 import org.jclouds.io.ContentMetadataCodec;
-import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
 
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.Callback;
 import com.squareup.okhttp.Headers;
 import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.OkHttpClient;
@@ -58,21 +65,26 @@ import com.squareup.okhttp.Request;
 import com.squareup.okhttp.RequestBody;
 import com.squareup.okhttp.Response;
 
-public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorService<Request> {
+public final class OkHttpCommandExecutorService extends BaseHttpAsyncCommandExecutorService<Request> {
    private final Function<URI, Proxy> proxyForURI;
    private final OkHttpClient globalClient;
    private final String userAgent;
+   private final int outputSocketBufferSize;
 
    @Inject
    OkHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
          DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
          DelegatingErrorHandler errorHandler, HttpWire wire, Function<URI, Proxy> proxyForURI, OkHttpClient okHttpClient,
          @Named(PROPERTY_IDEMPOTENT_METHODS) String idempotentMethods,
-         @Named(PROPERTY_USER_AGENT) String userAgent) {
-      super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods);
+         @Named(PROPERTY_USER_AGENT) String userAgent,
+         @Named(PROPERTY_OUTPUT_SOCKET_BUFFER_SIZE) int outputSocketBufferSize, HttpCommandScheduler scheduler,
+         RetryBudget retryBudget) {
+      super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods,
+            scheduler, retryBudget);
       this.proxyForURI = proxyForURI;
       this.globalClient = okHttpClient;
       this.userAgent = userAgent;
+      this.outputSocketBufferSize = outputSocketBufferSize;
    }
 
    @Override
@@ -80,56 +92,26 @@ public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorS
       Request.Builder builder = new Request.Builder();
 
       builder.url(request.getEndpoint().toString());
-      populateHeaders(request, builder);
-
-      RequestBody body = null;
-      Payload payload = request.getPayload();
-
-      if (payload != null) {
-         Long length = checkNotNull(payload.getContentMetadata().getContentLength(), "payload.getContentLength");
-         if (length > 0) {
-            body = generateRequestBody(request, payload);
-         }
+      for (Map.Entry<String, String> entry : requestHeaders(request, userAgent, contentMetadataCodec).entries()) {
+         builder.addHeader(entry.getKey(), entry.getValue());
       }
 
-      builder.method(request.getMethod(), body);
+      Payload payload = requestBody(request);
+      builder.method(request.getMethod(), payload != null ? generateRequestBody(request, payload) : null);
 
       return builder.build();
    }
 
-   protected void populateHeaders(HttpRequest request, Request.Builder builder) {
-      // OkHttp does not set the Accept header if not present in the request.
-      // Make sure we send a flexible one.
-      if (request.getFirstHeaderOrNull(ACCEPT) == null) {
-         builder.addHeader(ACCEPT, "*/*");
-      }
-      if (request.getFirstHeaderOrNull(USER_AGENT) == null) {
-         builder.addHeader(USER_AGENT, userAgent);
-      }
-      for (Map.Entry<String, String> entry : request.getHeaders().entries()) {
-         builder.addHeader(entry.getKey(), entry.getValue());
-      }
-      if (request.getPayload() != null) {
-         MutableContentMetadata md = request.getPayload().getContentMetadata();
-         for (Map.Entry<String, String> entry : contentMetadataCodec.toHeaders(md).entries()) {
-            builder.addHeader(entry.getKey(), entry.getValue());
-         }
-      }
-   }
-
    protected RequestBody generateRequestBody(final HttpRequest request, final Payload payload) {
       checkNotNull(payload.getContentMetadata().getContentType(), "payload.getContentType");
       return new RequestBody() {
          @Override
          public void writeTo(BufferedSink sink) throws IOException {
-            Source source = Okio.source(payload.openStream());
             try {
-               sink.writeAll(source);
+               writePayload(payload, sink.outputStream(), outputSocketBufferSize);
             } catch (IOException ex) {
                logger.error(ex, "error writing bytes to %s", request.getEndpoint());
                throw ex;
-            } finally {
-               source.close();
             }
          }
 
@@ -147,34 +129,64 @@ public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorS
 
    @Override
    protected HttpResponse invoke(Request nativeRequest) throws IOException, InterruptedException {
-      OkHttpClient requestScopedClient = globalClient.clone();
-      requestScopedClient.setProxy(proxyForURI.apply(nativeRequest.uri()));
+      return toHttpResponse(newCall(nativeRequest).execute());
+   }
+
+   @Override
+   protected ListenableFuture<HttpResponse> invokeAsync(Request nativeRequest) {
+      final Call call;
+      try {
+         call = newCall(nativeRequest);
+      } catch (IOException e) {
+         return immediateFailedFuture(e);
+      }
+      final SettableFuture<HttpResponse> future = SettableFuture.create();
+      call.enqueue(new Callback() {
+         @Override
+         public void onResponse(Response response) {
+            try {
+               future.set(toHttpResponse(response));
+            } catch (IOException e) {
+               future.setException(e);
+            }
+         }
 
-      Response response = requestScopedClient.newCall(nativeRequest).execute();
+         @Override
+         public void onFailure(Request request, IOException e) {
+            future.setException(e);
+         }
+      });
+      future.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (future.isCancelled())
+               call.cancel();
+         }
+      }, directExecutor());
+      return future;
+   }
 
-      HttpResponse.Builder<?> builder = HttpResponse.builder();
-      builder.statusCode(response.code());
-      builder.message(response.message());
+   private Call newCall(Request nativeRequest) throws IOException {
+      OkHttpClient requestScopedClient = globalClient.clone();
+      requestScopedClient.setProxy(proxyForURI.apply(nativeRequest.uri()));
+      return requestScopedClient.newCall(nativeRequest);
+   }
 
-      Builder<String, String> headerBuilder = ImmutableMultimap.builder();
+   private HttpResponse toHttpResponse(Response response) throws IOException {
+      Builder<String, String> headers = ImmutableMultimap.builder();
       Headers responseHeaders = response.headers();
       for (String header : responseHeaders.names()) {
-         headerBuilder.putAll(header, responseHeaders.values(header));
+         headers.putAll(header, responseHeaders.values(header));
       }
 
-      ImmutableMultimap<String, String> headers = headerBuilder.build();
-
+      InputStream body = null;
       if (response.code() == 204 && response.body() != null) {
          response.body().close();
       } else {
-         Payload payload = newInputStreamPayload(response.body().byteStream());
-         contentMetadataCodec.fromHeaders(payload.getContentMetadata(), headers);
-         builder.payload(payload);
+         body = response.body().byteStream();
       }
-
-      builder.headers(filterOutContentHeaders(headers));
-
-      return builder.build();
+      return HttpConversions.response(response.code(), response.message(), headers.build(), body,
+            contentMetadataCodec);
    }
 
    @Override
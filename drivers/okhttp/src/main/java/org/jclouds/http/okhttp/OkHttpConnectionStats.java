@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.okhttp;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Singleton;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.squareup.okhttp.Connection;
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Response;
+
+/**
+ * Gauges of the connections of the OkHttp client, to tune the pool against connection churn.
+ * <p/>
+ * Connections are tracked from their first exchange; a connection is busy while a response it carries has not been
+ * consumed or closed.
+ */
+@Beta
+@Singleton
+public class OkHttpConnectionStats {
+
+   /**
+    * Connection counts of one host.
+    */
+   public static final class HostConnections {
+      private final int live;
+      private final int idle;
+      private final int busy;
+
+      HostConnections(int live, int idle, int busy) {
+         this.live = live;
+         this.idle = idle;
+         this.busy = busy;
+      }
+
+      /**
+       * Returns the number of open connections.
+       */
+      public int getLive() {
+         return live;
+      }
+
+      /**
+       * Returns the number of open connections without exchanges in flight.
+       */
+      public int getIdle() {
+         return idle;
+      }
+
+      /**
+       * Returns the number of open connections with exchanges in flight.
+       */
+      public int getBusy() {
+         return busy;
+      }
+
+      @Override
+      public String toString() {
+         return MoreObjects.toStringHelper(this).add("live", live).add("idle", idle).add("busy", busy).toString();
+      }
+   }
+
+   private final Map<Connection, AtomicInteger> exchanges = Collections
+         .synchronizedMap(new WeakHashMap<Connection, AtomicInteger>());
+   private volatile ConnectionPool pool;
+
+   /**
+    * Returns the connection counts by {@code host:port}.
+    */
+   public Map<String, HostConnections> getConnectionsByHost() {
+      Map<Connection, AtomicInteger> snapshot;
+      synchronized (exchanges) {
+         snapshot = ImmutableMap.copyOf(exchanges);
+      }
+      Map<String, int[]> counts = Maps.newTreeMap();
+      for (Map.Entry<Connection, AtomicInteger> entry : snapshot.entrySet()) {
+         Socket socket = entry.getKey().getSocket();
+         if (socket == null || socket.isClosed())
+            continue;
+         String host = entry.getKey().getRoute().getAddress().getUriHost() + ":"
+               + entry.getKey().getRoute().getAddress().getUriPort();
+         int[] count = counts.get(host);
+         if (count == null)
+            counts.put(host, count = new int[2]);
+         count[entry.getValue().get() > 0 ? 1 : 0]++;
+      }
+      ImmutableMap.Builder<String, HostConnections> byHost = ImmutableMap.builder();
+      for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+         int idle = entry.getValue()[0];
+         int busy = entry.getValue()[1];
+         byHost.put(entry.getKey(), new HostConnections(idle + busy, idle, busy));
+      }
+      return byHost.build();
+   }
+
+   /**
+    * Returns the number of connections in the pool, or 0 before the client is created.
+    */
+   public int getPooledConnections() {
+      ConnectionPool pool = this.pool;
+      return pool != null ? pool.getConnectionCount() : 0;
+   }
+
+   /**
+    * Returns the number of multiplexed (HTTP/2 or SPDY) connections in the pool, or 0 before the client is created.
+    */
+   public int getMultiplexedConnections() {
+      ConnectionPool pool = this.pool;
+      return pool != null ? pool.getMultiplexedConnectionCount() : 0;
+   }
+
+   void monitor(ConnectionPool pool) {
+      this.pool = pool;
+   }
+
+   /**
+    * Returns the network interceptor counting the exchanges in flight on each connection.
+    */
+   Interceptor interceptor() {
+      return new Interceptor() {
+         @Override
+         public Response intercept(Chain chain) throws IOException {
+            Connection connection = chain.connection();
+            if (connection == null)
+               return chain.proceed(chain.request());
+            final AtomicInteger inFlight;
+            synchronized (exchanges) {
+               AtomicInteger existing = exchanges.get(connection);
+               if (existing == null)
+                  exchanges.put(connection, existing = new AtomicInteger());
+               inFlight = existing;
+            }
+            inFlight.incrementAndGet();
+            Runnable done = new Runnable() {
+               @Override
+               public void run() {
+                  inFlight.decrementAndGet();
+               }
+            };
+            Response response;
+            try {
+               response = chain.proceed(chain.request());
+            } catch (IOException e) {
+               done.run();
+               throw e;
+            } catch (RuntimeException e) {
+               done.run();
+               throw e;
+            }
+            return OnCompletionResponseBody.wrap(response, done);
+         }
+      };
+   }
+}
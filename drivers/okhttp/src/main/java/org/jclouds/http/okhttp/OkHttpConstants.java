@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.okhttp;
+
+/**
+ * Configuration properties of the OkHttp driver.
+ */
+public final class OkHttpConstants {
+
+   /**
+    * Long property.
+    * <p/>
+    * How long, in milliseconds, an idle connection is kept in the pool before it is evicted. Defaults to 5 minutes.
+    * The number of idle connections kept is {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_CONTEXT}.
+    */
+   public static final String PROPERTY_OKHTTP_KEEP_ALIVE = "jclouds.okhttp.keep-alive";
+
+   /**
+    * Integer property.
+    * <p/>
+    * Number of connections to the provider endpoint opened once the context is built, so that a burst of first
+    * requests does not pay for the TCP and TLS handshakes. The connections are opened with unauthenticated
+    * {@code HEAD} requests that bypass the request filters, so providers will most likely answer them with
+    * authentication errors, which are ignored. Defaults to 0.
+    */
+   public static final String PROPERTY_OKHTTP_WARMUP_CONNECTIONS = "jclouds.okhttp.warmup-connections";
+
+   private OkHttpConstants() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
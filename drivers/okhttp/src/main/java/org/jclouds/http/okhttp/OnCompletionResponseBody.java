@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.okhttp;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import com.google.common.annotations.Beta;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+
+/**
+ * A response body that runs a callback once it is exhausted, closed or fails, which is when OkHttp is done with the
+ * connection that carried it.
+ */
+@Beta
+public final class OnCompletionResponseBody extends ResponseBody {
+
+   /**
+    * Returns the response with its body wrapped. The callback runs immediately for responses without content,
+    * as OkHttp is done with their connection before callers open the body, if they ever do.
+    */
+   public static Response wrap(Response response, Runnable onCompletion) {
+      ResponseBody body = response.body();
+      if (body == null || "HEAD".equals(response.request().method()) || response.code() == 204
+            || response.code() == 304 || body.contentLength() == 0) {
+         onCompletion.run();
+         return response;
+      }
+      return response.newBuilder().body(new OnCompletionResponseBody(body, onCompletion)).build();
+   }
+
+   private final ResponseBody delegate;
+   private final Runnable onCompletion;
+   private final AtomicBoolean completed = new AtomicBoolean();
+   private final BufferedSource source;
+
+   private OnCompletionResponseBody(ResponseBody delegate, Runnable onCompletion) {
+      this.delegate = delegate;
+      this.onCompletion = onCompletion;
+      this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+         @Override
+         public long read(Buffer sink, long byteCount) throws IOException {
+            long read;
+            try {
+               read = super.read(sink, byteCount);
+            } catch (IOException e) {
+               complete();
+               throw e;
+            }
+            if (read == -1)
+               complete();
+            return read;
+         }
+
+         @Override
+         public void close() throws IOException {
+            try {
+               super.close();
+            } finally {
+               complete();
+            }
+         }
+      });
+   }
+
+   private void complete() {
+      if (completed.compareAndSet(false, true))
+         onCompletion.run();
+   }
+
+   @Override
+   public MediaType contentType() {
+      return delegate.contentType();
+   }
+
+   @Override
+   public long contentLength() {
+      return delegate.contentLength();
+   }
+
+   @Override
+   public BufferedSource source() {
+      return source;
+   }
+}
@@ -16,12 +16,18 @@
  */
 package org.jclouds.http.okhttp.config;
 
+import static org.jclouds.http.okhttp.OkHttpConstants.PROPERTY_OKHTTP_WARMUP_CONNECTIONS;
+
+import java.io.IOException;
+import java.net.URI;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Named;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 
+import org.jclouds.http.HttpAsyncCommandExecutorService;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
@@ -34,10 +40,13 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Scopes;
+import com.squareup.okhttp.Callback;
 import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
 
 /**
- * Configures the {@link OkHttpCommandExecutorService}.
+ * Configures the {@link OkHttpCommandExecutorService}, which also serves asynchronous commands.
  *
  * Note that this uses threads.
  */
@@ -47,8 +56,11 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
    @Override
    protected void configure() {
       install(new SSLModule());
-      bind(HttpCommandExecutorService.class).to(OkHttpCommandExecutorService.class).in(Scopes.SINGLETON);
+      bind(OkHttpCommandExecutorService.class).in(Scopes.SINGLETON);
+      bind(HttpCommandExecutorService.class).to(OkHttpCommandExecutorService.class);
+      bind(HttpAsyncCommandExecutorService.class).to(OkHttpCommandExecutorService.class);
       bind(OkHttpClient.class).toProvider(OkHttpClientProvider.class).in(Scopes.SINGLETON);
+      bind(ConnectionWarmUp.class).asEagerSingleton();
    }
 
    private static final class OkHttpClientProvider implements Provider<OkHttpClient> {
@@ -71,6 +83,7 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
          OkHttpClient client = clientSupplier.get();
          client.setConnectTimeout(utils.getConnectionTimeout(), TimeUnit.MILLISECONDS);
          client.setReadTimeout(utils.getSocketOpenTimeout(), TimeUnit.MILLISECONDS);
+         client.setWriteTimeout(utils.getSocketOpenTimeout(), TimeUnit.MILLISECONDS);
          // do not follow redirects since https redirects don't work properly
          // ex. Caused by: java.io.IOException: HTTPS hostname wrong: should be
          // <adriancole.s3int0.s3-external-3.amazonaws.com>
@@ -87,4 +100,47 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
       }
    }
 
+   /**
+    * Opens {@link org.jclouds.http.okhttp.OkHttpConstants#PROPERTY_OKHTTP_WARMUP_CONNECTIONS} connections to the
+    * provider endpoint once the context has been built, so that nothing is sent while the injector is created. The
+    * connections are opened with unauthenticated {@code HEAD} requests sent straight through the client, outside of the
+    * request pipeline: they are not signed, filtered nor retried. This is best effort: the responses, most likely
+    * authentication errors, and failures are ignored.
+    */
+   private static final class ConnectionWarmUp {
+      @Inject(optional = true)
+      @Named(PROPERTY_OKHTTP_WARMUP_CONNECTIONS)
+      private int warmupConnections = 0;
+
+      @Inject(optional = true)
+      @org.jclouds.location.Provider
+      private Supplier<URI> providerURI;
+
+      private final OkHttpClient client;
+
+      @Inject
+      ConnectionWarmUp(OkHttpClient client) {
+         this.client = client;
+      }
+
+      @PostConstruct
+      void warmUp() {
+         if (warmupConnections <= 0 || providerURI == null)
+            return;
+         Request head = new Request.Builder().url(providerURI.get().toString()).head().build();
+         for (int i = 0; i < warmupConnections; i++) {
+            client.newCall(head).enqueue(new Callback() {
+               @Override
+               public void onResponse(Response response) throws IOException {
+                  response.body().close();
+               }
+
+               @Override
+               public void onFailure(Request request, IOException e) {
+               }
+            });
+         }
+      }
+   }
+
 }
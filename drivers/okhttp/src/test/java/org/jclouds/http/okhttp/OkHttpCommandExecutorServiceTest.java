@@ -16,17 +16,22 @@
  */
 package org.jclouds.http.okhttp;
 
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.http.okhttp.OkHttpConstants.PROPERTY_OKHTTP_WARMUP_CONNECTIONS;
 import static org.jclouds.util.Closeables2.closeQuietly;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 
 import java.io.Closeable;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
+import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
@@ -34,6 +39,7 @@ import javax.ws.rs.Produces;
 import org.jclouds.http.BaseHttpCommandExecutorServiceIntegrationTest;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
+import org.jclouds.http.okhttp.OkHttpConnectionStats.HostConnections;
 import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.PATCH;
@@ -42,8 +48,10 @@ import org.testng.annotations.Test;
 
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.AbstractModule;
 import com.google.inject.Module;
+import com.google.inject.name.Names;
 import com.squareup.okhttp.ConnectionSpec;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.okhttp.TlsVersion;
@@ -80,6 +88,12 @@ public class OkHttpCommandExecutorServiceTest extends BaseHttpCommandExecutorSer
       String patchNothing(@PathParam("id") String id);
    }
 
+   private interface AsyncApi extends Closeable {
+      @GET
+      @Path("/objects/{id}")
+      ListenableFuture<String> get(@PathParam("id") String id);
+   }
+
    @Test
    public void testPatch() throws Exception {
       MockWebServer server = mockWebServer(new MockResponse().setBody("fooPATCH"));
@@ -124,6 +138,84 @@ public class OkHttpCommandExecutorServiceTest extends BaseHttpCommandExecutorSer
       }
    }
 
+   @Test
+   public void testAsyncGet() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("foo"));
+      AsyncApi api = api(AsyncApi.class, server.getUrl("/").toString());
+      try {
+         assertEquals(api.get("1").get(), "foo");
+         RecordedRequest request = server.takeRequest();
+         assertEquals(request.getMethod(), "GET");
+         assertEquals(request.getPath(), "/objects/1");
+      } finally {
+         closeQuietly(api);
+         server.shutdown();
+      }
+   }
+
+   @Test
+   public void testAsyncGetIsRetriedOnFailure() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(500),
+            new MockResponse().setBody("foo"));
+      AsyncApi api = api(AsyncApi.class, server.getUrl("/").toString());
+      try {
+         assertEquals(api.get("1").get(), "foo");
+         assertEquals(server.getRequestCount(), 2);
+      } finally {
+         closeQuietly(api);
+         server.shutdown();
+      }
+   }
+
+   @Test
+   public void testConnectionStatsTrackPooledConnections() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("foo"), new MockResponse().setBody("bar"));
+      final OkHttpConnectionStats stats = new OkHttpConnectionStats();
+      AsyncApi api = api(AsyncApi.class, server.getUrl("/").toString(), createConnectionModule(),
+            new AbstractModule() {
+               @Override
+               protected void configure() {
+                  bind(OkHttpConnectionStats.class).toInstance(stats);
+               }
+            });
+      try {
+         assertEquals(api.get("1").get(), "foo");
+         assertEquals(api.get("2").get(), "bar");
+         HostConnections connections = getOnlyElement(stats.getConnectionsByHost().values());
+         assertEquals(connections.getLive(), 1);
+         assertEquals(connections.getIdle(), 1);
+         assertEquals(connections.getBusy(), 0);
+         assertEquals(stats.getPooledConnections(), 1);
+      } finally {
+         closeQuietly(api);
+         server.shutdown();
+      }
+   }
+
+   @Test
+   public void testWarmUpOpensConnectionsOnceTheContextIsBuilt() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(401),
+            new MockResponse().setResponseCode(401));
+      AsyncApi api = api(AsyncApi.class, server.getUrl("/").toString(), createConnectionModule(),
+            new AbstractModule() {
+               @Override
+               protected void configure() {
+                  bindConstant().annotatedWith(Names.named(PROPERTY_OKHTTP_WARMUP_CONNECTIONS)).to(2);
+               }
+            });
+      try {
+         for (int i = 0; i < 2; i++) {
+            RecordedRequest request = server.takeRequest(10, TimeUnit.SECONDS);
+            assertNotNull(request);
+            assertEquals(request.getMethod(), "HEAD");
+            assertNull(request.getHeader("Authorization"));
+         }
+      } finally {
+         closeQuietly(api);
+         server.shutdown();
+      }
+   }
+
    @Test
    public void testPatchRedirect() throws Exception {
       MockWebServer redirectTarget = mockWebServer(new MockResponse().setBody("fooPATCHREDIRECT"));
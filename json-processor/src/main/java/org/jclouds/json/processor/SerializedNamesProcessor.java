@@ -0,0 +1,443 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.tools.Diagnostic.Kind;
+
+import com.google.auto.service.AutoService;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Generates a gson type adapter for each type with a {@code org.jclouds.json.SerializedNames} static factory method,
+ * typically an {@code AutoValue} class. The adapter reads each json field into a local variable, primitives without
+ * boxing, and calls the factory method directly, following the rules of
+ * {@code org.jclouds.json.internal.DeserializationConstructorAndReflectiveTypeAdapterFactory}. Serialization is
+ * delegated to the reflective adapter. At runtime, {@code org.jclouds.json.internal.GeneratedJsonAdapterFactory}
+ * picks the adapters up.
+ * <p/>
+ * The processor is packaged apart from jclouds-core, so that it only runs in modules which depend on it, typically
+ * with {@code provided} scope, and pass the {@code -Ajclouds.json.adapters=true} compiler argument. Types that are
+ * generic, private, or whose factory is private are left to the reflective adapter.
+ */
+@AutoService(Processor.class)
+@SupportedAnnotationTypes(SerializedNamesProcessor.SERIALIZED_NAMES)
+@SupportedOptions(SerializedNamesProcessor.ENABLED_OPTION)
+public final class SerializedNamesProcessor extends AbstractProcessor {
+
+   public static final String ENABLED_OPTION = "jclouds.json.adapters";
+
+   static final String SERIALIZED_NAMES = "org.jclouds.json.SerializedNames";
+
+   private static final String GUAVA_OPTIONAL = "com.google.common.base.Optional";
+
+   private static final List<String> GENERATED_ANNOTATIONS = ImmutableList.of("javax.annotation.Generated",
+         "javax.annotation.processing.Generated");
+
+   private final Set<String> generated = Sets.newHashSet();
+
+   @Override
+   public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+   }
+
+   @Override
+   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (!Boolean.parseBoolean(processingEnv.getOptions().get(ENABLED_OPTION)))
+         return false;
+      for (TypeElement annotation : annotations) {
+         for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() == ElementKind.METHOD)
+               writeAdapter((ExecutableElement) element);
+         }
+      }
+      return false;
+   }
+
+   private void writeAdapter(ExecutableElement factory) {
+      TypeElement type = (TypeElement) factory.getEnclosingElement();
+      String skipReason = skipReason(type, factory);
+      if (skipReason != null) {
+         processingEnv.getMessager().printMessage(Kind.NOTE,
+               "no json adapter generated for " + type.getQualifiedName() + ": " + skipReason, factory);
+         return;
+      }
+      String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+      String adapterName = adapterClassName(packageName,
+            processingEnv.getElementUtils().getBinaryName(type).toString());
+      if (!generated.add(adapterName))
+         return;
+      try {
+         Writer writer = processingEnv.getFiler().createSourceFile(adapterName, type).openWriter();
+         try {
+            writer.write(generate(packageName, adapterName.substring(adapterName.lastIndexOf('.') + 1),
+                  generatedAnnotation(), type, factory));
+         } finally {
+            writer.close();
+         }
+      } catch (IOException e) {
+         processingEnv.getMessager().printMessage(Kind.ERROR,
+               "could not write json adapter " + adapterName + ": " + e.getMessage(), factory);
+      }
+   }
+
+   /**
+    * Returns the name of the adapter generated for the class with the given package and binary name. This must match
+    * {@code GeneratedJsonAdapterFactory.adapterClassName}, which looks the adapter up at runtime.
+    */
+   static String adapterClassName(String packageName, String binaryName) {
+      String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+      String adapterName = "JsonAdapter_" + simpleBinaryName.replace('$', '_');
+      return packageName.isEmpty() ? adapterName : packageName + "." + adapterName;
+   }
+
+   /**
+    * Returns the values of the {@code @SerializedNames} annotation of the factory method.
+    */
+   private static String[] serializedNames(ExecutableElement factory) {
+      for (AnnotationMirror annotation : factory.getAnnotationMirrors()) {
+         if (!((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+               .contentEquals(SERIALIZED_NAMES))
+            continue;
+         for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : annotation.getElementValues()
+               .entrySet()) {
+            if (!value.getKey().getSimpleName().contentEquals("value"))
+               continue;
+            @SuppressWarnings("unchecked")
+            List<? extends AnnotationValue> values = (List<? extends AnnotationValue>) value.getValue().getValue();
+            String[] names = new String[values.size()];
+            for (int i = 0; i < names.length; i++)
+               names[i] = (String) values.get(i).getValue();
+            return names;
+         }
+      }
+      return new String[0];
+   }
+
+   /**
+    * Returns the {@code @Generated} annotation available to the code being compiled, if any.
+    */
+   private String generatedAnnotation() {
+      for (String name : GENERATED_ANNOTATIONS) {
+         if (processingEnv.getElementUtils().getTypeElement(name) != null)
+            return name;
+      }
+      return null;
+   }
+
+   private String skipReason(TypeElement type, ExecutableElement factory) {
+      if (!factory.getModifiers().contains(Modifier.STATIC) || factory.getModifiers().contains(Modifier.PRIVATE))
+         return "the factory method must be static and not private";
+      if (!factory.getTypeParameters().isEmpty() || !type.getTypeParameters().isEmpty())
+         return "generic types are not supported";
+      if (!processingEnv.getTypeUtils().isSameType(factory.getReturnType(), type.asType()))
+         return "the factory method must return " + type.getSimpleName();
+      for (Element enclosing = type; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+         TypeElement enclosingType = (TypeElement) enclosing;
+         if (enclosingType.getModifiers().contains(Modifier.PRIVATE))
+            return "private types are not supported";
+         if (enclosingType.getNestingKind() != NestingKind.TOP_LEVEL
+               && (enclosingType.getNestingKind() != NestingKind.MEMBER
+                     || !enclosingType.getModifiers().contains(Modifier.STATIC) && enclosingType.getKind()
+                           == ElementKind.CLASS))
+            return "inner classes are not supported";
+      }
+      String[] names = serializedNames(factory);
+      if (names.length != factory.getParameters().size())
+         return "@SerializedNames must name each parameter";
+      if (ImmutableSet.copyOf(names).size() != names.length)
+         return "@SerializedNames has duplicate names";
+      for (VariableElement parameter : factory.getParameters()) {
+         if (!isSupported(parameter.asType()))
+            return "parameter " + parameter.getSimpleName() + " has an unsupported type";
+      }
+      return null;
+   }
+
+   private static boolean isSupported(TypeMirror type) {
+      switch (type.getKind()) {
+         case DECLARED:
+            for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+               if (!isSupported(argument))
+                  return false;
+            }
+            return true;
+         case ARRAY:
+            return isSupported(((ArrayType) type).getComponentType());
+         case WILDCARD:
+            WildcardType wildcard = (WildcardType) type;
+            return (wildcard.getExtendsBound() == null || isSupported(wildcard.getExtendsBound()))
+                  && (wildcard.getSuperBound() == null || isSupported(wildcard.getSuperBound()));
+         default:
+            return type.getKind().isPrimitive();
+      }
+   }
+
+   /**
+    * Returns the source name of the type, without type annotations.
+    */
+   private static String typeName(TypeMirror type) {
+      switch (type.getKind()) {
+         case DECLARED:
+            DeclaredType declared = (DeclaredType) type;
+            String name = ((TypeElement) declared.asElement()).getQualifiedName().toString();
+            if (declared.getTypeArguments().isEmpty())
+               return name;
+            List<String> arguments = Lists.newArrayList();
+            for (TypeMirror argument : declared.getTypeArguments())
+               arguments.add(typeName(argument));
+            return name + "<" + Joiner.on(", ").join(arguments) + ">";
+         case ARRAY:
+            return typeName(((ArrayType) type).getComponentType()) + "[]";
+         case WILDCARD:
+            WildcardType wildcard = (WildcardType) type;
+            if (wildcard.getExtendsBound() != null)
+               return "? extends " + typeName(wildcard.getExtendsBound());
+            if (wildcard.getSuperBound() != null)
+               return "? super " + typeName(wildcard.getSuperBound());
+            return "?";
+         default:
+            return type.getKind().name().toLowerCase();
+      }
+   }
+
+   private static String generate(String packageName, String adapterSimpleName, String generatedAnnotation,
+         TypeElement type, ExecutableElement factory) {
+      String typeName = type.getQualifiedName().toString();
+      String[] names = serializedNames(factory);
+      List<? extends VariableElement> parameters = factory.getParameters();
+
+      StringBuilder out = new StringBuilder();
+      if (!packageName.isEmpty())
+         out.append("package ").append(packageName).append(";\n\n");
+      if (generatedAnnotation != null)
+         out.append("@").append(generatedAnnotation).append("(\"").append(SerializedNamesProcessor.class.getName())
+               .append("\")\n");
+      out.append("public final class ").append(adapterSimpleName).append(" extends com.google.gson.TypeAdapter<")
+            .append(typeName).append("> {\n");
+      out.append("   private final com.google.gson.TypeAdapter<").append(typeName).append("> serializer;\n");
+      for (int i = 0; i < parameters.size(); i++) {
+         TypeMirror parameterType = parameters.get(i).asType();
+         if (!parameterType.getKind().isPrimitive() || parameterType.getKind() == TypeKind.CHAR)
+            out.append("   private final com.google.gson.TypeAdapter<").append(boxedName(parameterType))
+                  .append("> adapter").append(i).append(";\n");
+      }
+      out.append("\n   public ").append(adapterSimpleName)
+            .append("(com.google.gson.Gson gson, com.google.gson.TypeAdapter<").append(typeName)
+            .append("> serializer) {\n");
+      out.append("      this.serializer = serializer;\n");
+      for (int i = 0; i < parameters.size(); i++) {
+         TypeMirror parameterType = parameters.get(i).asType();
+         if (!parameterType.getKind().isPrimitive() || parameterType.getKind() == TypeKind.CHAR) {
+            String boxed = boxedName(parameterType);
+            out.append("      this.adapter").append(i).append(" = gson.getAdapter(");
+            if (boxed.indexOf('<') == -1)
+               out.append(boxed).append(".class);\n");
+            else
+               out.append("new com.google.gson.reflect.TypeToken<").append(boxed).append(">() {\n      });\n");
+         }
+      }
+      out.append("   }\n\n");
+
+      out.append("   @Override\n");
+      out.append("   public ").append(typeName)
+            .append(" read(com.google.gson.stream.JsonReader in) throws java.io.IOException {\n");
+      out.append("      if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n");
+      out.append("         in.nextNull();\n");
+      out.append("         return null;\n");
+      out.append("      }\n");
+      for (int i = 0; i < parameters.size(); i++) {
+         TypeMirror parameterType = parameters.get(i).asType();
+         out.append("      ").append(typeName(parameterType)).append(" p").append(i).append(" = ")
+               .append(defaultValue(parameterType)).append(";\n");
+      }
+      out.append("      boolean empty = true;\n");
+      out.append("      try {\n");
+      out.append("         in.beginObject();\n");
+      out.append("         while (in.hasNext()) {\n");
+      out.append("            empty = false;\n");
+      out.append("            java.lang.String name = in.nextName();\n");
+      out.append("            if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n");
+      out.append("               in.skipValue();\n");
+      out.append("               continue;\n");
+      out.append("            }\n");
+      out.append("            switch (name) {\n");
+      for (int i = 0; i < parameters.size(); i++) {
+         TypeMirror parameterType = parameters.get(i).asType();
+         out.append("               case ").append(stringLiteral(names[i])).append(": {\n");
+         switch (parameterType.getKind()) {
+            case BOOLEAN:
+               out.append("                  p").append(i)
+                     .append(" = in.peek() == com.google.gson.stream.JsonToken.STRING")
+                     .append(" ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();\n");
+               break;
+            case INT:
+               out.append("                  p").append(i).append(" = in.nextInt();\n");
+               break;
+            case BYTE:
+            case SHORT:
+               out.append("                  p").append(i).append(" = (").append(typeName(parameterType))
+                     .append(") in.nextInt();\n");
+               break;
+            case LONG:
+               out.append("                  p").append(i).append(" = in.nextLong();\n");
+               break;
+            case DOUBLE:
+               out.append("                  p").append(i).append(" = in.nextDouble();\n");
+               break;
+            case FLOAT:
+               out.append("                  p").append(i).append(" = (float) in.nextDouble();\n");
+               break;
+            default:
+               out.append("                  ").append(boxedName(parameterType)).append(" value = adapter").append(i)
+                     .append(".read(in);\n");
+               out.append("                  if (value != null)\n");
+               out.append("                     p").append(i).append(" = value;\n");
+         }
+         out.append("                  break;\n");
+         out.append("               }\n");
+      }
+      out.append("               default:\n");
+      out.append("                  in.skipValue();\n");
+      out.append("            }\n");
+      out.append("         }\n");
+      out.append("      } catch (IllegalStateException | NumberFormatException e) {\n");
+      out.append("         throw new com.google.gson.JsonSyntaxException(e);\n");
+      out.append("      }\n");
+      for (int i = 0; i < parameters.size(); i++) {
+         TypeMirror parameterType = parameters.get(i).asType();
+         if (isGuavaOptional(parameterType))
+            out.append("      if (p").append(i).append(" == null)\n         p").append(i)
+                  .append(" = com.google.common.base.Optional.absent();\n");
+      }
+      out.append("      in.endObject();\n");
+      out.append("      try {\n");
+      List<String> arguments = Lists.newArrayList();
+      for (int i = 0; i < parameters.size(); i++)
+         arguments.add("p" + i);
+      out.append("         return ").append(typeName).append(".").append(factory.getSimpleName()).append("(")
+            .append(Joiner.on(", ").join(arguments)).append(");\n");
+      out.append("      } catch (NullPointerException e) {\n");
+      if (!parameters.isEmpty()) {
+         out.append("         // if {} was found and the factory threw NPE, we treat the value as null\n");
+         out.append("         if (empty)\n");
+         out.append("            return null;\n");
+      }
+      out.append("         throw e;\n");
+      out.append("      }\n");
+      out.append("   }\n\n");
+
+      out.append("   @Override\n");
+      out.append("   public void write(com.google.gson.stream.JsonWriter out, ").append(typeName)
+            .append(" value) throws java.io.IOException {\n");
+      out.append("      serializer.write(out, value);\n");
+      out.append("   }\n");
+      out.append("}\n");
+      return out.toString();
+   }
+
+   private static boolean isGuavaOptional(TypeMirror type) {
+      return type.getKind() == TypeKind.DECLARED
+            && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(GUAVA_OPTIONAL);
+   }
+
+   private static String boxedName(TypeMirror type) {
+      switch (type.getKind()) {
+         case BOOLEAN:
+            return "java.lang.Boolean";
+         case BYTE:
+            return "java.lang.Byte";
+         case SHORT:
+            return "java.lang.Short";
+         case INT:
+            return "java.lang.Integer";
+         case LONG:
+            return "java.lang.Long";
+         case CHAR:
+            return "java.lang.Character";
+         case FLOAT:
+            return "java.lang.Float";
+         case DOUBLE:
+            return "java.lang.Double";
+         default:
+            return typeName(type);
+      }
+   }
+
+   private static String defaultValue(TypeMirror type) {
+      switch (type.getKind()) {
+         case BOOLEAN:
+            return "false";
+         case CHAR:
+            return "'\\0'";
+         case LONG:
+            return "0L";
+         case FLOAT:
+            return "0F";
+         case DOUBLE:
+            return "0D";
+         case BYTE:
+         case SHORT:
+         case INT:
+            return "0";
+         default:
+            return "null";
+      }
+   }
+
+   private static String stringLiteral(String value) {
+      StringBuilder literal = new StringBuilder("\"");
+      for (char c : value.toCharArray()) {
+         if (c == '"' || c == '\\')
+            literal.append('\\').append(c);
+         else if (c < 0x20 || c > 0x7e)
+            literal.append(String.format("\\u%04x", (int) c));
+         else
+            literal.append(c);
+      }
+      return literal.append('"').toString();
+   }
+}
@@ -21,7 +21,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.Date;
 
 import org.jclouds.date.DateService;
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.FixedLayoutDateService;
 import org.jclouds.ec2.options.internal.BaseEC2RequestOptions;
 
 /**
@@ -43,7 +43,7 @@ import org.jclouds.ec2.options.internal.BaseEC2RequestOptions;
  */
 public class DescribeSpotPriceHistoryOptions extends BaseEC2RequestOptions {
    public static final DescribeSpotPriceHistoryOptions NONE = new DescribeSpotPriceHistoryOptions();
-   private static final DateService service = new SimpleDateFormatDateService();
+   private static final DateService service = new FixedLayoutDateService();
 
    /**
     * Start date and time of the Spot Instance price history data.
@@ -22,7 +22,7 @@ import java.util.Date;
 
 import org.jclouds.aws.ec2.domain.SpotInstanceRequest;
 import org.jclouds.date.DateService;
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.FixedLayoutDateService;
 import org.jclouds.ec2.options.internal.BaseEC2RequestOptions;
 
 /**
@@ -44,7 +44,7 @@ import org.jclouds.ec2.options.internal.BaseEC2RequestOptions;
  */
 public class RequestSpotInstancesOptions extends BaseEC2RequestOptions {
    public static final RequestSpotInstancesOptions NONE = new RequestSpotInstancesOptions();
-   private static final DateService service = new SimpleDateFormatDateService();
+   private static final DateService service = new FixedLayoutDateService();
 
    /**
     * Start date of the request. If this is a one-time request, the request becomes active at this
@@ -61,12 +61,14 @@ import org.jclouds.googlecloudstorage.domain.DomainResourceReferences;
 import org.jclouds.googlecloudstorage.domain.GoogleCloudStorageObject;
 import org.jclouds.googlecloudstorage.domain.ListPageWithPrefixes;
 import org.jclouds.googlecloudstorage.domain.ObjectAccessControls;
+import org.jclouds.googlecloudstorage.domain.RewriteResponse;
 import org.jclouds.googlecloudstorage.domain.templates.BucketTemplate;
 import org.jclouds.googlecloudstorage.domain.templates.ComposeObjectTemplate;
 import org.jclouds.googlecloudstorage.domain.templates.ObjectAccessControlsTemplate;
 import org.jclouds.googlecloudstorage.domain.templates.ObjectTemplate;
 import org.jclouds.googlecloudstorage.options.InsertObjectOptions;
 import org.jclouds.googlecloudstorage.options.ListObjectOptions;
+import org.jclouds.googlecloudstorage.options.RewriteObjectOptions;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
@@ -319,8 +321,16 @@ public final class GoogleCloudStorageBlobStore extends BaseBlobStore {
       }
 
       if (options.contentMetadata() == null && options.userMetadata() == null) {
-         return api.getObjectApi().copyObject(toContainer, Strings2.urlEncode(toName), fromContainer,
-               Strings2.urlEncode(fromName)).etag();
+         // unlike copy, rewrite copies objects of any size between any locations and storage classes
+         String encodedToName = Strings2.urlEncode(toName);
+         String encodedFromName = Strings2.urlEncode(fromName);
+         RewriteResponse response = api.getObjectApi().rewriteObjects(toContainer, encodedToName, fromContainer,
+               encodedFromName);
+         while (!response.done()) {
+            response = api.getObjectApi().rewriteObjects(toContainer, encodedToName, fromContainer, encodedFromName,
+                  new RewriteObjectOptions().rewriteToken(response.rewriteToken()));
+         }
+         return response.resource().etag();
       }
 
       ObjectTemplate template = new ObjectTemplate();